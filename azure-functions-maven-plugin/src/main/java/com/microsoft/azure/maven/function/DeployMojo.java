@@ -30,6 +30,7 @@ import com.microsoft.azure.toolkit.lib.common.model.Region;
 import com.microsoft.azure.toolkit.lib.common.operation.AzureOperation;
 import com.microsoft.azure.toolkit.lib.common.utils.Utils;
 import org.apache.commons.io.FilenameUtils;
+import org.apache.commons.lang3.BooleanUtils;
 import org.apache.commons.lang3.ObjectUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.maven.artifact.versioning.ComparableVersion;
@@ -92,6 +93,14 @@ public class DeployMojo extends AbstractFunctionMojo {
     @Parameter(property = "deploymentType")
     protected String deploymentType;
 
+    /**
+     * Boolean flag to skip uploading the artifact if it's unchanged since last deployment, for FTP deployment, only changed files will be uploaded.
+     * @since 1.24.0
+     */
+    @JsonProperty
+    @Parameter(property = "functions.skipUnchangedArtifacts", defaultValue = "false")
+    protected Boolean skipUnchangedArtifacts;
+
     @Override
     @AzureOperation("user/functionapp.deploy_app")
     protected void doExecute() throws Throwable {
@@ -210,7 +219,9 @@ public class DeployMojo extends AbstractFunctionMojo {
     private void deployArtifact(final FunctionAppBase<?, ?, ?> target) {
         final File file = new File(getDeploymentStagingDirectoryPath());
         final FunctionDeployType type = StringUtils.isEmpty(deploymentType) ? null : FunctionDeployType.fromString(deploymentType);
-        new DeployFunctionAppTask(target, file, type).doExecute();
+        final DeployFunctionAppTask task = new DeployFunctionAppTask(target, file, type);
+        task.setSkipUnchanged(BooleanUtils.isTrue(skipUnchangedArtifacts));
+        task.doExecute();
     }
 
     protected void validateArtifactCompileVersion() throws AzureExecutionException {
@@ -14,6 +14,8 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.ObjectWriter;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.microsoft.azure.maven.model.DeploymentResource;
+import com.microsoft.azure.toolkit.lib.appservice.function.core.FunctionScanIndex;
+import com.microsoft.azure.toolkit.lib.appservice.function.core.JarStager;
 import com.microsoft.azure.toolkit.lib.common.exception.AzureExecutionException;
 import com.microsoft.azure.toolkit.lib.common.logging.Log;
 import com.microsoft.azure.toolkit.lib.common.operation.AzureOperation;
@@ -38,7 +40,6 @@ import org.apache.maven.plugins.annotations.Mojo;
 import org.apache.maven.plugins.annotations.Parameter;
 import org.apache.maven.plugins.annotations.ResolutionScope;
 
-import javax.annotation.Nonnull;
 import java.io.File;
 import java.io.IOException;
 import java.lang.reflect.Method;
@@ -52,7 +53,6 @@ import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -173,16 +173,20 @@ public class PackageMojo extends AbstractFunctionMojo {
             Log.debug("ClassPath to resolve: " + getTargetClassUrl());
             final List<URL> dependencyWithTargetClass = getDependencyArtifactUrls();
             dependencyWithTargetClass.add(getTargetClassUrl());
-            functions = handler.findFunctions(dependencyWithTargetClass);
+            functions = handler.findFunctions(dependencyWithTargetClass, getScanIndexFile());
         } catch (NoClassDefFoundError e) {
             // fallback to reflect through artifact url, for shaded project(fat jar)
             Log.debug("ClassPath to resolve: " + getArtifactUrl());
-            functions = handler.findFunctions(Arrays.asList(getArtifactUrl()));
+            functions = handler.findFunctions(Arrays.asList(getArtifactUrl()), getScanIndexFile());
         }
         Log.info(functions.size() + FOUND_FUNCTIONS);
         return functions;
     }
 
+    protected File getScanIndexFile() {
+        return new File(buildDirectory, FunctionScanIndex.DEFAULT_INDEX_FILE);
+    }
+
     protected URL getArtifactUrl() throws MalformedURLException {
         return this.getProject().getArtifact().getFile().toURI().toURL();
     }
@@ -307,9 +311,11 @@ public class PackageMojo extends AbstractFunctionMojo {
 
     protected void writeObjectToFile(final ObjectWriter objectWriter, final Object object, final File targetFile)
             throws IOException {
-        targetFile.getParentFile().mkdirs();
-        targetFile.createNewFile();
-        objectWriter.writeValue(targetFile, object);
+        final byte[] content = objectWriter.writeValueAsBytes(object);
+        if (targetFile.isFile() && Arrays.equals(content, FileUtils.readFileToByteArray(targetFile))) {
+            return; // keep the file (and its timestamp) untouched if nothing changes
+        }
+        FileUtils.writeByteArrayToFile(targetFile, content);
     }
 
     protected ObjectWriter getObjectWriter() {
@@ -330,20 +336,18 @@ public class PackageMojo extends AbstractFunctionMojo {
         Log.info("");
         Log.info(COPY_JARS + stagingDirectory);
         final File libFolder = Paths.get(stagingDirectory, "lib").toFile();
-        if (libFolder.exists()) {
-            FileUtils.cleanDirectory(libFolder);
-        }
         final Set<Artifact> artifacts = project.getArtifacts();
         final String libraryToExclude = artifacts.stream()
                 .filter(artifact -> StringUtils.equalsAnyIgnoreCase(artifact.getArtifactId(), AZURE_FUNCTIONS_JAVA_CORE_LIBRARY))
                 .map(Artifact::getArtifactId).findFirst().orElse(AZURE_FUNCTIONS_JAVA_LIBRARY);
-        for (final Artifact artifact : artifacts) {
-            if (!StringUtils.equalsIgnoreCase(artifact.getArtifactId(), libraryToExclude)) {
-                copyFileToDirectory(artifact.getFile(), libFolder);
-            }
-        }
-        copyFileToDirectory(getArtifactFile(), new File(stagingDirectory));
-        Log.info(COPY_SUCCESS);
+        final List<File> dependencies = artifacts.stream()
+                .filter(artifact -> !StringUtils.equalsIgnoreCase(artifact.getArtifactId(), libraryToExclude))
+                .map(Artifact::getFile)
+                .collect(Collectors.toList());
+        final JarStager stager = new JarStager();
+        final JarStager.Result result = stager.sync(dependencies, libFolder)
+                .merge(stager.stage(getArtifactFile(), new File(stagingDirectory)));
+        Log.info(COPY_SUCCESS + " " + result);
     }
 
     @Override
@@ -435,10 +439,4 @@ public class PackageMojo extends AbstractFunctionMojo {
                 .collect(Collectors.toList());
         getTelemetryProxy().addDefaultProperty(TRIGGER_TYPE, StringUtils.join(bindingTypeSet, ","));
     }
-
-    private static void copyFileToDirectory(@Nonnull final File srcFile, @Nonnull final File destFile) throws IOException {
-        if (!Objects.equals(srcFile.getParentFile(), destFile)) {
-            FileUtils.copyFileToDirectory(srcFile, destFile);
-        }
-    }
 }
@@ -9,6 +9,7 @@ import com.azure.core.http.policy.HttpLogDetailLevel;
 import com.azure.core.management.AzureEnvironment;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.microsoft.applicationinsights.TelemetryConfiguration;
 import com.microsoft.applicationinsights.internal.channel.common.ApacheSenderFactory;
 import com.microsoft.azure.maven.exception.MavenDecryptException;
 import com.microsoft.azure.maven.model.MavenAuthConfiguration;
@@ -78,6 +79,7 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.Properties;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 /**
@@ -108,6 +110,7 @@ public abstract class AbstractAzureMojo extends AbstractMojo {
 
     private static final String AZURE_ENVIRONMENT = "azureEnvironment";
     private static final String PROXY = "proxy";
+    private static final long TELEMETRY_FLUSH_TIMEOUT = 2 * 1000;
 
     //region Properties
 
@@ -267,9 +270,12 @@ public abstract class AbstractAzureMojo extends AbstractMojo {
     @JsonIgnore
     private final String sessionId = UUID.randomUUID().toString();
 
-    @Getter
+    /**
+     * cached in the configuration file, see {@link InstallationIdUtils#getHashMac(java.nio.file.Path, String)}
+     */
+    @Getter(lazy = true)
     @JsonIgnore
-    private final String installationId = Optional.ofNullable(InstallationIdUtils.getHashMac()).orElse("");
+    private final String installationId = Optional.ofNullable(InstallationIdUtils.getHashMac(Paths.get(CONFIGURATION_PATH), INSTALLATION_ID_KEY)).orElse("");
 
 
     //region Entry Point
@@ -315,12 +321,14 @@ public abstract class AbstractAzureMojo extends AbstractMojo {
             // Refer here for detail codes: https://github.com/Microsoft/ApplicationInsights-Java/blob/master/core/src
             // /main/java/com/microsoft/applicationinsights/internal/channel/common/ApacheSender43.java#L103
             Optional.ofNullable(TextIOUtils.getTextTerminal()).ifPresent(TextTerminal::dispose);
-            try {
-                // Sleep to wait ai sdk flush telemetries
-                Thread.sleep(2 * 1000);
-            } catch (InterruptedException e) {
-                // swallow this exception
-            }
+            // wait (at most 2 seconds in total) until the queued telemetries are flushed to ai sdk, and then until its
+            // channel, which transmits them asynchronously, is stopped, otherwise the telemetries in transmission are
+            // dropped when closing the sender.
+            Optional.ofNullable(telemetryProxy).ifPresent(t -> {
+                final long deadline = System.currentTimeMillis() + TELEMETRY_FLUSH_TIMEOUT;
+                t.flush(TELEMETRY_FLUSH_TIMEOUT, TimeUnit.MILLISECONDS);
+                TelemetryConfiguration.getActive().getChannel().stop(Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+            });
             ProxyManager.getInstance().resetProxy();
             ApacheSenderFactory.INSTANCE.create().close();
         }
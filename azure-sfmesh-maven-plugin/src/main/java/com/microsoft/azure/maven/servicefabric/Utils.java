@@ -7,10 +7,10 @@ package com.microsoft.azure.maven.servicefabric;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+import com.microsoft.azure.toolkit.lib.common.utils.ProcessEngine;
 import org.apache.maven.plugin.MojoFailureException;
 import org.apache.maven.plugin.logging.Log;
 import org.apache.maven.project.MavenProject;
-import org.codehaus.plexus.util.IOUtil;
 import org.yaml.snakeyaml.DumperOptions;
 import org.yaml.snakeyaml.Yaml;
 
@@ -19,6 +19,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.StringWriter;
 import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.Map;
@@ -71,18 +72,17 @@ public class Utils {
     public static String executeCommand(Log logger, String command) throws MojoFailureException{
         try {
             logger.info(String.format("Executing command %s", command));
-            final Process p;
-            if (Utils.isWindows()){
-                p = Runtime.getRuntime().exec("cmd.exe /C" + command);
-            } else {
-                p = Runtime.getRuntime().exec(command);
-            }
-            p.waitFor();
-            final int exitCode = p.exitValue();
-            final String stderr = IOUtil.toString(p.getErrorStream(), "UTF-8");
-            final String stdout = IOUtil.toString(p.getInputStream(), "UTF-8");
+            final ProcessEngine.Result result = ProcessEngine.builder()
+                .command(Utils.isWindows() ? "cmd.exe" : "sh")
+                .command(Utils.isWindows() ? "/C" : "-c")
+                .command(command)
+                .charset(StandardCharsets.UTF_8)
+                .build().execute();
+            final int exitCode = result.getExitCode();
+            final String stderr = result.getStderr();
+            final String stdout = result.getStdout();
             logger.debug(String.format("STDOUT: %s", stdout));
-            if (stderr != null && stderr.length() > 0){
+            if (stderr.length() > 0){
                 if (exitCode != 0){
                     logger.error(String.format("Process exited with exit code %d", exitCode));
                     logger.error(String.format("If STDERR: %s", stderr));
@@ -97,10 +97,6 @@ public class Utils {
             logger.error(e);
             throw new MojoFailureException(String.format("Error while " +
                 "running the %s command", command));
-        } catch (InterruptedException e) {
-            logger.error(e);
-            throw new MojoFailureException(String.format("Interrupted while " +
-                "running command %s", command));
         }
     }
 
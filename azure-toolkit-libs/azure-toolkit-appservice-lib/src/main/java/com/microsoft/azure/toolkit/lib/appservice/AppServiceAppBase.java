@@ -13,6 +13,7 @@ import com.azure.resourcemanager.appservice.models.WebAppBase;
 import com.azure.resourcemanager.appservice.models.WebSiteBase;
 import com.azure.resourcemanager.resources.fluentcore.arm.ResourceId;
 import com.microsoft.azure.toolkit.lib.Azure;
+import com.microsoft.azure.toolkit.lib.appservice.deploy.DeployManifest;
 import com.microsoft.azure.toolkit.lib.appservice.file.AppServiceKuduClient;
 import com.microsoft.azure.toolkit.lib.appservice.file.IFileClient;
 import com.microsoft.azure.toolkit.lib.appservice.file.IProcessClient;
@@ -27,6 +28,7 @@ import com.microsoft.azure.toolkit.lib.appservice.plan.AppServicePlan;
 import com.microsoft.azure.toolkit.lib.appservice.plan.AppServicePlanModule;
 import com.microsoft.azure.toolkit.lib.appservice.utils.AppServiceUtils;
 import com.microsoft.azure.toolkit.lib.appservice.utils.Utils;
+import com.microsoft.azure.toolkit.lib.common.logging.LogStreamHub;
 import com.microsoft.azure.toolkit.lib.common.model.AbstractAzResource;
 import com.microsoft.azure.toolkit.lib.common.model.AbstractAzResourceModule;
 import com.microsoft.azure.toolkit.lib.common.model.AzResource;
@@ -40,8 +42,10 @@ import reactor.core.publisher.Flux;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import java.io.File;
 import java.io.InputStream;
 import java.nio.ByteBuffer;
+import java.nio.file.Path;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
@@ -55,6 +59,7 @@ public abstract class AppServiceAppBase<
     F extends WebAppBase>
     extends AbstractAzResource<T, P, WebSiteBase> implements Startable, Deletable {
     protected AppServiceKuduClient kuduManager;
+    private DeployManifest deployManifest;
 
     protected AppServiceAppBase(@Nonnull String name, @Nonnull String resourceGroupName, @Nonnull AbstractAzResourceModule<T, P, WebSiteBase> module) {
         super(name, resourceGroupName, module);
@@ -135,9 +140,22 @@ public abstract class AppServiceAppBase<
         return Optional.ofNullable(this.getFullRemote()).map(WebAppBase::diagnosticLogsConfig).map(AppServiceUtils::fromWebAppDiagnosticLogs).orElse(null);
     }
 
+    /**
+     * @return lines (without line terminators) of all logs of this app
+     */
     @Nonnull
     public Flux<String> streamAllLogsAsync() {
-        return Optional.ofNullable(this.getFullRemote()).map(WebAppBase::streamAllLogsAsync).orElseGet(Flux::empty);
+        return this.streamAllLogLines().map(LogStreamHub.LogLine::getLine);
+    }
+
+    /**
+     * stream all logs of this app, which is shared with other subscribers of the same app, refer {@link LogStreamHub}
+     */
+    @Nonnull
+    public Flux<LogStreamHub.LogLine> streamAllLogLines() {
+        // logs streamed by sdk are split into lines already
+        return LogStreamHub.getInstance().subscribeLines(this.getId(), () -> Optional.ofNullable(this.getFullRemote())
+            .map(WebAppBase::streamAllLogsAsync).orElseGet(Flux::empty), LogStreamHub.DEFAULT_REPLAY_SIZE);
     }
 
     @Nonnull
@@ -145,11 +163,24 @@ public abstract class AppServiceAppBase<
         return Optional.ofNullable(getFileClient()).map(c -> c.getFileContent(path)).orElseGet(Flux::empty);
     }
 
+    /**
+     * read {@code count} bytes (till the end if it's null) of the file from {@code offset}, e.g. for tailing log files.
+     */
+    @Nonnull
+    public Flux<ByteBuffer> getFileContent(String path, long offset, @Nullable Long count) {
+        return Optional.ofNullable(getFileClient()).map(c -> c.getFileContent(path, offset, count)).orElseGet(Flux::empty);
+    }
+
     @Nonnull
     public List<? extends AppServiceFile> getFilesInDirectory(String dir) {
         return Optional.ofNullable(getFileClient()).map(c -> c.getFilesInDirectory(dir)).orElseGet(Collections::emptyList);
     }
 
+    @Nonnull
+    public Flux<AppServiceFile> listFilesRecursively(String dir) {
+        return Optional.ofNullable(getFileClient()).map(c -> c.listFilesRecursively(dir, IFileClient.DEFAULT_LIST_CONCURRENCY)).orElseGet(Flux::empty);
+    }
+
     @Nullable
     public AppServiceFile getFileByPath(String path) {
         return Optional.ofNullable(getFileClient()).map(c -> c.getFileByPath(path)).orElse(null);
@@ -159,6 +190,24 @@ public abstract class AppServiceAppBase<
         Optional.ofNullable(getFileClient()).ifPresent(c -> c.uploadFileToPath(content, path));
     }
 
+    public void uploadFileToPath(@Nonnull Path file, String path) {
+        Optional.ofNullable(getFileClient()).ifPresent(c -> c.uploadFileToPath(file, path));
+    }
+
+    /**
+     * download the whole remote {@code dir} into local {@code directory} in one zip through kudu.
+     */
+    public void downloadDirectory(String dir, @Nonnull File directory) {
+        Optional.ofNullable(getKuduManager()).ifPresent(c -> c.downloadDirectory(dir, directory));
+    }
+
+    /**
+     * upload local {@code directory} into remote {@code dir} in one zip through kudu.
+     */
+    public void uploadDirectory(@Nonnull File directory, String dir) {
+        Optional.ofNullable(getKuduManager()).ifPresent(c -> c.uploadDirectory(directory, dir));
+    }
+
     public void createDirectory(String path) {
         Optional.ofNullable(getFileClient()).ifPresent(c -> c.createDirectory(path));
     }
@@ -218,6 +267,17 @@ public abstract class AppServiceAppBase<
         return remote.state();
     }
 
+    /**
+     * manifest of the artifacts deployed to this app, for skipping unchanged artifacts.
+     */
+    @Nonnull
+    public synchronized DeployManifest getDeployManifest() {
+        if (deployManifest == null) {
+            deployManifest = DeployManifest.of(this);
+        }
+        return deployManifest;
+    }
+
     @Nullable
     protected IFileClient getFileClient() {
         return getKuduManager();
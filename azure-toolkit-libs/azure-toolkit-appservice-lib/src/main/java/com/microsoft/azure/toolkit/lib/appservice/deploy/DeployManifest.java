@@ -0,0 +1,334 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+package com.microsoft.azure.toolkit.lib.appservice.deploy;
+
+import com.microsoft.azure.toolkit.lib.appservice.AppServiceAppBase;
+import com.microsoft.azure.toolkit.lib.common.utils.JsonUtils;
+import lombok.Data;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.io.FilenameUtils;
+import org.apache.commons.lang3.StringUtils;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipFile;
+
+/**
+ * records digests of the artifacts deployed to an app (keyed by deploy target, e.g. deploy type and path), so that
+ * unchanged artifacts/files can be skipped in following deployments. the manifest is persisted as a file of the app
+ * (through kudu/functions admin vfs) rather than locally, so it's shared by all machines (e.g. ephemeral CI agents)
+ * and gone with the app. NOTE: deployments made by other tools are not tracked.
+ * digests are content based: archives are digested by their entries (name and content) ignoring timestamps, and
+ * directories by their files (relative path and content).
+ */
+@Slf4j
+public class DeployManifest {
+    public static final String MANIFEST_PATH = "data/azure-toolkit/deploy-manifest.json";
+    private static final int VERSION = 1;
+    private static final List<String> ARCHIVE_EXTENSIONS = Arrays.asList("jar", "war", "ear", "zip");
+    private static final Duration LOAD_TIMEOUT = Duration.ofSeconds(30);
+
+    private final Supplier<String> loader;
+    private final Consumer<String> saver;
+    private final Map<String, String> digests = new ConcurrentHashMap<>();
+    @Getter
+    private final AtomicLong savedBytes = new AtomicLong();
+    /**
+     * number of the deployments recorded through this manifest.
+     */
+    @Getter
+    private final AtomicInteger deployments = new AtomicInteger();
+    private Manifest manifest;
+
+    DeployManifest(@Nonnull Supplier<String> loader, @Nonnull Consumer<String> saver) {
+        this.loader = loader;
+        this.saver = saver;
+    }
+
+    @Nonnull
+    public static DeployManifest of(@Nonnull final AppServiceAppBase<?, ?, ?> app) {
+        return new DeployManifest(() -> read(app), content -> app.uploadFileToPath(content, MANIFEST_PATH));
+    }
+
+    @Nonnull
+    public static String target(@Nonnull final String deployType, @Nullable final String path) {
+        return StringUtils.isBlank(path) ? deployType.toLowerCase() : String.format("%s:%s", deployType.toLowerCase(), path);
+    }
+
+    /**
+     * @return true if {@code file} is identical to what was deployed to {@code target} last time.
+     */
+    public synchronized boolean isUnchanged(@Nonnull final String target, @Nonnull final File file) {
+        final Entry entry = this.getManifest().getEntries().get(target);
+        try {
+            if (Objects.isNull(entry) || entry.getSize() != size(file) || !StringUtils.equals(entry.getDigest(), this.digest(file))) {
+                return false;
+            }
+        } catch (final UncheckedIOException e) {
+            log.debug("failed to check if '{}' is changed", file.getAbsolutePath(), e);
+            return false;
+        }
+        this.savedBytes.addAndGet(entry.getSize());
+        return true;
+    }
+
+    /**
+     * @return relative paths of the files in {@code directory} that are new or changed since last deployment to {@code target}.
+     */
+    @Nonnull
+    public synchronized List<String> getChangedFiles(@Nonnull final String target, @Nonnull final File directory) {
+        final Map<String, String> deployed = Optional.ofNullable(this.getManifest().getEntries().get(target))
+            .map(Entry::getFiles).orElse(Collections.emptyMap());
+        final Map<String, String> current = this.digestFiles(directory);
+        return current.entrySet().stream().filter(e -> {
+            final boolean unchanged = StringUtils.equals(deployed.get(e.getKey()), e.getValue());
+            if (unchanged) {
+                this.savedBytes.addAndGet(new File(directory, e.getKey()).length());
+            }
+            return !unchanged;
+        }).map(Map.Entry::getKey).collect(Collectors.toList());
+    }
+
+    /**
+     * drop the records that will be outdated by the coming deployment to {@code target}, so that a failed or partial
+     * deployment will never be taken as unchanged.
+     *
+     * @param clean whether the deployment will wipe the existing content.
+     */
+    public synchronized void invalidate(@Nonnull final String target, boolean clean) {
+        final Map<String, Entry> entries = this.getManifest().getEntries();
+        if (entries.isEmpty() || (!clean && !entries.containsKey(target))) {
+            return;
+        }
+        if (clean) {
+            entries.clear();
+        } else {
+            entries.remove(target);
+        }
+        this.save();
+    }
+
+    /**
+     * record {@code file} as deployed to {@code target} and persist the manifest.
+     *
+     * @param clean whether the deployment wiped the existing content, other records are dropped if so.
+     */
+    public synchronized void record(@Nonnull final String target, @Nonnull final File file, boolean clean) {
+        final Manifest manifest = this.getManifest();
+        try {
+            final Entry entry = new Entry();
+            entry.setDigest(this.digest(file));
+            entry.setSize(size(file));
+            entry.setDeployedAt(System.currentTimeMillis());
+            if (file.isDirectory()) {
+                entry.setFiles(this.digestFiles(file));
+            }
+            if (clean) {
+                manifest.getEntries().clear();
+            }
+            manifest.getEntries().put(target, entry);
+        } catch (final UncheckedIOException e) {
+            log.debug("failed to digest '{}'", file.getAbsolutePath(), e);
+            manifest.getEntries().remove(target);
+        }
+        this.deployments.incrementAndGet();
+        this.save();
+    }
+
+    /**
+     * digest {@code file} ahead of {@link #isUnchanged}, which is the costly part and can run concurrently for
+     * different files.
+     */
+    public void prepare(@Nonnull final File file) {
+        try {
+            this.digest(file);
+        } catch (final UncheckedIOException e) {
+            log.debug("failed to digest '{}'", file.getAbsolutePath(), e);
+        }
+    }
+
+    /**
+     * drop the cached manifest, so that it's reloaded from the app on next use instead of taking a stale copy, e.g.
+     * after deployments made by others or without tracking.
+     */
+    public synchronized void reload() {
+        this.manifest = null;
+    }
+
+    private void save() {
+        try {
+            this.saver.accept(JsonUtils.toJson(this.getManifest()));
+        } catch (final RuntimeException e) { // the manifest is only an optimization
+            log.debug("failed to save deploy manifest", e);
+        }
+    }
+
+    @Nonnull
+    private Manifest getManifest() {
+        if (Objects.isNull(this.manifest)) {
+            this.manifest = Optional.ofNullable(this.loader.get()).filter(StringUtils::isNotBlank)
+                .map(content -> {
+                    try {
+                        return JsonUtils.fromJson(content, Manifest.class);
+                    } catch (final RuntimeException e) {
+                        log.debug("failed to parse deploy manifest", e);
+                        return null;
+                    }
+                })
+                .filter(m -> m.getVersion() == VERSION && Objects.nonNull(m.getEntries()))
+                .orElseGet(Manifest::new);
+        }
+        return this.manifest;
+    }
+
+    @Nullable
+    private static String read(@Nonnull final AppServiceAppBase<?, ?, ?> app) {
+        try {
+            return app.getFileContent(MANIFEST_PATH)
+                .collect(ByteArrayOutputStream::new, (output, buffer) -> write(output, buffer))
+                .map(output -> new String(output.toByteArray(), StandardCharsets.UTF_8))
+                .block(LOAD_TIMEOUT);
+        } catch (final RuntimeException e) { // e.g. not found, which means nothing deployed by toolkit
+            log.debug("failed to load deploy manifest of app {}", app.getName(), e);
+            return null;
+        }
+    }
+
+    private static void write(@Nonnull final ByteArrayOutputStream output, @Nonnull final ByteBuffer buffer) {
+        final byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        output.write(bytes, 0, bytes.length);
+    }
+
+    @Nonnull
+    private String digest(@Nonnull final File file) {
+        if (file.isDirectory()) {
+            return DigestUtils.sha256Hex(this.digestFiles(file).entrySet().stream()
+                .map(e -> e.getKey() + "=" + e.getValue()).collect(Collectors.joining("\n")));
+        }
+        final String key = String.format("%s|%s|%s", file.getAbsolutePath(), file.length(), file.lastModified());
+        final String cached = this.digests.get(key);
+        if (Objects.nonNull(cached)) {
+            return cached;
+        }
+        try { // not computeIfAbsent, which may block digesting of other files
+            final String digest = isArchive(file) ? digestArchive(file) : digestFile(file);
+            this.digests.putIfAbsent(key, digest);
+            return digest;
+        } catch (final IOException e) {
+            throw new UncheckedIOException(String.format("failed to digest '%s'.", file.getAbsolutePath()), e);
+        }
+    }
+
+    @Nonnull
+    private Map<String, String> digestFiles(@Nonnull final File directory) {
+        final Path root = directory.toPath();
+        try (final Stream<Path> paths = Files.walk(root)) {
+            final Map<String, String> result = new LinkedHashMap<>();
+            paths.filter(Files::isRegularFile).sorted().forEach(p -> {
+                final File file = p.toFile();
+                result.put(FilenameUtils.separatorsToUnix(root.relativize(p).toString()), this.digest(file));
+            });
+            return result;
+        } catch (final IOException e) {
+            throw new UncheckedIOException(String.format("failed to digest '%s'.", directory.getAbsolutePath()), e);
+        }
+    }
+
+    @Nonnull
+    private static String digestArchive(@Nonnull final File file) throws IOException {
+        try (final ZipFile zip = new ZipFile(file)) {
+            final List<? extends ZipEntry> entries = Collections.list(zip.entries()).stream()
+                .filter(e -> !e.isDirectory())
+                .sorted((a, b) -> a.getName().compareTo(b.getName()))
+                .collect(Collectors.toList());
+            final MessageDigest digest = DigestUtils.getSha256Digest();
+            final byte[] buffer = new byte[8192];
+            for (final ZipEntry entry : entries) {
+                digest.update(entry.getName().getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) 0);
+                long size = 0;
+                try (final InputStream input = zip.getInputStream(entry)) {
+                    for (int n = input.read(buffer); n >= 0; n = input.read(buffer)) {
+                        digest.update(buffer, 0, n);
+                        size += n;
+                    }
+                }
+                digest.update((byte) 0);
+                digest.update(Long.toString(size).getBytes(StandardCharsets.UTF_8));
+            }
+            return Hex.encodeHexString(digest.digest());
+        } catch (final ZipException e) { // not a valid archive, e.g. a plain file with archive extension
+            return digestFile(file);
+        }
+    }
+
+    @Nonnull
+    private static String digestFile(@Nonnull final File file) throws IOException {
+        try (final InputStream input = Files.newInputStream(file.toPath())) {
+            return DigestUtils.sha256Hex(input);
+        }
+    }
+
+    private static boolean isArchive(@Nonnull final File file) {
+        return ARCHIVE_EXTENSIONS.contains(FilenameUtils.getExtension(file.getName()).toLowerCase());
+    }
+
+    private static long size(@Nonnull final File file) {
+        if (!file.isDirectory()) {
+            return file.length();
+        }
+        try (final Stream<Path> paths = Files.walk(file.toPath())) {
+            return paths.filter(Files::isRegularFile).mapToLong(p -> p.toFile().length()).sum();
+        } catch (final IOException e) {
+            throw new UncheckedIOException(String.format("failed to list '%s'.", file.getAbsolutePath()), e);
+        }
+    }
+
+    @Data
+    public static class Manifest {
+        private int version = VERSION;
+        private Map<String, Entry> entries = new LinkedHashMap<>();
+    }
+
+    @Data
+    public static class Entry {
+        private String digest;
+        private long size;
+        private long deployedAt;
+        @Nullable
+        private Map<String, String> files;
+    }
+}
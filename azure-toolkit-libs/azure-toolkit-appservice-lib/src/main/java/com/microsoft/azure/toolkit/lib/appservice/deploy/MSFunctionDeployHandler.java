@@ -33,11 +33,10 @@ public class MSFunctionDeployHandler implements IFunctionDeployHandler {
     public void deploy(final File file, final WebAppBase webAppBase) {
         final CloudStorageAccount storageAccount = DeployUtils.getCloudStorageAccount(webAppBase);
 
-        final String blobName = getBlobName(webAppBase);
+        final CloudBlockBlob blob = uploadPackageToAzureStorage(file, storageAccount, webAppBase);
+        final String packageUri = getPackageUri(blob);
 
-        final String packageUri = uploadPackageToAzureStorage(file, storageAccount, blobName);
-
-        deployWithPackageUri(webAppBase, packageUri, () -> deletePackageFromAzureStorage(storageAccount, blobName));
+        deployWithPackageUri(webAppBase, packageUri, () -> deletePackageFromAzureStorage(storageAccount, blob.getName()));
     }
 
     private String getBlobName(final WebAppBase functionApp) {
@@ -46,15 +45,23 @@ public class MSFunctionDeployHandler implements IFunctionDeployHandler {
                 .concat(Constants.ZIP_EXT);
     }
 
-    private String uploadPackageToAzureStorage(final File zipPackage, final CloudStorageAccount storageAccount,
-                                                 final String blobName) {
+    private CloudBlockBlob uploadPackageToAzureStorage(final File zipPackage, final CloudStorageAccount storageAccount,
+                                                       final WebAppBase functionApp) {
         AzureMessager.getMessager().info(UPLOAD_PACKAGE_START);
         try {
+            // the blob name of the interrupted upload (if any) is reused to resume it
             final CloudBlockBlob blob = AzureStorageHelper.uploadFileAsBlob(zipPackage, storageAccount,
-                    DEPLOYMENT_PACKAGE_CONTAINER, blobName, BlobContainerPublicAccessType.OFF);
-            final String packageUri = AzureStorageHelper.getSASToken(blob, Period.ofDays(1)); // no need for a long period as it will be deleted after deployment
+                    DEPLOYMENT_PACKAGE_CONTAINER, functionApp.id(), () -> getBlobName(functionApp), BlobContainerPublicAccessType.OFF);
             AzureMessager.getMessager().info(UPLOAD_PACKAGE_DONE + blob.getUri().toString());
-            return packageUri;
+            return blob;
+        } catch (AzureExecutionException e) {
+            throw new AzureToolkitRuntimeException("Failed to upload package to azure storage", e);
+        }
+    }
+
+    private String getPackageUri(final CloudBlockBlob blob) {
+        try {
+            return AzureStorageHelper.getSASToken(blob, Period.ofDays(1)); // no need for a long period as it will be deleted after deployment
         } catch (AzureExecutionException e) {
             throw new AzureToolkitRuntimeException("Failed to upload package to azure storage", e);
         }
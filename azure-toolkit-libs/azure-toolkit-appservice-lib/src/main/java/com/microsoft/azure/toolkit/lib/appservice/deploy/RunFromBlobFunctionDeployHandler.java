@@ -46,9 +46,8 @@ public class RunFromBlobFunctionDeployHandler implements IFunctionDeployHandler
             throws AzureExecutionException {
         AzureMessager.getMessager().info(String.format(DEPLOY_START, deployTarget.name()));
         final CloudBlobContainer container = getOrCreateArtifactContainer(storageAccount);
-        final String blobName = getBlobName(deployTarget, zipPackage);
         final CloudBlockBlob blob = AzureStorageHelper.uploadFileAsBlob(zipPackage, storageAccount,
-                container.getName(), blobName, BlobContainerPublicAccessType.OFF);
+                container.getName(), deployTarget.id(), () -> getBlobName(deployTarget, zipPackage), BlobContainerPublicAccessType.OFF);
         AzureMessager.getMessager().info(String.format(DEPLOY_FINISH, deployTarget.defaultHostname()));
         return blob;
     }
@@ -7,7 +7,9 @@ package com.microsoft.azure.toolkit.lib.appservice.file;
 
 import com.azure.core.annotation.BodyParam;
 import com.azure.core.annotation.Delete;
+import com.azure.core.annotation.ExpectedResponses;
 import com.azure.core.annotation.Get;
+import com.azure.core.annotation.HeaderParam;
 import com.azure.core.annotation.Headers;
 import com.azure.core.annotation.Host;
 import com.azure.core.annotation.HostParam;
@@ -15,6 +17,7 @@ import com.azure.core.annotation.PathParam;
 import com.azure.core.annotation.Post;
 import com.azure.core.annotation.Put;
 import com.azure.core.annotation.ServiceInterface;
+import com.azure.core.http.HttpHeaders;
 import com.azure.core.http.HttpPipeline;
 import com.azure.core.http.HttpPipelineBuilder;
 import com.azure.core.http.policy.HttpPipelinePolicy;
@@ -22,6 +25,7 @@ import com.azure.core.http.rest.Response;
 import com.azure.core.http.rest.RestProxy;
 import com.azure.core.http.rest.StreamResponse;
 import com.azure.core.management.serializer.SerializerFactory;
+import com.azure.core.util.FluxUtil;
 import com.azure.resourcemanager.appservice.models.KuduAuthenticationPolicy;
 import com.azure.resourcemanager.appservice.models.WebAppBase;
 import com.azure.resourcemanager.resources.fluentcore.policy.AuthenticationPolicy;
@@ -33,22 +37,43 @@ import com.microsoft.azure.toolkit.lib.appservice.model.CommandOutput;
 import com.microsoft.azure.toolkit.lib.appservice.model.ProcessInfo;
 import com.microsoft.azure.toolkit.lib.appservice.model.TunnelStatus;
 import com.microsoft.azure.toolkit.lib.appservice.utils.Utils;
+import com.microsoft.azure.toolkit.lib.appservice.utils.ZipPackager;
 import com.microsoft.azure.toolkit.lib.common.exception.AzureToolkitRuntimeException;
 import com.microsoft.azure.toolkit.lib.common.utils.JsonUtils;
 import lombok.Data;
 import lombok.experimental.SuperBuilder;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.http.HttpStatus;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
 import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Collections;
 import java.util.List;
 import java.util.Locale;
+import java.util.Objects;
+import java.util.Optional;
 import java.util.stream.Collectors;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
 
+@Slf4j
 public class AppServiceKuduClient implements IFileClient, IProcessClient {
     private final String host;
     private final KuduService kuduService;
@@ -101,9 +126,32 @@ public class AppServiceKuduClient implements IFileClient, IProcessClient {
                 .collect(Collectors.toList());
     }
 
+    @Override
+    public Flux<ByteBuffer> getFileContent(final String path, long offset, @Nullable Long count) {
+        final String fixedPath = StringUtils.removeStart(path, HOME_PREFIX);
+        final String range = Objects.isNull(count) ? String.format("bytes=%d-", offset) : String.format("bytes=%d-%d", offset, offset + count - 1);
+        return this.kuduService.getFileRange(host, fixedPath, range).flatMapMany(response -> {
+            if (response.getStatusCode() == HttpStatus.SC_REQUESTED_RANGE_NOT_SATISFIABLE) { // nothing from offset
+                response.close();
+                return Flux.empty();
+            }
+            // range is ignored if the server responses the whole content
+            return response.getStatusCode() == HttpStatus.SC_PARTIAL_CONTENT ? response.getValue() : Utils.slice(response.getValue(), offset, count);
+        });
+    }
+
     public AppServiceFile getFileByPath(String path) {
         final String fixedPath = StringUtils.removeStart(path, HOME_PREFIX);
         final File file = new File(fixedPath);
+        // probe the file with a 1-byte range read instead of listing the whole parent directory
+        try (final StreamResponse response = this.kuduService.probeFile(host, fixedPath, "bytes=0-0").block()) {
+            final AppServiceFile result = Optional.ofNullable(response).map(r -> toAppServiceFile(r, fixedPath)).orElse(null);
+            if (Objects.nonNull(result) || (Objects.nonNull(response) && response.getStatusCode() == HttpStatus.SC_NOT_FOUND)) {
+                return result;
+            }
+        } catch (final RuntimeException e) {
+            log.debug("failed to probe file '{}', fall back to listing its parent", fixedPath, e);
+        }
         final List<? extends AppServiceFile> result = getFilesInDirectory(file.getParent());
         return result.stream()
                 .filter(appServiceFile -> StringUtils.equals(file.getName(), appServiceFile.getName()))
@@ -111,10 +159,111 @@ public class AppServiceKuduClient implements IFileClient, IProcessClient {
                 .orElse(null);
     }
 
+    /**
+     * @return null if the probe response doesn't tell that it's a file, e.g. a directory or an empty file.
+     */
+    @Nullable
+    private AppServiceFile toAppServiceFile(@Nonnull StreamResponse response, @Nonnull String path) {
+        final HttpHeaders headers = response.getHeaders();
+        final String mime = headers.getValue("Content-Type");
+        final String contentRange = headers.getValue("Content-Range");
+        final String size = response.getStatusCode() == HttpStatus.SC_PARTIAL_CONTENT ? StringUtils.substringAfterLast(contentRange, "/") :
+            response.getStatusCode() == HttpStatus.SC_OK ? headers.getValue("Content-Length") : null;
+        if (!StringUtils.isNumeric(size) || StringUtils.containsIgnoreCase(mime, "json")) {
+            return null;
+        }
+        final String mtime = Optional.ofNullable(headers.getValue("Last-Modified"))
+            .map(v -> OffsetDateTime.parse(v, DateTimeFormatter.RFC_1123_DATE_TIME).toString()).orElse(null);
+        final String href = String.format("%s/api/vfs/%s", host, StringUtils.removeStart(path.replace('\\', '/'), "/"));
+        return new AppServiceFile(new File(path).getName(), Long.parseLong(size), mtime, null, mime, href, path, app);
+    }
+
     public void uploadFileToPath(String content, String path) {
         this.kuduService.saveFile(host, path, content).block();
     }
 
+    public void uploadFileToPath(@Nonnull Flux<ByteBuffer> content, long length, String path) {
+        this.kuduService.saveFileContent(host, StringUtils.removeStart(path, HOME_PREFIX), content, length).block();
+    }
+
+    /**
+     * download the whole {@code dir} as a zip file through kudu zip api.
+     */
+    public void downloadDirectory(String dir, @Nonnull Path zipFile) {
+        final String fixedDir = StringUtils.removeStart(dir, HOME_PREFIX);
+        this.kuduService.downloadZip(host, fixedDir)
+            .flatMap(response -> Mono.using(() -> AsynchronousFileChannel.open(zipFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING), channel -> FluxUtil.writeFile(response.getValue(), channel), IOUtils::closeQuietly))
+            .block();
+    }
+
+    /**
+     * download the whole {@code dir} into local {@code directory} through kudu zip api.
+     */
+    public void downloadDirectory(String dir, @Nonnull File directory) {
+        try {
+            final Path zipFile = Files.createTempFile("kudu-download", ".zip");
+            try {
+                this.downloadDirectory(dir, zipFile);
+                extract(zipFile.toFile(), directory);
+            } finally {
+                Files.deleteIfExists(zipFile);
+            }
+        } catch (final IOException e) {
+            throw new AzureToolkitRuntimeException(String.format("failed to download '%s' to '%s'", dir, directory.getAbsolutePath()), e);
+        }
+    }
+
+    /**
+     * upload a zip file and extract it into {@code dir} through kudu zip api, existing files are overwritten.
+     */
+    public void uploadDirectory(@Nonnull Path zipFile, String dir) {
+        final String fixedDir = StringUtils.removeStart(dir, HOME_PREFIX);
+        try {
+            final long length = Files.size(zipFile);
+            this.kuduService.uploadZip(host, fixedDir, Flux.using(() -> AsynchronousFileChannel.open(zipFile, StandardOpenOption.READ),
+                FluxUtil::readFile, IOUtils::closeQuietly), length).block();
+        } catch (final IOException e) {
+            throw new AzureToolkitRuntimeException(String.format("failed to read file '%s'", zipFile), e);
+        }
+    }
+
+    /**
+     * upload local {@code directory} into {@code dir} as a whole through kudu zip api.
+     */
+    public void uploadDirectory(@Nonnull File directory, String dir) {
+        try {
+            final File zipFile = Files.createTempFile("kudu-upload", ".zip").toFile();
+            try {
+                this.uploadDirectory(new ZipPackager().pack(directory, zipFile).toPath(), dir);
+            } finally {
+                FileUtils.deleteQuietly(zipFile);
+            }
+        } catch (final IOException e) {
+            throw new AzureToolkitRuntimeException(String.format("failed to upload '%s' to '%s'", directory.getAbsolutePath(), dir), e);
+        }
+    }
+
+    private static void extract(@Nonnull File zipFile, @Nonnull File directory) throws IOException {
+        final Path root = directory.toPath().toAbsolutePath().normalize();
+        try (final ZipFile zip = new ZipFile(zipFile)) {
+            for (final ZipEntry entry : Collections.list(zip.entries())) {
+                final Path target = root.resolve(entry.getName()).normalize();
+                if (!target.startsWith(root)) {
+                    throw new IOException(String.format("invalid zip entry '%s'", entry.getName()));
+                }
+                if (entry.isDirectory()) {
+                    Files.createDirectories(target);
+                } else {
+                    Files.createDirectories(target.getParent());
+                    try (final InputStream input = zip.getInputStream(entry)) {
+                        Files.copy(input, target, StandardCopyOption.REPLACE_EXISTING);
+                    }
+                }
+            }
+        }
+    }
+
     public void createDirectory(String path) {
         this.kuduService.createDirectory(host, path).block();
     }
@@ -145,6 +294,20 @@ public class AppServiceKuduClient implements IFileClient, IProcessClient {
         @Get("api/vfs/{path}")
         Mono<StreamResponse> getFileContent(@HostParam("$host") String host, @PathParam("path") String path);
 
+        @Headers({
+                "Content-Type: application/json; charset=utf-8"
+        })
+        @Get("api/vfs/{path}")
+        @ExpectedResponses({200, 206, 416})
+        Mono<StreamResponse> getFileRange(@HostParam("$host") String host, @PathParam("path") String path, @HeaderParam("Range") String range);
+
+        @Headers({
+                "Content-Type: application/json; charset=utf-8"
+        })
+        @Get("api/vfs/{path}")
+        @ExpectedResponses({200, 206, 404, 416})
+        Mono<StreamResponse> probeFile(@HostParam("$host") String host, @PathParam("path") String path, @HeaderParam("Range") String range);
+
         @Headers({
                 "Content-Type: application/json; charset=utf-8"
         })
@@ -158,6 +321,24 @@ public class AppServiceKuduClient implements IFileClient, IProcessClient {
         @Put("api/vfs/{path}")
         Mono<Void> saveFile(@HostParam("$host") String host, @PathParam("path") String path, @BodyParam("application/octet-stream") String content);
 
+        @Headers({
+                "Content-Type: application/octet-stream",
+                "If-Match: *"
+        })
+        @Put("api/vfs/{path}")
+        Mono<Void> saveFileContent(@HostParam("$host") String host, @PathParam("path") String path,
+                                   @BodyParam("application/octet-stream") Flux<ByteBuffer> content, @HeaderParam("Content-Length") long length);
+
+        @Get("api/zip/{path}/")
+        Mono<StreamResponse> downloadZip(@HostParam("$host") String host, @PathParam("path") String path);
+
+        @Headers({
+                "Content-Type: application/octet-stream"
+        })
+        @Put("api/zip/{path}/")
+        Mono<Void> uploadZip(@HostParam("$host") String host, @PathParam("path") String path,
+                             @BodyParam("application/octet-stream") Flux<ByteBuffer> content, @HeaderParam("Content-Length") long length);
+
         @Headers({
                 "Content-Type: application/json; charset=utf-8"
         })
@@ -8,6 +8,7 @@ package com.microsoft.azure.toolkit.lib.appservice.file;
 import com.azure.core.annotation.BodyParam;
 import com.azure.core.annotation.Delete;
 import com.azure.core.annotation.Get;
+import com.azure.core.annotation.HeaderParam;
 import com.azure.core.annotation.Headers;
 import com.azure.core.annotation.Host;
 import com.azure.core.annotation.HostParam;
@@ -104,6 +105,10 @@ public class AzureFunctionsAdminClient implements IFileClient {
         this.functionsService.saveFile(host, getFixedPath(path), content).block();
     }
 
+    public void uploadFileToPath(@Nonnull Flux<ByteBuffer> content, long length, String path) {
+        this.functionsService.saveFileContent(host, getFixedPath(path), content, length).block();
+    }
+
     public void createDirectory(String path) {
         this.functionsService.createDirectory(host, getFixedPath(path)).block();
     }
@@ -149,6 +154,14 @@ public class AzureFunctionsAdminClient implements IFileClient {
         @Put("admin/vfs/{path}")
         Mono<Void> saveFile(@HostParam("$host") String host, @PathParam("path") String path, @BodyParam("application/octet-stream") String content);
 
+        @Headers({
+            "Content-Type: application/octet-stream",
+            "If-Match: *"
+        })
+        @Put("admin/vfs/{path}")
+        Mono<Void> saveFileContent(@HostParam("$host") String host, @PathParam("path") String path,
+                                   @BodyParam("application/octet-stream") Flux<ByteBuffer> content, @HeaderParam("Content-Length") long length);
+
         @Headers({
             "Content-Type: application/json; charset=utf-8"
         })
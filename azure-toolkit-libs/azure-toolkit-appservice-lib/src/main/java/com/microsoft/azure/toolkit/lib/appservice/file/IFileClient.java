@@ -5,21 +5,77 @@
 
 package com.microsoft.azure.toolkit.lib.appservice.file;
 
+import com.azure.core.util.FluxUtil;
 import com.microsoft.azure.toolkit.lib.appservice.model.AppServiceFile;
+import com.microsoft.azure.toolkit.lib.appservice.utils.Utils;
+import com.microsoft.azure.toolkit.lib.common.exception.AzureToolkitRuntimeException;
+import org.apache.commons.io.IOUtils;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
 
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
 import java.util.List;
 
 public interface IFileClient {
+    int DEFAULT_LIST_CONCURRENCY = 8;
+
     Flux<ByteBuffer> getFileContent(final String path);
 
+    /**
+     * read {@code count} bytes (till the end if it's null) of the file from {@code offset}, e.g. for tailing log files.
+     * the whole content is streamed and sliced locally by default, implementations should override with range requests.
+     */
+    default Flux<ByteBuffer> getFileContent(final String path, long offset, @Nullable Long count) {
+        return Utils.slice(getFileContent(path), offset, count);
+    }
+
     List<? extends AppServiceFile> getFilesInDirectory(String dir);
 
+    /**
+     * list all the files and directories under {@code dir} recursively, sub directories are listed concurrently, at
+     * most {@code concurrency} at the same time.
+     */
+    default Flux<AppServiceFile> listFilesRecursively(String dir, int concurrency) {
+        return Flux.using(() -> Schedulers.newBoundedElastic(Math.max(1, concurrency), Integer.MAX_VALUE, "vfs-list"),
+            scheduler -> listFilesRecursively(dir, scheduler), Scheduler::dispose);
+    }
+
+    default Flux<AppServiceFile> listFilesRecursively(String dir, @Nonnull Scheduler scheduler) {
+        return Mono.fromCallable(() -> new ArrayList<AppServiceFile>(getFilesInDirectory(dir))).subscribeOn(scheduler)
+            .flatMapIterable(files -> files)
+            .flatMap(file -> file.getType() == AppServiceFile.Type.DIRECTORY ?
+                Flux.just(file).concatWith(listFilesRecursively(file.getPath(), scheduler)) : Flux.just(file));
+    }
+
     AppServiceFile getFileByPath(String path);
 
     void uploadFileToPath(String content, String path);
 
+    /**
+     * upload {@code content} of {@code length} bytes to {@code path} with a streaming body.
+     */
+    void uploadFileToPath(@Nonnull Flux<ByteBuffer> content, long length, String path);
+
+    default void uploadFileToPath(@Nonnull Path file, String path) {
+        try {
+            final long length = Files.size(file);
+            uploadFileToPath(Flux.using(() -> AsynchronousFileChannel.open(file, StandardOpenOption.READ),
+                FluxUtil::readFile, IOUtils::closeQuietly), length, path);
+        } catch (final IOException e) {
+            throw new AzureToolkitRuntimeException(String.format("failed to read file '%s'", file), e);
+        }
+    }
+
     void createDirectory(String path);
 
     void deleteFile(String path);
@@ -9,6 +9,7 @@ import com.azure.resourcemanager.appservice.models.PlatformArchitecture;
 import com.azure.resourcemanager.appservice.models.WebAppBase;
 import com.azure.resourcemanager.appservice.models.WebSiteBase;
 import com.microsoft.azure.toolkit.lib.appservice.AppServiceAppBase;
+import com.microsoft.azure.toolkit.lib.appservice.deploy.DeployManifest;
 import com.microsoft.azure.toolkit.lib.appservice.deploy.FTPFunctionDeployHandler;
 import com.microsoft.azure.toolkit.lib.appservice.deploy.IFunctionDeployHandler;
 import com.microsoft.azure.toolkit.lib.appservice.deploy.MSFunctionDeployHandler;
@@ -22,15 +23,20 @@ import com.microsoft.azure.toolkit.lib.appservice.model.OperatingSystem;
 import com.microsoft.azure.toolkit.lib.appservice.model.PricingTier;
 import com.microsoft.azure.toolkit.lib.appservice.model.Runtime;
 import com.microsoft.azure.toolkit.lib.appservice.plan.AppServicePlan;
+import com.microsoft.azure.toolkit.lib.common.bundle.AzureString;
 import com.microsoft.azure.toolkit.lib.common.exception.AzureToolkitRuntimeException;
+import com.microsoft.azure.toolkit.lib.common.messager.AzureMessager;
 import com.microsoft.azure.toolkit.lib.common.model.AbstractAzResource;
 import com.microsoft.azure.toolkit.lib.common.model.AbstractAzResourceModule;
 import com.microsoft.azure.toolkit.lib.common.operation.OperationContext;
+import org.apache.commons.io.FileUtils;
 import org.apache.commons.lang3.StringUtils;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -70,8 +76,60 @@ public abstract class FunctionAppBase<T extends FunctionAppBase<T, P, F>, P exte
     }
 
     public void deploy(File targetFile, FunctionDeployType functionDeployType) {
-        OperationContext.action().setTelemetryProperty(FUNCTION_DEPLOY_TYPE, functionDeployType.name());
-        getDeployHandlerByType(functionDeployType).deploy(targetFile, getFullRemote());
+        deploy(targetFile, functionDeployType, false);
+    }
+
+    /**
+     * @param functionDeployType deploy type, default deploy type will be used if null
+     * @param skipUnchanged      skip the deployment if the artifact is unchanged since last deployment, for directory (FTP)
+     *                           deployments, only changed files will be uploaded.
+     */
+    public void deploy(@Nonnull File targetFile, @Nullable FunctionDeployType functionDeployType, boolean skipUnchanged) {
+        final FunctionDeployType type = Optional.ofNullable(functionDeployType).orElseGet(this::getDefaultDeployType);
+        OperationContext.action().setTelemetryProperty(FUNCTION_DEPLOY_TYPE, type.name());
+        final DeployManifest manifest = this.getDeployManifest();
+        try {
+            final String target = DeployManifest.target(type.name(), null);
+            final boolean clean = type != FunctionDeployType.FTP;
+            if (!skipUnchanged) { // not recorded, but still outdates the records
+                manifest.invalidate(target, clean);
+                getDeployHandlerByType(type).deploy(targetFile, getFullRemote());
+                return;
+            }
+            if (targetFile.isDirectory()) {
+                final List<String> changedFiles = manifest.getChangedFiles(target, targetFile);
+                if (changedFiles.isEmpty()) {
+                    AzureMessager.getMessager().info(AzureString.format("Skip deploying %s, it's unchanged since last deployment.", targetFile.getName()));
+                    return;
+                }
+                manifest.invalidate(target, clean);
+                deployChangedFiles(targetFile, changedFiles, type);
+            } else if (manifest.isUnchanged(target, targetFile)) {
+                AzureMessager.getMessager().info(AzureString.format("Skip deploying %s, it's unchanged since last deployment.", targetFile.getName()));
+                return;
+            } else {
+                manifest.invalidate(target, clean);
+                getDeployHandlerByType(type).deploy(targetFile, getFullRemote());
+            }
+            manifest.record(target, targetFile, clean);
+        } finally {
+            manifest.reload();
+        }
+    }
+
+    private void deployChangedFiles(@Nonnull File directory, @Nonnull List<String> changedFiles, @Nonnull FunctionDeployType type) {
+        File changed = null;
+        try {
+            changed = Files.createTempDirectory("azure-functions-changed").toFile();
+            for (final String path : changedFiles) {
+                FileUtils.copyFile(new File(directory, path), new File(changed, path));
+            }
+            getDeployHandlerByType(type).deploy(changed, getFullRemote());
+        } catch (final IOException e) {
+            throw new AzureToolkitRuntimeException("Failed to prepare changed files to deploy", e);
+        } finally {
+            FileUtils.deleteQuietly(changed);
+        }
     }
 
     protected AzureFunctionsAdminClient getAdminClient() {
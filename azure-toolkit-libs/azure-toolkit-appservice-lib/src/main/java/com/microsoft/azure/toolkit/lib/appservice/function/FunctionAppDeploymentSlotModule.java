@@ -9,6 +9,7 @@ import com.azure.resourcemanager.appservice.models.FunctionDeploymentSlotBasic;
 import com.azure.resourcemanager.appservice.models.FunctionDeploymentSlots;
 import com.azure.resourcemanager.appservice.models.WebSiteBase;
 import com.microsoft.azure.toolkit.lib.appservice.IDeploymentSlotModule;
+import com.microsoft.azure.toolkit.lib.appservice.utils.AppServiceUtils;
 import com.microsoft.azure.toolkit.lib.common.model.AbstractAzResourceModule;
 import com.microsoft.azure.toolkit.lib.common.operation.AzureOperation;
 
@@ -48,6 +49,12 @@ public class FunctionAppDeploymentSlotModule extends AbstractAzResourceModule<Fu
         return new FunctionAppDeploymentSlot((FunctionDeploymentSlotBasic) remote, this);
     }
 
+    @Nullable
+    @Override
+    protected String getRemoteVersion(@Nonnull WebSiteBase remote) {
+        return AppServiceUtils.getVersion(remote);
+    }
+
     @Nonnull
     @Override
     protected FunctionAppDeploymentSlot newResource(@Nonnull String name, @Nullable String resourceGroupName) {
@@ -10,6 +10,7 @@ import com.azure.resourcemanager.appservice.models.FunctionAppBasic;
 import com.azure.resourcemanager.appservice.models.FunctionApps;
 import com.azure.resourcemanager.appservice.models.WebSiteBase;
 import com.microsoft.azure.toolkit.lib.appservice.AppServiceServiceSubscription;
+import com.microsoft.azure.toolkit.lib.appservice.utils.AppServiceUtils;
 import com.microsoft.azure.toolkit.lib.common.exception.AzureToolkitRuntimeException;
 import com.microsoft.azure.toolkit.lib.common.model.AbstractAzResourceModule;
 import com.microsoft.azure.toolkit.lib.common.model.AzResource;
@@ -53,6 +54,12 @@ public class FunctionAppModule extends AbstractAzResourceModule<FunctionApp, App
         return new FunctionApp((FunctionAppBasic) remote, this);
     }
 
+    @Nullable
+    @Override
+    protected String getRemoteVersion(@Nonnull WebSiteBase remote) {
+        return AppServiceUtils.getVersion(remote);
+    }
+
     @Nonnull
     protected FunctionApp newResource(@Nonnull String name, @Nullable String resourceGroupName) {
         return new FunctionApp(name, Objects.requireNonNull(resourceGroupName), this);
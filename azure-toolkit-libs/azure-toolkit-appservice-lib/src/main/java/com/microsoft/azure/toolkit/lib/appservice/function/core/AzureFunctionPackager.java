@@ -12,7 +12,6 @@ import com.fasterxml.jackson.core.util.DefaultPrettyPrinter;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.ObjectWriter;
 import com.fasterxml.jackson.databind.SerializationFeature;
-import com.microsoft.applicationinsights.core.dependencies.apachecommons.io.input.BOMInputStream;
 import com.microsoft.azure.toolkit.lib.common.exception.AzureToolkitRuntimeException;
 import com.microsoft.azure.toolkit.lib.common.messager.AzureMessager;
 import com.microsoft.azure.toolkit.lib.common.operation.AzureOperation;
@@ -25,11 +24,11 @@ import org.apache.commons.io.FileUtils;
 import org.apache.commons.lang3.ObjectUtils;
 import org.apache.commons.lang3.StringUtils;
 
-import javax.annotation.Nonnull;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.charset.Charset;
+import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.Arrays;
 import java.util.Collections;
@@ -37,15 +36,16 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
 import java.util.Optional;
-import java.util.Scanner;
 import java.util.Set;
 import java.util.stream.Collectors;
 
 // todo: investigate whether we need to migrate to unified function packager in java tooling
 public class AzureFunctionPackager extends AzureFunctionPackagerBase {
     private static final String TRIGGER_TYPE = "triggerType";
+    private static final ObjectWriter FUNCTION_JSON_WRITER = createFunctionJsonWriter();
+    private static final TypeReference<HashMap<String, Object>> HOST_JSON_TYPE = new TypeReference<HashMap<String, Object>>() {
+    };
     protected static final String LINE_FEED = "\r\n";
     protected static final String FUNCTION_JSON = "function.json";
     protected static final String HOST_JSON = "host.json";
@@ -107,7 +107,7 @@ public class AzureFunctionPackager extends AzureFunctionPackagerBase {
 
         validateFunctionConfigurations(configMap);
 
-        final ObjectWriter objectWriter = getObjectWriter();
+        final ObjectWriter objectWriter = FUNCTION_JSON_WRITER;
 
         try {
             copyHostJson(project);
@@ -213,12 +213,14 @@ public class AzureFunctionPackager extends AzureFunctionPackagerBase {
 
     private void writeObjectToFile(final ObjectWriter objectWriter, final Object object, final File targetFile)
         throws IOException {
-        targetFile.getParentFile().mkdirs();
-        targetFile.createNewFile();
-        objectWriter.writeValue(targetFile, object);
+        final byte[] content = objectWriter.writeValueAsBytes(object);
+        if (targetFile.isFile() && Arrays.equals(content, FileUtils.readFileToByteArray(targetFile))) {
+            return; // keep the file (and its timestamp) untouched if nothing changes
+        }
+        FileUtils.writeByteArrayToFile(targetFile, content);
     }
 
-    private ObjectWriter getObjectWriter() {
+    private static ObjectWriter createFunctionJsonWriter() {
         final DefaultPrettyPrinter.Indenter indenter = DefaultIndenter.SYSTEM_LINEFEED_INSTANCE.withLinefeed(StringUtils.LF);
         final PrettyPrinter prettyPrinter = new DefaultPrettyPrinter().withObjectIndenter(indenter);
         return new ObjectMapper()
@@ -231,14 +233,10 @@ public class AzureFunctionPackager extends AzureFunctionPackagerBase {
         final String stagingDirectory = project.getStagingFolder().getAbsolutePath();
         AzureMessager.getMessager().info(LINE_FEED + COPY_JARS + stagingDirectory);
         final File libFolder = Paths.get(stagingDirectory, "lib").toFile();
-        if (libFolder.exists()) {
-            FileUtils.cleanDirectory(libFolder);
-        }
-        for (final File file : project.getDependencies()) {
-            copyFileToDirectory(file, libFolder);
-        }
-        copyFileToDirectory(project.getArtifactFile(), new File(stagingDirectory));
-        AzureMessager.getMessager().info(COPY_SUCCESS);
+        final JarStager stager = new JarStager();
+        final JarStager.Result result = stager.sync(project.getDependencies(), libFolder)
+            .merge(stager.stage(project.getArtifactFile(), new File(stagingDirectory)));
+        AzureMessager.getMessager().info(COPY_SUCCESS + " " + result);
     }
 
     private void trackFunctionProperties(Map<String, FunctionConfiguration> configMap) {
@@ -285,18 +283,10 @@ public class AzureFunctionPackager extends AzureFunctionPackagerBase {
 
     private Map<String, Object> readHostJson(FunctionProject project) {
         final File hostJson = ObjectUtils.firstNonNull(project.getHostJsonFile(), new File(project.getHostJsonFile(), HOST_JSON));
-        try (final FileInputStream fis = new FileInputStream(hostJson);
-             final Scanner scanner = new Scanner(new BOMInputStream(fis))) {
-            final String jsonRaw = scanner.useDelimiter("\\Z").next();
-            return JsonUtils.fromJson(jsonRaw, new TypeReference<HashMap<String, Object>>(){});
+        try (final InputStream input = Files.newInputStream(hostJson.toPath())) { // utf-8 BOM is skipped by jackson
+            return JsonUtils.fromJson(input, HOST_JSON_TYPE);
         } catch (IOException e) {
             return null;
         }
     }
-
-    private static void copyFileToDirectory(@Nonnull final File srcFile, @Nonnull final File destFile) throws IOException {
-        if (!Objects.equals(srcFile.getParentFile(), destFile)) {
-            FileUtils.copyFileToDirectory(srcFile, destFile);
-        }
-    }
 }
@@ -0,0 +1,266 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+package com.microsoft.azure.toolkit.lib.appservice.function.core;
+
+import com.microsoft.azure.toolkit.lib.common.exception.AzureToolkitRuntimeException;
+import com.microsoft.azure.toolkit.lib.common.utils.JsonUtils;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.ClassUtils;
+import org.apache.commons.lang3.StringUtils;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static com.microsoft.azure.toolkit.lib.appservice.function.core.AzureFunctionsAnnotationConstants.FUNCTION_NAME;
+
+/**
+ * persistent index of the classes that may declare {@code @FunctionName} methods, keyed by class file/jar path and
+ * validated by size, modification time and content hash, so that only changed class files/jars are rescanned.
+ * a class can declare {@code @FunctionName} methods only if its constant pool refers the annotation descriptor, so
+ * jars/classes are scanned by searching the descriptor in the class bytes, and only the matched classes are loaded.
+ */
+@Slf4j
+public class FunctionScanIndex {
+    public static final String DEFAULT_INDEX_FILE = "azure-functions/function-scan-index.json";
+    private static final int VERSION = 1;
+    private static final String CLASS_SUFFIX = ".class";
+    private static final byte[] FUNCTION_NAME_DESCRIPTOR = ("L" + FUNCTION_NAME.replace('.', '/') + ";").getBytes(StandardCharsets.UTF_8);
+
+    @Nullable
+    private final File file;
+    private final Map<String, Entry> entries;
+    private final Map<String, Entry> visited = new ConcurrentHashMap<>();
+    private final AtomicInteger rescanned = new AtomicInteger();
+
+    private FunctionScanIndex(@Nullable File file, @Nonnull Map<String, Entry> entries) {
+        this.file = file;
+        this.entries = entries;
+    }
+
+    /**
+     * @param file where the index is persisted, the index is kept only in memory if it's null.
+     */
+    @Nonnull
+    public static FunctionScanIndex load(@Nullable File file) {
+        final Index index = Optional.ofNullable(file).filter(File::isFile)
+            .map(f -> JsonUtils.readFromJsonFile(f, Index.class))
+            .filter(i -> i.getVersion() == VERSION && Objects.nonNull(i.getEntries()))
+            .orElse(null);
+        return new FunctionScanIndex(file, Objects.isNull(index) ? new ConcurrentHashMap<>() : new ConcurrentHashMap<>(index.getEntries()));
+    }
+
+    /**
+     * find methods annotated with {@code @FunctionName} in the given class path and persist the updated index.
+     */
+    @Nonnull
+    @SuppressWarnings("unchecked")
+    public Set<Method> findFunctions(@Nonnull final List<URL> urls) {
+        final Set<String> candidates = urls.parallelStream()
+            .flatMap(url -> this.scan(toFile(url)).stream())
+            .collect(Collectors.toCollection(TreeSet::new));
+        log.debug("{} of {} class files/jars rescanned, {} candidate function classes found.", this.rescanned.get(), this.visited.size(), candidates.size());
+        this.save();
+        if (candidates.isEmpty()) {
+            return Collections.emptySet();
+        }
+        final ClassLoader classLoader = new URLClassLoader(urls.toArray(new URL[0]), FunctionScanIndex.class.getClassLoader());
+        try {
+            final Class<? extends Annotation> functionName = (Class<? extends Annotation>) ClassUtils.getClass(classLoader, FUNCTION_NAME);
+            final Set<Method> methods = new LinkedHashSet<>();
+            for (final String candidate : candidates) {
+                final Class<?> clazz;
+                try {
+                    clazz = Class.forName(candidate, false, classLoader);
+                } catch (final ClassNotFoundException e) {
+                    log.debug("failed to load class {}", candidate, e);
+                    continue;
+                }
+                for (final Method method : clazz.getDeclaredMethods()) {
+                    if (method.isAnnotationPresent(functionName)) {
+                        methods.add(method);
+                    }
+                }
+            }
+            return methods;
+        } catch (final ClassNotFoundException e) {
+            throw new AzureToolkitRuntimeException(e);
+        }
+    }
+
+    @Nonnull
+    private List<String> scan(@Nullable final File file) {
+        if (Objects.isNull(file) || !file.exists()) {
+            return Collections.emptyList();
+        }
+        if (file.isDirectory()) {
+            final Path root = file.toPath();
+            try (final Stream<Path> paths = Files.walk(root)) {
+                return paths.filter(p -> p.toString().endsWith(CLASS_SUFFIX) && Files.isRegularFile(p))
+                    .flatMap(p -> this.lookup(p.toFile(), () -> scanClass(root, p)).stream())
+                    .collect(Collectors.toList());
+            } catch (final IOException e) {
+                throw new AzureToolkitRuntimeException(String.format("failed to scan classes in '%s'.", file.getAbsolutePath()), e);
+            }
+        }
+        return this.lookup(file, () -> scanJar(file));
+    }
+
+    @Nonnull
+    private List<String> lookup(@Nonnull final File file, @Nonnull final ClassScanner scanner) {
+        final String key = file.getAbsolutePath();
+        final Entry cached = this.entries.get(key);
+        if (Objects.nonNull(cached) && cached.getLength() == file.length() && cached.getLastModified() == file.lastModified()) {
+            this.visited.put(key, cached);
+            return cached.getClasses();
+        }
+        try {
+            final String hash = hash(file);
+            final Entry entry = new Entry();
+            entry.setLength(file.length());
+            entry.setLastModified(file.lastModified());
+            entry.setHash(hash);
+            if (Objects.nonNull(cached) && StringUtils.equals(cached.getHash(), hash)) {
+                entry.setClasses(cached.getClasses()); // touched but not changed
+            } else {
+                entry.setClasses(scanner.scan());
+                this.rescanned.incrementAndGet();
+            }
+            this.visited.put(key, entry);
+            return entry.getClasses();
+        } catch (final IOException e) {
+            throw new AzureToolkitRuntimeException(String.format("failed to scan '%s'.", key), e);
+        }
+    }
+
+    private void save() {
+        if (Objects.isNull(this.file)) {
+            return;
+        }
+        final Index index = new Index();
+        index.setVersion(VERSION);
+        index.setEntries(this.visited); // entries not in current class path are dropped
+        try {
+            FileUtils.forceMkdirParent(this.file);
+            JsonUtils.writeToJsonFile(this.file, index);
+        } catch (final IOException e) { // the index is only an optimization
+            log.debug("failed to save function scan index to {}", this.file.getAbsolutePath(), e);
+        }
+    }
+
+    @Nonnull
+    private static List<String> scanClass(@Nonnull final Path root, @Nonnull final Path clazz) throws IOException {
+        if (!mayDeclareFunctions(Files.readAllBytes(clazz))) {
+            return Collections.emptyList();
+        }
+        return Collections.singletonList(toClassName(root.relativize(clazz).toString()));
+    }
+
+    @Nonnull
+    private static List<String> scanJar(@Nonnull final File jar) throws IOException {
+        final List<String> result = new ArrayList<>();
+        try (final JarFile jarFile = new JarFile(jar)) {
+            final Enumeration<JarEntry> entries = jarFile.entries();
+            while (entries.hasMoreElements()) {
+                final JarEntry entry = entries.nextElement();
+                final String name = entry.getName();
+                if (entry.isDirectory() || !name.endsWith(CLASS_SUFFIX) || name.startsWith("META-INF/")) {
+                    continue;
+                }
+                try (final InputStream input = jarFile.getInputStream(entry)) {
+                    if (mayDeclareFunctions(IOUtils.toByteArray(input))) {
+                        result.add(toClassName(name));
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    private static boolean mayDeclareFunctions(@Nonnull final byte[] bytes) {
+        final byte[] target = FUNCTION_NAME_DESCRIPTOR;
+        outer:
+        for (int i = 0, max = bytes.length - target.length; i <= max; i++) {
+            for (int j = 0; j < target.length; j++) {
+                if (bytes[i + j] != target[j]) {
+                    continue outer;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    @Nonnull
+    private static String toClassName(@Nonnull final String path) {
+        return StringUtils.removeEnd(path, CLASS_SUFFIX).replace('\\', '/').replace('/', '.');
+    }
+
+    @Nonnull
+    private static String hash(@Nonnull final File file) throws IOException {
+        try (final InputStream input = Files.newInputStream(file.toPath())) {
+            return DigestUtils.sha256Hex(input);
+        }
+    }
+
+    @Nullable
+    private static File toFile(@Nonnull final URL url) {
+        try {
+            return new File(url.toURI());
+        } catch (final URISyntaxException | IllegalArgumentException e) {
+            log.debug("skip scanning unsupported class path entry {}", url);
+            return null;
+        }
+    }
+
+    @FunctionalInterface
+    private interface ClassScanner {
+        List<String> scan() throws IOException;
+    }
+
+    @Data
+    public static class Index {
+        private int version;
+        private Map<String, Entry> entries;
+    }
+
+    @Data
+    public static class Entry {
+        private long length;
+        private long lastModified;
+        private String hash;
+        private List<String> classes;
+    }
+}
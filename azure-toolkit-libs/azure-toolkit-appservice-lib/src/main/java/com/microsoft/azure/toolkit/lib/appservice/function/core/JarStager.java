@@ -0,0 +1,186 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+package com.microsoft.azure.toolkit.lib.appservice.function.core;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang3.StringUtils;
+
+import javax.annotation.Nonnull;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * synchronizes files (e.g. dependency jars) into a staging directory: up-to-date files (same size and modification
+ * time, and optionally same content hash) are kept, stale ones are removed, and the changed ones are hard-linked
+ * (if the file system allows) or copied by a bounded pool of workers.
+ */
+@Slf4j
+public class JarStager {
+    private static final int DEFAULT_PARALLELISM = Math.max(2, Math.min(8, Runtime.getRuntime().availableProcessors()));
+
+    private final boolean verifyHash;
+    private final boolean hardLink;
+    private final int parallelism;
+    private volatile boolean linkSupported = true;
+
+    public JarStager() {
+        this(false, true, DEFAULT_PARALLELISM);
+    }
+
+    /**
+     * @param verifyHash compare content hash besides size and modification time to decide if a file is up-to-date.
+     * @param hardLink   hard-link instead of copying if the file system allows.
+     */
+    public JarStager(boolean verifyHash, boolean hardLink, int parallelism) {
+        this.verifyHash = verifyHash;
+        this.hardLink = hardLink;
+        this.parallelism = Math.max(1, parallelism);
+    }
+
+    /**
+     * make {@code directory} contain exactly the given {@code files}, later files win if names conflict.
+     */
+    @Nonnull
+    public Result sync(@Nonnull Collection<File> files, @Nonnull File directory) throws IOException {
+        final Map<String, File> sources = new LinkedHashMap<>();
+        files.stream().filter(Objects::nonNull).forEach(f -> sources.put(f.getName(), f));
+        final Result result = new Result();
+        FileUtils.forceMkdir(directory);
+        final File[] existing = Objects.requireNonNull(directory.listFiles());
+        for (final File file : existing) {
+            if (!sources.containsKey(file.getName()) || file.isDirectory()) {
+                FileUtils.forceDelete(file);
+                result.removed.incrementAndGet();
+            }
+        }
+        final ExecutorService executor = Executors.newFixedThreadPool(Math.min(this.parallelism, Math.max(1, sources.size())));
+        try {
+            final List<Future<?>> futures = new ArrayList<>();
+            for (final File source : sources.values()) {
+                futures.add(executor.submit(() -> {
+                    this.stage(source, new File(directory, source.getName()), result);
+                    return null;
+                }));
+            }
+            for (final Future<?> future : futures) {
+                future.get();
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("interrupted when staging files to " + directory.getAbsolutePath(), e);
+        } catch (final ExecutionException e) {
+            throw e.getCause() instanceof IOException ? (IOException) e.getCause() : new IOException(e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        log.debug("staged files to {}: {}", directory.getAbsolutePath(), result);
+        return result;
+    }
+
+    /**
+     * stage single {@code file} into {@code directory}, without touching other files in it.
+     */
+    @Nonnull
+    public Result stage(@Nonnull File file, @Nonnull File directory) throws IOException {
+        final Result result = new Result();
+        if (!Objects.equals(file.getParentFile(), directory)) {
+            FileUtils.forceMkdir(directory);
+            this.stage(file, new File(directory, file.getName()), result);
+        }
+        return result;
+    }
+
+    private void stage(@Nonnull File source, @Nonnull File target, @Nonnull Result result) throws IOException {
+        final long length = source.length();
+        if (this.isUpToDate(source, target)) {
+            result.skipped.incrementAndGet();
+            result.skippedBytes.addAndGet(length);
+            return;
+        }
+        final Path targetPath = target.toPath();
+        Files.deleteIfExists(targetPath);
+        if (this.hardLink && this.linkSupported) {
+            try {
+                Files.createLink(targetPath, source.toPath());
+                result.linked.incrementAndGet();
+                result.linkedBytes.addAndGet(length);
+                return;
+            } catch (final IOException | UnsupportedOperationException | SecurityException e) {
+                // e.g. across file systems or not supported by the file system, stop trying and fallback to copy
+                log.debug("failed to hard-link {}, fallback to copy.", source.getAbsolutePath(), e);
+                this.linkSupported = false;
+            }
+        }
+        Files.copy(source.toPath(), targetPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.COPY_ATTRIBUTES);
+        Files.setLastModifiedTime(targetPath, FileTime.fromMillis(source.lastModified()));
+        result.copied.incrementAndGet();
+        result.copiedBytes.addAndGet(length);
+    }
+
+    private boolean isUpToDate(@Nonnull File source, @Nonnull File target) throws IOException {
+        if (!target.isFile() || target.length() != source.length() || target.lastModified() != source.lastModified()) {
+            return false;
+        }
+        return !this.verifyHash || Files.isSameFile(source.toPath(), target.toPath()) || StringUtils.equals(hash(source), hash(target));
+    }
+
+    @Nonnull
+    private static String hash(@Nonnull File file) throws IOException {
+        try (final InputStream input = Files.newInputStream(file.toPath())) {
+            return DigestUtils.sha256Hex(input);
+        }
+    }
+
+    @Getter
+    public static class Result {
+        private final AtomicInteger copied = new AtomicInteger();
+        private final AtomicInteger linked = new AtomicInteger();
+        private final AtomicInteger skipped = new AtomicInteger();
+        private final AtomicInteger removed = new AtomicInteger();
+        private final AtomicLong copiedBytes = new AtomicLong();
+        private final AtomicLong linkedBytes = new AtomicLong();
+        private final AtomicLong skippedBytes = new AtomicLong();
+
+        @Nonnull
+        public Result merge(@Nonnull Result other) {
+            this.copied.addAndGet(other.copied.get());
+            this.linked.addAndGet(other.linked.get());
+            this.skipped.addAndGet(other.skipped.get());
+            this.removed.addAndGet(other.removed.get());
+            this.copiedBytes.addAndGet(other.copiedBytes.get());
+            this.linkedBytes.addAndGet(other.linkedBytes.get());
+            this.skippedBytes.addAndGet(other.skippedBytes.get());
+            return this;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d file(s) copied (%s), %d hard-linked (%s), %d up-to-date skipped (%s), %d stale removed",
+                copied.get(), FileUtils.byteCountToDisplaySize(copiedBytes.get()),
+                linked.get(), FileUtils.byteCountToDisplaySize(linkedBytes.get()),
+                skipped.get(), FileUtils.byteCountToDisplaySize(skippedBytes.get()), removed.get());
+        }
+    }
+}
@@ -8,6 +8,7 @@ import com.microsoft.azure.toolkit.lib.appservice.function.core.FunctionAnnotati
 import com.microsoft.azure.toolkit.lib.appservice.function.core.FunctionAnnotationClass;
 import com.microsoft.azure.toolkit.lib.appservice.function.core.FunctionMethod;
 import com.microsoft.azure.toolkit.lib.appservice.function.core.FunctionProject;
+import com.microsoft.azure.toolkit.lib.appservice.function.core.FunctionScanIndex;
 import com.microsoft.azure.toolkit.lib.common.exception.AzureToolkitRuntimeException;
 import com.microsoft.azure.toolkit.lib.legacy.function.handlers.CommandHandler;
 import com.microsoft.azure.toolkit.lib.legacy.function.handlers.CommandHandlerImpl;
@@ -15,19 +16,17 @@ import com.microsoft.azure.toolkit.lib.legacy.function.handlers.FunctionCoreTool
 import com.microsoft.azure.toolkit.lib.legacy.function.handlers.FunctionCoreToolsHandlerImpl;
 import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.lang3.ClassUtils;
-import org.reflections.Reflections;
-import org.reflections.scanners.Scanners;
-import org.reflections.util.ConfigurationBuilder;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.File;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Parameter;
 import java.net.MalformedURLException;
 import java.net.URL;
-import java.net.URLClassLoader;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -35,11 +34,10 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
 
-import static com.microsoft.azure.toolkit.lib.appservice.function.core.AzureFunctionsAnnotationConstants.FUNCTION_NAME;
-
 @Slf4j
 public class DefaultFunctionProject extends FunctionProject {
 
@@ -95,20 +93,18 @@ public class DefaultFunctionProject extends FunctionProject {
         return urlList;
     }
 
-    private static Set<Method> findFunctions(final List<URL> urls) {
-        try {
-            final ClassLoader classLoader = getClassLoader(urls);
-            final Class<?> functionNameAnnotation = ClassUtils.getClass(classLoader, FUNCTION_NAME);
-            final ConfigurationBuilder builder = new ConfigurationBuilder().addUrls(urls).setScanners(Scanners.MethodsAnnotated).addClassLoaders(classLoader);
-            return new Reflections(builder).getMethodsAnnotatedWith((Class<? extends Annotation>) functionNameAnnotation);
-        } catch (ClassNotFoundException e) {
-            throw new AzureToolkitRuntimeException(e);
-        }
+    private Set<Method> findFunctions(final List<URL> urls) {
+        return FunctionScanIndex.load(getScanIndexFile()).findFunctions(urls);
     }
 
-    private static ClassLoader getClassLoader(final List<URL> urlList) {
-        final URL[] urlArray = urlList.toArray(new URL[0]);
-        return new URLClassLoader(urlArray, DefaultFunctionProject.class.getClassLoader());
+    /**
+     * @return index file in the build directory (parent of the classes output directory), null if unknown.
+     */
+    @Nullable
+    private File getScanIndexFile() {
+        return Optional.ofNullable(getClassesOutputDirectory()).map(File::getParentFile)
+            .map(buildDirectory -> Paths.get(buildDirectory.getAbsolutePath(), FunctionScanIndex.DEFAULT_INDEX_FILE).toFile())
+            .orElse(null);
     }
 
     private URL getArtifactUrl() throws MalformedURLException {
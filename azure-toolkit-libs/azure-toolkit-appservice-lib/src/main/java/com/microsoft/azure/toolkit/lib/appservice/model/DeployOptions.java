@@ -16,4 +16,8 @@ public class DeployOptions {
     private Boolean restartSite;
     private Boolean cleanDeployment;
     private Boolean trackDeployment;
+    /**
+     * skip the deployment if the artifact is unchanged since last deployment, refer {@link com.microsoft.azure.toolkit.lib.appservice.deploy.DeployManifest}
+     */
+    private Boolean skipUnchanged;
 }
@@ -80,6 +80,13 @@ public class DeployType {
         return Arrays.asList(DeployType.JAR, DeployType.EAR, DeployType.SCRIPT_STARTUP).contains(this);
     }
 
+    /**
+     * whether the deployment wipes the existing content of the target if {@code clean} is not specified.
+     */
+    public boolean isCleanByDefault() {
+        return Arrays.asList(DeployType.WAR, DeployType.JAR, DeployType.EAR, DeployType.ZIP).contains(this);
+    }
+
     public String getTargetPathPrefix() {
         return TYPE_TO_TARGET_DIRECTORY_MAP.get(this);
     }
@@ -9,15 +9,19 @@ import com.microsoft.azure.toolkit.lib.appservice.entity.FunctionEntity;
 import com.microsoft.azure.toolkit.lib.appservice.function.FunctionApp;
 import com.microsoft.azure.toolkit.lib.appservice.function.FunctionAppBase;
 import com.microsoft.azure.toolkit.lib.appservice.model.FunctionDeployType;
+import com.microsoft.azure.toolkit.lib.appservice.utils.ZipPackager;
 import com.microsoft.azure.toolkit.lib.common.bundle.AzureString;
 import com.microsoft.azure.toolkit.lib.common.exception.AzureToolkitRuntimeException;
 import com.microsoft.azure.toolkit.lib.common.messager.AzureMessager;
 import com.microsoft.azure.toolkit.lib.common.messager.IAzureMessager;
 import com.microsoft.azure.toolkit.lib.common.operation.OperationContext;
 import com.microsoft.azure.toolkit.lib.common.task.AzureTask;
+import com.microsoft.azure.toolkit.lib.common.utils.Poller;
+import lombok.Setter;
 import org.apache.commons.collections4.CollectionUtils;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang3.BooleanUtils;
 import org.apache.commons.lang3.StringUtils;
-import org.zeroturnaround.zip.ZipUtil;
 import reactor.core.publisher.Mono;
 import reactor.core.scheduler.Schedulers;
 import reactor.util.retry.Retry;
@@ -37,8 +41,7 @@ import static com.microsoft.azure.toolkit.lib.appservice.function.core.AzureFunc
 
 public class DeployFunctionAppTask extends AzureTask<FunctionAppBase<?, ?, ?>> {
 
-    private static final int SYNC_FUNCTION_MAX_ATTEMPTS = 5;
-    private static final int SYNC_FUNCTION_DELAY = 1;
+    private static final int SYNC_TRIGGERS_TIMEOUT = 10;
     private static final int LIST_TRIGGERS_MAX_RETRY = 5;
     private static final int LIST_TRIGGERS_RETRY_PERIOD_IN_SECONDS = 10;
     private static final String RUNNING = "Running";
@@ -47,6 +50,7 @@ public class DeployFunctionAppTask extends AzureTask<FunctionAppBase<?, ?, ?>> {
     private static final String LOCAL_SETTINGS_FILE = "local.settings.json";
     private static final String DEPLOY_START = "Starting deployment...";
     private static final String DEPLOY_FINISH = "Deployment done, you may access your resource through %s";
+    private static final String DEPLOY_SAVED = "Skipped uploading %s of unchanged artifacts.";
     private static final String HTTP_TRIGGER_URLS = "HTTP Trigger Urls:";
     private static final String NO_ANONYMOUS_HTTP_TRIGGER = "No anonymous HTTP Triggers found in deployed function app, skip list triggers.";
     private static final String NO_TRIGGERS_FOUNDED = "No triggers found in deployed function app, " +
@@ -63,6 +67,11 @@ public class DeployFunctionAppTask extends AzureTask<FunctionAppBase<?, ?, ?>> {
     private final File stagingDirectory;
     private final FunctionDeployType deployType;
     private final IAzureMessager messager;
+    /**
+     * skip deploying unchanged artifact, refer {@link com.microsoft.azure.toolkit.lib.appservice.deploy.DeployManifest}
+     */
+    @Setter
+    private boolean skipUnchanged;
 
     public DeployFunctionAppTask(@Nonnull FunctionAppBase<?, ?, ?> target, @Nonnull File stagingFolder, @Nullable FunctionDeployType deployType) {
         this(target, stagingFolder, deployType, AzureMessager.getMessager());
@@ -99,24 +108,29 @@ public class DeployFunctionAppTask extends AzureTask<FunctionAppBase<?, ?, ?>> {
         // For ftp deploy, we need to upload entire staging directory not the zipped package
         final File file = deployType == FunctionDeployType.FTP ? stagingDirectory : packageStagingDirectory();
         final long startTime = System.currentTimeMillis();
-        if (deployType == null) {
-            target.deploy(file);
-        } else {
-            target.deploy(file, deployType);
-        }
+        final long savedBytes = target.getDeployManifest().getSavedBytes().get();
+        target.deploy(file, deployType, skipUnchanged);
         OperationContext.action().setTelemetryProperty("deploy-cost", String.valueOf(System.currentTimeMillis() - startTime));
+        reportSavedBytes(target.getDeployManifest().getSavedBytes().get() - savedBytes);
         if (!StringUtils.equalsIgnoreCase(target.getStatus(), RUNNING)) {
             target.start();
         }
         messager.info(String.format(DEPLOY_FINISH, target.getHostName()));
     }
 
+    private void reportSavedBytes(long savedBytes) {
+        if (skipUnchanged) {
+            OperationContext.action().setTelemetryProperty("deploy-saved-bytes", String.valueOf(savedBytes));
+            if (savedBytes > 0) {
+                messager.info(String.format(DEPLOY_SAVED, FileUtils.byteCountToDisplaySize(savedBytes)));
+            }
+        }
+    }
+
     private File packageStagingDirectory() {
         try {
             final File zipFile = Files.createTempFile("azure-functions", ".zip").toFile();
-            ZipUtil.pack(stagingDirectory, zipFile);
-            ZipUtil.removeEntry(zipFile, LOCAL_SETTINGS_FILE);
-            return zipFile;
+            return new ZipPackager(path -> !StringUtils.equals(path, LOCAL_SETTINGS_FILE)).pack(stagingDirectory, zipFile);
         } catch (IOException e) {
             throw new AzureToolkitRuntimeException("Failed to package function to deploy", e);
         }
@@ -143,7 +157,7 @@ public class DeployFunctionAppTask extends AzureTask<FunctionAppBase<?, ?, ?>> {
             if (anonymousTriggers.size() < httpFunction.size()) {
                 messager.info(UNABLE_TO_LIST_NONE_ANONYMOUS_HTTP_TRIGGERS);
             }
-        } catch (final RuntimeException | InterruptedException e) {
+        } catch (final RuntimeException e) {
             // show warning instead of exception for list triggers
             messager.warning(FAILED_TO_LIST_TRIGGERS);
         }
@@ -151,10 +165,12 @@ public class DeployFunctionAppTask extends AzureTask<FunctionAppBase<?, ?, ?>> {
 
     // todo: move to app service library
     // Refers https://github.com/Azure/azure-functions-core-tools/blob/3.0.3568/src/Azure.Functions.Cli/Actions/AzureActions/PublishFunctionAppAction.cs#L452
-    private void syncTriggers(final FunctionApp functionApp) throws InterruptedException {
+    private void syncTriggers(final FunctionApp functionApp) {
         messager.info(SYNC_TRIGGERS);
-        Thread.sleep(5 * 1000);
-        Mono.fromRunnable(() -> {
+        // functions host may not be ready right after deployment, retry until it's synced
+        Poller.builder().name("sync-triggers").initialDelay(Duration.ofSeconds(1)).maxDelay(Duration.ofSeconds(4))
+            .timeout(Duration.ofSeconds(SYNC_TRIGGERS_TIMEOUT)).build()
+            .poll(() -> {
                 try {
                     functionApp.syncTriggers();
                 } catch (ManagementException e) {
@@ -162,8 +178,8 @@ public class DeployFunctionAppTask extends AzureTask<FunctionAppBase<?, ?, ?>> {
                         throw e;
                     }
                 }
-            }).subscribeOn(Schedulers.boundedElastic())
-            .retryWhen(Retry.fixedDelay(SYNC_FUNCTION_MAX_ATTEMPTS - 1, Duration.ofSeconds(SYNC_FUNCTION_DELAY))).block();
+                return true;
+            }, BooleanUtils::isTrue);
     }
 
     private List<FunctionEntity> listFunctions(final FunctionApp functionApp) {
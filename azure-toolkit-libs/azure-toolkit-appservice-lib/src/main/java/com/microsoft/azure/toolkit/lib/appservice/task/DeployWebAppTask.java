@@ -5,6 +5,8 @@
 
 package com.microsoft.azure.toolkit.lib.appservice.task;
 
+import com.azure.core.exception.HttpResponseException;
+import com.microsoft.azure.toolkit.lib.appservice.deploy.DeployManifest;
 import com.microsoft.azure.toolkit.lib.appservice.model.CsmDeploymentStatus;
 import com.microsoft.azure.toolkit.lib.appservice.model.DeployOptions;
 import com.microsoft.azure.toolkit.lib.appservice.model.DeploymentBuildStatus;
@@ -19,29 +21,50 @@ import com.microsoft.azure.toolkit.lib.common.messager.IAzureMessager;
 import com.microsoft.azure.toolkit.lib.common.operation.AzureOperation;
 import com.microsoft.azure.toolkit.lib.common.operation.OperationContext;
 import com.microsoft.azure.toolkit.lib.common.task.AzureTask;
+import com.microsoft.azure.toolkit.lib.common.utils.Poller;
 import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.collections4.CollectionUtils;
+import org.apache.commons.io.FileUtils;
 import org.apache.commons.lang3.BooleanUtils;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.apache.http.HttpStatus;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.core.scheduler.Schedulers;
+import reactor.util.function.Tuple2;
+import reactor.util.function.Tuples;
 
+import javax.annotation.Nullable;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
-import java.util.concurrent.atomic.AtomicReference;
+import java.util.Set;
 import java.util.stream.Collectors;
 
+@Slf4j
 public class DeployWebAppTask extends AzureTask<WebAppBase<?, ?, ?>> {
     private static final String SKIP_DEPLOYMENT_FOR_DOCKER_APP_SERVICE = "Skip deployment for docker webapp, " +
             "you can navigate to %s to access your docker webapp.";
     private static final String DEPLOY_START = "Trying to deploy artifact to %s...";
     private static final String DEPLOY_FINISH = "Successfully deployed the artifact to https://%s";
+    private static final String DEPLOY_SAVED = "Skipped uploading %s of unchanged artifacts.";
     private static final String START_APP = "Starting Web App after deploying artifacts...";
     private static final String START_APP_DONE = "Successfully started Web App.";
     private static final int DEFAULT_DEPLOYMENT_STATUS_REFRESH_INTERVAL = 10;
     private static final int DEFAULT_DEPLOYMENT_STATUS_MAX_REFRESH_TIMES = 20;
+    private static final int DEFAULT_PREPARE_PARALLELISM = 4;
+    private static final int DEPLOY_CONFLICT_MAX_RETRIES = 5;
+    private static final int DEPLOY_CONFLICT_RETRY_INTERVAL = 2;
+    // statuses of a deployment that doesn't restart the site when its build is done
+    private static final Set<DeploymentBuildStatus> INTERMEDIATE_DONE_STATUS = new HashSet<>(Arrays.asList(
+            DeploymentBuildStatus.BUILD_SUCCESSFUL, DeploymentBuildStatus.POST_BUILD_RESTART_REQUIRED));
 
     private final WebAppBase<?, ?, ?> webApp;
     private final List<WebAppArtifact> artifacts;
@@ -53,6 +76,17 @@ public class DeployWebAppTask extends AzureTask<WebAppBase<?, ?, ?>> {
     private long deploymentStatusRefreshInterval = DEFAULT_DEPLOYMENT_STATUS_REFRESH_INTERVAL;
     @Setter
     private long deploymentStatusMaxRefreshTimes = DEFAULT_DEPLOYMENT_STATUS_MAX_REFRESH_TIMES;
+    /**
+     * max number of artifacts prepared (e.g. digested to skip unchanged ones) concurrently, artifacts are always
+     * deployed one at a time, since kudu runs only one deployment at a time.
+     */
+    @Setter
+    private int prepareParallelism = DEFAULT_PREPARE_PARALLELISM;
+    /**
+     * skip deploying unchanged artifacts, refer {@link com.microsoft.azure.toolkit.lib.appservice.deploy.DeployManifest}
+     */
+    @Setter
+    private boolean skipUnchanged;
 
     public DeployWebAppTask(WebAppBase<?, ?, ?> webApp, List<WebAppArtifact> artifacts) {
         this(webApp, artifacts, false);
@@ -88,20 +122,70 @@ public class DeployWebAppTask extends AzureTask<WebAppBase<?, ?, ?>> {
         if (artifacts.stream().anyMatch(artifact -> artifact.getDeployType() == null)) {
             throw new AzureToolkitRuntimeException("missing deployment type for some artifacts.");
         }
+        if (artifacts.isEmpty()) { // e.g. only external resources are configured, nothing to deploy but starting the app
+            return;
+        }
         final long startTime = System.currentTimeMillis();
-        final List<WebAppArtifact> artifactsOneDeploy = this.artifacts.stream()
-                .filter(artifact -> artifact.getDeployType() != null)
-                .collect(Collectors.toList());
-        if (isWaitDeploymentComplete()) {
-            final AtomicReference<KuduDeploymentResult> reference = new AtomicReference<>();
-            artifactsOneDeploy.forEach(resource -> reference.set(webApp.pushDeploy(resource.getDeployType(), resource.getFile(),
-                    DeployOptions.builder().path(resource.getPath()).restartSite(restartSite).trackDeployment(true).build())));
-            trackDeployment(webApp, reference);
-        } else {
-            artifactsOneDeploy.forEach(resource -> webApp.deploy(resource.getDeployType(), resource.getFile(),
-                    DeployOptions.builder().path(resource.getPath()).restartSite(restartSite).build()));
+        final DeployManifest manifest = webApp.getDeployManifest();
+        final long savedBytes = manifest.getSavedBytes().get();
+        final int deployments = manifest.getDeployments().get();
+        final boolean waitDeploymentComplete = isWaitDeploymentComplete();
+        if (skipUnchanged && artifacts.size() > 1) {
+            Flux.fromIterable(artifacts)
+                .flatMap(artifact -> Mono.fromRunnable(() -> manifest.prepare(artifact.getFile())).subscribeOn(Schedulers.boundedElastic()), Math.max(1, prepareParallelism))
+                .blockLast();
+        }
+        // the last artifact restarts the site (if required) only once, after everything else is in place
+        final List<KuduDeploymentResult> results = new ArrayList<>();
+        artifacts.subList(0, artifacts.size() - 1).forEach(artifact -> deploy(artifact, false, waitDeploymentComplete).ifPresent(results::add));
+        final int deploymentsBeforeLast = manifest.getDeployments().get();
+        final KuduDeploymentResult last = deploy(artifacts.get(artifacts.size() - 1), restartSite, waitDeploymentComplete).orElse(null);
+        if (restartSite && manifest.getDeployments().get() == deploymentsBeforeLast && deploymentsBeforeLast > deployments) {
+            // the last artifact is skipped as unchanged, restart explicitly for the others
+            webApp.restart();
         }
+        OperationContext.action().setTelemetryProperty("deploy-artifacts", String.valueOf(artifacts.size()));
         OperationContext.action().setTelemetryProperty("deploy-cost", String.valueOf(System.currentTimeMillis() - startTime));
+        reportSavedBytes(manifest.getSavedBytes().get() - savedBytes);
+        if (waitDeploymentComplete) {
+            trackDeployments(webApp, results, last);
+        }
+    }
+
+    private Optional<KuduDeploymentResult> deploy(final WebAppArtifact artifact, final boolean restart, final boolean push) {
+        final DeployOptions options = DeployOptions.builder().path(artifact.getPath()).restartSite(restart).trackDeployment(push).skipUnchanged(skipUnchanged).build();
+        for (int attempt = 0; ; attempt++) {
+            try {
+                if (push) {
+                    // unchanged artifacts are skipped without deployment result
+                    return Optional.ofNullable(webApp.pushDeploy(artifact.getDeployType(), artifact.getFile(), options));
+                }
+                webApp.deploy(artifact.getDeployType(), artifact.getFile(), options);
+                return Optional.empty();
+            } catch (final RuntimeException e) {
+                // kudu accepts only one deployment at a time and rejects the others (e.g. from other tools) with 409 conflict
+                if (attempt >= DEPLOY_CONFLICT_MAX_RETRIES || !isConflict(e)) {
+                    throw e;
+                }
+                log.debug("deployment of {} is rejected for another in progress, retrying", artifact.getFile(), e);
+                final Duration delay = Optional.ofNullable(Poller.getRetryAfter(e)).orElse(Duration.ofSeconds(DEPLOY_CONFLICT_RETRY_INTERVAL << attempt));
+                Mono.delay(delay).block();
+            }
+        }
+    }
+
+    private static boolean isConflict(final Throwable e) {
+        return ExceptionUtils.getThrowableList(e).stream().anyMatch(t -> t instanceof HttpResponseException &&
+            ((HttpResponseException) t).getResponse().getStatusCode() == HttpStatus.SC_CONFLICT);
+    }
+
+    private void reportSavedBytes(long savedBytes) {
+        if (skipUnchanged) {
+            OperationContext.action().setTelemetryProperty("deploy-saved-bytes", String.valueOf(savedBytes));
+            if (savedBytes > 0) {
+                messager.info(String.format(DEPLOY_SAVED, FileUtils.byteCountToDisplaySize(savedBytes)));
+            }
+        }
     }
 
     private boolean isWaitDeploymentComplete() {
@@ -116,21 +200,36 @@ public class DeployWebAppTask extends AzureTask<WebAppBase<?, ?, ?>> {
         return Optional.ofNullable(this.waitDeploymentComplete).orElseGet(() -> webApp.getRuntime().isLinux());
     }
 
-    private void trackDeployment(final WebAppBase<?, ?, ?> target, final AtomicReference<KuduDeploymentResult> resultReference) {
-        final KuduDeploymentResult kuduDeploymentResult = resultReference.get();
-        if (kuduDeploymentResult == null) {
-            return;
-        }
-        final CsmDeploymentStatus status = Mono.fromCallable(() -> getDeploymentStatus(target, kuduDeploymentResult))
-                .delayElement(Duration.ofSeconds(deploymentStatusRefreshInterval))
-                .subscribeOn(Schedulers.boundedElastic())
-                .repeat(deploymentStatusMaxRefreshTimes)
-                .takeUntil(csmDeploymentStatus -> !csmDeploymentStatus.getStatus().isRunning())
-                .blockLast();
+    private void trackDeployments(final WebAppBase<?, ?, ?> target, final List<KuduDeploymentResult> results, @Nullable final KuduDeploymentResult last) {
+        Optional.ofNullable(last).ifPresent(results::add);
+        final List<Tuple2<CsmDeploymentStatus, Boolean>> statuses = Flux.fromIterable(results)
+            .flatMapSequential(result -> trackDeployment(target, result, result != last).map(status -> Tuples.of(status, result != last)))
+            .collectList().block();
+        Optional.ofNullable(statuses).orElse(Collections.emptyList()).forEach(status -> checkDeploymentStatus(target, status.getT1(), status.getT2()));
+    }
+
+    /**
+     * @param intermediate the deployment is not going to restart the site, so it's done once the build is done.
+     */
+    private Mono<CsmDeploymentStatus> trackDeployment(final WebAppBase<?, ?, ?> target, final KuduDeploymentResult result, final boolean intermediate) {
+        // start fast and back off to the refresh interval, within the same time budget as before
+        return Poller.builder().name("deployment-status")
+                .initialDelay(Duration.ofSeconds(1))
+                .maxDelay(Duration.ofSeconds(Math.max(1, deploymentStatusRefreshInterval)))
+                .timeout(Duration.ofSeconds(deploymentStatusRefreshInterval * deploymentStatusMaxRefreshTimes))
+                .build()
+                .pollAsync(() -> getDeploymentStatus(target, result), status -> Objects.nonNull(status) &&
+                    (!status.getStatus().isRunning() || (intermediate && INTERMEDIATE_DONE_STATUS.contains(status.getStatus()))));
+    }
+
+    /**
+     * @param intermediate refer {@link #trackDeployment}, the last deployment is done only when the site is restarted.
+     */
+    private void checkDeploymentStatus(final WebAppBase<?, ?, ?> target, final CsmDeploymentStatus status, final boolean intermediate) {
         final DeploymentBuildStatus buildStatus = status.getStatus();
         if (buildStatus.isTimeout()) {
             this.messager.warning("Resource deployed, but failed to get the deployment status as timeout");
-        } else if (buildStatus.isRunning()) {
+        } else if (buildStatus.isRunning() && !(intermediate && INTERMEDIATE_DONE_STATUS.contains(buildStatus))) {
             this.messager.warning("Resource deployed, but the deployment is still in process in Azure");
         } else if (buildStatus.isFailed()) {
             final String errorMessages = CollectionUtils.isNotEmpty(status.getErrors()) ?
@@ -146,8 +245,8 @@ public class DeployWebAppTask extends AzureTask<WebAppBase<?, ?, ?>> {
         if (Objects.isNull(deploymentStatus)) {
             return null;
         }
-        final String statusMessage = String.format("Deployment Status: %s; Successful Instance Count: %s; In-progress Instance Count: %s; Failed Instance Count: %s",
-                deploymentStatus.getStatus().getValue(), deploymentStatus.getNumberOfInstancesSuccessful(), deploymentStatus.getNumberOfInstancesInProgress(), deploymentStatus.getNumberOfInstancesFailed());
+        final String statusMessage = String.format("Deployment (%s) Status: %s; Successful Instance Count: %s; In-progress Instance Count: %s; Failed Instance Count: %s",
+                result.getDeploymentId(), deploymentStatus.getStatus().getValue(), deploymentStatus.getNumberOfInstancesSuccessful(), deploymentStatus.getNumberOfInstancesInProgress(), deploymentStatus.getNumberOfInstancesFailed());
         this.messager.info(statusMessage);
         return deploymentStatus;
     }
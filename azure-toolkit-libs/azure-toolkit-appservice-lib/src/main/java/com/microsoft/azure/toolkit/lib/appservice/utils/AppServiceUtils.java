@@ -15,6 +15,7 @@ import com.azure.resourcemanager.appservice.models.RuntimeStack;
 import com.azure.resourcemanager.appservice.models.SkuDescription;
 import com.azure.resourcemanager.appservice.models.WebAppBase;
 import com.azure.resourcemanager.appservice.models.WebAppDiagnosticLogs;
+import com.azure.resourcemanager.appservice.models.WebSiteBase;
 import com.azure.resourcemanager.resources.fluentcore.model.HasInnerModel;
 import com.microsoft.azure.toolkit.lib.appservice.entity.FunctionEntity;
 import com.microsoft.azure.toolkit.lib.appservice.model.CsmDeploymentStatus;
@@ -35,6 +36,7 @@ import org.apache.commons.lang3.ObjectUtils;
 import org.apache.commons.lang3.StringUtils;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import java.util.Collections;
 import java.util.List;
 import java.util.Locale;
@@ -323,6 +325,14 @@ public class AppServiceUtils {
                 .build();
     }
 
+    /**
+     * @return version of the site used to detect changes when reloading resources, {@code null} if unknown.
+     */
+    @Nullable
+    public static String getVersion(@Nonnull final WebSiteBase site) {
+        return Objects.isNull(site.lastModifiedTime()) ? null : String.format("%s/%s", site.lastModifiedTime(), site.state());
+    }
+
     private static ErrorEntity fromErrorEntity(@Nonnull final com.azure.resourcemanager.appservice.models.ErrorEntity entity) {
         final List<ErrorEntity> details = Optional.ofNullable(entity.details())
                 .map(list -> list.stream().map(AppServiceUtils::fromErrorEntity).collect(Collectors.toList())).orElse(Collections.emptyList());
@@ -12,13 +12,16 @@ import com.microsoft.azure.toolkit.lib.appservice.model.DeployType;
 import com.microsoft.azure.toolkit.lib.common.exception.AzureToolkitRuntimeException;
 import org.apache.commons.io.FilenameUtils;
 import org.apache.commons.lang3.StringUtils;
+import reactor.core.publisher.Flux;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.io.File;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Predicate;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
@@ -87,4 +90,30 @@ public class Utils {
         segments = image.split(Pattern.quote("/"));
         return segments[segments.length - 1].trim();
     }
+
+    /**
+     * slice {@code count} bytes (till the end if it's null) from {@code offset} of the {@code content}.
+     */
+    @Nonnull
+    public static Flux<ByteBuffer> slice(@Nonnull Flux<ByteBuffer> content, long offset, @Nullable Long count) {
+        final long end = count == null ? Long.MAX_VALUE : offset + count;
+        return Flux.defer(() -> {
+            final AtomicLong position = new AtomicLong();
+            return content.<ByteBuffer>handle((buffer, sink) -> {
+                final long start = position.getAndAdd(buffer.remaining());
+                final long stop = start + buffer.remaining();
+                if (start >= end) {
+                    sink.complete();
+                } else if (stop > offset) {
+                    final ByteBuffer slice = buffer.duplicate();
+                    slice.position(slice.position() + (int) Math.max(0, offset - start));
+                    slice.limit(slice.limit() - (int) Math.max(0, stop - end));
+                    sink.next(slice);
+                    if (stop >= end) {
+                        sink.complete();
+                    }
+                }
+            });
+        });
+    }
 }
@@ -0,0 +1,186 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+package com.microsoft.azure.toolkit.lib.appservice.utils;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.compress.archivers.zip.ParallelScatterZipCreator;
+import org.apache.commons.compress.archivers.zip.UnixStat;
+import org.apache.commons.compress.archivers.zip.Zip64Mode;
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
+import org.apache.commons.compress.parallel.InputStreamSupplier;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.FilenameUtils;
+import org.apache.commons.io.input.NullInputStream;
+import org.apache.commons.io.output.CloseShieldOutputStream;
+import org.apache.commons.lang3.StringUtils;
+
+import javax.annotation.Nonnull;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermission;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+
+/**
+ * packs a directory into a zip archive with {@link ParallelScatterZipCreator}:
+ * <ul>
+ *     <li>entries are excluded by filter while writing, no need to rewrite the archive to remove entries.</li>
+ *     <li>already compressed files (jars, archives, images) are stored as is instead of being deflated again.</li>
+ *     <li>files are read once and deflated in parallel into temporary files, which are then merged into the archive
+ *     in order, so memory usage doesn't grow with file sizes.</li>
+ *     <li>zip64 is used as needed (more than 65535 entries or 4GB), unix file modes are kept.</li>
+ * </ul>
+ */
+@Slf4j
+public class ZipPackager {
+    private static final Set<String> COMPRESSED_EXTENSIONS = new HashSet<>(Arrays.asList(
+        "jar", "war", "ear", "zip", "gz", "tgz", "bz2", "xz", "7z", "png", "jpg", "jpeg", "gif", "webp"));
+
+    @Nonnull
+    private final Predicate<String> filter;
+    private final int parallelism;
+
+    public ZipPackager() {
+        this(path -> true);
+    }
+
+    /**
+     * @param filter test the relative path (separated by '/') of a file, only the accepted files are packed.
+     */
+    public ZipPackager(@Nonnull Predicate<String> filter) {
+        this(filter, Runtime.getRuntime().availableProcessors());
+    }
+
+    public ZipPackager(@Nonnull Predicate<String> filter, int parallelism) {
+        this.filter = filter;
+        this.parallelism = Math.max(1, parallelism);
+    }
+
+    @Nonnull
+    public File pack(@Nonnull File directory, @Nonnull File zipFile) throws IOException {
+        try (final OutputStream output = new BufferedOutputStream(Files.newOutputStream(zipFile.toPath()))) {
+            this.pack(directory, output);
+        }
+        return zipFile;
+    }
+
+    /**
+     * write the zip archive of {@code directory} to {@code output}, {@code output} is not closed.
+     */
+    public void pack(@Nonnull File directory, @Nonnull OutputStream output) throws IOException {
+        final List<Source> sources = this.list(directory);
+        final long start = System.currentTimeMillis();
+        final ExecutorService executor = Executors.newFixedThreadPool(this.parallelism, r -> {
+            final Thread thread = new Thread(r, "zip-packager");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try (final ZipArchiveOutputStream zip = new ZipArchiveOutputStream(CloseShieldOutputStream.wrap(output))) {
+            zip.setEncoding(StandardCharsets.UTF_8.name());
+            zip.setUseZip64(Zip64Mode.AsNeeded);
+            final ParallelScatterZipCreator creator = new ParallelScatterZipCreator(executor);
+            for (final Source source : sources) {
+                creator.addArchiveEntry(source.toEntry(), source);
+            }
+            creator.writeTo(zip);
+            zip.finish();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("interrupted when packing zip archive", e);
+        } catch (final ExecutionException e) {
+            final Throwable cause = e.getCause() instanceof UncheckedIOException ? e.getCause().getCause() : e.getCause();
+            throw cause instanceof IOException ? (IOException) cause : new IOException(cause);
+        } finally {
+            executor.shutdownNow();
+        }
+        log.debug("packed {} entries ({}) of {} in {} ms", sources.size(), FileUtils.byteCountToDisplaySize(sources.stream().mapToLong(s -> s.length).sum()),
+            directory.getAbsolutePath(), System.currentTimeMillis() - start);
+    }
+
+    @Nonnull
+    private List<Source> list(@Nonnull File directory) throws IOException {
+        final Path root = directory.toPath();
+        try (final Stream<Path> paths = Files.walk(root)) {
+            return paths.filter(p -> !p.equals(root))
+                .map(p -> new Source(p.toFile(), FilenameUtils.separatorsToUnix(root.relativize(p).toString())))
+                .filter(s -> this.filter.test(s.path))
+                .sorted((a, b) -> a.path.compareTo(b.path))
+                .collect(Collectors.toList());
+        }
+    }
+
+    @RequiredArgsConstructor
+    private static class Source implements InputStreamSupplier {
+        private final File file;
+        private final String path;
+        private final boolean directory;
+        private final long length;
+
+        Source(@Nonnull File file, @Nonnull String path) {
+            this(file, path, file.isDirectory(), file.isDirectory() ? 0 : file.length());
+        }
+
+        @Nonnull
+        ZipArchiveEntry toEntry() {
+            final ZipArchiveEntry entry = new ZipArchiveEntry(this.directory ? this.path + "/" : this.path);
+            entry.setTime(this.file.lastModified());
+            entry.setMethod(this.directory || this.isCompressed() ? ZipEntry.STORED : ZipEntry.DEFLATED);
+            final int mode = getPermissions(this.file);
+            if (mode >= 0) {
+                entry.setUnixMode((this.directory ? UnixStat.DIR_FLAG : UnixStat.FILE_FLAG) | mode);
+            }
+            return entry;
+        }
+
+        @Override
+        public InputStream get() {
+            if (this.directory) {
+                return new NullInputStream(0);
+            }
+            try {
+                return Files.newInputStream(this.file.toPath());
+            } catch (final IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        boolean isCompressed() {
+            return COMPRESSED_EXTENSIONS.contains(StringUtils.lowerCase(FilenameUtils.getExtension(this.path)));
+        }
+
+        /**
+         * @return unix permission bits of {@code file}, or -1 if the file system is not posix.
+         */
+        private static int getPermissions(@Nonnull File file) {
+            try {
+                int mode = 0;
+                for (final PosixFilePermission permission : Files.getPosixFilePermissions(file.toPath())) {
+                    mode |= 1 << (8 - permission.ordinal()); // declared in order of OWNER_READ(0400)...OTHERS_EXECUTE(01)
+                }
+                return mode;
+            } catch (final UnsupportedOperationException | IOException e) {
+                return -1;
+            }
+        }
+    }
+}
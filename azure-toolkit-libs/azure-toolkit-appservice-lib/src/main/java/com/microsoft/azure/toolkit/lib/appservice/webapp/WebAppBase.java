@@ -8,6 +8,7 @@ package com.microsoft.azure.toolkit.lib.appservice.webapp;
 import com.azure.resourcemanager.appservice.models.SupportsOneDeploy;
 import com.azure.resourcemanager.appservice.models.WebSiteBase;
 import com.microsoft.azure.toolkit.lib.appservice.AppServiceAppBase;
+import com.microsoft.azure.toolkit.lib.appservice.deploy.DeployManifest;
 import com.microsoft.azure.toolkit.lib.appservice.deploy.IOneDeploy;
 import com.microsoft.azure.toolkit.lib.appservice.model.CsmDeploymentStatus;
 import com.microsoft.azure.toolkit.lib.appservice.model.DeployOptions;
@@ -24,6 +25,7 @@ import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.io.File;
 import java.util.Objects;
+import java.util.Optional;
 
 public abstract class WebAppBase<T extends WebAppBase<T, P, F>, P extends AbstractAzResource<P, ?, ?>, F extends com.azure.resourcemanager.appservice.models.WebAppBase>
     extends AppServiceAppBase<T, P, F> implements IOneDeploy {
@@ -51,7 +53,20 @@ public abstract class WebAppBase<T extends WebAppBase<T, P, F>, P extends Abstra
                     (deployType.toString()), StringUtils.isBlank(deployOptions.getPath()) ? "" : (" to " + (deployOptions.getPath()))));
             final com.azure.resourcemanager.appservice.models.DeployType type =
                     com.azure.resourcemanager.appservice.models.DeployType.fromString(deployType.getValue());
-            this.doModify(() -> Objects.requireNonNull(((SupportsOneDeploy) remote)).deploy(type, targetFile, options), Status.DEPLOYING);
+            final boolean skipUnchanged = isSkipUnchanged(deployOptions);
+            if (skipUnchanged && this.isUnchanged(deployType, targetFile, deployOptions)) {
+                return;
+            }
+            try {
+                // deployments not recorded (without skipUnchanged) still outdate the records
+                this.getDeployManifest().invalidate(toTarget(deployType, deployOptions), isCleanDeployment(deployType, deployOptions));
+                this.doModify(() -> Objects.requireNonNull(((SupportsOneDeploy) remote)).deploy(type, targetFile, options), Status.DEPLOYING);
+                if (skipUnchanged) {
+                    this.getDeployManifest().record(toTarget(deployType, deployOptions), targetFile, isCleanDeployment(deployType, deployOptions));
+                }
+            } finally {
+                this.getDeployManifest().reload();
+            }
         }
     }
 
@@ -67,12 +82,50 @@ public abstract class WebAppBase<T extends WebAppBase<T, P, F>, P extends Abstra
                     (deployType.toString()), StringUtils.isBlank(deployOptions.getPath()) ? "" : (" to " + (deployOptions.getPath()))));
             final com.azure.resourcemanager.appservice.models.DeployType type =
                     com.azure.resourcemanager.appservice.models.DeployType.fromString(deployType.getValue());
-            return AppServiceUtils.fromKuduDeploymentResult(((SupportsOneDeploy) remote).pushDeploy(type, targetFile, options));
+            final boolean skipUnchanged = isSkipUnchanged(deployOptions);
+            if (skipUnchanged && this.isUnchanged(deployType, targetFile, deployOptions)) {
+                return null;
+            }
+            try {
+                // deployments not recorded (without skipUnchanged) still outdate the records
+                this.getDeployManifest().invalidate(toTarget(deployType, deployOptions), isCleanDeployment(deployType, deployOptions));
+                final KuduDeploymentResult result = AppServiceUtils.fromKuduDeploymentResult(((SupportsOneDeploy) remote).pushDeploy(type, targetFile, options));
+                if (skipUnchanged) {
+                    this.getDeployManifest().record(toTarget(deployType, deployOptions), targetFile, isCleanDeployment(deployType, deployOptions));
+                }
+                return result;
+            } finally {
+                this.getDeployManifest().reload();
+            }
         } else {
             return null;
         }
     }
 
+    private static boolean isSkipUnchanged(@Nullable DeployOptions deployOptions) {
+        return Optional.ofNullable(deployOptions).map(DeployOptions::getSkipUnchanged).orElse(false);
+    }
+
+    private boolean isUnchanged(@Nonnull DeployType deployType, @Nonnull File targetFile, @Nullable DeployOptions deployOptions) {
+        if (this.getDeployManifest().isUnchanged(toTarget(deployType, deployOptions), targetFile)) {
+            AzureMessager.getMessager().info(AzureString.format("Skip deploying (%s)[%s], it's unchanged since last deployment.",
+                    targetFile.toString(), deployType.toString()));
+            return true;
+        }
+        return false;
+    }
+
+    @Nonnull
+    private static String toTarget(@Nonnull DeployType deployType, @Nullable DeployOptions deployOptions) {
+        return DeployManifest.target(deployType.getValue(), Optional.ofNullable(deployOptions).map(DeployOptions::getPath).orElse(null));
+    }
+
+    private static boolean isCleanDeployment(@Nonnull DeployType deployType, @Nullable DeployOptions deployOptions) {
+        // take war/jar/ear/zip deployments as clean by default, which may only cause unnecessary re-deployments
+        return Optional.ofNullable(deployOptions).map(DeployOptions::getCleanDeployment)
+                .orElseGet(deployType::isCleanByDefault);
+    }
+
     @Override
     @Nullable
     public CsmDeploymentStatus getDeploymentStatus(@Nonnull final String deploymentId) {
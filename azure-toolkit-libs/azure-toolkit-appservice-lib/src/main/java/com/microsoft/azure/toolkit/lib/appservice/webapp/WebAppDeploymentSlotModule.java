@@ -11,6 +11,7 @@ import com.azure.resourcemanager.appservice.models.WebSiteBase;
 import com.microsoft.azure.toolkit.lib.appservice.IDeploymentSlotModule;
 import com.microsoft.azure.toolkit.lib.appservice.function.FunctionApp;
 import com.microsoft.azure.toolkit.lib.appservice.function.FunctionAppDeploymentSlot;
+import com.microsoft.azure.toolkit.lib.appservice.utils.AppServiceUtils;
 import com.microsoft.azure.toolkit.lib.common.model.AbstractAzResource;
 import com.microsoft.azure.toolkit.lib.common.model.AbstractAzResourceModule;
 import com.microsoft.azure.toolkit.lib.common.operation.AzureOperation;
@@ -52,6 +53,12 @@ public class WebAppDeploymentSlotModule extends AbstractAzResourceModule<WebAppD
         return new WebAppDeploymentSlot((WebDeploymentSlotBasic) remote, this);
     }
 
+    @Nullable
+    @Override
+    protected String getRemoteVersion(@Nonnull WebSiteBase remote) {
+        return AppServiceUtils.getVersion(remote);
+    }
+
     @Nonnull
     @Override
     protected WebAppDeploymentSlot newResource(@Nonnull String name, @Nullable String resourceGroupName) {
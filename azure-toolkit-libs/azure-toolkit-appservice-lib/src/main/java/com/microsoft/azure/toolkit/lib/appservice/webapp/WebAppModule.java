@@ -11,6 +11,7 @@ import com.azure.resourcemanager.appservice.models.WebApps;
 import com.azure.resourcemanager.appservice.models.WebSiteBase;
 import com.microsoft.azure.toolkit.lib.appservice.AppServiceServiceSubscription;
 import com.microsoft.azure.toolkit.lib.appservice.function.FunctionApp;
+import com.microsoft.azure.toolkit.lib.appservice.utils.AppServiceUtils;
 import com.microsoft.azure.toolkit.lib.common.exception.AzureToolkitRuntimeException;
 import com.microsoft.azure.toolkit.lib.common.model.AbstractAzResourceModule;
 import com.microsoft.azure.toolkit.lib.common.model.AzResource;
@@ -55,6 +56,12 @@ public class WebAppModule extends AbstractAzResourceModule<WebApp, AppServiceSer
         return new WebApp((WebAppBasic) remote, this);
     }
 
+    @Nullable
+    @Override
+    protected String getRemoteVersion(@Nonnull WebSiteBase remote) {
+        return AppServiceUtils.getVersion(remote);
+    }
+
     @Nonnull
     @Override
     protected WebApp newResource(@Nonnull String name, @Nullable String resourceGroupName) {
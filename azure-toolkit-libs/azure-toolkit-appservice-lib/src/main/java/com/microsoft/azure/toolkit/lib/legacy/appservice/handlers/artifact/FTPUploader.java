@@ -9,106 +9,205 @@ import com.microsoft.azure.toolkit.lib.common.exception.AzureExecutionException;
 import com.microsoft.azure.toolkit.lib.common.messager.AzureMessager;
 import com.microsoft.azure.toolkit.lib.common.messager.IAzureMessager;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.FilenameUtils;
+import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.net.ftp.FTP;
 import org.apache.commons.net.ftp.FTPClient;
+import org.apache.commons.net.ftp.FTPFile;
+import org.apache.commons.net.ftp.FTPSClient;
 
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TimeZone;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
 
 /**
- * Utility class to upload directory to FTP server
+ * Utility class to upload files to FTP server, files are uploaded through a pool of concurrent connections after
+ * creating all the target directories once. failed files are retried individually with backoff, and files whose
+ * remote size and modification time already match are skipped.
  */
 @Slf4j
 public class FTPUploader {
     public static final String UPLOAD_START = "Uploading files to FTP server: ";
     public static final String UPLOAD_SUCCESS = "Successfully uploaded files to FTP server: ";
-    public static final String UPLOAD_FAILURE = "Failed to upload files to FTP server, retrying immediately (%d/%d)";
+    public static final String UPLOAD_FAILURE = "Failed to upload file %s, retrying (%d/%d)";
     public static final String UPLOAD_RETRY_FAILURE = "Failed to upload files to FTP server after %d retries...";
-    public static final String UPLOAD_DIR_START = "Uploading directory: %s --> %s";
-    public static final String UPLOAD_DIR_FINISH = "Successfully uploaded directory: %s --> %s";
-    public static final String UPLOAD_DIR_FAILURE = "Failed to upload directory: %s --> %s";
-    public static final String UPLOAD_DIR = "%s[DIR] %s --> %s";
-    public static final String UPLOAD_FILE = "%s[FILE] %s --> %s";
-    public static final String UPLOAD_FILE_REPLY = "%s.......Reply Message : %s";
+    public static final String UPLOAD_SUMMARY = "%d file(s) (%s) uploaded, %d up-to-date file(s) (%s) skipped.";
+    public static final int DEFAULT_CONCURRENCY = 4;
+    private static final long RETRY_BACKOFF_MILLIS = 500;
+    private static final long TIMESTAMP_TOLERANCE_MILLIS = 1000;
+
+    private final int concurrency;
+    private final boolean secure;
+
+    public FTPUploader() {
+        this(DEFAULT_CONCURRENCY, false);
+    }
 
     /**
-     * Upload directory to specified FTP server with retries.
+     * @param concurrency max number of concurrent connections.
+     * @param secure      use explicit FTPS.
+     */
+    public FTPUploader(int concurrency, boolean secure) {
+        this.concurrency = Math.max(1, concurrency);
+        this.secure = secure;
+    }
+
+    /**
+     * Upload directory to specified FTP server, each file is retried at most {@code maxRetryCount} times.
      */
     public void uploadDirectoryWithRetries(final String ftpServer, final String username, final String password,
                                            final String sourceDirectory, final String targetDirectory,
                                            final int maxRetryCount) throws AzureExecutionException {
-        int retryCount = 0;
-        while (retryCount < maxRetryCount) {
-            retryCount++;
-            final IAzureMessager messager = AzureMessager.getMessager();
-            messager.info(UPLOAD_START + ftpServer);
-            if (uploadDirectory(ftpServer, username, password, sourceDirectory, targetDirectory)) {
-                messager.success(UPLOAD_SUCCESS + ftpServer);
-                return;
-            } else {
-                messager.warning(String.format(UPLOAD_FAILURE, retryCount, maxRetryCount));
+        final Path source = Paths.get(sourceDirectory);
+        final Map<String, File> files = new TreeMap<>();
+        if (Files.isDirectory(source)) {
+            try (final Stream<Path> paths = Files.walk(source)) {
+                paths.filter(Files::isRegularFile).forEach(p -> files.put(toRemotePath(targetDirectory,
+                    FilenameUtils.separatorsToUnix(source.relativize(p).toString())), p.toFile()));
+            } catch (final IOException e) {
+                throw new AzureExecutionException(String.format("Failed to list files in %s", sourceDirectory), e);
             }
         }
-        // Reaching here means all retries failed.
-        throw new AzureExecutionException(String.format(UPLOAD_RETRY_FAILURE, maxRetryCount));
+        uploadFilesWithRetries(ftpServer, username, password, files, maxRetryCount);
     }
 
     /**
-     * Upload directory to specified FTP server without retries.
+     * Upload files to specified FTP server, each file is retried at most {@code maxRetryCount} times.
      *
-     * @return Boolean to indicate whether uploading is successful.
+     * @param files local files keyed by their absolute remote paths
      */
-    protected boolean uploadDirectory(final String ftpServer, final String username, final String password,
-                                      final String sourceDirectoryPath, final String targetDirectoryPath) {
+    public void uploadFilesWithRetries(final String ftpServer, final String username, final String password,
+                                       final Map<String, File> files, final int maxRetryCount) throws AzureExecutionException {
         final IAzureMessager messager = AzureMessager.getMessager();
+        messager.info(UPLOAD_START + ftpServer);
         log.debug("FTP username: " + username);
+        final ConnectionPool pool = new ConnectionPool(ftpServer, username, password);
+        final Summary summary = new Summary();
+        final ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(this.concurrency, files.size())));
         try {
-            final FTPClient ftpClient = getFTPClient(ftpServer, username, password);
-
-            messager.info(String.format(UPLOAD_DIR_START, sourceDirectoryPath, targetDirectoryPath));
-            uploadDirectory(ftpClient, sourceDirectoryPath, targetDirectoryPath, "");
-            messager.success(String.format(UPLOAD_DIR_FINISH, sourceDirectoryPath, targetDirectoryPath));
-
-            ftpClient.disconnect();
-            return true;
-        } catch (Exception e) {
+            final Map<String, FTPFile> remoteFiles = prepareDirectoriesWithRetries(pool, files.keySet(), maxRetryCount);
+            final List<Future<?>> futures = new ArrayList<>();
+            for (final Map.Entry<String, File> entry : files.entrySet()) {
+                final File file = entry.getValue();
+                if (isUpToDate(remoteFiles.get(entry.getKey()), file)) {
+                    summary.skipped.incrementAndGet();
+                    summary.skippedBytes.addAndGet(file.length());
+                    continue;
+                }
+                futures.add(executor.submit(() -> {
+                    uploadFileWithRetries(pool, file, entry.getKey(), maxRetryCount);
+                    summary.uploaded.incrementAndGet();
+                    summary.uploadedBytes.addAndGet(file.length());
+                    return null;
+                }));
+            }
+            for (final Future<?> future : futures) {
+                future.get();
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AzureExecutionException("Interrupted when uploading files to FTP server", e);
+        } catch (final IOException | ExecutionException e) {
             log.debug(e.getMessage(), e);
-            messager.error(String.format(UPLOAD_DIR_FAILURE, sourceDirectoryPath, targetDirectoryPath));
+            throw new AzureExecutionException(String.format(UPLOAD_RETRY_FAILURE, maxRetryCount), e instanceof ExecutionException ? e.getCause() : e);
+        } finally {
+            executor.shutdownNow();
+            pool.close();
         }
+        messager.info(summary.toString());
+        messager.success(UPLOAD_SUCCESS + ftpServer);
+    }
 
-        return false;
+    @Nonnull
+    private Map<String, FTPFile> prepareDirectoriesWithRetries(@Nonnull final ConnectionPool pool, @Nonnull final Iterable<String> paths,
+                                                               final int maxRetryCount) throws IOException, InterruptedException {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return prepareDirectories(pool, paths);
+            } catch (final IOException e) {
+                if (attempt >= maxRetryCount) {
+                    throw e;
+                }
+                log.debug(e.getMessage(), e);
+                Thread.sleep(RETRY_BACKOFF_MILLIS << (attempt - 1));
+            }
+        }
     }
 
     /**
-     * Recursively upload a directory to FTP server with the provided FTP client object.
+     * create all the target directories (and their parents) once with a single connection, and list files in them.
+     *
+     * @return the existing remote files keyed by their absolute paths
      */
-    protected void uploadDirectory(final FTPClient ftpClient, final String sourceDirectoryPath,
-                                   final String targetDirectoryPath, final String logPrefix) throws IOException {
-        final IAzureMessager messager = AzureMessager.getMessager();
-        messager.info(String.format(UPLOAD_DIR, logPrefix, sourceDirectoryPath, targetDirectoryPath));
-        final File sourceDirectory = new File(sourceDirectoryPath);
-        final File[] files = sourceDirectory.listFiles();
-        if (files == null || files.length == 0) {
-            messager.info(String.format("%sEmpty directory at %s", logPrefix, sourceDirectoryPath));
-            return;
-        }
-
-        // Make sure target directory exists
-        final boolean isTargetDirectoryExist = ftpClient.changeWorkingDirectory(targetDirectoryPath);
-        if (!isTargetDirectoryExist) {
-            ftpClient.makeDirectory(targetDirectoryPath);
-        }
-
-        final String nextLevelPrefix = logPrefix + "..";
-        for (final File file : files) {
-            if (file.isFile()) {
-                uploadFile(ftpClient, file.getAbsolutePath(), targetDirectoryPath, nextLevelPrefix);
-            } else {
-                uploadDirectory(ftpClient, Paths.get(sourceDirectoryPath, file.getName()).toString(),
-                    targetDirectoryPath + "/" + file.getName(), nextLevelPrefix);
+    @Nonnull
+    protected Map<String, FTPFile> prepareDirectories(@Nonnull final ConnectionPool pool, @Nonnull final Iterable<String> paths) throws IOException {
+        final TreeSet<String> directories = new TreeSet<>();
+        for (final String path : paths) {
+            for (String dir = getParent(path); StringUtils.isNotEmpty(dir) && !StringUtils.equals(dir, "/"); dir = getParent(dir)) {
+                directories.add(dir);
+            }
+        }
+        final Map<String, FTPFile> result = new ConcurrentHashMap<>();
+        final FTPClient client = pool.borrow();
+        try {
+            for (final String directory : directories) { // parents are always sorted before their children
+                client.makeDirectory(directory); // fails harmlessly if exists
+                for (final FTPFile remote : listFiles(client, directory)) {
+                    if (Objects.nonNull(remote) && remote.isFile()) {
+                        result.put(directory + "/" + remote.getName(), remote);
+                    }
+                }
+            }
+            pool.release(client);
+        } catch (final IOException e) {
+            pool.discard(client);
+            throw e;
+        }
+        return result;
+    }
+
+    protected void uploadFileWithRetries(@Nonnull final ConnectionPool pool, @Nonnull final File file, @Nonnull final String remotePath,
+                                         final int maxRetryCount) throws IOException, InterruptedException {
+        for (int attempt = 1; ; attempt++) {
+            final FTPClient client = pool.borrow();
+            try {
+                uploadFile(client, file, remotePath);
+                pool.release(client);
+                return;
+            } catch (final IOException e) {
+                pool.discard(client);
+                if (attempt >= maxRetryCount) {
+                    throw e;
+                }
+                log.debug(e.getMessage(), e);
+                AzureMessager.getMessager().warning(String.format(UPLOAD_FAILURE, file.getName(), attempt, maxRetryCount));
+                Thread.sleep(RETRY_BACKOFF_MILLIS << (attempt - 1));
             }
         }
     }
@@ -116,39 +215,139 @@ public class FTPUploader {
     /**
      * Upload a single file to FTP server with the provided FTP client object.
      */
-    protected void uploadFile(final FTPClient ftpClient, final String sourceFilePath, final String targetFilePath,
-                              final String logPrefix) throws IOException {
-        final IAzureMessager messager = AzureMessager.getMessager();
-        messager.info(String.format(UPLOAD_FILE, logPrefix, sourceFilePath, targetFilePath));
-        final File sourceFile = new File(sourceFilePath);
-        try (final InputStream is = new FileInputStream(sourceFile)) {
-            ftpClient.changeWorkingDirectory(targetFilePath);
-            ftpClient.storeFile(sourceFile.getName(), is);
-
-            final int replyCode = ftpClient.getReplyCode();
-            final String replyMessage = ftpClient.getReplyString();
-            if (isCommandFailed(replyCode)) {
-                messager.error(String.format(UPLOAD_FILE_REPLY, logPrefix, replyMessage));
-                throw new IOException("Failed to upload file: " + sourceFilePath);
-            } else {
-                messager.info(String.format(UPLOAD_FILE_REPLY, logPrefix, replyMessage));
+    protected void uploadFile(@Nonnull final FTPClient ftpClient, @Nonnull final File file, @Nonnull final String remotePath) throws IOException {
+        log.debug("[FILE] {} --> {}", file.getAbsolutePath(), remotePath);
+        try (final InputStream is = new FileInputStream(file)) {
+            if (!ftpClient.storeFile(remotePath, is) || isCommandFailed(ftpClient.getReplyCode())) {
+                throw new IOException(String.format("Failed to upload file: %s, reply: %s", file.getAbsolutePath(), ftpClient.getReplyString()));
             }
         }
+        // keep modification time so that the file can be skipped next time, not all servers support it
+        final SimpleDateFormat format = new SimpleDateFormat("yyyyMMddHHmmss");
+        format.setTimeZone(TimeZone.getTimeZone("UTC"));
+        ftpClient.setModificationTime(remotePath, format.format(new Date(file.lastModified())));
     }
 
     protected FTPClient getFTPClient(final String ftpServer, final String username, final String password)
         throws IOException {
-        final FTPClient ftpClient = new FTPClient();
+        final FTPClient ftpClient = secure ? new FTPSClient(false) : new FTPClient();
         ftpClient.connect(ftpServer);
-        ftpClient.login(username, password);
+        if (!ftpClient.login(username, password)) {
+            ftpClient.disconnect();
+            throw new IOException(String.format("Failed to login FTP server %s: %s", ftpServer, ftpClient.getReplyString()));
+        }
+        if (ftpClient instanceof FTPSClient) {
+            ((FTPSClient) ftpClient).execPBSZ(0);
+            ((FTPSClient) ftpClient).execPROT("P");
+        }
         ftpClient.setFileType(FTP.BINARY_FILE_TYPE);
         ftpClient.enterLocalPassiveMode();
         return ftpClient;
     }
 
-    private boolean isCommandFailed(final int replyCode) {
+    @Nonnull
+    private static FTPFile[] listFiles(@Nonnull final FTPClient client, @Nonnull final String directory) {
+        try {
+            // only MLSD reports precise modification time
+            return client.mlistDir(directory);
+        } catch (final IOException e) {
+            log.debug("failed to list files in {}", directory, e);
+            return new FTPFile[0];
+        }
+    }
+
+    private static boolean isUpToDate(@Nullable final FTPFile remote, @Nonnull final File file) {
+        return Objects.nonNull(remote) && Objects.nonNull(remote.getTimestamp()) && remote.getSize() == file.length() &&
+            Math.abs(remote.getTimestamp().getTimeInMillis() - file.lastModified()) < TIMESTAMP_TOLERANCE_MILLIS;
+    }
+
+    @Nonnull
+    private static String toRemotePath(@Nonnull final String directory, @Nonnull final String relativePath) {
+        return StringUtils.removeEnd(directory, "/") + "/" + relativePath;
+    }
+
+    @Nullable
+    private static String getParent(@Nonnull final String path) {
+        final int index = path.lastIndexOf('/');
+        return index > 0 ? path.substring(0, index) : null;
+    }
+
+    private static boolean isCommandFailed(final int replyCode) {
         // https://en.wikipedia.org/wiki/List_of_FTP_server_return_codes
         // 2xx means command has been successfully completed
         return replyCode >= 300;
     }
+
+    /**
+     * pool of logged-in connections, broken connections are discarded and recreated on demand.
+     */
+    protected class ConnectionPool {
+        private final String ftpServer;
+        private final String username;
+        private final String password;
+        private final BlockingQueue<FTPClient> idle = new LinkedBlockingQueue<>();
+        private final List<FTPClient> all = new ArrayList<>();
+
+        ConnectionPool(String ftpServer, String username, String password) {
+            this.ftpServer = ftpServer;
+            this.username = username;
+            this.password = password;
+        }
+
+        @Nonnull
+        FTPClient borrow() throws IOException {
+            final FTPClient client = idle.poll();
+            if (Objects.nonNull(client)) {
+                return client;
+            }
+            final FTPClient created = getFTPClient(ftpServer, username, password);
+            synchronized (all) {
+                all.add(created);
+            }
+            return created;
+        }
+
+        void release(@Nonnull FTPClient client) {
+            idle.offer(client);
+        }
+
+        void discard(@Nonnull FTPClient client) {
+            synchronized (all) {
+                all.remove(client);
+            }
+            disconnect(client);
+        }
+
+        void close() {
+            synchronized (all) {
+                all.forEach(FTPUploader::disconnect);
+                all.clear();
+            }
+            idle.clear();
+        }
+    }
+
+    private static void disconnect(@Nonnull FTPClient client) {
+        try {
+            if (client.isConnected()) {
+                client.logout();
+            }
+            client.disconnect();
+        } catch (final IOException e) {
+            log.debug("failed to disconnect from FTP server", e);
+        }
+    }
+
+    private static class Summary {
+        private final AtomicInteger uploaded = new AtomicInteger();
+        private final AtomicInteger skipped = new AtomicInteger();
+        private final AtomicLong uploadedBytes = new AtomicLong();
+        private final AtomicLong skippedBytes = new AtomicLong();
+
+        @Override
+        public String toString() {
+            return String.format(UPLOAD_SUMMARY, uploaded.get(), FileUtils.byteCountToDisplaySize(uploadedBytes.get()),
+                skipped.get(), FileUtils.byteCountToDisplaySize(skippedBytes.get()));
+        }
+    }
 }
@@ -18,13 +18,12 @@ import com.microsoft.azure.toolkit.lib.common.exception.AzureExecutionException;
 import com.microsoft.azure.toolkit.lib.legacy.function.utils.DateUtils;
 
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.IOException;
 import java.net.URISyntaxException;
 import java.security.InvalidKeyException;
 import java.time.LocalDateTime;
 import java.time.Period;
 import java.util.EnumSet;
+import java.util.function.Supplier;
 
 public class AzureStorageHelper {
     private static final int SAS_START_RESERVE_MINUTE = 5;
@@ -34,14 +33,20 @@ public class AzureStorageHelper {
 
     public static CloudBlockBlob uploadFileAsBlob(final File fileToUpload, final CloudStorageAccount storageAccount,
             final String containerName, final String blobName, final BlobContainerPublicAccessType accessType) throws AzureExecutionException {
+        return uploadFileAsBlob(fileToUpload, storageAccount, containerName, blobName, () -> blobName, accessType);
+    }
+
+    /**
+     * upload file with {@link BlockBlobUploader}, a retried upload of the same file in the same {@code scope} resumes
+     * the previous one, in which case the blob name of previous upload is used.
+     */
+    public static CloudBlockBlob uploadFileAsBlob(final File fileToUpload, final CloudStorageAccount storageAccount, final String containerName,
+            final String scope, final Supplier<String> blobName, final BlobContainerPublicAccessType accessType) throws AzureExecutionException {
         try {
             final CloudBlobContainer blobContainer = getBlobContainer(storageAccount, containerName);
             blobContainer.createIfNotExists(accessType, null, null);
-
-            final CloudBlockBlob blob = blobContainer.getBlockBlobReference(blobName);
-            blob.upload(new FileInputStream(fileToUpload), fileToUpload.length());
-            return blob;
-        } catch (URISyntaxException | StorageException | IOException e) {
+            return new BlockBlobUploader().upload(fileToUpload, blobContainer, scope, blobName).getBlob();
+        } catch (URISyntaxException | StorageException e) {
             throw new AzureExecutionException(FAIL_TO_UPLOAD_BLOB, e);
         }
     }
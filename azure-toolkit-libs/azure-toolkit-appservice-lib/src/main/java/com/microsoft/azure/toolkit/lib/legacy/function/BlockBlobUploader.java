@@ -0,0 +1,254 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.lib.legacy.function;
+
+import com.microsoft.azure.storage.StorageException;
+import com.microsoft.azure.storage.blob.BlockEntry;
+import com.microsoft.azure.storage.blob.BlockListingFilter;
+import com.microsoft.azure.storage.blob.BlockSearchMode;
+import com.microsoft.azure.storage.blob.CloudBlobContainer;
+import com.microsoft.azure.storage.blob.CloudBlockBlob;
+import com.microsoft.azure.toolkit.lib.common.exception.AzureExecutionException;
+import com.microsoft.azure.toolkit.lib.common.messager.AzureMessager;
+import com.microsoft.azure.toolkit.lib.common.operation.OperationContext;
+import com.microsoft.azure.toolkit.lib.common.utils.JsonUtils;
+import lombok.Data;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.io.FileUtils;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * uploads a file as block blob by staging fixed-size blocks concurrently (read through positional {@link FileChannel}
+ * reads) and committing the block list at last. block ids are derived from the file content, and the ids of the staged
+ * blocks are check-pointed locally, so that a retried upload of the same content resumes from the blocks staged
+ * before (azure keeps uncommitted blocks for a week) instead of restarting.
+ */
+@Slf4j
+public class BlockBlobUploader {
+    public static final int DEFAULT_BLOCK_SIZE = 4 * 1024 * 1024;
+    public static final int DEFAULT_CONCURRENCY = Math.max(2, Math.min(8, Runtime.getRuntime().availableProcessors() * 2));
+    public static final File DEFAULT_CHECKPOINT_DIR = new File(FileUtils.getTempDirectory(), "azure-toolkit/blob-upload-checkpoints");
+    private static final int MAX_BLOCKS = 50000;
+    private static final String UPLOAD_RESUMED = "Resuming upload of %s, %s has been uploaded before.";
+    private static final String UPLOAD_DONE = "Uploaded %s in %.1fs (%s/s).";
+
+    private final int blockSize;
+    private final int concurrency;
+    @Nullable
+    private final File checkpointDir;
+
+    public BlockBlobUploader() {
+        this(DEFAULT_BLOCK_SIZE, DEFAULT_CONCURRENCY, DEFAULT_CHECKPOINT_DIR);
+    }
+
+    /**
+     * @param checkpointDir where the checkpoints are persisted, uploads won't be resumable if it's null.
+     */
+    public BlockBlobUploader(int blockSize, int concurrency, @Nullable File checkpointDir) {
+        this.blockSize = Math.max(1, blockSize);
+        this.concurrency = Math.max(1, concurrency);
+        this.checkpointDir = checkpointDir;
+    }
+
+    /**
+     * @param scope    identifies the upload (e.g. target app id) across retries, together with the content of the file.
+     * @param blobName name of the blob, only used if there is no checkpoint of the same upload to resume.
+     */
+    @Nonnull
+    public Result upload(@Nonnull File file, @Nonnull CloudBlobContainer container, @Nonnull String scope,
+                         @Nonnull Supplier<String> blobName) throws AzureExecutionException {
+        final long length = file.length();
+        final int size = (int) Math.max(this.blockSize, (length + MAX_BLOCKS - 1) / MAX_BLOCKS);
+        try {
+            final String digest = hash(file);
+            final File checkpointFile = Optional.ofNullable(this.checkpointDir)
+                .map(dir -> new File(dir, DigestUtils.sha256Hex(String.join("|", container.getUri().toString(), scope, digest, String.valueOf(size))) + ".json"))
+                .orElse(null);
+            final Checkpoint checkpoint = Optional.ofNullable(checkpointFile).filter(File::isFile)
+                .map(f -> JsonUtils.readFromJsonFile(f, Checkpoint.class))
+                .filter(c -> Objects.nonNull(c.getBlobName()))
+                .orElseGet(() -> {
+                    final Checkpoint c = new Checkpoint();
+                    c.setBlobName(blobName.get());
+                    return c;
+                });
+            final CloudBlockBlob blob = container.getBlockBlobReference(checkpoint.getBlobName());
+            final List<String> blockIds = new ArrayList<>();
+            for (int i = 0; (long) i * size < length; i++) {
+                // ids of all blocks of a blob should be of the same length
+                blockIds.add(Base64.getEncoder().encodeToString(String.format("%s-%06d", digest.substring(0, 16), i).getBytes(StandardCharsets.UTF_8)));
+            }
+            final Set<String> staged = Collections.synchronizedSet(new LinkedHashSet<>(getStagedBlocks(blob, checkpoint)));
+            final Result result = new Result(blob);
+            staged.forEach(id -> result.resumedBytes.addAndGet(getBlockLength(blockIds.indexOf(id), size, length)));
+            if (result.resumedBytes.get() > 0) {
+                AzureMessager.getMessager().info(String.format(UPLOAD_RESUMED, file.getName(), FileUtils.byteCountToDisplaySize(result.resumedBytes.get())));
+            }
+            final long start = System.currentTimeMillis();
+            try (final FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+                final ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(this.concurrency, blockIds.size())));
+                try {
+                    final List<Future<?>> futures = new ArrayList<>();
+                    for (int i = 0; i < blockIds.size(); i++) {
+                        final String id = blockIds.get(i);
+                        if (staged.contains(id)) {
+                            continue;
+                        }
+                        final long position = (long) i * size;
+                        final int blockLength = getBlockLength(i, size, length);
+                        futures.add(executor.submit(() -> {
+                            final byte[] bytes = read(channel, position, blockLength);
+                            container.getBlockBlobReference(blob.getName()).uploadBlock(id, new ByteArrayInputStream(bytes), blockLength);
+                            result.uploadedBytes.addAndGet(blockLength);
+                            staged.add(id);
+                            this.saveCheckpoint(checkpointFile, checkpoint, staged);
+                            return null;
+                        }));
+                    }
+                    for (final Future<?> future : futures) {
+                        future.get();
+                    }
+                } finally {
+                    executor.shutdownNow();
+                    // don't leave staging blocks behind, which may update the checkpoint after a failed upload returns
+                    executor.awaitTermination(1, TimeUnit.MINUTES);
+                }
+            }
+            blob.commitBlockList(blockIds.stream().map(id -> new BlockEntry(id, BlockSearchMode.LATEST)).collect(Collectors.toList()));
+            Optional.ofNullable(checkpointFile).ifPresent(FileUtils::deleteQuietly);
+            result.elapsed = System.currentTimeMillis() - start;
+            this.report(result);
+            return result;
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AzureExecutionException("Interrupted when uploading file as blob", e);
+        } catch (final ExecutionException e) {
+            throw new AzureExecutionException("Fail to upload file as blob", e.getCause());
+        } catch (final URISyntaxException | StorageException | IOException e) {
+            throw new AzureExecutionException("Fail to upload file as blob", e);
+        }
+    }
+
+    /**
+     * blocks in checkpoint but not in the uncommitted block list of azure are either expired or lost.
+     */
+    @Nonnull
+    private static List<String> getStagedBlocks(@Nonnull CloudBlockBlob blob, @Nonnull Checkpoint checkpoint) {
+        if (Objects.isNull(checkpoint.getBlocks()) || checkpoint.getBlocks().isEmpty()) {
+            return Collections.emptyList();
+        }
+        try {
+            final Set<String> uncommitted = blob.downloadBlockList(BlockListingFilter.UNCOMMITTED, null, null, null).stream()
+                .map(BlockEntry::getId).collect(Collectors.toSet());
+            return checkpoint.getBlocks().stream().filter(uncommitted::contains).collect(Collectors.toList());
+        } catch (final StorageException e) { // e.g. blob not found
+            log.debug("failed to list uncommitted blocks of blob {}", blob.getName(), e);
+            return Collections.emptyList();
+        }
+    }
+
+    private synchronized void saveCheckpoint(@Nullable File file, @Nonnull Checkpoint checkpoint, @Nonnull Set<String> staged) {
+        if (Objects.isNull(file)) {
+            return;
+        }
+        synchronized (staged) {
+            checkpoint.setBlocks(new ArrayList<>(staged));
+        }
+        try {
+            FileUtils.forceMkdirParent(file);
+            // write and rename, so that the checkpoint is never seen half written
+            final File temp = new File(file.getParentFile(), file.getName() + ".tmp");
+            JsonUtils.writeToJsonFile(temp, checkpoint);
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (final IOException e) { // checkpoint is only an optimization
+            log.debug("failed to save upload checkpoint to {}", file.getAbsolutePath(), e);
+        }
+    }
+
+    private void report(@Nonnull Result result) {
+        final double seconds = Math.max(result.getElapsed(), 1) / 1000.0;
+        final long throughput = (long) (result.getUploadedBytes().get() / seconds);
+        AzureMessager.getMessager().info(String.format(UPLOAD_DONE, FileUtils.byteCountToDisplaySize(result.getUploadedBytes().get()),
+            seconds, FileUtils.byteCountToDisplaySize(throughput)));
+        final OperationContext context = OperationContext.action();
+        context.setTelemetryProperty("upload-bytes", String.valueOf(result.getUploadedBytes().get()));
+        context.setTelemetryProperty("upload-resumed-bytes", String.valueOf(result.getResumedBytes().get()));
+        context.setTelemetryProperty("upload-cost", String.valueOf(result.getElapsed()));
+        context.setTelemetryProperty("upload-throughput", String.valueOf(throughput));
+    }
+
+    private static int getBlockLength(int index, int blockSize, long length) {
+        return index < 0 ? 0 : (int) Math.min(blockSize, length - (long) index * blockSize);
+    }
+
+    @Nonnull
+    private static byte[] read(@Nonnull FileChannel channel, long position, int length) throws IOException {
+        final ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new EOFException("unexpected end of file");
+            }
+        }
+        return buffer.array();
+    }
+
+    @Nonnull
+    private static String hash(@Nonnull File file) throws IOException {
+        try (final InputStream input = Files.newInputStream(file.toPath())) {
+            return DigestUtils.sha256Hex(input);
+        }
+    }
+
+    @Data
+    public static class Checkpoint {
+        private String blobName;
+        private List<String> blocks;
+    }
+
+    @Getter
+    public static class Result {
+        private final CloudBlockBlob blob;
+        private final AtomicLong uploadedBytes = new AtomicLong();
+        private final AtomicLong resumedBytes = new AtomicLong();
+        private long elapsed;
+
+        private Result(@Nonnull CloudBlockBlob blob) {
+            this.blob = blob;
+        }
+    }
+}
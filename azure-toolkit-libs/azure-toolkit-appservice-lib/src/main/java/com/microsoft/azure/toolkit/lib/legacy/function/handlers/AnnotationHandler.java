@@ -8,6 +8,8 @@ package com.microsoft.azure.toolkit.lib.legacy.function.handlers;
 import com.microsoft.azure.toolkit.lib.common.exception.AzureExecutionException;
 import com.microsoft.azure.toolkit.lib.legacy.function.configurations.FunctionConfiguration;
 
+import javax.annotation.Nullable;
+import java.io.File;
 import java.lang.reflect.Method;
 import java.net.URL;
 import java.util.List;
@@ -17,6 +19,13 @@ import java.util.Set;
 public interface AnnotationHandler {
     Set<Method> findFunctions(final List<URL> urls);
 
+    /**
+     * @param indexFile persistent scan index, so that only the changed classes/jars are rescanned.
+     */
+    default Set<Method> findFunctions(final List<URL> urls, @Nullable final File indexFile) {
+        return findFunctions(urls);
+    }
+
     Map<String, FunctionConfiguration> generateConfigurations(final Set<Method> methods) throws AzureExecutionException;
 
     FunctionConfiguration generateConfiguration(final Method method) throws AzureExecutionException;
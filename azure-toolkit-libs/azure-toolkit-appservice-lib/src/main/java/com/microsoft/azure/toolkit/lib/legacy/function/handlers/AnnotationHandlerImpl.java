@@ -7,6 +7,7 @@ package com.microsoft.azure.toolkit.lib.legacy.function.handlers;
 
 import com.microsoft.azure.toolkit.lib.appservice.function.core.FunctionAnnotation;
 import com.microsoft.azure.toolkit.lib.appservice.function.core.FunctionMethod;
+import com.microsoft.azure.toolkit.lib.appservice.function.core.FunctionScanIndex;
 import com.microsoft.azure.toolkit.lib.appservice.function.impl.DefaultFunctionProject;
 import com.microsoft.azure.toolkit.lib.common.exception.AzureExecutionException;
 import com.microsoft.azure.toolkit.lib.common.exception.AzureToolkitRuntimeException;
@@ -22,6 +23,8 @@ import org.reflections.Reflections;
 import org.reflections.scanners.Scanners;
 import org.reflections.util.ConfigurationBuilder;
 
+import javax.annotation.Nullable;
+import java.io.File;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Method;
 import java.lang.reflect.Parameter;
@@ -59,6 +62,11 @@ public class AnnotationHandlerImpl implements AnnotationHandler {
         }
     }
 
+    @Override
+    public Set<Method> findFunctions(final List<URL> urls, @Nullable final File indexFile) {
+        return FunctionScanIndex.load(indexFile).findFunctions(urls);
+    }
+
     protected ClassLoader getClassLoader(final List<URL> urlList) {
         final URL[] urlArray = urlList.toArray(new URL[0]);
         return new URLClassLoader(urlArray, this.getClass().getClassLoader());
@@ -7,18 +7,19 @@ package com.microsoft.azure.toolkit.lib.legacy.function.handlers;
 
 import com.microsoft.azure.toolkit.lib.common.exception.AzureExecutionException;
 import com.microsoft.azure.toolkit.lib.common.messager.AzureMessager;
+import com.microsoft.azure.toolkit.lib.common.utils.ProcessEngine;
 import com.microsoft.azure.toolkit.lib.legacy.function.utils.CommandUtils;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.StringUtils;
 
-import java.io.BufferedReader;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Optional;
 
 @Slf4j
 public class CommandHandlerImpl implements CommandHandler {
@@ -29,10 +30,10 @@ public class CommandHandlerImpl implements CommandHandler {
                                               final List<Long> validReturnCodes,
                                               final String errorMessage) throws AzureExecutionException {
         try {
-            final Process process = runCommand(command, showStdout, workingDirectory);
-
-            handleExitValue(process.exitValue(), validReturnCodes, errorMessage, process.getInputStream());
-        } catch (IOException | InterruptedException ex) {
+            final ProcessEngine.Result result = runCommand(command, showStdout, workingDirectory);
+            final InputStream output = showStdout ? null : IOUtils.toInputStream(result.getStdout(), StandardCharsets.UTF_8);
+            handleExitValue(result.getExitCode(), validReturnCodes, errorMessage, output);
+        } catch (IOException ex) {
             throw new AzureExecutionException("Cannot execute '" + command + "'", ex);
         }
     }
@@ -42,44 +43,26 @@ public class CommandHandlerImpl implements CommandHandler {
                                          final boolean showStdout,
                                          final String workingDirectory) throws AzureExecutionException {
         try {
-            final Process process = runCommand(command, showStdout, workingDirectory);
-            return getOutputFromProcess(process);
-        } catch (IOException | InterruptedException ex) {
+            final ProcessEngine.Result result = runCommand(command, showStdout, workingDirectory);
+            return String.join("", result.getStdout().split("\\R")).trim();
+        } catch (IOException ex) {
             throw new AzureExecutionException("Cannot execute '" + command + "'", ex);
         }
     }
 
-    protected String getOutputFromProcess(final Process process) throws IOException {
-        try (final BufferedReader stdInput = new BufferedReader(
-            new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
-            final StringBuilder stdout = new StringBuilder();
-            String s;
-            while ((s = stdInput.readLine()) != null) {
-                stdout.append(s);
-            }
-            return stdout.toString().trim();
-        }
-    }
-
-    protected Process runCommand(final String command,
-                                 final boolean showStdout,
-                                 final String workingDirectory) throws IOException, InterruptedException {
-        log.debug("Executing command: " + StringUtils.join(command, " "));
-
-        final ProcessBuilder.Redirect redirect = getStdoutRedirect(showStdout);
-        final ProcessBuilder processBuilder = new ProcessBuilder(buildCommand(command))
-            .redirectOutput(redirect)
-            .redirectErrorStream(true);
-
-        if (workingDirectory != null) {
-            processBuilder.directory(new File(workingDirectory));
-        }
-
-        final Process process = processBuilder.start();
-
-        process.waitFor();
-
-        return process;
+    /**
+     * run the command until it exits, stdout and stderr are merged, and printed to console directly if {@code showStdout}.
+     */
+    protected ProcessEngine.Result runCommand(final String command,
+                                              final boolean showStdout,
+                                              final String workingDirectory) throws IOException {
+        return ProcessEngine.builder()
+            .commandLine(Arrays.asList(buildCommand(command)))
+            .redirectOutput(getStdoutRedirect(showStdout))
+            .mergeErrorStream(true)
+            .charset(StandardCharsets.UTF_8)
+            .directory(Optional.ofNullable(workingDirectory).map(File::new).orElse(null))
+            .build().execute();
     }
 
     protected static String[] buildCommand(final String command) {
@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.lib.appservice.deploy;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class DeployManifestTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final AtomicReference<String> remote = new AtomicReference<>();
+
+    @Test
+    public void isUnchanged() throws Exception {
+        final String target = DeployManifest.target("jar", null);
+        final File jar = zip("app.jar", "Main.class", "main", 1000L);
+        final DeployManifest first = new DeployManifest(remote::get, remote::set);
+        assertFalse(first.isUnchanged(target, jar));
+        first.record(target, jar, true);
+
+        // rebuilt with same content but different timestamps
+        final File rebuilt = zip("rebuilt/app.jar", "Main.class", "main", 2000L);
+        final DeployManifest second = new DeployManifest(remote::get, remote::set);
+        assertTrue(second.isUnchanged(target, rebuilt));
+        assertEquals(rebuilt.length(), second.getSavedBytes().get());
+        assertFalse(second.isUnchanged(target, zip("changed/app.jar", "Main.class", "changed", 1000L)));
+
+        // a clean deployment to another target outdates all the records
+        second.invalidate(DeployManifest.target("war", null), true);
+        assertFalse(new DeployManifest(remote::get, remote::set).isUnchanged(target, jar));
+    }
+
+    @Test
+    public void getChangedFiles() throws Exception {
+        final String target = DeployManifest.target("ftp", null);
+        final File staging = folder.newFolder("staging");
+        FileUtils.write(new File(staging, "host.json"), "{}", StandardCharsets.UTF_8);
+        FileUtils.write(new File(staging, "lib/a.jar"), "a", StandardCharsets.UTF_8);
+        final DeployManifest first = new DeployManifest(remote::get, remote::set);
+        assertEquals(2, first.getChangedFiles(target, staging).size());
+        first.record(target, staging, false);
+
+        FileUtils.write(new File(staging, "lib/a.jar"), "aa", StandardCharsets.UTF_8);
+        final DeployManifest second = new DeployManifest(remote::get, remote::set);
+        assertEquals(Collections.singletonList("lib/a.jar"), second.getChangedFiles(target, staging));
+        assertEquals(2, second.getSavedBytes().get());
+    }
+
+    @Test
+    public void reload() throws Exception {
+        final String target = DeployManifest.target("jar", null);
+        final File jar = zip("app.jar", "Main.class", "main", 1000L);
+        final DeployManifest manifest = new DeployManifest(remote::get, remote::set);
+        manifest.record(target, jar, true);
+        assertTrue(manifest.isUnchanged(target, jar));
+
+        // deployed by another process meanwhile
+        new DeployManifest(remote::get, remote::set).invalidate(target, true);
+        assertTrue(manifest.isUnchanged(target, jar));
+        manifest.reload();
+        assertFalse(manifest.isUnchanged(target, jar));
+    }
+
+    private File zip(String path, String entry, String content, long time) throws Exception {
+        final File file = new File(folder.getRoot(), path);
+        FileUtils.forceMkdirParent(file);
+        try (final ZipOutputStream output = new ZipOutputStream(new FileOutputStream(file))) {
+            final ZipEntry zipEntry = new ZipEntry(entry);
+            zipEntry.setTime(time);
+            output.putNextEntry(zipEntry);
+            output.write(content.getBytes(StandardCharsets.UTF_8));
+            output.closeEntry();
+        }
+        return file;
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.lib.appservice.function.core;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public class JarStagerTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void sync() throws Exception {
+        final File a = write("repo/a.jar", "a");
+        final File b = write("repo/b.jar", "bb");
+        final File lib = folder.newFolder("lib");
+        write("lib/stale.jar", "stale");
+
+        final JarStager.Result first = new JarStager(true, false, 2).sync(Arrays.asList(a, b), lib);
+        assertEquals(2, first.getCopied().get());
+        assertEquals(3, first.getCopiedBytes().get());
+        assertEquals(1, first.getRemoved().get());
+        assertFalse(new File(lib, "stale.jar").exists());
+
+        final JarStager.Result second = new JarStager(true, false, 2).sync(Arrays.asList(a, b), lib);
+        assertEquals(0, second.getCopied().get());
+        assertEquals(2, second.getSkipped().get());
+        assertEquals(3, second.getSkippedBytes().get());
+
+        FileUtils.write(b, "bbb", StandardCharsets.UTF_8);
+        final JarStager.Result third = new JarStager().sync(Collections.singletonList(b), lib);
+        assertEquals(1, third.getCopied().get() + third.getLinked().get());
+        assertEquals(1, third.getRemoved().get());
+        assertEquals("bbb", FileUtils.readFileToString(new File(lib, "b.jar"), StandardCharsets.UTF_8));
+        assertFalse(new File(lib, "a.jar").exists());
+    }
+
+    private File write(String path, String content) throws Exception {
+        final File file = new File(folder.getRoot(), path);
+        FileUtils.write(file, content, StandardCharsets.UTF_8);
+        return file;
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.lib.appservice.task;
+
+import com.azure.core.exception.HttpResponseException;
+import com.azure.core.http.HttpResponse;
+import com.microsoft.azure.toolkit.lib.appservice.deploy.DeployManifest;
+import com.microsoft.azure.toolkit.lib.appservice.model.CsmDeploymentStatus;
+import com.microsoft.azure.toolkit.lib.appservice.model.DeployOptions;
+import com.microsoft.azure.toolkit.lib.appservice.model.DeployType;
+import com.microsoft.azure.toolkit.lib.appservice.model.DeploymentBuildStatus;
+import com.microsoft.azure.toolkit.lib.appservice.model.KuduDeploymentResult;
+import com.microsoft.azure.toolkit.lib.appservice.model.Runtime;
+import com.microsoft.azure.toolkit.lib.appservice.model.WebAppArtifact;
+import com.microsoft.azure.toolkit.lib.appservice.webapp.WebAppBase;
+import com.microsoft.azure.toolkit.lib.common.exception.AzureToolkitRuntimeException;
+import com.microsoft.azure.toolkit.lib.common.model.AzResourceBase;
+import com.microsoft.azure.toolkit.lib.common.model.AzResourceModule;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.mockito.InOrder;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class DeployWebAppTaskTest {
+    private final WebAppArtifact lib = WebAppArtifact.builder().deployType(DeployType.JAR_LIB).file(new File("lib.jar")).path("lib.jar").build();
+    private final WebAppArtifact app = WebAppArtifact.builder().deployType(DeployType.JAR).file(new File("app.jar")).build();
+    private WebAppBase<?, ?, ?> webApp;
+
+    @BeforeClass
+    public static void init() {
+        // initialize the module NONE ahead of the resource NONE, which are cross referenced
+        Objects.requireNonNull(AzResourceModule.NONE);
+    }
+
+    @Before
+    public void setUp() {
+        webApp = mock(WebAppBase.class);
+        final DeployManifest manifest = mock(DeployManifest.class);
+        when(manifest.getSavedBytes()).thenReturn(new AtomicLong());
+        when(manifest.getDeployments()).thenReturn(new AtomicInteger());
+        when(webApp.getDeployManifest()).thenReturn(manifest);
+        when(webApp.getRuntime()).thenReturn(Runtime.LINUX_JAVA8);
+        when(webApp.getFormalStatus()).thenReturn(AzResourceBase.FormalStatus.RUNNING);
+        when(webApp.getName()).thenReturn("app");
+    }
+
+    @Test
+    public void retryOnConflict() {
+        final AtomicInteger active = new AtomicInteger();
+        final AtomicInteger maxActive = new AtomicInteger();
+        final AtomicInteger conflicts = new AtomicInteger();
+        when(webApp.pushDeploy(any(), any(), any())).thenAnswer(invocation -> {
+            maxActive.accumulateAndGet(active.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(50);
+                if (conflicts.getAndIncrement() == 0) {
+                    throw conflict();
+                }
+                return result(((File) invocation.getArgument(1)).getName());
+            } finally {
+                active.decrementAndGet();
+            }
+        });
+        when(webApp.getDeploymentStatus(any())).thenReturn(status(DeploymentBuildStatus.RUNTIME_SUCCESSFUL));
+
+        new DeployWebAppTask(webApp, Arrays.asList(lib, app), false, true).doExecute();
+        // pushed one at a time in declared order, the rejected one is retried
+        assertEquals(1, maxActive.get());
+        final InOrder order = inOrder(webApp);
+        order.verify(webApp, times(2)).pushDeploy(eq(DeployType.JAR_LIB), any(), any());
+        order.verify(webApp).pushDeploy(eq(DeployType.JAR), any(), any());
+    }
+
+    @Test
+    public void trackIntermediateDeployment() {
+        when(webApp.pushDeploy(any(), any(), any())).thenAnswer(invocation -> result(((File) invocation.getArgument(1)).getName()));
+        final AtomicInteger polls = new AtomicInteger();
+        when(webApp.getDeploymentStatus("lib.jar")).thenReturn(status(DeploymentBuildStatus.BUILD_SUCCESSFUL));
+        when(webApp.getDeploymentStatus("app.jar")).thenAnswer(invocation -> status(polls.incrementAndGet() < 2 ?
+            DeploymentBuildStatus.POST_BUILD_RESTART_REQUIRED : DeploymentBuildStatus.RUNTIME_SUCCESSFUL));
+
+        new DeployWebAppTask(webApp, Arrays.asList(lib, app), false, true).doExecute();
+        // the intermediate deployment is done once built, while the last one is tracked till the site is restarted
+        verify(webApp, times(1)).getDeploymentStatus("lib.jar");
+        assertEquals(2, polls.get());
+    }
+
+    @Test
+    public void failedDeployment() {
+        when(webApp.pushDeploy(any(), any(), any())).thenAnswer(invocation -> result(((File) invocation.getArgument(1)).getName()));
+        when(webApp.getDeploymentStatus(any())).thenReturn(status(DeploymentBuildStatus.BUILD_FAILED));
+        try {
+            new DeployWebAppTask(webApp, Arrays.asList(lib, app), false, true).doExecute();
+            fail("failed deployment should fail the task");
+        } catch (final AzureToolkitRuntimeException e) {
+            assertTrue(ExceptionUtils.getThrowableList(e).stream().anyMatch(t -> StringUtils.contains(t.getMessage(), "Failed to deploy the artifact")));
+        }
+    }
+
+    @Test
+    public void deployNothing() {
+        when(webApp.getFormalStatus()).thenReturn(AzResourceBase.FormalStatus.STOPPED);
+        new DeployWebAppTask(webApp, Collections.emptyList(), true, true).doExecute();
+        // nothing is deployed, but the app is still started
+        verify(webApp, never()).pushDeploy(any(), any(), any());
+        verify(webApp, never()).deploy(any(), any(), any(DeployOptions.class));
+        verify(webApp, never()).restart();
+        verify(webApp).start();
+    }
+
+    private static KuduDeploymentResult result(String id) {
+        return KuduDeploymentResult.builder().deploymentId(id).build();
+    }
+
+    private static CsmDeploymentStatus status(DeploymentBuildStatus status) {
+        return CsmDeploymentStatus.builder().status(status).build();
+    }
+
+    private static HttpResponseException conflict() {
+        final HttpResponse response = mock(HttpResponse.class);
+        when(response.getStatusCode()).thenReturn(409);
+        when(response.getHeaderValue("retry-after-ms")).thenReturn("10");
+        return new HttpResponseException("conflict", response);
+    }
+}
@@ -0,0 +1,32 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.lib.appservice.utils;
+
+import com.azure.core.util.FluxUtil;
+import org.junit.Test;
+import reactor.core.publisher.Flux;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertEquals;
+
+public class UtilsTest {
+    @Test
+    public void slice() {
+        assertEquals("cdefg", slice(2, 5L));
+        assertEquals("fghij", slice(5, null));
+        assertEquals("a", slice(0, 1L));
+        assertEquals("", slice(10, null));
+        assertEquals("j", slice(9, 5L));
+    }
+
+    private static String slice(long offset, Long count) {
+        final Flux<ByteBuffer> content = Flux.just("abc", "de", "fghi", "j").map(s -> ByteBuffer.wrap(s.getBytes(StandardCharsets.UTF_8)));
+        final byte[] bytes = FluxUtil.collectBytesInByteBufferStream(Utils.slice(content, offset, count)).block();
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
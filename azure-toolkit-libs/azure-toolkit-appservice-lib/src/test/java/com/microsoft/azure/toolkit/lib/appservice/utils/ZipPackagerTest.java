@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.lib.appservice.utils;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.junit.Assume;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipInputStream;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ZipPackagerTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void pack() throws Exception {
+        final File staging = folder.newFolder("staging");
+        final Map<String, byte[]> files = new HashMap<>();
+        files.put("host.json", "{\"version\":\"2.0\"}".getBytes(StandardCharsets.UTF_8));
+        files.put("HttpTrigger/function.json", StringUtils.repeat("{\"bindings\":[]}", 100).getBytes(StandardCharsets.UTF_8));
+        files.put("lib/dependency.jar", random(4096));
+        files.put("large.txt", StringUtils.repeat("large text content ", 600 * 1024).getBytes(StandardCharsets.UTF_8));
+        for (final Map.Entry<String, byte[]> file : files.entrySet()) {
+            FileUtils.writeByteArrayToFile(new File(staging, file.getKey()), file.getValue());
+        }
+        FileUtils.write(new File(staging, "local.settings.json"), "{}", StandardCharsets.UTF_8);
+        final File zip = new ZipPackager(p -> !p.equals("local.settings.json"), 4).pack(staging, folder.newFile("staging.zip"));
+
+        try (final ZipFile zipFile = new ZipFile(zip)) {
+            assertNull(zipFile.getEntry("local.settings.json"));
+            assertEquals(ZipEntry.STORED, zipFile.getEntry("lib/dependency.jar").getMethod());
+            assertEquals(ZipEntry.DEFLATED, zipFile.getEntry("large.txt").getMethod());
+            for (final Map.Entry<String, byte[]> file : files.entrySet()) {
+                assertArrayEquals(file.getValue(), IOUtils.toByteArray(zipFile.getInputStream(zipFile.getEntry(file.getKey()))));
+            }
+        }
+        // verify local headers by reading sequentially
+        int count = 0;
+        try (final ZipInputStream input = new ZipInputStream(new FileInputStream(zip))) {
+            for (ZipEntry entry = input.getNextEntry(); entry != null; entry = input.getNextEntry()) {
+                if (!entry.isDirectory()) {
+                    assertArrayEquals(files.get(entry.getName()), IOUtils.toByteArray(input));
+                    count++;
+                }
+            }
+        }
+        assertEquals(files.size(), count);
+    }
+
+    @Test
+    public void keepUnixMode() throws Exception {
+        final File staging = folder.newFolder("scripts");
+        final File script = new File(staging, "bin/startup.sh");
+        FileUtils.write(script, "#!/bin/sh", StandardCharsets.UTF_8);
+        Assume.assumeTrue(FileSystems.getDefault().supportedFileAttributeViews().contains("posix"));
+        Files.setPosixFilePermissions(script.toPath(), PosixFilePermissions.fromString("rwxr-x---"));
+        final File zip = new ZipPackager().pack(staging, folder.newFile("scripts.zip"));
+
+        try (final org.apache.commons.compress.archivers.zip.ZipFile zipFile = new org.apache.commons.compress.archivers.zip.ZipFile(zip)) {
+            assertEquals(0750, zipFile.getEntry("bin/startup.sh").getUnixMode() & 0777);
+            assertTrue(zipFile.getEntry("bin/").isDirectory());
+        }
+    }
+
+    private static byte[] random(int size) {
+        final byte[] bytes = new byte[size];
+        new Random(0).nextBytes(bytes);
+        return bytes;
+    }
+}
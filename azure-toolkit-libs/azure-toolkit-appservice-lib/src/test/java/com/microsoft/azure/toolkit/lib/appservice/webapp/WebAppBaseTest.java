@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.lib.appservice.webapp;
+
+import com.azure.resourcemanager.appservice.models.KuduDeploymentResult;
+import com.azure.resourcemanager.appservice.models.SupportsOneDeploy;
+import com.azure.resourcemanager.appservice.models.WebSiteBase;
+import com.microsoft.azure.toolkit.lib.appservice.deploy.DeployManifest;
+import com.microsoft.azure.toolkit.lib.appservice.model.DeployOptions;
+import com.microsoft.azure.toolkit.lib.appservice.model.DeployType;
+import com.microsoft.azure.toolkit.lib.common.model.AzResourceModule;
+import org.apache.commons.io.FileUtils;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import reactor.core.publisher.Flux;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.CALLS_REAL_METHODS;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+public class WebAppBaseTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final AtomicReference<String> manifest = new AtomicReference<>();
+    private WebAppBase<?, ?, ?> webApp;
+    private SupportsOneDeploy remote;
+
+    @BeforeClass
+    public static void init() {
+        // initialize the module NONE ahead of the resource NONE, which are cross referenced
+        Objects.requireNonNull(AzResourceModule.NONE);
+    }
+
+    @Before
+    public void setUp() {
+        webApp = mock(WebAppBase.class, CALLS_REAL_METHODS);
+        remote = mock(SupportsOneDeploy.class, withSettings().extraInterfaces(WebSiteBase.class));
+        final KuduDeploymentResult result = mock(KuduDeploymentResult.class);
+        when(result.deploymentId()).thenReturn("deployment");
+        when(remote.pushDeploy(any(), any(), any())).thenReturn(result);
+        doReturn(remote).when(webApp).getRemote();
+        doAnswer(invocation -> Optional.ofNullable(manifest.get())
+            .map(content -> Flux.just(ByteBuffer.wrap(content.getBytes(StandardCharsets.UTF_8))))
+            .orElseGet(Flux::empty)).when(webApp).getFileContent(DeployManifest.MANIFEST_PATH);
+        doAnswer(invocation -> {
+            manifest.set(invocation.getArgument(0));
+            return null;
+        }).when(webApp).uploadFileToPath(any(String.class), eq(DeployManifest.MANIFEST_PATH));
+    }
+
+    @Test
+    public void deployWithoutSkipUnchanged() throws Exception {
+        final File a = folder.newFile("a.jar");
+        final File b = folder.newFile("b.jar");
+        FileUtils.write(a, "a", StandardCharsets.UTF_8);
+        FileUtils.write(b, "b", StandardCharsets.UTF_8);
+        assertNotNull(webApp.pushDeploy(DeployType.JAR, a, options(true)));
+        assertNull(webApp.pushDeploy(DeployType.JAR, a, options(true)));
+        // a deployment not recorded outdates the record of a, which must be deployed again
+        assertNotNull(webApp.pushDeploy(DeployType.JAR, b, options(false)));
+        assertNotNull(webApp.pushDeploy(DeployType.JAR, a, options(true)));
+        verify(remote, times(2)).pushDeploy(any(), eq(a), any());
+        verify(remote, times(1)).pushDeploy(any(), eq(b), any());
+    }
+
+    private static DeployOptions options(boolean skipUnchanged) {
+        return DeployOptions.builder().skipUnchanged(skipUnchanged).build();
+    }
+}
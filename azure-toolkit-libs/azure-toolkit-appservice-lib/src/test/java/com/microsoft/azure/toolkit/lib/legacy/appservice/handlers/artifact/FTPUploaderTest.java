@@ -7,64 +7,91 @@ package com.microsoft.azure.toolkit.lib.legacy.appservice.handlers.artifact;
 
 import com.microsoft.azure.toolkit.lib.common.exception.AzureExecutionException;
 
+import org.apache.commons.io.FileUtils;
 import org.apache.commons.net.ftp.FTPClient;
+import org.apache.commons.net.ftp.FTPFile;
 import org.junit.Assert;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.junit.runner.RunWith;
 import org.mockito.ArgumentMatchers;
 import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
 import org.mockito.junit.MockitoJUnitRunner;
 
-import static org.mockito.Mockito.verifyNoMoreInteractions;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.Calendar;
 
 @RunWith(MockitoJUnitRunner.class)
 public class FTPUploaderTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
     private FTPUploader ftpUploader = null;
 
     @Before
     public void setUp() {
         MockitoAnnotations.initMocks(this);
-        ftpUploader = new FTPUploader();
+        ftpUploader = new FTPUploader(2, false);
     }
 
     @Test
     public void uploadDirectoryWithRetries() throws Exception {
+        final File source = folder.newFolder("source");
+        FileUtils.write(new File(source, "a.txt"), "a", StandardCharsets.UTF_8);
+        final File b = new File(source, "sub/b.txt");
+        FileUtils.write(b, "bb", StandardCharsets.UTF_8);
         final FTPUploader uploaderSpy = Mockito.spy(ftpUploader);
+        final FTPClient ftpClient = Mockito.mock(FTPClient.class);
+        Mockito.doReturn(ftpClient).when(uploaderSpy).getFTPClient(ArgumentMatchers.anyString(), ArgumentMatchers.anyString(), ArgumentMatchers.anyString());
+        Mockito.doReturn(new FTPFile[0]).when(ftpClient).mlistDir(ArgumentMatchers.anyString());
+        // sub/b.txt is up-to-date
+        final FTPFile remoteB = new FTPFile();
+        remoteB.setName("b.txt");
+        remoteB.setType(FTPFile.FILE_TYPE);
+        remoteB.setSize(b.length());
+        final Calendar timestamp = Calendar.getInstance();
+        timestamp.setTimeInMillis(b.lastModified());
+        remoteB.setTimestamp(timestamp);
+        Mockito.doReturn(new FTPFile[]{remoteB}).when(ftpClient).mlistDir("/site/wwwroot/sub");
+        Mockito.doReturn(true).when(ftpClient).storeFile(ArgumentMatchers.anyString(), ArgumentMatchers.any());
+        Mockito.doReturn(226).when(ftpClient).getReplyCode();
 
-        // Failure
-        AzureExecutionException exception = null;
-        Mockito.doReturn(false).when(uploaderSpy).uploadDirectory(ArgumentMatchers.anyString(), ArgumentMatchers.anyString(), ArgumentMatchers.anyString(), ArgumentMatchers.anyString(),
-                ArgumentMatchers.anyString());
-        try {
-            uploaderSpy.uploadDirectoryWithRetries("ftpServer", "username", "password", "sourceDir", "targetDir", 1);
-        } catch (AzureExecutionException e) {
-            exception = e;
-        } finally {
-            Assert.assertNotNull(exception);
-        }
-
-        // Success
-        Mockito.doReturn(true).when(uploaderSpy).uploadDirectory(ArgumentMatchers.anyString(), ArgumentMatchers.anyString(), ArgumentMatchers.anyString(), ArgumentMatchers.anyString(),
-                ArgumentMatchers.anyString());
-        uploaderSpy.uploadDirectoryWithRetries("ftpServer", "username", "password", "sourceDir", "targetDir", 1);
+        uploaderSpy.uploadDirectoryWithRetries("ftpServer", "username", "password", source.getAbsolutePath(), "/site/wwwroot", 1);
+        Mockito.verify(ftpClient).makeDirectory("/site");
+        Mockito.verify(ftpClient).makeDirectory("/site/wwwroot");
+        Mockito.verify(ftpClient).makeDirectory("/site/wwwroot/sub");
+        Mockito.verify(ftpClient).storeFile(ArgumentMatchers.eq("/site/wwwroot/a.txt"), ArgumentMatchers.any());
+        Mockito.verify(ftpClient, Mockito.never()).storeFile(ArgumentMatchers.eq("/site/wwwroot/sub/b.txt"), ArgumentMatchers.any());
+        Mockito.verify(ftpClient, Mockito.never()).changeWorkingDirectory(ArgumentMatchers.anyString());
+        // connections are reused
+        Mockito.verify(uploaderSpy, Mockito.times(1)).getFTPClient(ArgumentMatchers.anyString(), ArgumentMatchers.anyString(), ArgumentMatchers.anyString());
     }
 
     @Test
-    public void uploadDirectory() throws Exception {
+    public void uploadFileWithRetries() throws Exception {
+        final File source = folder.newFolder("source");
+        FileUtils.write(new File(source, "a.txt"), "a", StandardCharsets.UTF_8);
         final FTPUploader uploaderSpy = Mockito.spy(ftpUploader);
         final FTPClient ftpClient = Mockito.mock(FTPClient.class);
         Mockito.doReturn(ftpClient).when(uploaderSpy).getFTPClient(ArgumentMatchers.anyString(), ArgumentMatchers.anyString(), ArgumentMatchers.anyString());
-        Mockito.doNothing().when(uploaderSpy).uploadDirectory(ArgumentMatchers.any(FTPClient.class), ArgumentMatchers.anyString(), ArgumentMatchers.anyString(), ArgumentMatchers.anyString());
+        Mockito.doReturn(new FTPFile[0]).when(ftpClient).mlistDir(ArgumentMatchers.anyString());
+        Mockito.doReturn(false).when(ftpClient).storeFile(ArgumentMatchers.anyString(), ArgumentMatchers.any());
 
-        uploaderSpy.uploadDirectory(ArgumentMatchers.anyString(), ArgumentMatchers.anyString(), ArgumentMatchers.anyString(), ArgumentMatchers.anyString(), ArgumentMatchers.anyString());
-        Mockito.verify(ftpClient, Mockito.times(1)).disconnect();
-        Mockito.verifyNoMoreInteractions(ftpClient);
-        Mockito.verify(uploaderSpy, Mockito.times(1)).uploadDirectory(ArgumentMatchers.any(FTPClient.class), ArgumentMatchers.anyString(), ArgumentMatchers.anyString(), ArgumentMatchers.anyString());
-        Mockito.verify(uploaderSpy, Mockito.times(1)).getFTPClient(ArgumentMatchers.anyString(), ArgumentMatchers.anyString(), ArgumentMatchers.anyString());
-        Mockito.verify(uploaderSpy, Mockito.times(1)).uploadDirectory(ArgumentMatchers.anyString(), ArgumentMatchers.anyString(), ArgumentMatchers.anyString(), ArgumentMatchers.anyString(), ArgumentMatchers.anyString());
-        verifyNoMoreInteractions(uploaderSpy);
+        AzureExecutionException exception = null;
+        try {
+            uploaderSpy.uploadDirectoryWithRetries("ftpServer", "username", "password", source.getAbsolutePath(), "/site/wwwroot", 2);
+        } catch (AzureExecutionException e) {
+            exception = e;
+        } finally {
+            Assert.assertNotNull(exception);
+        }
+        // only the failed file is retried, with a new connection
+        Mockito.verify(ftpClient, Mockito.times(2)).storeFile(ArgumentMatchers.eq("/site/wwwroot/a.txt"), ArgumentMatchers.any());
+        Mockito.verify(uploaderSpy, Mockito.times(2)).getFTPClient(ArgumentMatchers.anyString(), ArgumentMatchers.anyString(), ArgumentMatchers.anyString());
     }
 
     @Test
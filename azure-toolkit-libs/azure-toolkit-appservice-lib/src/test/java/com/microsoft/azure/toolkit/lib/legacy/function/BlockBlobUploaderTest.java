@@ -0,0 +1,153 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.lib.legacy.function;
+
+import com.microsoft.azure.storage.CloudStorageAccount;
+import com.microsoft.azure.storage.blob.CloudBlobContainer;
+import com.microsoft.azure.toolkit.lib.common.exception.AzureExecutionException;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class BlockBlobUploaderTest {
+    private static final String ACCOUNT_KEY = "Eby8vdM02xNOcqFlqUwJPLlmEtlCDXJ1OUzFT50uSRZ6IFsuFq2UVErCz4I6tq/K1SZFPTOtr/KBHBeksoGMGw==";
+    private static final int BLOCK_SIZE = 64 * 1024;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final Map<String, byte[]> uncommitted = new ConcurrentHashMap<>();
+    private final Map<String, byte[]> blobs = new ConcurrentHashMap<>();
+    private final AtomicInteger stagedBlocks = new AtomicInteger();
+    private volatile int failAfter = Integer.MAX_VALUE;
+    private HttpServer server;
+
+    @Before
+    public void setUp() throws IOException {
+        // a minimal stand-in of the block blob apis of azure storage (e.g. azurite)
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", this::handle);
+        server.start();
+    }
+
+    @After
+    public void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    public void upload() throws Exception {
+        final File file = folder.newFile("package.zip");
+        final byte[] content = new byte[BLOCK_SIZE * 10 + 123];
+        new Random(0).nextBytes(content);
+        FileUtils.writeByteArrayToFile(file, content);
+        final File checkpoints = folder.newFolder("checkpoints");
+        final CloudBlobContainer container = CloudStorageAccount.parse(String.format("DefaultEndpointsProtocol=http;AccountName=devstoreaccount1;" +
+            "AccountKey=%s;BlobEndpoint=http://127.0.0.1:%d/devstoreaccount1;", ACCOUNT_KEY, server.getAddress().getPort()))
+            .createCloudBlobClient().getContainerReference("packages");
+
+        failAfter = 4;
+        try {
+            new BlockBlobUploader(BLOCK_SIZE, 2, checkpoints).upload(file, container, "app", () -> "first.zip");
+            fail("upload should fail");
+        } catch (final AzureExecutionException e) {
+            assertTrue(blobs.isEmpty());
+        }
+
+        failAfter = Integer.MAX_VALUE;
+        final int stagedBefore = stagedBlocks.get();
+        final BlockBlobUploader.Result result = new BlockBlobUploader(BLOCK_SIZE, 3, checkpoints).upload(file, container, "app", () -> "second.zip");
+        assertEquals("first.zip", result.getBlob().getName()); // resumed
+        assertEquals(content.length, result.getUploadedBytes().get() + result.getResumedBytes().get());
+        assertTrue(result.getResumedBytes().get() >= BLOCK_SIZE);
+        assertTrue(stagedBlocks.get() - stagedBefore < 11); // only the blocks not staged before are uploaded
+        assertArrayEquals(content, blobs.get("/devstoreaccount1/packages/first.zip"));
+        assertEquals(0, Objects.requireNonNull(checkpoints.list()).length);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        final String path = exchange.getRequestURI().getPath();
+        final Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+        final byte[] body = IOUtils.toByteArray(exchange.getRequestBody());
+        final String method = exchange.getRequestMethod();
+        exchange.getResponseHeaders().add("x-ms-request-id", "id");
+        exchange.getResponseHeaders().add("ETag", "\"0x1\"");
+        exchange.getResponseHeaders().add("Last-Modified", "Mon, 01 Jan 2024 00:00:00 GMT");
+        if ("PUT".equals(method) && "block".equals(query.get("comp"))) {
+            if (stagedBlocks.get() >= failAfter) {
+                respond(exchange, 400, "");
+                return;
+            }
+            uncommitted.put(path + "#" + query.get("blockid"), body);
+            stagedBlocks.incrementAndGet();
+            respond(exchange, 201, "");
+        } else if ("PUT".equals(method) && "blocklist".equals(query.get("comp"))) {
+            final ByteArrayOutputStream output = new ByteArrayOutputStream();
+            final Matcher matcher = Pattern.compile("<(Latest|Uncommitted|Committed)>([^<]+)</").matcher(new String(body, StandardCharsets.UTF_8));
+            while (matcher.find()) {
+                output.write(uncommitted.get(path + "#" + matcher.group(2)));
+            }
+            blobs.put(path, output.toByteArray());
+            respond(exchange, 201, "");
+        } else if ("GET".equals(method) && "blocklist".equals(query.get("comp"))) {
+            final StringBuilder xml = new StringBuilder("<?xml version=\"1.0\" encoding=\"utf-8\"?><BlockList><CommittedBlocks/><UncommittedBlocks>");
+            uncommitted.forEach((key, value) -> {
+                if (key.startsWith(path + "#")) {
+                    xml.append(String.format("<Block><Name>%s</Name><Size>%d</Size></Block>", StringUtils.substringAfter(key, "#"), value.length));
+                }
+            });
+            respond(exchange, 200, xml.append("</UncommittedBlocks></BlockList>").toString());
+        } else {
+            respond(exchange, 404, "");
+        }
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        final byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(status, bytes.length == 0 ? -1 : bytes.length);
+        if (bytes.length > 0) {
+            exchange.getResponseBody().write(bytes);
+        }
+        exchange.close();
+    }
+
+    private static Map<String, String> parseQuery(String query) throws IOException {
+        final Map<String, String> result = new HashMap<>();
+        for (final String pair : Arrays.asList(StringUtils.defaultString(query).split("&"))) {
+            final String[] kv = pair.split("=", 2);
+            result.put(URLDecoder.decode(kv[0], "UTF-8"), kv.length > 1 ? URLDecoder.decode(kv[1], "UTF-8") : "");
+        }
+        return result;
+    }
+}
@@ -41,6 +41,7 @@ import org.junit.Assert;
 import org.junit.Test;
 import org.reflections.util.ClasspathHelper;
 
+import java.io.File;
 import java.lang.annotation.ElementType;
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
@@ -245,6 +246,19 @@ public class AnnotationHandlerImplTest {
         Assert.assertTrue(methodNames.contains(EXTENDING_CUSTOM_BINDING_WITHOUT_NAME_METHOD));
     }
 
+    @Test
+    public void findFunctionsWithScanIndex() throws Exception {
+        final AnnotationHandler handler = getAnnotationHandler();
+        final File indexFile = File.createTempFile("function-scan-index", ".json");
+        indexFile.deleteOnExit();
+        final Set<Method> expected = handler.findFunctions(Arrays.asList(getClassUrl()));
+
+        assertEquals(expected, handler.findFunctions(Arrays.asList(getClassUrl()), indexFile));
+        assertTrue(indexFile.length() > 0);
+        // resolved from the persisted index
+        assertEquals(expected, handler.findFunctions(Arrays.asList(getClassUrl()), indexFile));
+    }
+
     @Test
     public void generateConfigurations() throws Exception {
         final AnnotationHandler handler = getAnnotationHandler();
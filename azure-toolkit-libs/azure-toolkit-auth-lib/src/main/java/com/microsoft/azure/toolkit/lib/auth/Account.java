@@ -20,6 +20,7 @@ import com.azure.identity.implementation.MsalToken;
 import com.azure.identity.implementation.util.ScopeUtil;
 import com.azure.resourcemanager.resources.ResourceManager;
 import com.azure.resourcemanager.resources.models.Tenant;
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.microsoft.azure.toolkit.lib.Azure;
 import com.microsoft.azure.toolkit.lib.account.IAccount;
 import com.microsoft.azure.toolkit.lib.common.cache.CacheEvict;
@@ -29,9 +30,10 @@ import com.microsoft.azure.toolkit.lib.common.exception.AzureToolkitRuntimeExcep
 import com.microsoft.azure.toolkit.lib.common.messager.AzureMessager;
 import com.microsoft.azure.toolkit.lib.common.model.AbstractAzServiceSubscription;
 import com.microsoft.azure.toolkit.lib.common.model.Subscription;
+import com.microsoft.azure.toolkit.lib.common.operation.OperationContext;
 import com.microsoft.azure.toolkit.lib.common.task.AzureTaskManager;
+import com.microsoft.azure.toolkit.lib.common.utils.JsonUtils;
 import com.microsoft.azure.toolkit.lib.common.utils.TextUtils;
-import com.microsoft.azure.toolkit.lib.common.utils.Utils;
 import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
@@ -42,12 +44,15 @@ import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.reflect.FieldUtils;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Base64;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
@@ -56,13 +61,17 @@ import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeoutException;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Getter
 @RequiredArgsConstructor
 public abstract class Account implements IAccount {
     protected static final TokenCachePersistenceOptions PERSISTENCE_OPTIONS = new TokenCachePersistenceOptions().setName("azure-toolkit.cache");
     private static final ClientLogger LOGGER = new ClientLogger(Account.class);
+    private static final int TENANT_DISCOVERY_PARALLELISM = 8;
+    private static final Duration TENANT_DISCOVERY_TIMEOUT = Duration.ofSeconds(30);
     private final Map<String, TokenCredential> tenantCredentialCache = new ConcurrentHashMap<>();
     @Nonnull
     private final AuthConfiguration config;
@@ -73,6 +82,9 @@ public abstract class Account implements IAccount {
     private TokenCredential defaultTokenCredential;
     @Getter(AccessLevel.NONE)
     private List<Subscription> subscriptions;
+    @Getter(AccessLevel.NONE)
+    @Nullable
+    private SubscriptionCache subscriptionCache;
 
     @Nonnull
     protected abstract TokenCredential buildDefaultTokenCredential();
@@ -109,10 +121,15 @@ public abstract class Account implements IAccount {
 
     @Nonnull
     protected Optional<AccessToken> getManagementToken() {
+        return this.getManagementToken(Optional.ofNullable(this.defaultTokenCredential).orElseGet(this::buildDefaultTokenCredential));
+    }
+
+    @Nonnull
+    private Optional<AccessToken> getManagementToken(@Nonnull TokenCredential credential) {
         final String[] scopes = ScopeUtil.resourceToScopes(this.getEnvironment().getManagementEndpoint());
         final TokenRequestContext request = new TokenRequestContext().addScopes(scopes);
         try {
-            return this.buildDefaultTokenCredential().getToken(request).blockOptional();
+            return credential.getToken(request).blockOptional();
         } catch (Throwable t) {
             return Optional.empty();
         }
@@ -134,11 +151,17 @@ public abstract class Account implements IAccount {
     @CacheEvict(CacheEvict.ALL)
         // evict all caches on signing out
     void logout() {
+        Optional.ofNullable(this.subscriptionCache).ifPresent(SubscriptionCache::evict);
+        this.subscriptionCache = null;
+        this.tenantCredentialCache.values().forEach(c -> ((TenantTokenCredential) c).manager.dispose());
+        this.tenantCredentialCache.clear();
         this.subscriptions = null;
         this.defaultTokenCredential = null;
     }
 
     public List<Subscription> reloadSubscriptions() {
+        // cached subscriptions are only used on signing in, reloading always discovers them again.
+        Optional.ofNullable(this.subscriptionCache).ifPresent(SubscriptionCache::evict);
         final List<String> selected = Optional.ofNullable(this.subscriptions).orElse(Collections.emptyList())
             .stream().filter(Subscription::isSelected)
             .map(Subscription::getId)
@@ -153,27 +176,78 @@ public abstract class Account implements IAccount {
     }
 
     protected List<Subscription> loadSubscriptions() {
-        final TokenCredential credential = this.defaultTokenCredential;
-        final ResourceManager.Authenticated client = configureAzure().authenticate(credential, new AzureProfile(this.getEnvironment()));
-        final List<Tenant> tenants = client.tenants().list().stream().collect(Collectors.toList());
-        return tenants.stream()
-            .flatMap(t -> this.loadSubscriptions(t.tenantId()).stream())
-            .filter(Utils.distinctByKey(Subscription::getId))
-            .collect(Collectors.toList());
+        this.subscriptionCache = this.isPersistenceEnabled() ? this.buildSubscriptionCache() : null;
+        final List<Subscription> cached = Optional.ofNullable(this.subscriptionCache).map(SubscriptionCache::get).orElse(null);
+        OperationContext.current().setTelemetryProperty("subscriptionsCached", String.valueOf(CollectionUtils.isNotEmpty(cached)));
+        if (CollectionUtils.isNotEmpty(cached)) {
+            return cached;
+        }
+        // share the configured pipeline settings (and the connection pool of the http client) among tenants
+        final ResourceManager.Configurable configurable = this.configureAzure();
+        final ResourceManager.Authenticated client = configurable.authenticate(this.defaultTokenCredential, new AzureProfile(this.getEnvironment()));
+        final List<Subscription> subscriptions = client.tenants().listAsync()
+            .map(Tenant::tenantId).distinct()
+            .flatMapSequential(tenantId -> this.loadSubscriptions(configurable, tenantId), TENANT_DISCOVERY_PARALLELISM)
+            .distinct(Subscription::getId)
+            .collectList().block();
+        if (Objects.nonNull(this.subscriptionCache) && CollectionUtils.isNotEmpty(subscriptions)) {
+            this.subscriptionCache.put(subscriptions);
+        }
+        return subscriptions;
     }
 
+    /**
+     * load subscriptions of the tenant, a tenant that fails or doesn't respond in {@link #TENANT_DISCOVERY_TIMEOUT} is
+     * skipped with a warning, so that it won't fail/stall the whole sign in.
+     */
     @Nonnull
-    private List<Subscription> loadSubscriptions(String tenantId) {
-        final TokenCredential credential = this.getTenantTokenCredential(tenantId);
-        final AzureProfile profile = new AzureProfile(tenantId, null, this.getEnvironment());
-        final ResourceManager.Authenticated client = configureAzure().authenticate(credential, profile);
-        final List<Subscription> subscriptions = client.subscriptions().listAsync().onErrorResume(ex -> {
+    private Flux<Subscription> loadSubscriptions(@Nonnull ResourceManager.Configurable configurable, @Nonnull String tenantId) {
+        return Flux.defer(() -> {
+                final TokenCredential credential = this.getTenantTokenCredential(tenantId);
+                final AzureProfile profile = new AzureProfile(tenantId, null, this.getEnvironment());
+                return configurable.authenticate(credential, profile).subscriptions().listAsync();
+            })
+            .subscribeOn(Schedulers.boundedElastic()) // acquiring token may block
+            .map(Subscription::new)
+            .collectList()
+            .timeout(TENANT_DISCOVERY_TIMEOUT)
+            .onErrorResume(ex -> {
+                final String error = ex instanceof TimeoutException ?
+                    String.format("no response in %d seconds", TENANT_DISCOVERY_TIMEOUT.getSeconds()) : ex.getMessage();
                 AzureMessager.getMessager().warning(String.format("Cannot get subscriptions for tenant %s " +
-                    ", please verify you have proper permissions over this tenant, detailed error: %s", tenantId, ex.getMessage()));
-                return Flux.fromIterable(new ArrayList<>());
-            }).map(Subscription::new)
-            .collect(Collectors.toList()).flatMapIterable(s -> s).collectList().block();
-        return Optional.ofNullable(subscriptions).orElse(Collections.emptyList());
+                    ", please verify you have proper permissions over this tenant, detailed error: %s", tenantId, error));
+                return Mono.just(Collections.emptyList());
+            })
+            .flatMapIterable(s -> s);
+    }
+
+    /**
+     * @return cache of subscriptions keyed by the signed-in identity (object id and home tenant in the management token).
+     */
+    @Nullable
+    private SubscriptionCache buildSubscriptionCache() {
+        try {
+            final Optional<String> identity = this.getManagementToken(this.defaultTokenCredential)
+                .map(AccessToken::getToken).map(Account::parseClaims)
+                .map(claims -> Stream.of("oid", "appid", "sub", "tid").map(claims::get).filter(Objects::nonNull)
+                    .map(Object::toString).collect(Collectors.joining("|")))
+                .filter(StringUtils::isNotBlank);
+            return identity.map(id -> new SubscriptionCache(String.join("|",
+                this.getEnvironment().getManagementEndpoint(), String.valueOf(this.getType()), this.getClientId(), id))).orElse(null);
+        } catch (final RuntimeException e) { // e.g. not a jwt token
+            return null;
+        }
+    }
+
+    @Nullable
+    private static Map<String, Object> parseClaims(@Nonnull String jwt) {
+        final String[] parts = jwt.split("\\.");
+        if (parts.length < 2) {
+            return null;
+        }
+        final String payload = new String(Base64.getUrlDecoder().decode(parts[1]), StandardCharsets.UTF_8);
+        return JsonUtils.fromJson(payload, new TypeReference<Map<String, Object>>() {
+        });
     }
 
     @Nonnull
@@ -227,6 +301,15 @@ public abstract class Account implements IAccount {
         return getSubscriptions().stream().map(Subscription::getTenantId).distinct().collect(Collectors.toList());
     }
 
+    /**
+     * @return stats (hit rate, acquisition latency, etc.) of the token cache of each tenant.
+     */
+    @Nonnull
+    public Map<String, TokenManager.Stats> getTokenStats() {
+        return this.tenantCredentialCache.entrySet().stream()
+            .collect(Collectors.toMap(Map.Entry::getKey, e -> ((TenantTokenCredential) e.getValue()).manager.getStats()));
+    }
+
     public String getPortalUrl() {
         return AzureEnvironmentUtils.getPortalUrl(this.getEnvironment());
     }
@@ -252,7 +335,7 @@ public abstract class Account implements IAccount {
         return isPersistenceEnabled() ? PERSISTENCE_OPTIONS : null;
     }
 
-    private static ResourceManager.Configurable configureAzure() {
+    ResourceManager.Configurable configureAzure() {
         // disable retry for getting tenant and subscriptions
         final String userAgent = Azure.az().config().getUserAgent();
         return ResourceManager.configure()
@@ -282,21 +365,24 @@ public abstract class Account implements IAccount {
         return StringUtils.join(details.toArray(), "\n");
     }
 
-    @RequiredArgsConstructor
     private static class TenantTokenCredential implements TokenCredential {
-        // cache for different resources on the same tenant
-        // private final Map<String, SimpleTokenCache> resourceTokenCache = new ConcurrentHashMap<>();
         private final String tenantId;
         private final TokenCredential defaultCredential;
+        private final TokenManager manager;
+
+        private TenantTokenCredential(@Nonnull String tenantId, @Nonnull TokenCredential defaultCredential) {
+            this.tenantId = tenantId;
+            this.defaultCredential = defaultCredential;
+            this.manager = new TokenManager(tenantId, this::acquireToken);
+        }
 
         @Override
         public Mono<AccessToken> getToken(TokenRequestContext request) {
             request.setTenantId(StringUtils.firstNonBlank(request.getTenantId(), this.tenantId));
-            // final String resource = ScopeUtil.scopesToResource(request.getScopes());
-            // final Function<String, SimpleTokenCache> func = (ignore) -> new SimpleTokenCache(() -> defaultCredential.getToken(request));
-            // return resourceTokenCache.computeIfAbsent(resource, func).getToken();
-            // final Mono<AccessToken> token = defaultCredential.getToken(request);
-            // final String resource = ScopeUtil.scopesToResource(request.getScopes());
+            return this.manager.getToken(request);
+        }
+
+        private Mono<AccessToken> acquireToken(TokenRequestContext request) {
             return defaultCredential.getToken(request).doOnTerminate(() -> {
                 if (defaultCredential instanceof InteractiveBrowserCredential || defaultCredential instanceof DeviceCodeCredential) {
                     disableAutomaticAuthentication(); // disable after first success.
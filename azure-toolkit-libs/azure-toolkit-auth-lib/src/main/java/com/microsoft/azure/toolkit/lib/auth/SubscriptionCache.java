@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.lib.auth;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.hash.Hashing;
+import com.microsoft.azure.toolkit.lib.common.model.Subscription;
+import com.microsoft.azure.toolkit.lib.common.utils.JsonUtils;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * short-lived on-disk cache of the discovered subscriptions of an identity, so that consecutive runs (e.g. maven
+ * invocations) within {@link #TTL} skip the tenant/subscription discovery.
+ */
+@Slf4j
+class SubscriptionCache {
+    static final Duration TTL = Duration.ofMinutes(10);
+    private static final Path CACHE_DIR = Paths.get(System.getProperty("user.home"), ".azure", "azure-toolkit-subscriptions");
+
+    private final Path dir;
+    private final File file;
+
+    /**
+     * @param identity uniquely identifies the signed-in identity, e.g. environment, client id, object id and home tenant.
+     */
+    SubscriptionCache(@Nonnull String identity) {
+        this(CACHE_DIR, identity);
+    }
+
+    SubscriptionCache(@Nonnull Path dir, @Nonnull String identity) {
+        final String name = Hashing.sha256().hashString(identity, StandardCharsets.UTF_8).toString();
+        this.dir = dir;
+        this.file = dir.resolve(name + ".json").toFile();
+    }
+
+    @Nullable
+    List<Subscription> get() {
+        if (!this.file.isFile()) {
+            return null;
+        }
+        final Entry entry = JsonUtils.readFromJsonFile(this.file, Entry.class);
+        if (Objects.isNull(entry) || Objects.isNull(entry.subscriptions) || System.currentTimeMillis() - entry.createdAt > TTL.toMillis()) {
+            return null;
+        }
+        return entry.subscriptions;
+    }
+
+    void put(@Nonnull List<Subscription> subscriptions) {
+        final List<Subscription> copies = new ArrayList<>();
+        subscriptions.forEach(s -> copies.add(new Subscription(s.getId(), s.getName(), s.getTenantId(), false)));
+        final File temp = new File(this.dir.toFile(), this.file.getName() + ".tmp");
+        try {
+            Files.createDirectories(this.dir);
+            JsonUtils.writeToJsonFile(temp, new Entry(System.currentTimeMillis(), copies));
+            // write and rename, so that concurrent runs never see a half written cache
+            Files.move(temp.toPath(), this.file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (final IOException | UnsupportedOperationException e) { // cache is only an optimization
+            log.debug("failed to cache subscriptions to {}", this.file, e);
+        }
+    }
+
+    void evict() {
+        Optional.of(this.file).filter(File::exists).ifPresent(f -> {
+            if (!f.delete()) {
+                log.debug("failed to delete subscriptions cache {}", f);
+            }
+        });
+    }
+
+    @Getter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    static class Entry {
+        @JsonProperty
+        private long createdAt;
+        @JsonProperty
+        private List<Subscription> subscriptions;
+    }
+}
@@ -0,0 +1,166 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.lib.auth;
+
+import com.azure.core.credential.AccessToken;
+import com.azure.core.credential.TokenRequestContext;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * caches tokens of a tenant per scopes: concurrent requests of the same scopes share one acquisition (single flight),
+ * and a token that's in use is refreshed in background {@link #REFRESH_AHEAD} before it expires, so that requests are
+ * served from cache instead of waiting for token acquisition. a failed background refresh is retried by the next request
+ * once the cached token is about to expire.
+ */
+@Slf4j
+public class TokenManager {
+    private static final Duration EXPIRY_MARGIN = Duration.ofMinutes(2);
+    private static final Duration REFRESH_AHEAD = Duration.ofMinutes(5);
+
+    private final String tenantId;
+    private final Function<TokenRequestContext, Mono<AccessToken>> acquirer;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    @Getter
+    private final Stats stats = new Stats();
+
+    TokenManager(@Nonnull String tenantId, @Nonnull Function<TokenRequestContext, Mono<AccessToken>> acquirer) {
+        this.tenantId = tenantId;
+        this.acquirer = acquirer;
+    }
+
+    @Nonnull
+    Mono<AccessToken> getToken(@Nonnull TokenRequestContext request) {
+        if (StringUtils.isNotBlank(request.getClaims())) { // claims challenge must always go to the identity provider
+            return this.acquirer.apply(request);
+        }
+        final String key = String.join(" ", new TreeSet<>(request.getScopes()));
+        return Mono.defer(() -> this.entries.computeIfAbsent(key, k -> new Entry(k, request)).get());
+    }
+
+    /**
+     * cancel all scheduled refreshes.
+     */
+    void dispose() {
+        this.entries.values().forEach(Entry::cancelRefresh);
+        this.entries.clear();
+    }
+
+    private class Entry {
+        private final String scopes;
+        private final TokenRequestContext request;
+        private volatile AccessToken token;
+        private volatile boolean used;
+        @Nullable
+        private Mono<AccessToken> inflight;
+        @Nullable
+        private Disposable refresh;
+
+        private Entry(@Nonnull String scopes, @Nonnull TokenRequestContext request) {
+            this.scopes = scopes;
+            this.request = new TokenRequestContext().setScopes(request.getScopes()).setTenantId(request.getTenantId());
+        }
+
+        @Nonnull
+        private Mono<AccessToken> get() {
+            final AccessToken current = this.token;
+            if (Objects.nonNull(current) && current.getExpiresAt().isAfter(OffsetDateTime.now().plus(EXPIRY_MARGIN))) {
+                TokenManager.this.stats.hits.incrementAndGet();
+                this.used = true;
+                return Mono.just(current);
+            }
+            TokenManager.this.stats.misses.incrementAndGet();
+            return this.acquire();
+        }
+
+        @Nonnull
+        private synchronized Mono<AccessToken> acquire() {
+            if (Objects.isNull(this.inflight)) {
+                final long start = System.nanoTime();
+                this.inflight = TokenManager.this.acquirer.apply(this.request)
+                    .doOnNext(t -> {
+                        TokenManager.this.stats.record(System.nanoTime() - start);
+                        this.token = t;
+                        this.used = false;
+                        this.scheduleRefresh(t);
+                    })
+                    .doFinally(ignore -> this.clearInflight())
+                    .cache();
+            }
+            return this.inflight;
+        }
+
+        private synchronized void clearInflight() {
+            this.inflight = null;
+        }
+
+        private synchronized void scheduleRefresh(@Nonnull AccessToken t) {
+            this.cancelRefresh();
+            final Duration delay = Duration.between(OffsetDateTime.now(), t.getExpiresAt().minus(REFRESH_AHEAD));
+            if (delay.isNegative() || OffsetDateTime.MAX.equals(t.getExpiresAt())) {
+                return;
+            }
+            this.refresh = Mono.delay(delay).filter(ignore -> this.used).flatMap(ignore -> { // tokens not used are not refreshed
+                TokenManager.this.stats.refreshes.incrementAndGet();
+                return this.acquire();
+            }).subscribe(ignore -> {
+            }, e -> log.debug("failed to refresh token of '{}' for tenant '{}' in background", this.scopes, TokenManager.this.tenantId, e));
+        }
+
+        private synchronized void cancelRefresh() {
+            Optional.ofNullable(this.refresh).ifPresent(Disposable::dispose);
+            this.refresh = null;
+        }
+    }
+
+    @Getter
+    public static class Stats {
+        private final AtomicLong hits = new AtomicLong();
+        private final AtomicLong misses = new AtomicLong();
+        /**
+         * background refreshes triggered before tokens expire.
+         */
+        private final AtomicLong refreshes = new AtomicLong();
+        private final AtomicLong acquisitions = new AtomicLong();
+        private final AtomicLong acquisitionNanos = new AtomicLong();
+        private final AtomicLong maxAcquisitionNanos = new AtomicLong();
+
+        private void record(long nanos) {
+            this.acquisitions.incrementAndGet();
+            this.acquisitionNanos.addAndGet(nanos);
+            this.maxAcquisitionNanos.accumulateAndGet(nanos, Math::max);
+        }
+
+        public double getHitRate() {
+            final long total = this.hits.get() + this.misses.get();
+            return total == 0 ? 0 : this.hits.get() * 1.0 / total;
+        }
+
+        public long getAverageAcquisitionMillis() {
+            final long count = this.acquisitions.get();
+            return count == 0 ? 0 : Duration.ofNanos(this.acquisitionNanos.get() / count).toMillis();
+        }
+
+        public long getMaxAcquisitionMillis() {
+            return Duration.ofNanos(this.maxAcquisitionNanos.get()).toMillis();
+        }
+    }
+}
@@ -93,6 +93,8 @@ public class AzureCliAccount extends Account {
     @AllArgsConstructor
     static class AzureCliTokenCredential implements TokenCredential {
         private static final String CLI_GET_ACCESS_TOKEN_CMD = "az account get-access-token --resource %s %s --output json";
+        private static final TypeReference<HashMap<String, Object>> TOKEN_TYPE = new TypeReference<HashMap<String, Object>>() {
+        };
         private final Map<String, SimpleTokenCache> tenantResourceTokenCache = new ConcurrentHashMap<>();
         private final String tenantId;
 
@@ -101,24 +103,26 @@ public class AzureCliAccount extends Account {
             final String tId = StringUtils.firstNonBlank(request.getTenantId(), this.tenantId);
             final String scopes = ScopeUtil.scopesToResource(request.getScopes());
             final String key = String.format("%s:%s", tId, scopes);
-            return tenantResourceTokenCache.computeIfAbsent(key, k -> new SimpleTokenCache(() -> {
-                final String azCommand = String.format(CLI_GET_ACCESS_TOKEN_CMD, scopes, (StringUtils.isBlank(tId) || isInCloudShell()) ? "" : (" -t " + tId));
-                final TypeReference<HashMap<String, Object>> typeRef = new TypeReference<HashMap<String, Object>>() {
-                };
-                final Map<String, Object> result = JsonUtils.fromJson(AzureCliUtils.executeAzureCli(azCommand), typeRef);
+            return tenantResourceTokenCache.computeIfAbsent(key, k -> new SimpleTokenCache(() ->
+                Mono.fromCallable(() -> AzureCliTokenCache.getInstance().getToken(k, () -> getTokenFromCli(tId, scopes))))).getToken();
+        }
+
+        @Nonnull
+        private static AccessToken getTokenFromCli(String tId, String scopes) {
+            final String azCommand = String.format(CLI_GET_ACCESS_TOKEN_CMD, scopes, (StringUtils.isBlank(tId) || isInCloudShell()) ? "" : (" -t " + tId));
+            final Map<String, Object> result = JsonUtils.fromJson(AzureCliUtils.executeAzureCli(azCommand), TOKEN_TYPE);
 
-                // com.azure.identity.implementation.IdentityClient.authenticateWithAzureCli
-                final String accessToken = (String) result.get("accessToken");
-                final OffsetDateTime expiresDateTime = Optional.ofNullable(((String) result.get("expiresOn")))
-                    .filter(StringUtils::isNotBlank)
-                    .map(value -> value.substring(0, value.indexOf(".")))
-                    .map(value -> String.join("T", value.split(" ")))
-                    .map(value -> LocalDateTime.parse(value, DateTimeFormatter.ISO_LOCAL_DATE_TIME)
-                        .atZone(ZoneId.systemDefault()).toOffsetDateTime()
-                        .withOffsetSameInstant(ZoneOffset.UTC))
-                    .orElse(OffsetDateTime.MAX);
-                return Mono.just(new AccessToken(accessToken, expiresDateTime));
-            })).getToken();
+            // com.azure.identity.implementation.IdentityClient.authenticateWithAzureCli
+            final String accessToken = (String) result.get("accessToken");
+            final OffsetDateTime expiresDateTime = Optional.ofNullable(((String) result.get("expiresOn")))
+                .filter(StringUtils::isNotBlank)
+                .map(value -> value.substring(0, value.indexOf(".")))
+                .map(value -> String.join("T", value.split(" ")))
+                .map(value -> LocalDateTime.parse(value, DateTimeFormatter.ISO_LOCAL_DATE_TIME)
+                    .atZone(ZoneId.systemDefault()).toOffsetDateTime()
+                    .withOffsetSameInstant(ZoneOffset.UTC))
+                .orElse(OffsetDateTime.MAX);
+            return new AccessToken(accessToken, expiresDateTime);
         }
     }
 
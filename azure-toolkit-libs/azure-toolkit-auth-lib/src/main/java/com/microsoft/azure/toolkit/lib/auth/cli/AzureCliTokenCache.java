@@ -0,0 +1,310 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.lib.auth.cli;
+
+import com.azure.core.credential.AccessToken;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.hash.Hashing;
+import com.microsoft.azure.toolkit.lib.common.utils.JsonUtils;
+import lombok.AllArgsConstructor;
+import lombok.NoArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.crypto.Cipher;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.AclEntry;
+import java.nio.file.attribute.AclEntryFlag;
+import java.nio.file.attribute.AclEntryPermission;
+import java.nio.file.attribute.AclEntryType;
+import java.nio.file.attribute.AclFileAttributeView;
+import java.nio.file.attribute.FileAttribute;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * encrypted on-disk cache of the access tokens retrieved from azure cli, shared by all processes (e.g. modules of a
+ * parallel maven build) of the current user, so that {@code az account get-access-token} is forked only once per tenant
+ * and resource until the token is about to expire. tokens are refreshed in background {@link #REFRESH_AHEAD} before
+ * expiry, and refreshing is guarded by a file lock so that concurrent processes wait for the one that's forking azure
+ * cli instead of forking their own. cached tokens are bound to the azure cli profile, signing in/out of azure cli
+ * invalidates them. cache files are accessible to the owner only (by posix permissions or acl), tokens are not
+ * persisted on file systems supporting neither.
+ */
+@Slf4j
+class AzureCliTokenCache {
+    // same as the refresh offset of SimpleTokenCache, which is in front of this cache
+    private static final Duration EXPIRY_MARGIN = Duration.ofMinutes(5);
+    private static final Duration REFRESH_AHEAD = Duration.ofMinutes(15);
+    private static final String CIPHER = "AES/GCM/NoPadding";
+    private static final int KEY_LENGTH = 32;
+    private static final int IV_LENGTH = 12;
+    private static final int TAG_BITS = 128;
+    private static final String KEY_FILE = ".key";
+    private static final Set<String> FILE_ATTRIBUTE_VIEWS = FileSystems.getDefault().supportedFileAttributeViews();
+    private static final AzureCliTokenCache INSTANCE = new AzureCliTokenCache(Paths.get(System.getProperty("user.home"), ".azure", "azure-toolkit-cli-tokens"));
+
+    private final Path dir;
+    private final Map<String, Object> locks = new ConcurrentHashMap<>();
+    private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+    private final SecureRandom random = new SecureRandom();
+    private volatile SecretKeySpec secret;
+
+    AzureCliTokenCache(@Nonnull Path dir) {
+        this.dir = dir;
+    }
+
+    @Nonnull
+    static AzureCliTokenCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * @param key     identifies the token, e.g. tenant and resource.
+     * @param fetcher retrieves a new token from azure cli.
+     */
+    @Nonnull
+    AccessToken getToken(@Nonnull String key, @Nonnull Supplier<AccessToken> fetcher) {
+        try {
+            final String name = Hashing.sha256().hashString(key + "|" + getProfileFingerprint(), StandardCharsets.UTF_8).toString();
+            final AccessToken cached = this.read(name);
+            if (isUsable(cached)) {
+                if (cached.getExpiresAt().isBefore(OffsetDateTime.now().plus(REFRESH_AHEAD))) {
+                    this.refreshInBackground(name, fetcher);
+                }
+                return cached;
+            }
+            return this.withLock(name, () -> {
+                final AccessToken current = this.read(name); // may have been refreshed by others while waiting
+                return isUsable(current) ? current : this.refresh(name, fetcher);
+            });
+        } catch (final IOException | GeneralSecurityException | RuntimeException e) {
+            if (e instanceof CliFailure) {
+                throw (RuntimeException) e.getCause();
+            }
+            log.debug("failed to access azure cli token cache, fetching token directly", e);
+            return fetcher.get();
+        }
+    }
+
+    private void refreshInBackground(@Nonnull String name, @Nonnull Supplier<AccessToken> fetcher) {
+        if (!this.refreshing.add(name)) {
+            return;
+        }
+        Mono.fromCallable(() -> this.withLock(name, () -> {
+                final AccessToken current = this.read(name);
+                final boolean due = !isUsable(current) || current.getExpiresAt().isBefore(OffsetDateTime.now().plus(REFRESH_AHEAD));
+                return due ? this.refresh(name, fetcher) : current;
+            }))
+            .subscribeOn(Schedulers.boundedElastic())
+            .doFinally(ignore -> this.refreshing.remove(name))
+            .subscribe(ignore -> {
+            }, e -> log.debug("failed to refresh azure cli token in background", e));
+    }
+
+    @Nonnull
+    private AccessToken refresh(@Nonnull String name, @Nonnull Supplier<AccessToken> fetcher) throws IOException, GeneralSecurityException {
+        final AccessToken token;
+        try {
+            token = fetcher.get();
+        } catch (final RuntimeException e) { // errors of azure cli should be surfaced as is
+            throw new CliFailure(e);
+        }
+        if (Objects.nonNull(token.getExpiresAt()) && !OffsetDateTime.MAX.equals(token.getExpiresAt())) { // never persist tokens without expiry
+            try {
+                this.write(name, token);
+            } catch (final IOException | GeneralSecurityException | RuntimeException e) { // the fetched token is still good
+                log.debug("failed to persist azure cli token", e);
+            }
+        }
+        return token;
+    }
+
+    @Nullable
+    private AccessToken read(@Nonnull String name) {
+        final Path file = this.dir.resolve(name);
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        try {
+            final byte[] data = Files.readAllBytes(file);
+            final Cipher cipher = Cipher.getInstance(CIPHER);
+            cipher.init(Cipher.DECRYPT_MODE, this.getSecret(), new GCMParameterSpec(TAG_BITS, data, 0, IV_LENGTH));
+            final String json = new String(cipher.doFinal(data, IV_LENGTH, data.length - IV_LENGTH), StandardCharsets.UTF_8);
+            final Entry entry = JsonUtils.fromJson(json, Entry.class);
+            return new AccessToken(entry.token, Instant.ofEpochSecond(entry.expiresOn).atOffset(ZoneOffset.UTC));
+        } catch (final Exception e) { // corrupted or encrypted with another key
+            log.debug("invalid azure cli token cache {}", file, e);
+            return null;
+        }
+    }
+
+    private void write(@Nonnull String name, @Nonnull AccessToken token) throws IOException, GeneralSecurityException {
+        final byte[] iv = new byte[IV_LENGTH];
+        this.random.nextBytes(iv);
+        final Cipher cipher = Cipher.getInstance(CIPHER);
+        cipher.init(Cipher.ENCRYPT_MODE, this.getSecret(), new GCMParameterSpec(TAG_BITS, iv));
+        final Entry entry = new Entry(token.getToken(), token.getExpiresAt().toEpochSecond());
+        final byte[] encrypted = cipher.doFinal(JsonUtils.toJson(entry).getBytes(StandardCharsets.UTF_8));
+        final byte[] data = Arrays.copyOf(iv, IV_LENGTH + encrypted.length);
+        System.arraycopy(encrypted, 0, data, IV_LENGTH, encrypted.length);
+        this.writeAtomically(this.dir.resolve(name), data);
+    }
+
+    @Nonnull
+    private SecretKeySpec getSecret() throws IOException, GeneralSecurityException {
+        if (Objects.isNull(this.secret)) {
+            this.secret = this.withLock(KEY_FILE, () -> {
+                final Path file = this.dir.resolve(KEY_FILE);
+                if (!Files.isRegularFile(file) || Files.size(file) != KEY_LENGTH) {
+                    final byte[] key = new byte[KEY_LENGTH];
+                    this.random.nextBytes(key);
+                    this.writeAtomically(file, key);
+                }
+                return new SecretKeySpec(Files.readAllBytes(file), "AES");
+            });
+        }
+        return this.secret;
+    }
+
+    /**
+     * runs {@code task} exclusively among threads of this process and all other processes.
+     */
+    private <T> T withLock(@Nonnull String name, @Nonnull Callable<T> task) throws IOException, GeneralSecurityException {
+        synchronized (this.locks.computeIfAbsent(name, k -> new Object())) {
+            this.ensureDirectory();
+            try (FileChannel channel = FileChannel.open(this.dir.resolve(name + ".lock"), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+                 FileLock ignored = channel.lock()) {
+                return task.call();
+            } catch (final IOException | GeneralSecurityException | RuntimeException e) {
+                throw e;
+            } catch (final Exception e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    private void writeAtomically(@Nonnull Path file, @Nonnull byte[] data) throws IOException {
+        final Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.deleteIfExists(temp);
+        createPrivately(temp, false);
+        Files.write(temp, data);
+        try {
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (final IOException | UnsupportedOperationException e) {
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private void ensureDirectory() throws IOException {
+        if (!Files.isDirectory(this.dir)) {
+            Files.createDirectories(this.dir.getParent());
+            try {
+                createPrivately(this.dir, true);
+            } catch (final FileAlreadyExistsException e) { // created by another process meanwhile
+                log.debug("azure cli token cache directory already exists", e);
+            }
+        }
+    }
+
+    /**
+     * create {@code path} accessible to the owner only.
+     *
+     * @throws IOException if neither posix permissions nor acl is supported, so that nothing is persisted.
+     */
+    private static void createPrivately(@Nonnull Path path, boolean directory) throws IOException {
+        if (FILE_ATTRIBUTE_VIEWS.contains("posix")) {
+            final String permissions = directory ? "rwx------" : "rw-------";
+            final FileAttribute<Set<PosixFilePermission>> attribute = PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString(permissions));
+            if (directory) {
+                Files.createDirectory(path, attribute);
+            } else {
+                Files.createFile(path, attribute);
+            }
+        } else if (FILE_ATTRIBUTE_VIEWS.contains("acl")) {
+            if (directory) {
+                Files.createDirectory(path);
+            } else {
+                Files.createFile(path);
+            }
+            final AclFileAttributeView view = Files.getFileAttributeView(path, AclFileAttributeView.class);
+            final AclEntry owner = AclEntry.newBuilder()
+                .setType(AclEntryType.ALLOW)
+                .setPrincipal(view.getOwner())
+                .setPermissions(EnumSet.allOf(AclEntryPermission.class))
+                .setFlags(directory ? EnumSet.of(AclEntryFlag.FILE_INHERIT, AclEntryFlag.DIRECTORY_INHERIT) : EnumSet.noneOf(AclEntryFlag.class))
+                .build();
+            view.setAcl(Collections.singletonList(owner)); // drops the inherited entries
+        } else {
+            throw new IOException("file system supports neither posix permissions nor acl, azure cli tokens are not persisted.");
+        }
+    }
+
+    private static boolean isUsable(@Nullable AccessToken token) {
+        return Objects.nonNull(token) && token.getExpiresAt().isAfter(OffsetDateTime.now().plus(EXPIRY_MARGIN));
+    }
+
+    /**
+     * @return fingerprint of the current azure cli profile, which changes on {@code az login/logout/account set}.
+     */
+    @Nonnull
+    private static String getProfileFingerprint() throws IOException {
+        final String configDir = StringUtils.firstNonBlank(System.getenv("AZURE_CONFIG_DIR"), Paths.get(System.getProperty("user.home"), ".azure").toString());
+        final Path profile = Paths.get(configDir, "azureProfile.json");
+        return Files.isRegularFile(profile) ? Hashing.sha256().hashBytes(Files.readAllBytes(profile)).toString() : "";
+    }
+
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    private static class Entry {
+        @JsonProperty
+        private String token;
+        @JsonProperty
+        private long expiresOn;
+    }
+
+    /**
+     * failure of azure cli itself rather than the cache.
+     */
+    private static class CliFailure extends RuntimeException {
+        private CliFailure(@Nonnull RuntimeException cause) {
+            super(cause);
+        }
+    }
+}
@@ -0,0 +1,175 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.lib.auth;
+
+import com.azure.core.credential.AccessToken;
+import com.azure.core.credential.TokenCredential;
+import com.azure.core.http.HttpClient;
+import com.azure.core.http.HttpHeaders;
+import com.azure.core.http.HttpRequest;
+import com.azure.core.http.HttpResponse;
+import com.azure.core.http.policy.FixedDelay;
+import com.azure.core.http.policy.RetryPolicy;
+import com.azure.core.management.AzureEnvironment;
+import com.azure.resourcemanager.resources.ResourceManager;
+import com.microsoft.azure.toolkit.lib.common.model.Subscription;
+import org.junit.Assert;
+import org.junit.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import javax.annotation.Nonnull;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+public class AccountTest {
+    @Test
+    public void discoverSubscriptionsConcurrently() {
+        final Map<String, String> subscriptions = new HashMap<>();
+        subscriptions.put("tenant1", subscriptions("tenant1", "sub1"));
+        subscriptions.put("tenant2", subscriptions("tenant2", "sub2"));
+        subscriptions.put("tenant3", subscriptions("tenant3", "sub1", "sub3")); // e.g. a guest tenant sharing subscriptions
+        final FakeArm arm = new FakeArm(subscriptions);
+        final TestAccount account = new TestAccount(arm);
+        account.setPersistenceEnabled(false);
+        account.login();
+
+        Assert.assertEquals(1, arm.tenantRequests.get());
+        // subscriptions of tenants are listed concurrently, duplicates are removed, and a tenant denying access is skipped
+        Assert.assertEquals(4, arm.subscriptionRequests.get());
+        Assert.assertTrue("tenants are discovered one by one", arm.maxConcurrent.get() > 1);
+        Assert.assertEquals(Arrays.asList("sub1", "sub2", "sub3"), account.getSubscriptions().stream().map(Subscription::getId).collect(Collectors.toList()));
+        Assert.assertEquals(Arrays.asList("tenant1", "tenant2", "tenant3"), account.getTenantIds());
+    }
+
+    private static String subscriptions(String tenant, String... ids) {
+        return Arrays.stream(ids).map(id -> String.format("{\"id\":\"/subscriptions/%s\",\"subscriptionId\":\"%s\",\"displayName\":\"Sub %s\"," +
+            "\"tenantId\":\"%s\",\"state\":\"Enabled\"}", id, id, id.substring(3), tenant)).collect(Collectors.joining(",", "{\"value\":[", "]}"));
+    }
+
+    private static class TestAccount extends Account {
+        private final HttpClient client;
+
+        TestAccount(HttpClient client) {
+            super(new AuthConfiguration(AuthType.AUTO));
+            this.client = client;
+        }
+
+        @Nonnull
+        @Override
+        protected TokenCredential buildDefaultTokenCredential() {
+            // tokens tell the tenant they are issued for
+            return request -> Mono.just(new AccessToken("token:" + request.getTenantId(), OffsetDateTime.now().plusHours(1)));
+        }
+
+        @Override
+        ResourceManager.Configurable configureAzure() {
+            return ResourceManager.configure().withHttpClient(this.client).withRetryPolicy(new RetryPolicy(new FixedDelay(0, Duration.ZERO)));
+        }
+
+        @Override
+        public AzureEnvironment getEnvironment() {
+            return AzureEnvironment.AZURE;
+        }
+
+        @Override
+        public boolean checkAvailable() {
+            return true;
+        }
+
+        @Override
+        public AuthType getType() {
+            return AuthType.AUTO;
+        }
+    }
+
+    private static class FakeArm implements HttpClient {
+        private static final String TENANTS = Arrays.asList("tenant1", "tenant2", "tenant3", "denied").stream()
+            .map(t -> String.format("{\"id\":\"/tenants/%s\",\"tenantId\":\"%s\"}", t, t)).collect(Collectors.joining(",", "{\"value\":[", "]}"));
+        private final Map<String, String> subscriptions;
+        private final AtomicInteger tenantRequests = new AtomicInteger();
+        private final AtomicInteger subscriptionRequests = new AtomicInteger();
+        private final AtomicInteger concurrent = new AtomicInteger();
+        private final AtomicInteger maxConcurrent = new AtomicInteger();
+
+        FakeArm(Map<String, String> subscriptions) {
+            this.subscriptions = subscriptions;
+        }
+
+        @Override
+        public Mono<HttpResponse> send(HttpRequest request) {
+            final String path = request.getUrl().getPath();
+            if (path.equals("/tenants")) {
+                this.tenantRequests.incrementAndGet();
+                return Mono.just(new FakeResponse(request, 200, TENANTS));
+            }
+            this.subscriptionRequests.incrementAndGet();
+            final String tenant = request.getHeaders().getValue("Authorization").replace("Bearer token:", "");
+            final String body = this.subscriptions.get(tenant);
+            return Mono.fromRunnable(() -> this.maxConcurrent.accumulateAndGet(this.concurrent.incrementAndGet(), Math::max))
+                .then(Mono.delay(Duration.ofMillis(300)))
+                .doFinally(ignore -> this.concurrent.decrementAndGet())
+                .then(Mono.fromSupplier(() -> body == null ?
+                    new FakeResponse(request, 403, "{\"error\":{\"code\":\"AuthorizationFailed\",\"message\":\"denied\"}}") :
+                    new FakeResponse(request, 200, body)));
+        }
+    }
+
+    private static class FakeResponse extends HttpResponse {
+        private final int status;
+        private final byte[] body;
+        private final HttpHeaders headers = new HttpHeaders().set("Content-Type", "application/json");
+
+        FakeResponse(HttpRequest request, int status, String body) {
+            super(request);
+            this.status = status;
+            this.body = body.getBytes(StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public int getStatusCode() {
+            return this.status;
+        }
+
+        @Override
+        public String getHeaderValue(String name) {
+            return this.headers.getValue(name);
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return this.headers;
+        }
+
+        @Override
+        public Flux<ByteBuffer> getBody() {
+            return Flux.just(ByteBuffer.wrap(this.body));
+        }
+
+        @Override
+        public Mono<byte[]> getBodyAsByteArray() {
+            return Mono.just(this.body);
+        }
+
+        @Override
+        public Mono<String> getBodyAsString() {
+            return Mono.just(new String(this.body, StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public Mono<String> getBodyAsString(Charset charset) {
+            return Mono.just(new String(this.body, charset));
+        }
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.lib.auth;
+
+import com.microsoft.azure.toolkit.lib.common.model.Subscription;
+import com.microsoft.azure.toolkit.lib.common.utils.JsonUtils;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+public class SubscriptionCacheTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void roundTrip() {
+        final Path dir = folder.getRoot().toPath().resolve("subscriptions");
+        final Subscription selected = new Subscription("sub1", "Sub 1", "tenant1", true);
+        new SubscriptionCache(dir, "identity").put(Arrays.asList(selected, new Subscription("sub2", "Sub 2", "tenant2", false)));
+
+        final List<Subscription> cached = Objects.requireNonNull(new SubscriptionCache(dir, "identity").get());
+        Assert.assertEquals(Arrays.asList("sub1", "sub2"), cached.stream().map(Subscription::getId).collect(Collectors.toList()));
+        Assert.assertEquals(Arrays.asList("tenant1", "tenant2"), cached.stream().map(Subscription::getTenantId).collect(Collectors.toList()));
+        // selection is not cached, it's restored from configuration
+        Assert.assertFalse(cached.get(0).isSelected());
+        // cached per identity
+        Assert.assertNull(new SubscriptionCache(dir, "other").get());
+    }
+
+    @Test
+    public void expired() throws Exception {
+        final Path dir = folder.getRoot().toPath().resolve("subscriptions");
+        final SubscriptionCache cache = new SubscriptionCache(dir, "identity");
+        cache.put(Collections.singletonList(new Subscription("sub1", "Sub 1", "tenant1", false)));
+        final File file = list(dir).get(0);
+        final long createdAt = System.currentTimeMillis() - SubscriptionCache.TTL.toMillis() - 1000;
+        JsonUtils.writeToJsonFile(file, new SubscriptionCache.Entry(createdAt, Collections.singletonList(new Subscription("sub1"))));
+        Assert.assertNull(cache.get());
+    }
+
+    @Test
+    public void evict() throws Exception {
+        final Path dir = folder.getRoot().toPath().resolve("subscriptions");
+        final SubscriptionCache cache = new SubscriptionCache(dir, "identity");
+        cache.put(Collections.singletonList(new Subscription("sub1", "Sub 1", "tenant1", false)));
+        Assert.assertNotNull(cache.get());
+        cache.evict();
+        Assert.assertNull(cache.get());
+        Assert.assertTrue(list(dir).isEmpty());
+    }
+
+    private static List<File> list(Path dir) throws Exception {
+        try (final Stream<Path> files = Files.list(dir)) {
+            return files.map(Path::toFile).collect(Collectors.toList());
+        }
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.lib.auth;
+
+import com.azure.core.credential.AccessToken;
+import com.azure.core.credential.TokenRequestContext;
+import org.junit.Assert;
+import org.junit.Test;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+public class TokenManagerTest {
+    private static final TokenRequestContext REQUEST = new TokenRequestContext().addScopes("https://management.azure.com/.default");
+
+    @Test
+    public void singleFlight() throws Exception {
+        final AtomicInteger acquisitions = new AtomicInteger();
+        final CountDownLatch release = new CountDownLatch(1);
+        final TokenManager manager = new TokenManager("tenant", request -> Mono.fromCallable(() -> {
+            acquisitions.incrementAndGet();
+            release.await(10, TimeUnit.SECONDS);
+            return token("token", Duration.ofHours(1));
+        }));
+        final CountDownLatch start = new CountDownLatch(1);
+        final ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            final List<Future<String>> results = IntStream.range(0, 16).mapToObj(i -> executor.submit(() -> {
+                start.await();
+                return manager.getToken(REQUEST).map(AccessToken::getToken).block(Duration.ofSeconds(30));
+            })).collect(Collectors.toList());
+            start.countDown();
+            Thread.sleep(200);
+            release.countDown();
+            for (final Future<String> result : results) {
+                Assert.assertEquals("token", result.get(30, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        // concurrent requests share one acquisition
+        Assert.assertEquals(1, acquisitions.get());
+        manager.dispose();
+    }
+
+    @Test
+    public void refreshAhead() throws Exception {
+        final AtomicInteger acquisitions = new AtomicInteger();
+        final TokenManager manager = new TokenManager("tenant", request -> Mono.fromCallable(() -> acquisitions.incrementAndGet() == 1 ?
+            token("token1", Duration.ofMinutes(5).plusMillis(500)) : token("token2", Duration.ofHours(1))));
+        Assert.assertEquals("token1", getToken(manager));
+        Assert.assertEquals("token1", getToken(manager)); // used, so it's to be refreshed
+        final long deadline = System.currentTimeMillis() + 10_000;
+        while (acquisitions.get() < 2 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        Assert.assertEquals(2, acquisitions.get());
+        Assert.assertEquals(1, manager.getStats().getRefreshes().get());
+        // the refreshed token is served from cache, before the old one expires
+        Thread.sleep(100);
+        Assert.assertEquals("token2", getToken(manager));
+        Assert.assertEquals(2, acquisitions.get());
+        manager.dispose();
+    }
+
+    @Test
+    public void failedAcquisition() {
+        final AtomicInteger acquisitions = new AtomicInteger();
+        final TokenManager manager = new TokenManager("tenant", request -> Mono.defer(() -> acquisitions.incrementAndGet() == 1 ?
+            Mono.error(new IllegalStateException("failed")) : Mono.just(token("token", Duration.ofHours(1)))));
+        try {
+            getToken(manager);
+            Assert.fail("acquisition should fail");
+        } catch (final IllegalStateException e) {
+            Assert.assertEquals("failed", e.getMessage());
+        }
+        // the failure is not cached
+        Assert.assertEquals("token", getToken(manager));
+        Assert.assertEquals("token", getToken(manager));
+        Assert.assertEquals(2, acquisitions.get());
+        manager.dispose();
+    }
+
+    @Test
+    public void disposeCancelsRefresh() throws Exception {
+        final AtomicInteger acquisitions = new AtomicInteger();
+        final TokenManager manager = new TokenManager("tenant", request -> Mono.fromCallable(() -> {
+            acquisitions.incrementAndGet();
+            return token("token", Duration.ofMinutes(5).plusMillis(500));
+        }));
+        getToken(manager);
+        getToken(manager);
+        // as on signing out
+        manager.dispose();
+        Thread.sleep(1500);
+        Assert.assertEquals(1, acquisitions.get());
+        Assert.assertEquals(0, manager.getStats().getRefreshes().get());
+    }
+
+    private static String getToken(TokenManager manager) {
+        return manager.getToken(REQUEST).map(AccessToken::getToken).block(Duration.ofSeconds(30));
+    }
+
+    private static AccessToken token(String value, Duration lifetime) {
+        return new AccessToken(value, OffsetDateTime.now().plus(lifetime));
+    }
+}
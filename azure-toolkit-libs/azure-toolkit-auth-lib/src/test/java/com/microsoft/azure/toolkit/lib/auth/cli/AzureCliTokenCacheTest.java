@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.lib.auth.cli;
+
+import com.azure.core.credential.AccessToken;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+public class AzureCliTokenCacheTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void roundTrip() throws Exception {
+        final Path dir = folder.getRoot().toPath().resolve("tokens");
+        final AtomicInteger fetches = new AtomicInteger();
+        final Supplier<AccessToken> fetcher = () -> token("token" + fetches.incrementAndGet());
+
+        Assert.assertEquals("token1", new AzureCliTokenCache(dir).getToken("tenant|resource", fetcher).getToken());
+        // persisted and shared by other instances (processes)
+        final AccessToken cached = new AzureCliTokenCache(dir).getToken("tenant|resource", fetcher);
+        Assert.assertEquals("token1", cached.getToken());
+        Assert.assertEquals(1, fetches.get());
+        Assert.assertEquals("token2", new AzureCliTokenCache(dir).getToken("tenant|other", fetcher).getToken());
+        // tokens are encrypted at rest
+        for (final Path file : list(dir)) {
+            Assert.assertFalse(new String(Files.readAllBytes(file)).contains("token1"));
+        }
+        if (FileSystems.getDefault().supportedFileAttributeViews().contains("posix")) {
+            Assert.assertEquals("rwx------", PosixFilePermissions.toString(Files.getPosixFilePermissions(dir)));
+            for (final Path file : list(dir)) {
+                if (!file.getFileName().toString().endsWith(".lock")) {
+                    Assert.assertEquals("rw-------", PosixFilePermissions.toString(Files.getPosixFilePermissions(file)));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void tamper() throws Exception {
+        final Path dir = folder.getRoot().toPath().resolve("tokens");
+        final AtomicInteger fetches = new AtomicInteger();
+        final Supplier<AccessToken> fetcher = () -> token("token" + fetches.incrementAndGet());
+        new AzureCliTokenCache(dir).getToken("tenant|resource", fetcher);
+        for (final Path file : list(dir)) {
+            if (!file.getFileName().toString().startsWith(".") && !file.getFileName().toString().endsWith(".lock")) {
+                final byte[] data = Files.readAllBytes(file);
+                data[data.length - 1] ^= 1;
+                Files.write(file, data);
+            }
+        }
+        // tampered tokens fail authentication and are fetched again
+        Assert.assertEquals("token2", new AzureCliTokenCache(dir).getToken("tenant|resource", fetcher).getToken());
+        Assert.assertEquals(2, fetches.get());
+    }
+
+    @Test
+    public void concurrentWriters() throws Exception {
+        final Path dir = folder.getRoot().toPath().resolve("tokens");
+        final AzureCliTokenCache cache = new AzureCliTokenCache(dir);
+        final Set<String> fetched = ConcurrentHashMap.newKeySet();
+        final AtomicInteger fetches = new AtomicInteger();
+        final CountDownLatch start = new CountDownLatch(1);
+        final ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            final List<Future<String>> results = IntStream.range(0, 32).mapToObj(i -> executor.submit(() -> {
+                start.await();
+                final String key = "tenant|resource" + (i % 4);
+                return cache.getToken(key, () -> {
+                    fetches.incrementAndGet();
+                    Assert.assertTrue("fetched more than once", fetched.add(key));
+                    return token(key);
+                }).getToken();
+            })).collect(Collectors.toList());
+            start.countDown();
+            for (int i = 0; i < results.size(); i++) {
+                Assert.assertEquals("tenant|resource" + (i % 4), results.get(i).get(30, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        // each key is fetched once, and the persisted tokens are intact
+        Assert.assertEquals(4, fetches.get());
+        final AzureCliTokenCache other = new AzureCliTokenCache(dir);
+        for (int i = 0; i < 4; i++) {
+            final String key = "tenant|resource" + i;
+            Assert.assertEquals(key, other.getToken(key, () -> token("refetched")).getToken());
+        }
+    }
+
+    private static AccessToken token(String value) {
+        return new AccessToken(value, OffsetDateTime.now().plusHours(1));
+    }
+
+    private static List<Path> list(Path dir) throws Exception {
+        try (final Stream<Path> files = Files.list(dir)) {
+            return files.collect(Collectors.toList());
+        }
+    }
+}
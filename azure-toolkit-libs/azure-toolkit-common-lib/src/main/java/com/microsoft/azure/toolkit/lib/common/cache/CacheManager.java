@@ -7,8 +7,10 @@ package com.microsoft.azure.toolkit.lib.common.cache;
 
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
-import com.google.common.cache.CacheLoader;
-import com.google.common.cache.LoadingCache;
+import com.google.common.cache.CacheStats;
+import com.google.common.util.concurrent.ExecutionError;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import com.microsoft.azure.toolkit.lib.common.task.AzureTaskManager;
 import com.microsoft.azure.toolkit.lib.common.utils.aspect.ExpressionUtils;
 import com.microsoft.azure.toolkit.lib.common.utils.aspect.MethodInvocation;
 import lombok.extern.java.Log;
@@ -21,9 +23,13 @@ import org.aspectj.lang.reflect.MethodSignature;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
@@ -32,21 +38,16 @@ import java.util.logging.Level;
 @Aspect
 @Log
 public class CacheManager {
-    private static final CacheLoader<String, Cache<Object, Object>> loader = new CacheLoader<String, Cache<Object, Object>>() {
-        @Nonnull
-        @Override
-        public Cache<Object, Object> load(@Nonnull String key) {
-            return CacheBuilder.newBuilder()
-                .expireAfterAccess(4, TimeUnit.HOURS) // TODO: justify
-                .build();
-        }
-    };
-    private static final LoadingCache<String, Cache<Object, Object>> caches = CacheBuilder.newBuilder()
+    private static final Cache<String, NamedCache> caches = CacheBuilder.newBuilder()
         .expireAfterAccess(4, TimeUnit.HOURS) // TODO: justify
-        .build(loader);
+        .build();
 
     private static final Map<Class<?>, Object> histories = new ConcurrentHashMap<>();
     private static final Map<String, Object> namedHistories = new ConcurrentHashMap<>();
+    /**
+     * set while a cached method is re-invoked to refresh its entry, so that its cache advice proceeds without the cache.
+     */
+    private static final ThreadLocal<Boolean> reloading = new ThreadLocal<>();
 
     @Pointcut("execution(@com.microsoft.azure.toolkit.lib.common.cache.Cacheable * *..*.*(..))")
     public void cacheable() {
@@ -58,6 +59,10 @@ public class CacheManager {
 
     @Around("cacheable()")
     public Object aroundCacheable(@Nonnull final ProceedingJoinPoint point) throws Throwable {
+        if (Boolean.TRUE.equals(reloading.get())) {
+            reloading.remove(); // only for the re-invoked method itself, not the cached methods it calls
+            return point.proceed();
+        }
         final MethodSignature signature = (MethodSignature) point.getSignature();
         final MethodInvocation invocation = MethodInvocation.from(point);
         final Cacheable annotation = signature.getMethod().getAnnotation(Cacheable.class);
@@ -72,15 +77,15 @@ public class CacheManager {
         }
         final String condition = annotation.condition();
         final boolean toUseCache = StringUtils.isBlank(condition) || ExpressionUtils.evaluate(condition, invocation, true);
-        final Cache<Object, Object> cache = caches.get(name);
+        final NamedCache cache = caches.get(name, () -> new NamedCache(annotation));
         if (toUseCache) {
             log.fine(String.format("loading data from cache[%s.%s] on method[%s]", name, key, signature.getName()));
-            return readCache(cache, key, point);
+            return cache.read(key, point);
         }
         log.fine(String.format("skipping cache[%s.%s] on method[%s]", name, key, signature.getName()));
         final Object result = point.proceed();
         if (Objects.nonNull(result)) {
-            cache.put(key, Optional.of(result));
+            cache.entries.put(key, new Entry(result));
         }
         return result;
     }
@@ -118,26 +123,134 @@ public class CacheManager {
                 caches.invalidate(name);
             } else { // invalidate key specified cache entry of named cache if both cache name and key are specified
                 log.fine(String.format("invalidate cache entry[%s.%s]", name, key));
-                caches.get(name).invalidate(key);
+                Optional.ofNullable(caches.getIfPresent(name)).ifPresent(c -> c.entries.invalidate(key));
             }
         }
     }
 
-    private Object readCache(Cache<Object, Object> cache, String key, ProceedingJoinPoint point) throws Throwable {
-        final Optional<?> result = (Optional<?>) cache.get(key, () -> {
+    /**
+     * @return snapshot of the statistics(hits, misses, load time, evictions...) of all the live caches, keyed by cache name.
+     */
+    @Nonnull
+    public static Map<String, CacheStats> getStats() {
+        final Map<String, CacheStats> result = new TreeMap<>();
+        caches.asMap().forEach((name, cache) -> result.put(name, cache.entries.stats()));
+        return result;
+    }
+
+    /**
+     * @return snapshot of the statistics of the named cache, {@code null} if the cache doesn't exist (yet).
+     */
+    @Nullable
+    public static CacheStats getStats(@Nonnull final String name) {
+        return Optional.ofNullable(caches.getIfPresent(name)).map(c -> c.entries.stats()).orElse(null);
+    }
+
+    private static class NamedCache {
+        private final Cache<String, Entry> entries;
+        private final long refreshAfterWriteNanos;
+        private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+
+        private NamedCache(@Nonnull final Cacheable annotation) {
+            final CacheBuilder<Object, Object> builder = CacheBuilder.newBuilder().recordStats();
+            if (annotation.ttl() > 0) {
+                builder.expireAfterWrite(annotation.ttl(), TimeUnit.SECONDS);
+            } else {
+                builder.expireAfterAccess(4, TimeUnit.HOURS); // TODO: justify
+            }
+            if (annotation.maximumSize() > 0) {
+                builder.maximumSize(annotation.maximumSize());
+            }
+            this.entries = builder.build();
+            this.refreshAfterWriteNanos = annotation.refreshAfterWrite() > 0 ? TimeUnit.SECONDS.toNanos(annotation.refreshAfterWrite()) : -1;
+        }
+
+        /**
+         * concurrent misses of the same key share one in-flight loading (and its failure), failures are never cached.
+         */
+        private Object read(@Nonnull final String key, @Nonnull final ProceedingJoinPoint point) throws Throwable {
+            final Entry entry;
+            try {
+                entry = this.entries.get(key, () -> {
+                    log.fine(String.format("cache[%s] miss on method[%s]", key, point.getSignature().getName()));
+                    return load(key, point, point::proceed);
+                });
+            } catch (final ExecutionException | UncheckedExecutionException | ExecutionError e) {
+                throw e.getCause() instanceof LoadingFailure ? e.getCause().getCause() : e.getCause();
+            }
+            if (this.refreshAfterWriteNanos > 0 && System.nanoTime() - entry.loadedAt > this.refreshAfterWriteNanos) {
+                this.refresh(key, entry, point);
+            }
+            return entry.value;
+        }
+
+        /**
+         * reload the {@code stale} entry in background, the reloaded value is discarded if the entry has been evicted
+         * or replaced (e.g. by {@link CacheEvict} and a following load) in the meantime.
+         * the method is re-invoked (through all its advices) rather than proceeding the join point, which can't be
+         * replayed on another thread after the advices returned if there are multiple around advices.
+         */
+        private void refresh(@Nonnull final String key, @Nonnull final Entry stale, @Nonnull final ProceedingJoinPoint point) {
+            final AzureTaskManager manager = AzureTaskManager.getInstance();
+            if (Objects.isNull(manager) || !this.refreshing.add(key)) {
+                return;
+            }
+            final Method method = ((MethodSignature) point.getSignature()).getMethod();
+            final Object target = point.getTarget();
+            final Object[] args = point.getArgs();
+            method.setAccessible(true);
+            final Loader reinvoke = () -> {
+                reloading.set(true);
+                try {
+                    return method.invoke(target, args);
+                } catch (final InvocationTargetException e) {
+                    throw e.getCause();
+                } finally {
+                    reloading.remove();
+                }
+            };
+            manager.runOnPooledThread(() -> {
+                try {
+                    if (!this.entries.asMap().replace(key, stale, load(key, point, reinvoke))) {
+                        log.fine(String.format("discard refreshed cache[%s] on method[%s], it was evicted or replaced", key, point.getSignature().getName()));
+                    }
+                } catch (final LoadingFailure e) { // keep the stale value if refreshing failed
+                    log.log(Level.FINE, String.format("error occurs on refreshing cache[%s] on method[%s]", key, point.getSignature().getName()), e.getCause());
+                } finally {
+                    this.refreshing.remove(key);
+                }
+            });
+        }
+
+        private static Entry load(@Nonnull final String key, @Nonnull final ProceedingJoinPoint point, @Nonnull final Loader loader) throws LoadingFailure {
             try {
-                log.fine(String.format("cache[%s] miss on method[%s]", key, point.getSignature().getName()));
-                return Optional.ofNullable(point.proceed());
+                return new Entry(loader.load());
             } catch (final Throwable throwable) {
                 log.log(Level.FINE, String.format("error occurs on loading data into cache[%s] on method[%s]", key, point.getSignature().getName()), throwable);
-                return Optional.of(throwable);
+                throw new LoadingFailure(throwable);
             }
-        });
-        if (result.isPresent() && result.get() instanceof Throwable) {
-            cache.invalidate(key);
-            throw (Throwable) result.get();
-        } else {
-            return result.orElse(null);
+        }
+    }
+
+    private static class Entry {
+        @Nullable
+        private final Object value;
+        private final long loadedAt = System.nanoTime();
+
+        private Entry(@Nullable final Object value) {
+            this.value = value;
+        }
+    }
+
+    @FunctionalInterface
+    private interface Loader {
+        @Nullable
+        Object load() throws Throwable;
+    }
+
+    private static class LoadingFailure extends Exception {
+        private LoadingFailure(@Nonnull final Throwable cause) {
+            super(cause);
         }
     }
 
@@ -42,4 +42,22 @@ public @interface Cacheable {
      * e.g. groovy expression: {@code "this.isLoading()" } {@code "this.loading" },  {@code "this.subscriptionId=='xxx'" }
      */
     String condition() default "";
+
+    /**
+     * time (in seconds) to live of the cached entries after being loaded, non-positive value means entries expire
+     * only after having not been accessed for 4 hours.
+     * NOTE: caches are created on first access, so all methods sharing a cache should specify the same ttl, maximumSize and refreshAfterWrite.
+     */
+    long ttl() default -1;
+
+    /**
+     * maximum number of entries the cache may contain, non-positive value means unbounded.
+     */
+    long maximumSize() default -1;
+
+    /**
+     * time (in seconds) after which a cached entry is reloaded in background on next access, the stale value is
+     * returned until the reloading completes. non-positive value means never refresh.
+     */
+    long refreshAfterWrite() default -1;
 }
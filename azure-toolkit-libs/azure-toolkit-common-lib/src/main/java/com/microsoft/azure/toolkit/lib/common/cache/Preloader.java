@@ -7,47 +7,87 @@ package com.microsoft.azure.toolkit.lib.common.cache;
 
 import com.microsoft.azure.toolkit.lib.AzService;
 import com.microsoft.azure.toolkit.lib.Azure;
+import com.microsoft.azure.toolkit.lib.processor.PreloadProcessor;
 import lombok.extern.java.Log;
+import org.apache.commons.lang3.StringUtils;
 import org.reflections.Reflections;
 import org.reflections.scanners.Scanners;
+import org.reflections.util.ClasspathHelper;
 import org.reflections.util.ConfigurationBuilder;
+import org.reflections.util.FilterBuilder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
+import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
 import java.lang.reflect.Array;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.logging.Level;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+/**
+ * runs {@link Preload} annotated methods indexed at compile time by {@link PreloadProcessor}, concurrently on a bounded
+ * number of threads. each preload is timed, and slow ones are logged. jars built without the processor (e.g. by gradle,
+ * which doesn't discover processors from the compile classpath) are scanned at runtime instead, register the processor
+ * (e.g. {@code annotationProcessor 'com.microsoft.azure:azure-toolkit-preload-processor'}) to skip the scan.
+ * <p>
+ * NOTE: only compile time constants of {@link PreloadProcessor} may be referenced, it's not on the runtime classpath.
+ */
 @Log
 public class Preloader {
+    private static final int PARALLELISM = Math.max(4, Runtime.getRuntime().availableProcessors());
+    private static final long SLOW_PRELOAD_MILLIS = 3000;
+    private static final String[] SCAN_PACKAGES = {"com.microsoft.azure.toolkit", "com.microsoft.azuretools"};
 
     private static final String INVALID_PRELOAD_METHOD = "@Preload annotated method(%s.%s) should have (no args or only varargs) " +
             "and must be (static or in a singleton class)";
 
     public static Collection<Method> load() {
-        log.fine("Start Scanning for @Preload");
+        log.fine("Start loading @Preload index");
         final Set<Method> methods = getPreloadingMethods();
         log.fine(String.format("Found %d @Preload annotated methods.", methods.size()));
-        log.fine("End Scanning for @Preload");
         log.fine("Start Preloading");
-        methods.forEach((m) -> {
-            Object instance = null;
-            // TODO: maybe support predefined variables, e.g. selected subscriptions
-            if ((m.getParameterCount() == 0 || m.isVarArgs()) && (Modifier.isStatic(m.getModifiers()) || Objects.nonNull(instance = getSingleton(m)))) {
-                log.fine(String.format("preloading [%s]", m.getName()));
-                invoke(m, instance);
-                log.fine(String.format("preloaded [%s]", m.getName()));
-            } else {
-                log.warning(String.format(INVALID_PRELOAD_METHOD, m.getDeclaringClass().getSimpleName(), m.getName()));
-            }
-        });
-        log.fine("End Preloading");
+        final long start = System.currentTimeMillis();
+        Flux.fromIterable(methods)
+            .flatMap(m -> Mono.fromRunnable(() -> preload(m)).subscribeOn(Schedulers.boundedElastic()), PARALLELISM)
+            .blockLast();
+        log.fine(String.format("End Preloading in %d ms", System.currentTimeMillis() - start));
         return methods;
     }
 
+    private static void preload(final Method m) {
+        Object instance = null;
+        // TODO: maybe support predefined variables, e.g. selected subscriptions
+        if ((m.getParameterCount() == 0 || m.isVarArgs()) && (Modifier.isStatic(m.getModifiers()) || Objects.nonNull(instance = getSingleton(m)))) {
+            final String name = m.getDeclaringClass().getSimpleName() + "." + m.getName();
+            log.fine(String.format("preloading [%s]", name));
+            final long start = System.currentTimeMillis();
+            invoke(m, instance);
+            final long elapsed = System.currentTimeMillis() - start;
+            log.log(elapsed > SLOW_PRELOAD_MILLIS ? Level.INFO : Level.FINE, String.format("preloaded [%s] in %d ms", name, elapsed));
+        } else {
+            log.warning(String.format(INVALID_PRELOAD_METHOD, m.getDeclaringClass().getSimpleName(), m.getName()));
+        }
+    }
+
     private static void invoke(final Method m, final Object instance) {
         try {
             m.setAccessible(true);
@@ -63,8 +103,9 @@ public class Preloader {
             } else {
                 m.invoke(instance);
             }
-        } catch (final IllegalAccessException | InvocationTargetException ignored) {
-            // swallow all exceptions
+        } catch (final IllegalAccessException | InvocationTargetException | RuntimeException e) {
+            final Throwable cause = e instanceof InvocationTargetException ? e.getCause() : e;
+            log.log(Level.WARNING, String.format("failed to preload [%s.%s]", m.getDeclaringClass().getSimpleName(), m.getName()), cause);
         }
     }
 
@@ -88,11 +129,83 @@ public class Preloader {
         return null;
     }
 
+    /**
+     * @return preload methods listed in the {@link PreloadProcessor#MANIFEST} of all jars visible to this class and the
+     * context class loader, plus those found by scanning the jars without the index (e.g. built without the processor).
+     */
+    @Nonnull
     private static Set<Method> getPreloadingMethods() {
+        final List<ClassLoader> loaders = Stream.of(Preloader.class.getClassLoader(), Thread.currentThread().getContextClassLoader())
+            .filter(Objects::nonNull).distinct().collect(Collectors.toList());
+        final Map<URL, ClassLoader> manifests = new LinkedHashMap<>();
+        loaders.forEach(loader -> {
+            try {
+                Collections.list(loader.getResources(PreloadProcessor.MANIFEST)).forEach(url -> manifests.putIfAbsent(url, loader));
+            } catch (final IOException e) {
+                log.log(Level.WARNING, "failed to find @Preload index", e);
+            }
+        });
+        final Set<Method> methods = new LinkedHashSet<>();
+        manifests.forEach((url, loader) -> {
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(url.openStream(), StandardCharsets.UTF_8))) {
+                reader.lines().map(String::trim).filter(StringUtils::isNotBlank).forEach(line -> methods.addAll(resolve(line, loader)));
+            } catch (final IOException e) {
+                log.log(Level.WARNING, String.format("failed to read @Preload index (%s)", url), e);
+            }
+        });
+        methods.addAll(scanUnindexed(manifests.keySet(), loaders));
+        return methods;
+    }
+
+    /**
+     * scan the classpath roots of {@link #SCAN_PACKAGES} that have no index.
+     */
+    @Nonnull
+    private static Set<Method> scanUnindexed(@Nonnull Set<URL> manifests, @Nonnull List<ClassLoader> loaders) {
+        final Set<String> indexed = manifests.stream().map(Preloader::getRoot).collect(Collectors.toSet());
+        final ClassLoader[] classLoaders = loaders.toArray(new ClassLoader[0]);
+        final Set<URL> unindexed = Arrays.stream(SCAN_PACKAGES)
+            .flatMap(p -> ClasspathHelper.forPackage(p, classLoaders).stream())
+            .filter(url -> !indexed.contains(url.toExternalForm()))
+            .collect(Collectors.toCollection(LinkedHashSet::new));
+        if (unindexed.isEmpty()) {
+            return Collections.emptySet();
+        }
+        log.fine(String.format("Scanning %d classpath roots without @Preload index: %s", unindexed.size(), unindexed));
+        final FilterBuilder filter = new FilterBuilder();
+        Arrays.stream(SCAN_PACKAGES).forEach(filter::includePackage);
         final ConfigurationBuilder configuration = new ConfigurationBuilder()
-                .forPackages("com.microsoft.azure.toolkit", "com.microsoft.azuretools")
-                .setScanners(Scanners.MethodsAnnotated);
-        final Reflections reflections = new Reflections(configuration);
-        return reflections.getMethodsAnnotatedWith(Preload.class);
+            .setUrls(unindexed)
+            .addClassLoaders(classLoaders)
+            .filterInputsBy(filter)
+            .setScanners(Scanners.MethodsAnnotated);
+        return new Reflections(configuration).getMethodsAnnotatedWith(Preload.class);
+    }
+
+    /**
+     * @return url of the classpath root (in the form of {@link ClasspathHelper}) containing the {@code manifest}.
+     */
+    @Nonnull
+    private static String getRoot(@Nonnull URL manifest) {
+        final String url = manifest.toExternalForm();
+        if (url.startsWith("jar:") && url.contains("!/")) {
+            return StringUtils.substringBetween(url, "jar:", "!/");
+        }
+        return StringUtils.removeEnd(url, PreloadProcessor.MANIFEST);
+    }
+
+    @Nonnull
+    private static Collection<Method> resolve(@Nonnull String line, @Nonnull ClassLoader loader) {
+        final String className = StringUtils.substringBefore(line, PreloadProcessor.SEPARATOR);
+        final String methodName = StringUtils.substringAfter(line, PreloadProcessor.SEPARATOR);
+        try {
+            final Class<?> clazz = Class.forName(className, false, loader);
+            return Arrays.stream(clazz.getDeclaredMethods())
+                .filter(m -> m.getName().equals(methodName) && m.isAnnotationPresent(Preload.class))
+                .collect(Collectors.toList());
+        } catch (final ClassNotFoundException | LinkageError e) { // stale entry, e.g. left by incremental compilation
+            log.fine(String.format("skip unresolvable @Preload method [%s]", line));
+            return Collections.emptyList();
+        }
     }
 }
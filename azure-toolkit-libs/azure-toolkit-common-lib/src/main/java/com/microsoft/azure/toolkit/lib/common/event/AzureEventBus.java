@@ -5,43 +5,75 @@
 
 package com.microsoft.azure.toolkit.lib.common.event;
 
-import com.google.common.eventbus.AsyncEventBus;
-import com.google.common.eventbus.EventBus;
 import com.google.common.eventbus.Subscribe;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+import lombok.extern.slf4j.Slf4j;
 import org.jetbrains.annotations.NonNls;
+import reactor.core.scheduler.Scheduler;
 import reactor.core.scheduler.Schedulers;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.TreeMap;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
+/**
+ * events are queued per listener and dispatched to each listener in order on a shared thread pool, so that a slow
+ * listener only delays its own events. no event is dropped by default, queues of a type can be configured to be bounded,
+ * and when a queue is full, the oldest pending event is dropped (or the emitter is blocked) according to the
+ * {@link BackpressurePolicy} of the type.
+ */
+@Slf4j
 @SuppressWarnings("UnstableApiUsage")
 public class AzureEventBus {
+    public static final int DEFAULT_CAPACITY = 1024;
+    public static final BackpressurePolicy DEFAULT_POLICY = BackpressurePolicy.UNBOUNDED;
+    private static final int BATCH_SIZE = 64;
+    private static final Object NULL_SOURCE = new Object();
+    private static final ThreadLocal<Boolean> dispatching = ThreadLocal.withInitial(() -> false);
+    // sized like the shared bounded elastic scheduler events were dispatched on
+    private static final Scheduler dispatcher = Schedulers.newBoundedElastic(Schedulers.DEFAULT_BOUNDED_ELASTIC_SIZE,
+        Schedulers.DEFAULT_BOUNDED_ELASTIC_QUEUESIZE, "azure-event-dispatcher", 60, true);
     @NonNls
-    private static final Map<String, EventBus> buses = new ConcurrentHashMap<>();
+    private static final Map<String, EventType> types = new ConcurrentHashMap<>();
+
+    static {
+        // emitted on every refresh of modules/resources, listeners only care about the latest state of the source.
+        configure("module.refreshed.module", Integer.MAX_VALUE, BackpressurePolicy.COALESCE);
+        configure("resource.status_changed.resource", Integer.MAX_VALUE, BackpressurePolicy.COALESCE);
+    }
 
     public static void on(@Nonnull final String type, @Nonnull EventListener listener) {
-        getBus(type).register(listener);
+        getType(type).subscribe(listener);
     }
 
     public static void off(@Nonnull final String type, @Nonnull EventListener listener) {
-        getBus(type).unregister(listener);
+        getType(type).unsubscribe(listener);
     }
 
     public static void once(@Nonnull final String type, @Nonnull BiConsumer<Object, Object> listener) {
-        final EventBus bus = getBus(type);
+        final EventType eventType = getType(type);
         final EventListener[] listeners = new EventListener[1];
         listeners[0] = new EventListener((e) -> {
             listener.accept(e.getSource(), e.getPayload());
-            bus.unregister(listeners[0]);
+            eventType.unsubscribe(listeners[0]);
         });
-        bus.register(listeners[0]);
+        eventType.subscribe(listeners[0]);
     }
 
     public static void emit(@Nonnull final String type) {
@@ -57,11 +89,243 @@ public class AzureEventBus {
     }
 
     public static <T> void emit(@Nonnull final String type, @Nonnull AzureEvent event) {
-        getBus(type).post(event);
+        getType(type).offer(event);
+    }
+
+    /**
+     * configure the queues of events of {@code type}, by default, queues are {@link BackpressurePolicy#UNBOUNDED}.
+     *
+     * @param capacity max number of pending events of a queue, e.g. {@link #DEFAULT_CAPACITY}, ignored if unbounded.
+     */
+    public static void configure(@Nonnull final String type, int capacity, @Nonnull BackpressurePolicy policy) {
+        final EventType eventType = getType(type);
+        eventType.capacity = Math.max(1, capacity);
+        eventType.policy = policy;
+        eventType.subscriptions.forEach(Subscription::wakeup);
+    }
+
+    /**
+     * @return snapshot of the statistics(queue depth, latency...) of the queues of all event types, keyed by event type.
+     */
+    @Nonnull
+    public static Map<String, EventQueueStats> getStats() {
+        final Map<String, EventQueueStats> result = new TreeMap<>();
+        types.forEach((name, type) -> result.put(name, type.stats()));
+        return result;
     }
 
-    private static EventBus getBus(String eventType) {
-        return buses.computeIfAbsent(eventType, (e) -> new AsyncEventBus(command -> Schedulers.boundedElastic().schedule(command)));
+    private static EventType getType(String eventType) {
+        return types.computeIfAbsent(eventType, EventType::new);
+    }
+
+    public enum BackpressurePolicy {
+        /**
+         * queue all the events, never drop events or block the emitter, the capacity is ignored.
+         */
+        UNBOUNDED,
+        /**
+         * drop the oldest pending event when the queue is full.
+         */
+        DROP_OLDEST,
+        /**
+         * replace the pending event of the same source with the new one, drop the oldest pending event if the queue
+         * is still full. only for types whose listeners care about the latest state of a source.
+         */
+        COALESCE,
+        /**
+         * block the emitter until the queue has room, emitting from listeners never blocks.
+         */
+        BLOCK
+    }
+
+    /**
+     * statistics of the queues of all listeners of an event type.
+     */
+    @Getter
+    @ToString
+    @RequiredArgsConstructor
+    public static class EventQueueStats {
+        private final String type;
+        private final int depth;
+        private final int maxDepth;
+        private final long dispatched;
+        private final long coalesced;
+        private final long dropped;
+        /**
+         * average time (in milliseconds) events wait in queue before being dispatched.
+         */
+        private final double averageLatency;
+        private final double maxLatency;
+    }
+
+    private static class EventType {
+        private final String type;
+        private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+        private volatile int capacity = DEFAULT_CAPACITY;
+        private volatile BackpressurePolicy policy = DEFAULT_POLICY;
+
+        private EventType(@Nonnull String type) {
+            this.type = type;
+        }
+
+        private synchronized void subscribe(@Nonnull EventListener listener) {
+            // a listener is subscribed only once, no matter how many times it's registered
+            if (this.subscriptions.stream().noneMatch(s -> s.listener == listener)) {
+                this.subscriptions.add(new Subscription(this, listener));
+            }
+        }
+
+        private synchronized void unsubscribe(@Nonnull EventListener listener) {
+            this.subscriptions.stream().filter(s -> s.listener == listener).forEach(s -> {
+                s.cancelled = true;
+                this.subscriptions.remove(s);
+            });
+        }
+
+        private void offer(@Nonnull AzureEvent event) {
+            this.subscriptions.forEach(s -> s.offer(event));
+        }
+
+        private EventQueueStats stats() {
+            final List<EventQueueStats> stats = this.subscriptions.stream().map(Subscription::stats).collect(Collectors.toList());
+            final long dispatched = stats.stream().mapToLong(EventQueueStats::getDispatched).sum();
+            final double latency = stats.stream().mapToDouble(s -> s.getAverageLatency() * s.getDispatched()).sum();
+            return new EventQueueStats(this.type,
+                stats.stream().mapToInt(EventQueueStats::getDepth).sum(),
+                stats.stream().mapToInt(EventQueueStats::getMaxDepth).max().orElse(0),
+                dispatched,
+                stats.stream().mapToLong(EventQueueStats::getCoalesced).sum(),
+                stats.stream().mapToLong(EventQueueStats::getDropped).sum(),
+                dispatched == 0 ? 0 : latency / dispatched,
+                stats.stream().mapToDouble(EventQueueStats::getMaxLatency).max().orElse(0));
+        }
+    }
+
+    /**
+     * pending events of a listener, dispatched in order by at most one thread at a time.
+     */
+    private static class Subscription implements Runnable {
+        private final EventType type;
+        private final EventListener listener;
+        private final Deque<PendingEvent> pending = new ArrayDeque<>();
+        private final Map<Object, PendingEvent> pendingBySource = new HashMap<>();
+        private volatile boolean cancelled;
+        private boolean scheduled;
+        private int maxDepth;
+        private long dispatched;
+        private long coalesced;
+        private long dropped;
+        private long totalLatency;
+        private long maxLatency;
+
+        private Subscription(@Nonnull EventType type, @Nonnull EventListener listener) {
+            this.type = type;
+            this.listener = listener;
+        }
+
+        private synchronized void offer(@Nonnull AzureEvent event) {
+            final BackpressurePolicy policy = this.type.policy;
+            final Object source = Optional.ofNullable(event.getSource()).orElse(NULL_SOURCE);
+            final PendingEvent duplicate = this.pendingBySource.get(source);
+            if (policy == BackpressurePolicy.COALESCE && Objects.nonNull(duplicate)) {
+                duplicate.event = event;
+                this.coalesced++;
+                return;
+            }
+            while (policy != BackpressurePolicy.UNBOUNDED && this.pending.size() >= this.type.capacity && !this.cancelled) {
+                if (this.type.policy == BackpressurePolicy.BLOCK && !dispatching.get()) {
+                    try {
+                        this.wait();
+                        continue;
+                    } catch (final InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                final PendingEvent oldest = this.pending.poll();
+                this.pendingBySource.remove(oldest.source, oldest);
+                this.dropped++;
+                log.debug("[{}]: event queue is full, dropped event of source({})", this.type.type, oldest.source);
+            }
+            final PendingEvent entry = new PendingEvent(source, event);
+            this.pending.add(entry);
+            if (policy == BackpressurePolicy.COALESCE) {
+                this.pendingBySource.put(source, entry);
+            }
+            this.maxDepth = Math.max(this.maxDepth, this.pending.size());
+            if (!this.scheduled) {
+                this.scheduled = true;
+                this.schedule();
+            }
+        }
+
+        private void schedule() {
+            try {
+                dispatcher.schedule(this);
+            } catch (final RejectedExecutionException e) { // e.g. too many pending tasks, retry on next event
+                synchronized (this) {
+                    this.scheduled = false;
+                }
+                log.warn("[{}]: failed to schedule dispatching of events", this.type.type, e);
+            }
+        }
+
+        @Override
+        public void run() {
+            dispatching.set(true);
+            try {
+                for (int i = 0; i < BATCH_SIZE; i++) {
+                    final PendingEvent entry = this.poll();
+                    if (Objects.isNull(entry)) {
+                        return;
+                    }
+                    try {
+                        this.listener.onEvent(entry.event);
+                    } catch (final Throwable e) {
+                        log.warn("[{}]: failed to handle event of source({})", this.type.type, entry.source, e);
+                    }
+                }
+                this.schedule(); // yield to other listeners
+            } finally {
+                dispatching.set(false);
+            }
+        }
+
+        @Nullable
+        private synchronized PendingEvent poll() {
+            final PendingEvent entry = this.cancelled ? null : this.pending.poll();
+            if (Objects.isNull(entry)) {
+                this.scheduled = false;
+                return null;
+            }
+            this.pendingBySource.remove(entry.source, entry);
+            final long latency = System.nanoTime() - entry.enqueuedAt;
+            this.totalLatency += latency;
+            this.maxLatency = Math.max(this.maxLatency, latency);
+            this.dispatched++;
+            this.notifyAll();
+            return entry;
+        }
+
+        private synchronized void wakeup() {
+            this.notifyAll();
+        }
+
+        private synchronized EventQueueStats stats() {
+            final double avg = this.dispatched == 0 ? 0 : (double) this.totalLatency / this.dispatched / 1_000_000;
+            return new EventQueueStats(this.type.type, this.pending.size(), this.maxDepth, this.dispatched, this.coalesced, this.dropped,
+                avg, (double) this.maxLatency / 1_000_000);
+        }
+    }
+
+    private static class PendingEvent {
+        private final Object source;
+        private final long enqueuedAt = System.nanoTime();
+        private AzureEvent event;
+
+        private PendingEvent(@Nonnull Object source, @Nonnull AzureEvent event) {
+            this.source = source;
+            this.event = event;
+        }
     }
 
     @RequiredArgsConstructor
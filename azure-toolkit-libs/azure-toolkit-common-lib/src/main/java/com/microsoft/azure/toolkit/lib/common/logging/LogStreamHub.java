@@ -0,0 +1,218 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.lib.common.logging;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import reactor.core.publisher.BufferOverflowStrategy;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.time.temporal.ChronoField;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * shares log streams among subscribers: only one upstream connection is kept per key (e.g. app and instance) however
+ * many subscribers tail it, and it's closed once the last subscriber is gone. the upstream is framed into lines (without
+ * line terminators) with timestamps parsed once, the latest lines (up to the requested tail) are replayed to late
+ * subscribers, and every subscriber has a bounded buffer dropping the oldest lines if it can't keep up, so that a slow
+ * subscriber never blocks the others.
+ */
+@Slf4j
+public class LogStreamHub {
+    public static final int DEFAULT_BUFFER_SIZE = 1024;
+    public static final int DEFAULT_REPLAY_SIZE = 100;
+    public static final int MAX_LINE_LENGTH = 64 * 1024;
+    private static final LogStreamHub INSTANCE = new LogStreamHub(DEFAULT_BUFFER_SIZE, DEFAULT_REPLAY_SIZE);
+    private static final Pattern TIMESTAMP = Pattern.compile("^\\[?(\\d{4}-\\d{2}-\\d{2}[T ]\\d{2}:\\d{2}:\\d{2}(?:[.,]\\d{1,9})?)(Z|[+-]\\d{2}:?\\d{2})?");
+    private static final DateTimeFormatter LOCAL_DATE_TIME = new DateTimeFormatterBuilder()
+        .appendPattern("yyyy-MM-dd").optionalStart().appendLiteral('T').optionalEnd().optionalStart().appendLiteral(' ').optionalEnd()
+        .appendPattern("HH:mm:ss").optionalStart().appendFraction(ChronoField.NANO_OF_SECOND, 1, 9, true).optionalEnd()
+        .toFormatter();
+
+    private final int bufferSize;
+    private final int replaySize;
+    private final Map<String, Stream> streams = new ConcurrentHashMap<>();
+
+    public LogStreamHub(int bufferSize, int replaySize) {
+        this.bufferSize = Math.max(1, bufferSize);
+        this.replaySize = Math.max(0, replaySize);
+    }
+
+    @Nonnull
+    public static LogStreamHub getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * @param key    identifies the upstream, subscriptions of the same key share the same upstream connection.
+     * @param chunks opens the upstream connection, emitting raw chunks of the log, which are framed into lines.
+     */
+    @Nonnull
+    public Flux<LogLine> subscribe(@Nonnull String key, @Nonnull Supplier<Flux<String>> chunks) {
+        return this.subscribe(key, chunks, this.replaySize);
+    }
+
+    /**
+     * @param key   identifies the upstream, subscriptions of the same key share the same upstream connection.
+     * @param lines opens the upstream connection, emitting lines (without line terminators) of the log, e.g. the log
+     *              streams of azure sdk which are framed already.
+     * @param tail  max number of the replayed lines sent to the subscriber.
+     */
+    @Nonnull
+    public Flux<LogLine> subscribeLines(@Nonnull String key, @Nonnull Supplier<Flux<String>> lines, int tail) {
+        return this.share(key, () -> lines.get().map(line -> StringUtils.removeEnd(line, "\r")), tail);
+    }
+
+    /**
+     * @param key    identifies the upstream, subscriptions of the same key share the same upstream connection.
+     * @param chunks opens the upstream connection, emitting raw chunks of the log, which are framed into lines.
+     * @param tail   max number of the replayed lines sent to the subscriber.
+     */
+    @Nonnull
+    public Flux<LogLine> subscribe(@Nonnull String key, @Nonnull Supplier<Flux<String>> chunks, int tail) {
+        return this.share(key, () -> frame(chunks.get()), tail);
+    }
+
+    @Nonnull
+    private Flux<LogLine> share(@Nonnull String key, @Nonnull Supplier<Flux<String>> lines, int tail) {
+        return Flux.defer(() -> {
+            final Stream stream = this.streams.computeIfAbsent(key, k -> new Stream(k, lines));
+            // lines replayed to this subscriber are those emitted so far (up to replay size), skip the older ones.
+            final long replayed = Math.min(stream.stats.lines.get(), this.replaySize);
+            return stream.lines.skip(Math.max(0, replayed - Math.max(0, tail)))
+                .onBackpressureBuffer(this.bufferSize, dropped -> stream.stats.dropped.incrementAndGet(), BufferOverflowStrategy.DROP_OLDEST)
+                .doOnSubscribe(ignore -> stream.stats.subscribers.incrementAndGet())
+                .doFinally(ignore -> stream.stats.subscribers.decrementAndGet());
+        });
+    }
+
+    /**
+     * @return stats of the stream of the {@code key} if it's open.
+     */
+    @Nonnull
+    public Optional<Stats> getStats(@Nonnull String key) {
+        return Optional.ofNullable(this.streams.get(key)).map(s -> s.stats);
+    }
+
+    /**
+     * frame the chunks into lines (without line terminators), the trailing partial line is emitted on completion. lines are
+     * split every {@link #MAX_LINE_LENGTH} chars, so that the pending partial line is bounded.
+     */
+    @Nonnull
+    public static Flux<String> frame(@Nonnull Flux<String> chunks) {
+        return Flux.defer(() -> {
+            final StringBuilder pending = new StringBuilder();
+            return chunks.concatMapIterable(chunk -> {
+                final List<String> lines = new ArrayList<>();
+                int start = 0;
+                pending.append(chunk);
+                for (int i = pending.length() - chunk.length(); i < pending.length(); i++) {
+                    if (pending.charAt(i) == '\n') {
+                        lines.add(StringUtils.removeEnd(pending.substring(start, i), "\r"));
+                        start = i + 1;
+                    }
+                }
+                pending.delete(0, start);
+                while (pending.length() >= MAX_LINE_LENGTH) {
+                    lines.add(pending.substring(0, MAX_LINE_LENGTH));
+                    pending.delete(0, MAX_LINE_LENGTH);
+                }
+                return lines;
+            }).concatWith(Mono.fromCallable(() -> StringUtils.removeEnd(pending.toString(), "\r")).filter(StringUtils::isNotEmpty));
+        });
+    }
+
+    /**
+     * @return timestamp at the beginning of the line, in UTC if no offset is specified.
+     */
+    @Nullable
+    public static OffsetDateTime parseTimestamp(@Nonnull String line) {
+        final Matcher matcher = TIMESTAMP.matcher(line);
+        if (!matcher.find()) {
+            return null;
+        }
+        try {
+            final LocalDateTime time = LocalDateTime.parse(matcher.group(1).replace(',', '.'), LOCAL_DATE_TIME);
+            final String offset = matcher.group(2);
+            return time.atOffset(StringUtils.isBlank(offset) ? ZoneOffset.UTC : ZoneOffset.of(offset));
+        } catch (final DateTimeException e) {
+            return null;
+        }
+    }
+
+    private class Stream {
+        private final Stats stats = new Stats();
+        private final Flux<LogLine> lines;
+
+        private Stream(@Nonnull String key, @Nonnull Supplier<Flux<String>> lines) {
+            this.lines = Flux.defer(lines)
+                .doOnNext(line -> this.stats.bytes.addAndGet(line.getBytes(StandardCharsets.UTF_8).length + 1L))
+                .map(line -> new LogLine(line, parseTimestamp(line)))
+                .doOnNext(ignore -> this.stats.lines.incrementAndGet())
+                .doFinally(signal -> {
+                    log.debug("log stream '{}' is closed ({})", key, signal);
+                    LogStreamHub.this.streams.remove(key, this);
+                })
+                .replay(LogStreamHub.this.replaySize)
+                .refCount();
+        }
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    public static class LogLine {
+        @Nonnull
+        private final String line;
+        @Nullable
+        private final OffsetDateTime timestamp;
+
+        @Override
+        public String toString() {
+            return this.line;
+        }
+    }
+
+    @Getter
+    public static class Stats {
+        private final long startedAt = System.currentTimeMillis();
+        private final AtomicLong bytes = new AtomicLong();
+        private final AtomicLong lines = new AtomicLong();
+        /**
+         * lines dropped for slow subscribers.
+         */
+        private final AtomicLong dropped = new AtomicLong();
+        private final AtomicInteger subscribers = new AtomicInteger();
+
+        public double getBytesPerSecond() {
+            return this.bytes.get() * 1000.0 / Math.max(1, System.currentTimeMillis() - this.startedAt);
+        }
+
+        public double getLinesPerSecond() {
+            return this.lines.get() * 1000.0 / Math.max(1, System.currentTimeMillis() - this.startedAt);
+        }
+    }
+}
@@ -218,6 +218,28 @@ public abstract class AbstractAzResource<T extends AbstractAzResource<T, P, R>,
         }
     }
 
+    /**
+     * mark the cached remote as up-to-date without replacing it if it's of the same version as {@code newRemote}.
+     *
+     * @return false if the version is not supported or has changed, so the cached remote needs to be replaced by {@code newRemote}.
+     */
+    boolean syncRemoteIfUnchanged(@Nonnull R newRemote) {
+        final R oldRemote = this.remoteRef.get();
+        final String newVersion = this.module.getRemoteVersion(newRemote);
+        if (Objects.isNull(oldRemote) || Objects.isNull(newVersion) || this.syncTimeRef.get() == 0) {
+            return false;
+        }
+        if (newVersion.equals(this.module.getRemoteVersion(oldRemote)) && this.lock.tryLock()) {
+            try {
+                this.syncTimeRef.set(System.currentTimeMillis());
+                return true;
+            } finally {
+                this.lock.unlock();
+            }
+        }
+        return false;
+    }
+
     protected void updateAdditionalProperties(@Nullable R newRemote, @Nullable R oldRemote) {
 
     }
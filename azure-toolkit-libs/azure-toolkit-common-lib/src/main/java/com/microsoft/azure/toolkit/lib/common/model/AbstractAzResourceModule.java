@@ -13,7 +13,7 @@ import com.azure.resourcemanager.resources.fluentcore.arm.collection.SupportsGet
 import com.azure.resourcemanager.resources.fluentcore.arm.collection.SupportsGettingByResourceGroup;
 import com.azure.resourcemanager.resources.fluentcore.collection.SupportsDeletingById;
 import com.azure.resourcemanager.resources.fluentcore.collection.SupportsListing;
-import com.google.common.collect.Sets;
+import com.google.common.collect.Maps;
 import com.microsoft.azure.toolkit.lib.AzService;
 import com.microsoft.azure.toolkit.lib.Azure;
 import com.microsoft.azure.toolkit.lib.account.IAzureAccount;
@@ -39,13 +39,16 @@ import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.exception.ExceptionUtils;
 import org.apache.commons.lang3.tuple.Pair;
 import org.apache.http.HttpStatus;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.util.ArrayList;
-import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -80,7 +83,7 @@ public abstract class AbstractAzResourceModule<T extends AbstractAzResource<T, P
     @ToString.Include
     private final AtomicLong syncTimeRef = new AtomicLong(-1);
     @Nonnull
-    private final Map<String, Optional<T>> resources = Collections.synchronizedMap(new LinkedHashMap<>());
+    private final ResourceIndex<T> resources = new ResourceIndex<>();
 
     @Nonnull
     private final Debouncer fireEvents = new TailingDebouncer(this::fireChildrenChangedEvent, 300);
@@ -99,15 +102,14 @@ public abstract class AbstractAzResourceModule<T extends AbstractAzResource<T, P
         log.debug("[{}]:invalidateCache()", this.name);
         if (this.lock.tryLock()) {
             try {
-                this.resources.entrySet().removeIf(e -> !e.getValue().isPresent());
+                this.resources.removeNonexistent();
                 this.syncTimeRef.set(-1);
             } finally {
                 this.lock.unlock();
             }
         }
         log.debug("[{}]:invalidateCache->resources.invalidateCache()", this.name);
-        final Collection<Optional<T>> values = new ArrayList<>(this.resources.values());
-        values.forEach(v -> v.ifPresent(AbstractAzResource::invalidateCache));
+        this.resources.list().forEach(AbstractAzResource::invalidateCache);
     }
 
     @Nonnull
@@ -130,8 +132,8 @@ public abstract class AbstractAzResourceModule<T extends AbstractAzResource<T, P
                 this.lock.unlock();
             }
         }
-        log.debug("[{}]:list->this.resources.values()", this.name);
-        return this.resources.values().stream().filter(Optional::isPresent).map(Optional::get).collect(Collectors.toList());
+        log.debug("[{}]:list->this.resources.list()", this.name);
+        return this.resources.list();
     }
 
     private void reloadResources() {
@@ -167,14 +169,27 @@ public abstract class AbstractAzResourceModule<T extends AbstractAzResource<T, P
             this.lock.lock();
             if (Objects.isNull(this.pages)) {
                 this.reloadResources();
-            } else if (this.pages.hasNext()) {
-                final ContinuablePage<String, R> page = this.pages.next();
-                final Map<String, R> loadedResources = page.getElements().stream()
-                    .collect(Collectors.toMap(r -> this.newResource(r).getId().toLowerCase(), r -> r));
-                log.debug("[{}]:loadMoreResources->addResources(xxx)", this.name);
-                this.addResources(loadedResources);
-                fireEvents.debounce();
+            } else {
+                this.loadNextPage();
+            }
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * load the next page into cache.
+     *
+     * @return resources of the loaded page, {@code null} if there are no more pages.
+     */
+    @Nullable
+    private List<T> loadNextPage() {
+        try {
+            this.lock.lock();
+            if (Objects.isNull(this.pages) || !this.pages.hasNext()) {
+                return null;
             }
+            return this.addPage(this.pages.next());
         } catch (Exception e) {
             AzureMessager.getMessager().error(e);
             throw e;
@@ -183,56 +198,162 @@ public abstract class AbstractAzResourceModule<T extends AbstractAzResource<T, P
         }
     }
 
+    /**
+     * add resources of {@code page} into cache.
+     *
+     * @return resources of the page, in the order of the page.
+     */
+    @Nonnull
+    private List<T> addPage(@Nonnull ContinuablePage<String, R> page) {
+        try {
+            this.lock.lock();
+            final Map<String, R> loadedResources = page.getElements().stream()
+                .collect(Collectors.toMap(r -> this.newResource(r).getId().toLowerCase(), r -> r, (a, b) -> b, LinkedHashMap::new));
+            final Map<String, R> added = new HashMap<>();
+            final List<Pair<T, R>> refreshed = new ArrayList<>();
+            loadedResources.forEach((id, remote) -> {
+                final Optional<T> cached = this.resources.get(id);
+                if (!cached.isPresent()) {
+                    added.put(id, remote);
+                } else if (!cached.get().syncRemoteIfUnchanged(remote)) { // refresh the cached instance rather than a new one
+                    refreshed.add(Pair.of(cached.get(), remote));
+                }
+            });
+            log.debug("[{}]:addPage->setRemotesInBackground(xxx)", this.name);
+            this.setRemotesInBackground(refreshed);
+            log.debug("[{}]:addPage->addResources(xxx)", this.name);
+            this.addResources(added);
+            fireEvents.debounce();
+            return loadedResources.keySet().stream().map(this.resources::get)
+                .filter(Optional::isPresent).map(Optional::get).collect(Collectors.toList());
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * list all resources of this module, including those on the pages not loaded yet.
+     *
+     * @see #listAllAsync(int)
+     */
+    @Nonnull
+    public List<T> listAll(int prefetch) {
+        log.debug("[{}]:listAll({})", this.name, prefetch);
+        return Optional.ofNullable(this.listAllAsync(prefetch).collectList().block()).orElse(Collections.emptyList());
+    }
+
+    /**
+     * stream all resources of this module, including those on the pages not loaded yet. each call iterates the pages
+     * on its own from the first one, and adds the loaded resources into cache. pages are chained by continuation
+     * tokens, so they are fetched one by one, but up to {@code prefetch} pages are fetched ahead of consumption in
+     * background, which also bounds the pages held in memory. cached resources missing from a complete listing are
+     * removed from cache.
+     */
+    @Nonnull
+    public Flux<T> listAllAsync(int prefetch) {
+        if (this.parent instanceof AbstractAzResource && ((AbstractAzResource<?, ?, ?>) this.parent).isDraftForCreating()) {
+            return Flux.empty();
+        }
+        return Flux.defer(() -> {
+                final Set<String> listed = new HashSet<>();
+                return Flux.<List<T>, Iterator<? extends ContinuablePage<String, R>>>generate(() -> {
+                    Azure.az(IAzureAccount.class).account();
+                    return this.loadResourcePagesFromAzure();
+                }, (pages, sink) -> {
+                    if (pages.hasNext()) {
+                        final List<T> page = this.addPage(pages.next());
+                        page.forEach(r -> listed.add(r.getId().toLowerCase()));
+                        sink.next(page);
+                    } else {
+                        this.pruneResources(listed);
+                        sink.complete();
+                    }
+                    return pages;
+                });
+            }).subscribeOn(Schedulers.boundedElastic())
+            .publishOn(Schedulers.boundedElastic(), Math.max(1, prefetch))
+            .flatMapIterable(page -> page);
+    }
+
     public boolean hasMoreResources() {
         return Objects.nonNull(this.pages) && this.pages.hasNext();
     }
 
     private void setResources(Map<String, R> loadedResources) {
-        final Set<String> localResources = this.resources.values().stream().filter(Optional::isPresent).map(Optional::get)
-            .map(AbstractAzResource::getId).map(String::toLowerCase).collect(Collectors.toSet());
-        final Set<String> creating = this.resources.values().stream().filter(Optional::isPresent).map(Optional::get)
-            .filter(AbstractAzResource::isDraftForCreating)
-            .map(AbstractAzResource::getId).map(String::toLowerCase).collect(Collectors.toSet());
-        log.debug("[{}]:reload().creating={}", this.name, creating);
-        final Sets.SetView<String> refreshed = Sets.intersection(localResources, loadedResources.keySet());
-        log.debug("[{}]:reload().refreshed={}", this.name, refreshed);
-        final Sets.SetView<String> deleted = Sets.difference(Sets.difference(localResources, loadedResources.keySet()), creating);
-        log.debug("[{}]:reload().deleted={}", this.name, deleted);
-        final Sets.SetView<String> added = Sets.difference(loadedResources.keySet(), localResources);
-        log.debug("[{}]:reload().added={}", this.name, added);
+        final Set<String> localResources = new HashSet<>();
+        final List<T> deleted = new ArrayList<>();
+        final List<Pair<T, R>> refreshed = new ArrayList<>();
+        for (final T resource : this.listCachedResources()) { // diff in one pass over a snapshot of cached resources
+            final String id = resource.getId().toLowerCase();
+            final R remote = loadedResources.get(id);
+            localResources.add(id);
+            if (Objects.isNull(remote)) {
+                if (!resource.isDraftForCreating()) {
+                    deleted.add(resource);
+                }
+            } else if (!resource.syncRemoteIfUnchanged(remote)) { // skip resources whose remote version is not changed
+                refreshed.add(Pair.of(resource, remote));
+            }
+        }
+        log.debug("[{}]:reload().refreshed={}", this.name, refreshed.size());
+        log.debug("[{}]:reload().deleted={}", this.name, deleted.size());
         log.debug("[{}]:reload.deleted->deleteResourceFromLocal", this.name);
-        deleted.forEach(id -> this.resources.getOrDefault(id, Optional.empty()).ifPresent(r -> {
+        deleted.forEach(r -> {
             r.deleteFromCache();
             r.setRemote(null);
-        }));
+        });
 
-        final AzureTaskManager m = AzureTaskManager.getInstance();
         log.debug("[{}]:reload.refreshed->resource.setRemote", this.name);
-        refreshed.forEach(id -> this.resources.getOrDefault(id, Optional.empty()).ifPresent(r -> m.runOnPooledThread(() -> r.setRemote(loadedResources.get(id)))));
+        this.setRemotesInBackground(refreshed);
         log.debug("[{}]:reload.added->addResourceToLocal", this.name);
-        added.stream().map(loadedResources::get).map(r -> Pair.of(r, this.newResource(r)))
-            .sorted(Comparator.comparing(p -> p.getValue().getName())) // sort by name when adding into cache
-            .forEach(p -> {
-                final R remote = p.getKey();
-                final T resource = p.getValue();
-                m.runOnPooledThread(() -> resource.setRemote(remote));
-                this.addResourceToLocal(resource.getId(), resource, true);
-            });
+        this.addResources(Maps.filterKeys(loadedResources, id -> !localResources.contains(id)));
         this.syncTimeRef.set(System.currentTimeMillis());
     }
 
-    private void addResources(Map<String, R> loadedResources) {
-        final Set<String> added = loadedResources.keySet();
-        log.debug("[{}]:reload().added={}", this.name, added);
-        loadedResources.values().stream().map(r -> Pair.of(r, this.newResource(r)))
-            .sorted(Comparator.comparing(p -> p.getValue().getName())) // sort by name when adding into cache
-            .forEach(p -> {
-                final R remote = p.getKey();
-                final T resource = p.getValue();
-                AzureTaskManager.getInstance().runOnPooledThread(() -> resource.setRemote(remote));
-                this.addResourceToLocal(resource.getId(), resource, true);
+    /**
+     * remove cached resources (but drafts for creating) that are not in the full listing {@code listed}, and mark
+     * this module as synced.
+     */
+    private void pruneResources(@Nonnull Set<String> listed) {
+        try {
+            this.lock.lock();
+            final List<T> deleted = this.listCachedResources().stream()
+                .filter(r -> !listed.contains(r.getId().toLowerCase()) && !r.isDraftForCreating())
+                .collect(Collectors.toList());
+            log.debug("[{}]:pruneResources().deleted={}", this.name, deleted.size());
+            deleted.forEach(r -> {
+                r.deleteFromCache();
+                r.setRemote(null);
             });
-        this.syncTimeRef.set(System.currentTimeMillis());
+            this.syncTimeRef.set(System.currentTimeMillis());
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    private void addResources(Map<String, R> loadedResources) {
+        log.debug("[{}]:reload().added={}", this.name, loadedResources.size());
+        final List<Pair<T, R>> added = loadedResources.values().stream().map(r -> Pair.of(this.newResource(r), r))
+            .sorted(Comparator.comparing(p -> p.getKey().getName())) // sort by name when adding into cache
+            .collect(Collectors.toList());
+        added.forEach(p -> this.addResourceToLocal(p.getKey().getId(), p.getKey(), true));
+        this.setRemotesInBackground(added);
+    }
+
+    /**
+     * set remotes of all resources of a page in one background task rather than one task per resource, a failure of
+     * one resource doesn't stop the others.
+     */
+    private void setRemotesInBackground(@Nonnull List<Pair<T, R>> resources) {
+        if (!resources.isEmpty()) {
+            AzureTaskManager.getInstance().runOnPooledThread(() -> resources.forEach(p -> {
+                try {
+                    p.getKey().setRemote(p.getValue());
+                } catch (final RuntimeException e) {
+                    log.warn("[{}]:failed to set remote of resource({})", this.name, p.getKey().getName(), e);
+                }
+            }));
+        }
     }
 
     public void clear() {
@@ -283,7 +404,7 @@ public abstract class AbstractAzResourceModule<T extends AbstractAzResource<T, P
             }
         }
         log.debug("[{}]:get({}, {})->this.resources.get({})", this.name, id, resourceGroup, name);
-        return this.resources.getOrDefault(id, Optional.empty()).orElse(null);
+        return this.resources.get(id).orElse(null);
     }
 
     @Nullable
@@ -327,7 +448,7 @@ public abstract class AbstractAzResourceModule<T extends AbstractAzResource<T, P
         final String resourceGroup = normalizeResourceGroupName(name, rgName);
         log.debug("[{}]:getOrTemp({}, {})", this.name, name, rgName);
         final String id = this.toResourceId(name, resourceGroup).toLowerCase();
-        return this.resources.getOrDefault(id, Optional.empty()).orElseGet(() -> this.newResource(name, resourceGroup));
+        return this.resources.get(id).orElseGet(() -> this.newResource(name, resourceGroup));
     }
 
     @Nonnull
@@ -335,7 +456,7 @@ public abstract class AbstractAzResourceModule<T extends AbstractAzResource<T, P
         final String resourceGroup = normalizeResourceGroupName(name, rgName);
         log.debug("[{}]:getOrDraft({}, {})", this.name, name, rgName);
         final String id = this.toResourceId(name, resourceGroup).toLowerCase();
-        return this.resources.getOrDefault(id, Optional.empty()).orElseGet(() -> {
+        return this.resources.get(id).orElseGet(() -> {
             final T resource = this.newResource(name, resourceGroup);
             log.debug("[{}]:get({}, {})->addResourceToLocal({}, resource)", this.name, id, resourceGroup, name);
             this.addResourceToLocal(id, resource);
@@ -345,13 +466,14 @@ public abstract class AbstractAzResourceModule<T extends AbstractAzResource<T, P
 
     @Nonnull
     public List<T> listCachedResources() { // getResources
-        return this.resources.values().stream().filter(Optional::isPresent).map(Optional::get).collect(Collectors.toList());
+        return this.resources.list();
     }
 
     @Nonnull
     public List<T> listByResourceGroup(@Nonnull String resourceGroup) {
         log.debug("[{}]:listByResourceGroupName({})", this.name, resourceGroup);
-        return this.list().stream().filter(r -> r.getResourceGroupName().equalsIgnoreCase(resourceGroup)).collect(Collectors.toList());
+        this.list(); // make sure resources are loaded
+        return this.resources.listByResourceGroup(resourceGroup);
     }
 
     @Nonnull
@@ -437,7 +559,7 @@ public abstract class AbstractAzResourceModule<T extends AbstractAzResource<T, P
         log.debug("[{}]:deleteResourceFromLocal->this.resources.remove({})", this.name, id);
         id = id.toLowerCase();
         final Optional<T> removed = this.resources.remove(id);
-        if (Objects.nonNull(removed) && removed.isPresent()) {
+        if (removed.isPresent()) {
             this.deleteResourceFromLocalResourceGroup(removed.get(), silent);
             if ((silent.length == 0 || !silent[0])) {
                 log.debug("[{}]:deleteResourceFromLocal->fireResourcesChangedEvent()", this.name);
@@ -459,11 +581,9 @@ public abstract class AbstractAzResourceModule<T extends AbstractAzResource<T, P
     protected void addResourceToLocal(@Nonnull String id, @Nullable T resource, boolean... silent) {
         log.debug("[{}]:addResourceToLocal({}, {})", this.name, id, resource);
         id = id.toLowerCase();
-        final Optional<T> oldResource = this.resources.getOrDefault(id, Optional.empty());
         final Optional<T> newResource = Optional.ofNullable(resource);
-        if (!oldResource.isPresent()) {
-            log.debug("[{}]:addResourceToLocal->this.resources.put({}, {})", this.name, id, resource);
-            this.resources.put(id, newResource);
+        log.debug("[{}]:addResourceToLocal->this.resources.putIfAbsent({}, {})", this.name, id, resource);
+        if (this.resources.putIfAbsent(id, newResource)) {
             if (newResource.isPresent()) {
                 this.addResourceToLocalResourceGroup(id, resource, silent);
                 if (silent.length == 0 || !silent[0]) {
@@ -549,7 +669,8 @@ public abstract class AbstractAzResourceModule<T extends AbstractAzResource<T, P
             return this.<SupportsGettingByName<R>>cast(client).getByName(name);
         } else { // fallback to filter the named resource from all resources in current module.
             log.debug("[{}]:loadResourceFromAzure->this.list().filter({}).getRemote()", this.name, name);
-            return this.list().stream().filter(r -> StringUtils.equals(name, r.getName())).findAny().map(AbstractAzResource::getRemote).orElse(null);
+            this.list(); // make sure resources are loaded
+            return this.resources.listByName(name).stream().filter(r -> StringUtils.equals(name, r.getName())).findAny().map(AbstractAzResource::getRemote).orElse(null);
         }
     }
 
@@ -589,6 +710,15 @@ public abstract class AbstractAzResourceModule<T extends AbstractAzResource<T, P
     @Nonnull
     protected abstract T newResource(@Nonnull R r);
 
+    /**
+     * @return version (e.g. etag or last modified time) of the remote, which is used to skip refreshing unchanged
+     * resources when reloading this module, {@code null} if not supported.
+     */
+    @Nullable
+    protected String getRemoteVersion(@Nonnull R remote) {
+        return null;
+    }
+
     @Nonnull
     protected abstract T newResource(@Nonnull String name, @Nullable String resourceGroupName);
 
@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.lib.common.model;
+
+import lombok.RequiredArgsConstructor;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * insertion ordered index of the resources cached in a module, keyed by lower-cased resource id, with secondary
+ * indexes by (lower-cased) resource group and name. an id may be mapped to {@link Optional#empty()} to remember
+ * that the resource doesn't exist.
+ * reads are lock-free and weakly consistent, writes are serialized.
+ */
+class ResourceIndex<T extends AzResource> {
+    private final AtomicLong sequence = new AtomicLong();
+    private final Map<String, Entry<T>> byId = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListMap<Long, Entry<T>> ordered = new ConcurrentSkipListMap<>();
+    private final Map<String, ConcurrentSkipListMap<Long, T>> byResourceGroup = new ConcurrentHashMap<>();
+    private final Map<String, ConcurrentSkipListMap<Long, T>> byName = new ConcurrentHashMap<>();
+
+    public boolean containsKey(@Nonnull String id) {
+        return this.byId.containsKey(id);
+    }
+
+    @Nonnull
+    public Optional<T> get(@Nonnull String id) {
+        return Optional.ofNullable(this.byId.get(id)).flatMap(e -> e.value);
+    }
+
+    /**
+     * put {@code value} unless a present resource is already indexed by {@code id}, position of an existing
+     * (non-existent) id is kept.
+     *
+     * @return true if {@code value} is put.
+     */
+    public synchronized boolean putIfAbsent(@Nonnull String id, @Nonnull Optional<T> value) {
+        final Entry<T> old = this.byId.get(id);
+        if (Objects.nonNull(old) && old.value.isPresent()) {
+            return false;
+        }
+        final Entry<T> entry = new Entry<>(Objects.isNull(old) ? this.sequence.incrementAndGet() : old.seq, value);
+        this.byId.put(id, entry);
+        this.ordered.put(entry.seq, entry);
+        value.ifPresent(r -> {
+            this.byResourceGroup.computeIfAbsent(r.getResourceGroupName().toLowerCase(), k -> new ConcurrentSkipListMap<>()).put(entry.seq, r);
+            this.byName.computeIfAbsent(r.getName().toLowerCase(), k -> new ConcurrentSkipListMap<>()).put(entry.seq, r);
+        });
+        return true;
+    }
+
+    /**
+     * @return the removed resource, {@link Optional#empty()} if {@code id} is not indexed or mapped to a nonexistent one.
+     */
+    @Nonnull
+    public synchronized Optional<T> remove(@Nonnull String id) {
+        final Entry<T> removed = this.byId.remove(id);
+        if (Objects.isNull(removed)) {
+            return Optional.empty();
+        }
+        this.ordered.remove(removed.seq);
+        removed.value.ifPresent(r -> {
+            removeFrom(this.byResourceGroup, r.getResourceGroupName().toLowerCase(), removed.seq);
+            removeFrom(this.byName, r.getName().toLowerCase(), removed.seq);
+        });
+        return removed.value;
+    }
+
+    /**
+     * remove all ids mapped to {@link Optional#empty()}
+     */
+    public synchronized void removeNonexistent() {
+        this.byId.values().removeIf(e -> !e.value.isPresent());
+        this.ordered.values().removeIf(e -> !e.value.isPresent());
+    }
+
+    public synchronized void clear() {
+        this.byId.clear();
+        this.ordered.clear();
+        this.byResourceGroup.clear();
+        this.byName.clear();
+    }
+
+    /**
+     * @return snapshot of the present resources in insertion order.
+     */
+    @Nonnull
+    public List<T> list() {
+        final List<T> result = new ArrayList<>(this.byId.size());
+        this.ordered.values().forEach(e -> e.value.ifPresent(result::add));
+        return result;
+    }
+
+    @Nonnull
+    public List<T> listByResourceGroup(@Nonnull String resourceGroup) {
+        return listFrom(this.byResourceGroup, resourceGroup.toLowerCase());
+    }
+
+    @Nonnull
+    public List<T> listByName(@Nonnull String name) {
+        return listFrom(this.byName, name.toLowerCase());
+    }
+
+    @Nonnull
+    private static <T> List<T> listFrom(@Nonnull Map<String, ConcurrentSkipListMap<Long, T>> index, @Nonnull String key) {
+        return Optional.ofNullable(index.get(key)).<List<T>>map(m -> new ArrayList<>(m.values())).orElse(Collections.emptyList());
+    }
+
+    private static <T> void removeFrom(@Nonnull Map<String, ConcurrentSkipListMap<Long, T>> index, @Nonnull String key, long seq) {
+        final ConcurrentSkipListMap<Long, T> values = index.get(key);
+        if (Objects.nonNull(values)) {
+            values.remove(seq);
+            if (values.isEmpty()) {
+                index.remove(key);
+            }
+        }
+    }
+
+    @RequiredArgsConstructor
+    private static class Entry<T> {
+        private final long seq;
+        @Nonnull
+        private final Optional<T> value;
+    }
+}
@@ -5,6 +5,8 @@
 
 package com.microsoft.azure.toolkit.lib.common.telemetry;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.microsoft.azure.toolkit.lib.common.operation.MethodOperation;
 import com.microsoft.azure.toolkit.lib.common.operation.Operation;
 import com.microsoft.azure.toolkit.lib.common.operation.OperationContext;
@@ -26,6 +28,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 public class AzureTelemeter {
     public static final String SERVICE_NAME = "serviceName";
@@ -42,6 +46,8 @@ public class AzureTelemeter {
     public static final String ERROR_CLASSNAME = "error.error_class_name";
     public static final String ERROR_ROOT_CLASSNAME = "error.root_error_class_name";
     public static final String ERROR_STACKTRACE = "error.error_stack";
+    private static final Cache<String, OperationName> operationNames = CacheBuilder.newBuilder().maximumSize(2048).build();
+    private static final Map<Class<?>, Object> converters = new ConcurrentHashMap<>();
     @Getter
     @Setter
     @Nullable
@@ -60,6 +66,15 @@ public class AzureTelemeter {
         Optional.ofNullable(client).ifPresent(client -> client.setDefaultProperties(commonProperties));
     }
 
+    /**
+     * wait until the tracked events are sent and flushed to the telemetry channel, at most {@code timeout}.
+     *
+     * @return false if the deadline is reached before all events are flushed.
+     */
+    public static boolean flush(long timeout, @Nonnull TimeUnit unit) {
+        return Optional.ofNullable(client).map(c -> c.flush(timeout, unit)).orElse(true);
+    }
+
     public static void afterCreate(@Nonnull final Operation op) {
         op.getContext().setTelemetryProperty(AzureTelemetry.OP_CREATE_AT, Instant.now().toString());
     }
@@ -99,22 +114,13 @@ public class AzureTelemeter {
         final Map<String, String> actionProperties = getActionProperties(op);
         final Optional<Operation> parent = Optional.ofNullable(op.getEffectiveParent());
         final Map<String, String> properties = new HashMap<>();
-        final String name = op.getId().replaceAll("\\(.+\\)", "(***)"); // e.g. `internal/appservice.list_file.dir`
-        final String[] parts = name.split("\\."); // ["internal/appservice", "list_file", "dir"]
+        final OperationName name = getOperationName(op.getId());
         properties.put(OP_ID, op.getExecutionId());
         properties.put(OP_PARENT_ID, parent.map(Operation::getExecutionId).orElse("/"));
-        properties.put(OP_NAME, name);
-        properties.put(OP_TYPE, op.getType());
-        if (parts.length > 1) {
-            if (parts[0].contains("/")) {
-                final String[] typeAndService = parts[0].split("/"); // ["internal", "appservice"]
-                properties.put(OP_TYPE, typeAndService[0]); // override type with prefix
-                properties.put(SERVICE_NAME, typeAndService[1]);
-            } else {
-                properties.put(SERVICE_NAME, parts[0]);
-            }
-            properties.put(OPERATION_NAME, parts[1]); // "list_file"
-        }
+        properties.put(OP_NAME, name.name);
+        properties.put(OP_TYPE, Optional.ofNullable(name.type).orElse(op.getType()));
+        Optional.ofNullable(name.service).ifPresent(s -> properties.put(SERVICE_NAME, s));
+        Optional.ofNullable(name.operation).ifPresent(o -> properties.put(OPERATION_NAME, o));
         properties.putAll(actionProperties);
         if (op instanceof MethodOperation) {
             properties.putAll(getParameterProperties((MethodOperation) op));
@@ -123,6 +129,12 @@ public class AzureTelemeter {
         return properties;
     }
 
+    @Nonnull
+    @SneakyThrows
+    private static OperationName getOperationName(@Nonnull final String id) {
+        return operationNames.get(id, () -> new OperationName(id));
+    }
+
     private static Map<String, String> getParameterProperties(MethodOperation ref) {
         final HashMap<String, String> properties = new HashMap<>();
         final List<Triple<String, Parameter, Object>> args = ref.getInvocation().getArgs();
@@ -135,7 +147,7 @@ public class AzureTelemeter {
                 .ifPresent((name) -> properties.put(name, Optional.ofNullable(value).map(Object::toString).orElse("")));
             Optional.ofNullable(param.getAnnotation(Properties.class))
                 .map(Properties::value)
-                .map(AzureTelemeter::instantiate)
+                .map(AzureTelemeter::getConverter)
                 .map(converter -> converter.convert(value))
                 .ifPresent(properties::putAll);
         }
@@ -150,6 +162,11 @@ public class AzureTelemeter {
             .orElse(new HashMap<>());
     }
 
+    @SuppressWarnings("unchecked")
+    private static <U> U getConverter(Class<? extends U> clazz) {
+        return (U) converters.computeIfAbsent(clazz, AzureTelemeter::instantiate);
+    }
+
     @SneakyThrows
     private static <U> U instantiate(Class<? extends U> clazz) {
         return clazz.newInstance();
@@ -170,6 +187,35 @@ public class AzureTelemeter {
         return properties;
     }
 
+    /**
+     * parts of an operation id, e.g. `internal/appservice.list_file.dir` is split into type `internal`,
+     * service `appservice` and operation `list_file`.
+     */
+    private static class OperationName {
+        private final String name;
+        @Nullable
+        private final String type;
+        @Nullable
+        private final String service;
+        @Nullable
+        private final String operation;
+
+        private OperationName(@Nonnull final String id) {
+            this.name = id.replaceAll("\\(.+\\)", "(***)"); // e.g. `internal/appservice.list_file.dir`
+            final String[] parts = this.name.split("\\."); // ["internal/appservice", "list_file", "dir"]
+            if (parts.length > 1) {
+                final String[] typeAndService = parts[0].split("/"); // ["internal", "appservice"]
+                this.type = parts[0].contains("/") ? typeAndService[0] : null; // override type with prefix
+                this.service = parts[0].contains("/") ? typeAndService[1] : parts[0];
+                this.operation = parts[1]; // "list_file"
+            } else {
+                this.type = null;
+                this.service = null;
+                this.operation = null;
+            }
+        }
+    }
+
     private enum ErrorType {
         userError,
         systemError,
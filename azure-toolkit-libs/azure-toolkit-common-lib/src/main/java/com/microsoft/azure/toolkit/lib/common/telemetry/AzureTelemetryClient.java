@@ -16,6 +16,8 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
@@ -91,11 +93,23 @@ public class AzureTelemetryClient {
             return;
         }
 
-        final Map<String, String> properties = mergeProperties(getDefaultProperties(), customProperties, overrideDefaultProperties);
+        // snapshot the properties on the caller thread, leave the anonymizing and sending to the telemetry worker.
+        final Map<String, String> properties = new HashMap<>(mergeProperties(getDefaultProperties(), customProperties, overrideDefaultProperties));
         properties.entrySet().removeIf(stringStringEntry -> StringUtils.isEmpty(stringStringEntry.getValue())); // filter out null values
-        anonymizePersonallyIdentifiableInformation(properties);
-        client.trackEvent(eventName, properties, metrics);
-        client.flush();
+        final Map<String, Double> measurements = Optional.ofNullable(metrics).<Map<String, Double>>map(HashMap::new).orElse(null);
+        TelemetryEventQueue.INSTANCE.offer(client, () -> {
+            anonymizePersonallyIdentifiableInformation(properties);
+            client.trackEvent(eventName, properties, measurements);
+        });
+    }
+
+    /**
+     * wait until the tracked events are sent and flushed to the telemetry channel, at most {@code timeout}.
+     *
+     * @return false if the deadline is reached before all events are flushed.
+     */
+    public boolean flush(long timeout, @Nonnull TimeUnit unit) {
+        return TelemetryEventQueue.INSTANCE.flush(timeout, unit);
     }
 
     protected Map<String, String> mergeProperties(Map<String, String> defaultProperties,
@@ -0,0 +1,156 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.lib.common.telemetry;
+
+import com.microsoft.applicationinsights.TelemetryClient;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * bounded, lock-free queue of telemetry events drained by a single daemon worker, which sends the events in batches
+ * and flushes the underlying channel once per batch instead of once per event.
+ * the oldest events are dropped when the queue is full, so tracking never blocks the caller.
+ */
+@Slf4j
+final class TelemetryEventQueue {
+    static final TelemetryEventQueue INSTANCE = new TelemetryEventQueue(1024, 64);
+
+    private final int capacity;
+    private final int batchSize;
+    private final Queue<Event> events = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private final AtomicLong offered = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private volatile long processed;
+    private final Object monitor = new Object();
+    @Nullable
+    private volatile Thread worker;
+
+    TelemetryEventQueue(int capacity, int batchSize) {
+        this.capacity = capacity;
+        this.batchSize = batchSize;
+    }
+
+    void offer(@Nonnull TelemetryClient client, @Nonnull Runnable send) {
+        this.offered.incrementAndGet();
+        // make room by dropping the oldest before enqueuing, so that the new event is never the one dropped
+        if (this.size.incrementAndGet() > this.capacity && Objects.nonNull(this.events.poll())) {
+            this.size.decrementAndGet();
+            this.markProcessed(1);
+            this.dropped.incrementAndGet();
+        }
+        this.events.offer(new Event(client, send));
+        this.signal();
+    }
+
+    /**
+     * wait until all events offered before this call are sent and flushed, at most {@code timeout}.
+     *
+     * @return false if the deadline is reached before that.
+     */
+    boolean flush(long timeout, @Nonnull TimeUnit unit) {
+        final long target = this.offered.get();
+        final long deadline = System.nanoTime() + unit.toNanos(timeout);
+        this.signal();
+        synchronized (this.monitor) {
+            while (this.processed < target) {
+                final long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                if (remaining <= 0) {
+                    return false;
+                }
+                try {
+                    this.monitor.wait(remaining);
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    long getDropped() {
+        return this.dropped.get();
+    }
+
+    private void signal() {
+        Thread thread = this.worker;
+        if (thread == null) {
+            synchronized (this) {
+                thread = this.worker;
+                if (thread == null) {
+                    thread = new Thread(this::drain, "azure-telemetry-worker");
+                    thread.setDaemon(true);
+                    thread.start();
+                    this.worker = thread;
+                }
+            }
+        }
+        LockSupport.unpark(thread);
+    }
+
+    private void drain() {
+        final List<Event> batch = new ArrayList<>(this.batchSize);
+        final Set<TelemetryClient> clients = Collections.newSetFromMap(new IdentityHashMap<>());
+        while (true) {
+            Event event;
+            while (batch.size() < this.batchSize && (event = this.events.poll()) != null) {
+                this.size.decrementAndGet();
+                batch.add(event);
+            }
+            if (batch.isEmpty()) {
+                LockSupport.park(this);
+                continue;
+            }
+            for (final Event e : batch) {
+                try {
+                    e.send.run();
+                    clients.add(e.client);
+                } catch (final Throwable t) { // telemetry should never break the worker
+                    log.debug("failed to send telemetry event", t);
+                }
+            }
+            for (final TelemetryClient client : clients) {
+                try {
+                    client.flush();
+                } catch (final Throwable t) {
+                    log.debug("failed to flush telemetry client", t);
+                }
+            }
+            this.markProcessed(batch.size());
+            batch.clear();
+            clients.clear();
+        }
+    }
+
+    private void markProcessed(int count) {
+        synchronized (this.monitor) {
+            this.processed += count;
+            this.monitor.notifyAll();
+        }
+    }
+
+    @RequiredArgsConstructor
+    private static class Event {
+        private final TelemetryClient client;
+        private final Runnable send;
+    }
+}
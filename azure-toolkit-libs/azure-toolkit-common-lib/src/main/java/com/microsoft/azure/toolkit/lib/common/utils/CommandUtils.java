@@ -7,13 +7,9 @@ package com.microsoft.azure.toolkit.lib.common.utils;
 
 
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.exec.CommandLine;
-import org.apache.commons.exec.DefaultExecutor;
-import org.apache.commons.exec.PumpStreamHandler;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.SystemUtils;
 
-import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
@@ -21,6 +17,9 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * copied from: https://github.com/microsoft/azure-tools-for-java/blob/
@@ -34,8 +33,16 @@ public class CommandUtils {
     private static final String LINUX_MAC_SWITCHER = "-c";
     private static final String DEFAULT_WINDOWS_SYSTEM_ROOT = System.getenv("SystemRoot");
     private static final String DEFAULT_MAC_LINUX_PATH = "/bin/";
+    private static final Map<String, List<String>> COMMAND_PATHS = new ConcurrentHashMap<>();
 
+    /**
+     * resolve paths of the {@code command} by {@code which/where}, resolved paths are cached until they are removed.
+     */
     public static List<String> resolveCommandPath(String command) {
+        final List<String> cached = COMMAND_PATHS.get(command);
+        if (Objects.nonNull(cached) && cached.stream().allMatch(p -> new File(p).isFile())) {
+            return new ArrayList<>(cached);
+        }
         final List<String> list = new ArrayList<>();
         try {
 
@@ -55,6 +62,9 @@ public class CommandUtils {
         } catch (IOException ignored) {
             // ignore
         }
+        if (!list.isEmpty()) { // not found is not cached, the command may be installed later
+            COMMAND_PATHS.put(command, new ArrayList<>(list));
+        }
         return list;
     }
 
@@ -93,36 +103,20 @@ public class CommandUtils {
 
     private static String executeCommandAndGetOutput(final String starter, final String switcher, final String commandWithArgs,
                                                      final File directory, Map<String, String> env, boolean mergeErrorStream) throws IOException {
-        final CommandLine commandLine = new CommandLine(starter);
-        commandLine.addArgument(switcher, false);
-        commandLine.addArgument(commandWithArgs, false);
-        return executeCommandAndGetOutput(commandLine, directory, env, mergeErrorStream);
-    }
-
-    private static String executeCommandAndGetOutput(final CommandLine commandLine, final File directory, Map<String, String> env, boolean mergeErrorStream)
-        throws IOException {
-        final ByteArrayOutputStream out = new ByteArrayOutputStream();
-        final ByteArrayOutputStream err = mergeErrorStream ? out : new ByteArrayOutputStream();
-        final PumpStreamHandler streamHandler = new PumpStreamHandler(out, err);
-        final DefaultExecutor executor = new DefaultExecutor();
-        executor.setWorkingDirectory(directory);
-        executor.setStreamHandler(streamHandler);
-        executor.setExitValues(new int[]{0});
-        try {
-            Map<String, String> newEnv = new HashMap<>(System.getenv());
-            if (env != null) {
-                newEnv.putAll(env);
-            }
-            executor.execute(commandLine, newEnv);
-            final String result = StringUtils.trimToEmpty(out.toString());
-            if (!mergeErrorStream && err.size() > 0 && StringUtils.isEmpty(result)) {
-                throw new IOException(StringUtils.trim(err.toString()));
-            }
-            return result;
-        } finally {
-            out.close();
-            err.close();
+        final ProcessEngine.Result result = ProcessEngine.builder()
+            .command(starter).command(switcher).command(commandWithArgs)
+            .directory(directory)
+            .environment(Optional.ofNullable(env).orElse(Collections.emptyMap()))
+            .mergeErrorStream(mergeErrorStream)
+            .build().execute();
+        if (result.getExitCode() != 0) {
+            throw new ProcessEngine.ProcessException(result.getExitCode(), StringUtils.trimToEmpty(mergeErrorStream ? result.getStdout() : result.getStderr()));
+        }
+        final String output = StringUtils.trimToEmpty(result.getStdout());
+        if (!mergeErrorStream && StringUtils.isNotEmpty(result.getStderr()) && StringUtils.isEmpty(output)) {
+            throw new IOException(StringUtils.trim(result.getStderr()));
         }
+        return output;
     }
 
     public static boolean isWindows() {
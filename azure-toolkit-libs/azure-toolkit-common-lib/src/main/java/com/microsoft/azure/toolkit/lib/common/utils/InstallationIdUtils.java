@@ -5,20 +5,33 @@
 
 package com.microsoft.azure.toolkit.lib.common.utils;
 
+import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
 
+import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
+@Slf4j
 public class InstallationIdUtils {
 
     private static final Pattern HASHED_MAC_PATTERN = Pattern.compile("[0-9a-f]{64}");
     // Hashed mac address for iBridge device
     private static final String INVALID_HASHED_MAC_ADDRESS = "6c9d2bc8f91b89624add29c0abeae7fb42bf539fa1cdb2e3e57cd668fa9bcead";
+    private static final Map<String, Optional<String>> CACHE = new ConcurrentHashMap<>();
 
     public static boolean isValidHashMac(String hashMac) {
         return isValidHash(hashMac) && !isDepreciatedHashMac(hashMac);
@@ -30,6 +43,47 @@ public class InstallationIdUtils {
         return StringUtils.isNotBlank(mac) ? hash(mac) : null;
     }
 
+    /**
+     * get hashed mac from the properties {@code file}, it's computed (which may fork a process to list network
+     * interfaces) and saved into the file only if it's absent or invalid, so that it's computed once per machine rather
+     * than once per run, and it's computed at most once per process.
+     *
+     * @param key key of the hashed mac in the properties file.
+     */
+    @Nullable
+    public static String getHashMac(@Nonnull Path file, @Nonnull String key) {
+        return CACHE.computeIfAbsent(file.toAbsolutePath() + "#" + key, k -> Optional.ofNullable(loadHashMac(file, key))).orElse(null);
+    }
+
+    @Nullable
+    private static synchronized String loadHashMac(@Nonnull Path file, @Nonnull String key) {
+        final Properties properties = new Properties();
+        if (Files.isRegularFile(file)) {
+            try (InputStream input = Files.newInputStream(file)) {
+                properties.load(input);
+            } catch (IOException | IllegalArgumentException e) {
+                log.debug("failed to load '{}' from {}", key, file, e);
+            }
+        }
+        final String cached = properties.getProperty(key);
+        if (isValidHashMac(cached)) {
+            return cached;
+        }
+        final String hashMac = getHashMac();
+        if (isValidHashMac(hashMac)) {
+            properties.setProperty(key, hashMac);
+            try {
+                Files.createDirectories(file.toAbsolutePath().getParent());
+                try (OutputStream output = Files.newOutputStream(file)) {
+                    properties.store(output, null);
+                }
+            } catch (IOException e) { // caching is only an optimization
+                log.debug("failed to save '{}' to {}", key, file, e);
+            }
+        }
+        return hashMac;
+    }
+
     public static String hash(String mac) {
         if (StringUtils.isEmpty(mac)) {
             return null;
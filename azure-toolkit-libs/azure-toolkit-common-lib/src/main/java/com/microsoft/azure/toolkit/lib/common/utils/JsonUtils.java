@@ -5,52 +5,113 @@
 
 package com.microsoft.azure.toolkit.lib.common.utils;
 
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
 import lombok.SneakyThrows;
 
+import javax.annotation.Nonnull;
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileWriter;
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.io.Writer;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class JsonUtils {
     private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final ObjectWriter WRITER = MAPPER.writer();
+    // readers/writers are immutable and thread safe, caching them per type saves the lookup of (de)serializers per call
+    private static final Map<Type, ObjectReader> READERS = new ConcurrentHashMap<>();
+    private static final Map<Class<?>, ObjectWriter> WRITERS = new ConcurrentHashMap<>();
 
+    @Nonnull
+    public static ObjectReader getReader(@Nonnull Class<?> clazz) {
+        return READERS.computeIfAbsent(clazz, t -> MAPPER.readerFor(clazz));
+    }
+
+    @Nonnull
+    public static ObjectReader getReader(@Nonnull TypeReference<?> type) {
+        return READERS.computeIfAbsent(type.getType(), t -> MAPPER.readerFor(type));
+    }
+
+    @Nonnull
+    public static ObjectWriter getWriter(@Nonnull Class<?> clazz) {
+        return WRITERS.computeIfAbsent(clazz, MAPPER::writerFor);
+    }
+
+    /**
+     * deep copy {@code source} through a token buffer, without serializing it to a string.
+     */
+    @SneakyThrows
     public static <T> T deepCopyWithJson(T source) {
-        //noinspection unchecked
-        return (T) fromJson(toJson(source), source.getClass());
+        if (Objects.isNull(source)) {
+            return null;
+        }
+        try (TokenBuffer buffer = new TokenBuffer(MAPPER, false)) {
+            getWriter(source.getClass()).writeValue(buffer, source);
+            try (JsonParser parser = buffer.asParser()) {
+                //noinspection unchecked
+                return (T) getReader(source.getClass()).readValue(parser);
+            }
+        }
     }
 
     public static void writeToJsonFile(File targetFile, Object json) throws IOException {
-        try (Writer writer = new FileWriter(targetFile)) {
-            MAPPER.writeValue(writer, json);
+        writeToJsonFile(targetFile.toPath(), json);
+    }
+
+    public static void writeToJsonFile(@Nonnull Path target, Object json) throws IOException {
+        try (OutputStream output = Files.newOutputStream(target)) {
+            WRITER.writeValue(output, json);
         }
     }
 
     public static <T> T readFromJsonFile(File target, Class<T> clazz) {
-        try (FileInputStream fis = new FileInputStream(target);
-             InputStreamReader isr = new InputStreamReader(fis)) {
-            return MAPPER.readValue(isr, clazz);
+        return readFromJsonFile(target.toPath(), clazz);
+    }
+
+    /**
+     * @return {@code null} if the file doesn't exist or is not valid json of {@code clazz}
+     */
+    public static <T> T readFromJsonFile(@Nonnull Path target, Class<T> clazz) {
+        try (InputStream input = Files.newInputStream(target)) {
+            return fromJson(input, clazz);
         } catch (IOException e) {
             return null;
         }
     }
 
+    /**
+     * read json from {@code input} without loading it into a string, encoding (and utf-8 BOM) is detected automatically.
+     */
+    public static <T> T fromJson(@Nonnull InputStream input, Class<T> clazz) throws IOException {
+        return getReader(clazz).readValue(input);
+    }
+
+    public static <T> T fromJson(@Nonnull InputStream input, TypeReference<T> type) throws IOException {
+        return getReader(type).readValue(input);
+    }
+
     @SneakyThrows
     public static <T> T fromJson(String json, Class<T> clazz) {
-        return MAPPER.readValue(json, clazz);
+        return getReader(clazz).readValue(json);
     }
 
     @SneakyThrows
     public static <T> T fromJson(String json, TypeReference<T> type) {
-        return MAPPER.readValue(json, type);
+        return getReader(type).readValue(json);
     }
 
     @SneakyThrows
     public static String toJson(Object src) {
-        return MAPPER.writeValueAsString(src);
+        return Objects.isNull(src) ? WRITER.writeValueAsString(null) : getWriter(src.getClass()).writeValueAsString(src);
     }
 }
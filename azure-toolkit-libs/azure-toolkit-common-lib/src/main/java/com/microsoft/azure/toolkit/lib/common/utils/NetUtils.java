@@ -5,9 +5,14 @@
 
 package com.microsoft.azure.toolkit.lib.common.utils;
 
+import lombok.RequiredArgsConstructor;
 import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.lang3.StringUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
+import javax.annotation.Nonnull;
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
@@ -18,9 +23,13 @@ import java.net.NetworkInterface;
 import java.net.SocketException;
 import java.net.URL;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Enumeration;
 import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -34,35 +43,60 @@ public class NetUtils {
     private static final String[] UNIX_COMMAND = {"/sbin/ifconfig -a || /sbin/ip link"};
     private static final String[] WINDOWS_COMMAND = {"getmac"};
     private static final String[] PUBLIC_IP_URLS = {"http://whatismyip.akamai.com", "http://bot.whatismyipaddress.com", "https://ipecho.net/plain"};
-
+    private static final Duration PUBLIC_IP_REQUEST_TIMEOUT = Duration.ofSeconds(3);
+    private static final Duration PUBLIC_IP_TTL = Duration.ofMinutes(5);
+    private static volatile CachedIp publicIp;
+
+    /**
+     * discover the public ip by racing all the known endpoints concurrently, the first valid answer wins and the
+     * other requests are cancelled. the ip is cached for 5 minutes.
+     */
     public static String getPublicIp() {
-        String ip = StringUtils.EMPTY;
-        for (String urlString : PUBLIC_IP_URLS) {
-            ip = getPublicIp(urlString);
-            if (StringUtils.isNotBlank(ip)) {
-                return ip;
-            }
+        final CachedIp cached = publicIp;
+        if (Objects.nonNull(cached) && System.currentTimeMillis() - cached.time < PUBLIC_IP_TTL.toMillis()) {
+            return cached.ip;
+        }
+        final String ip = getPublicIp(PUBLIC_IP_URLS, PUBLIC_IP_REQUEST_TIMEOUT);
+        if (StringUtils.isNotBlank(ip)) {
+            publicIp = new CachedIp(ip, System.currentTimeMillis());
         }
         return ip;
     }
 
-    private static String getPublicIp(String urlString) {
-        String ip = StringUtils.EMPTY;
+    static String getPublicIp(@Nonnull String[] urls, @Nonnull Duration timeout) {
         try {
-            final URL url = new URL(urlString);
-            final HttpURLConnection urlConnection = (HttpURLConnection) url.openConnection();
-            BufferedReader in = new BufferedReader(new InputStreamReader(urlConnection.getInputStream(), StandardCharsets.UTF_8));
-            while ((ip = in.readLine()) != null) {
-                if (StringUtils.isNotBlank(ip)) {
-                    final String trimIp = StringUtils.trim(ip);
-                    if (INTACT_IPADDRESS_PATTERN.matcher(trimIp).find()) {
-                        break;
+            return Flux.fromArray(urls)
+                .flatMap(url -> requestPublicIp(url, timeout))
+                .next()
+                .timeout(timeout.multipliedBy(2))
+                .onErrorResume(e -> Mono.empty())
+                .blockOptional().orElse(StringUtils.EMPTY);
+        } catch (RuntimeException e) { // e.g. interrupted
+            return StringUtils.EMPTY;
+        }
+    }
+
+    private static Mono<String> requestPublicIp(@Nonnull String urlString, @Nonnull Duration timeout) {
+        final AtomicReference<HttpURLConnection> connection = new AtomicReference<>();
+        return Mono.fromCallable(() -> {
+                final HttpURLConnection urlConnection = (HttpURLConnection) new URL(urlString).openConnection();
+                connection.set(urlConnection);
+                urlConnection.setConnectTimeout((int) timeout.toMillis());
+                urlConnection.setReadTimeout((int) timeout.toMillis());
+                try (BufferedReader in = new BufferedReader(new InputStreamReader(urlConnection.getInputStream(), StandardCharsets.UTF_8))) {
+                    String line;
+                    while ((line = in.readLine()) != null) {
+                        final String ip = StringUtils.trim(line);
+                        if (INTACT_IPADDRESS_PATTERN.matcher(ip).find()) {
+                            return ip;
+                        }
                     }
                 }
-            }
-        } catch (IOException e) {
-        }
-        return ip;
+                return null;
+            })
+            .subscribeOn(Schedulers.boundedElastic())
+            .onErrorResume(e -> Mono.empty())
+            .doOnCancel(() -> Optional.ofNullable(connection.get()).ifPresent(HttpURLConnection::disconnect));
     }
 
     public static String getHostName() {
@@ -182,4 +216,10 @@ public class NetUtils {
     private static boolean isValidRawMac(String raw) {
         return StringUtils.isNotEmpty(raw) && INTACT_MAC_PATTERN.matcher(raw).find();
     }
+
+    @RequiredArgsConstructor
+    private static class CachedIp {
+        private final String ip;
+        private final long time;
+    }
 }
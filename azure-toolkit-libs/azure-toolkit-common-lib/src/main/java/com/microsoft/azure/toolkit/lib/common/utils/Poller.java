@@ -0,0 +1,185 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.lib.common.utils;
+
+import com.azure.core.exception.HttpResponseException;
+import com.azure.core.http.HttpResponse;
+import com.microsoft.azure.toolkit.lib.common.operation.OperationContext;
+import lombok.Builder;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Predicate;
+
+/**
+ * polls a resource until it's ready. the first poll is made immediately and the following ones back off exponentially
+ * (with jitter) from {@code initialDelay} to {@code maxDelay}, unless the server hints a {@code Retry-After} in the
+ * error response of the last poll. errors of a poll are taken as "not ready yet" and retried, the last error is thrown
+ * if it never succeeds before timeout. time to ready and number of polls are recorded as telemetry properties prefixed
+ * with {@code name}.
+ * <pre>
+ * final Status status = Poller.builder().name("deployment").timeout(Duration.ofMinutes(5)).build()
+ *     .poll(() -> getStatus(id), Status::isDone);
+ * </pre>
+ */
+@Slf4j
+@Builder
+public class Poller {
+    private static final String RETRY_AFTER = "Retry-After";
+    private static final String RETRY_AFTER_MS = "retry-after-ms";
+    private static final String X_MS_RETRY_AFTER_MS = "x-ms-retry-after-ms";
+
+    /**
+     * name of the polling, used as prefix of the telemetry properties, no telemetry is recorded if it's null.
+     */
+    @Nullable
+    private final String name;
+    @Nonnull
+    @Builder.Default
+    private final Duration initialDelay = Duration.ofMillis(500);
+    @Nonnull
+    @Builder.Default
+    private final Duration maxDelay = Duration.ofSeconds(15);
+    @Builder.Default
+    private final double multiplier = 2;
+    /**
+     * ratio of the random deviation of delays, e.g. 0.2 for +/-20%.
+     */
+    @Builder.Default
+    private final double jitter = 0.2;
+    @Nonnull
+    @Builder.Default
+    private final Duration timeout = Duration.ofMinutes(5);
+
+    /**
+     * blocks until the resource is ready or timeout, interrupting the current thread cancels the polling.
+     *
+     * @return the first result which is ready, or the last result before timeout.
+     */
+    @Nullable
+    public <T> T poll(@Nonnull Callable<T> fetcher, @Nonnull Predicate<? super T> isReady) {
+        return this.pollAsync(fetcher, isReady).block();
+    }
+
+    /**
+     * @return a lazy and cancellable polling, which emits the first result which is ready, or the last result before timeout.
+     */
+    @Nonnull
+    public <T> Mono<T> pollAsync(@Nonnull Callable<T> fetcher, @Nonnull Predicate<? super T> isReady) {
+        final OperationContext context = OperationContext.action();
+        return Mono.defer(() -> this.next(new State<>(fetcher, isReady, context), Duration.ZERO));
+    }
+
+    @Nonnull
+    private <T> Mono<T> next(@Nonnull State<T> state, @Nonnull Duration delay) {
+        return Mono.delay(delay)
+            .then(Mono.fromCallable(() -> Optional.ofNullable(state.fetcher.call())).subscribeOn(Schedulers.boundedElastic()))
+            .map(result -> {
+                state.polls++;
+                state.last = result.orElse(null);
+                state.error = null;
+                state.hint = null;
+                return state.isReady.test(state.last);
+            })
+            .onErrorResume(e -> e instanceof Exception, e -> {
+                state.polls++;
+                state.error = e;
+                state.hint = getRetryAfter(e);
+                log.debug("[poller:{}] failed to poll, will retry", this.name, e);
+                return Mono.just(false);
+            })
+            .flatMap(ready -> {
+                final Duration elapsed = Duration.ofNanos(System.nanoTime() - state.start);
+                final Duration nextDelay = Optional.ofNullable(state.hint).orElseGet(() -> this.getDelay(state.polls));
+                if (ready || elapsed.plus(nextDelay).compareTo(this.timeout) > 0) {
+                    this.record(state, ready, elapsed);
+                    if (!ready && Objects.nonNull(state.error)) {
+                        return Mono.error(state.error);
+                    }
+                    return Mono.justOrEmpty(state.last);
+                }
+                return this.next(state, nextDelay);
+            });
+    }
+
+    @Nonnull
+    private Duration getDelay(int polls) {
+        final double base = Math.min(this.maxDelay.toMillis(), this.initialDelay.toMillis() * Math.pow(this.multiplier, Math.max(0, polls - 1)));
+        final double deviation = base * this.jitter * (ThreadLocalRandom.current().nextDouble() * 2 - 1);
+        return Duration.ofMillis((long) Math.max(0, base + deviation));
+    }
+
+    private void record(@Nonnull State<?> state, boolean ready, @Nonnull Duration elapsed) {
+        log.debug("[poller:{}] {} after {} polls in {}ms", this.name, ready ? "ready" : "timeout", state.polls, elapsed.toMillis());
+        if (StringUtils.isNotBlank(this.name)) {
+            state.context.setTelemetryProperty(this.name + "-time-to-ready", ready ? String.valueOf(elapsed.toMillis()) : "timeout");
+            state.context.setTelemetryProperty(this.name + "-polls", String.valueOf(state.polls));
+        }
+    }
+
+    /**
+     * @return delay hinted by {@code Retry-After} (or {@code retry-after-ms}) header of the http response of the error if any.
+     */
+    @Nullable
+    public static Duration getRetryAfter(@Nullable Throwable error) {
+        return ExceptionUtils.getThrowableList(error).stream()
+            .filter(t -> t instanceof HttpResponseException).map(t -> ((HttpResponseException) t).getResponse())
+            .filter(Objects::nonNull).map(Poller::getRetryAfter).filter(Objects::nonNull)
+            .findFirst().orElse(null);
+    }
+
+    @Nullable
+    private static Duration getRetryAfter(@Nonnull HttpResponse response) {
+        for (final String header : new String[]{RETRY_AFTER_MS, X_MS_RETRY_AFTER_MS}) {
+            final String value = response.getHeaderValue(header);
+            if (StringUtils.isNumeric(value)) {
+                return Duration.ofMillis(Long.parseLong(value));
+            }
+        }
+        final String value = StringUtils.trim(response.getHeaderValue(RETRY_AFTER));
+        if (StringUtils.isNumeric(value)) {
+            return Duration.ofSeconds(Long.parseLong(value));
+        } else if (StringUtils.isNotBlank(value)) {
+            try {
+                final Duration delay = Duration.between(OffsetDateTime.now(), OffsetDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME));
+                return delay.isNegative() ? Duration.ZERO : delay;
+            } catch (final DateTimeParseException e) {
+                log.debug("invalid '{}' header: {}", RETRY_AFTER, value);
+            }
+        }
+        return null;
+    }
+
+    private static class State<T> {
+        private final Callable<T> fetcher;
+        private final Predicate<? super T> isReady;
+        private final OperationContext context;
+        private final long start = System.nanoTime();
+        private int polls;
+        private T last;
+        private Throwable error;
+        private Duration hint;
+
+        private State(Callable<T> fetcher, Predicate<? super T> isReady, OperationContext context) {
+            this.fetcher = fetcher;
+            this.isReady = isReady;
+            this.context = context;
+        }
+    }
+}
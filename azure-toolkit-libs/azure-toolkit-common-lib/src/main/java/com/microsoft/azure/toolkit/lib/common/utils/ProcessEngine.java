@@ -0,0 +1,264 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.lib.common.utils;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.Singular;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.lang.reflect.Method;
+import java.nio.charset.Charset;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * runs a process with its stdout and stderr pumped concurrently (so that a process with large output never blocks on a
+ * full pipe) into a stream of lines. the process and its descendants are killed when the stream is cancelled or
+ * {@code timeout} expires.
+ * <pre>
+ * final ProcessEngine.Result result = ProcessEngine.builder().command("az").command("version").build().execute();
+ * </pre>
+ */
+@Slf4j
+@Builder
+public class ProcessEngine {
+    private static final int ERROR_TAIL_LINES = 20;
+
+    @Nonnull
+    @Singular("command")
+    private final List<String> commandLine;
+    @Nullable
+    private final File directory;
+    /**
+     * additional environment variables, on top of those of the current process.
+     */
+    @Nonnull
+    @Singular("env")
+    private final Map<String, String> environment;
+    private final boolean mergeErrorStream;
+    /**
+     * e.g. {@link ProcessBuilder.Redirect#INHERIT} to print stdout of the process to console directly, in which case
+     * stdout is not streamed.
+     */
+    @Nonnull
+    @Builder.Default
+    private final ProcessBuilder.Redirect redirectOutput = ProcessBuilder.Redirect.PIPE;
+    @Nullable
+    private final Duration timeout;
+    @Nonnull
+    @Builder.Default
+    private final Charset charset = Charset.defaultCharset();
+
+    /**
+     * @return lines of stdout and stderr of the process (as they are produced), which completes when the process exits
+     * with 0, or errors with {@link ProcessException} if it exits with other codes.
+     */
+    @Nonnull
+    public Flux<Line> lines() {
+        return Flux.defer(() -> {
+            final Deque<String> errors = new ArrayDeque<>();
+            return this.run().handle((line, sink) -> {
+                if (line instanceof Exit) {
+                    final int code = ((Exit) line).code;
+                    if (code != 0) {
+                        sink.error(new ProcessException(code, String.join(System.lineSeparator(), errors)));
+                    }
+                    return;
+                }
+                if (line.getType() == Line.Type.STDERR || this.mergeErrorStream) {
+                    if (errors.size() >= ERROR_TAIL_LINES) {
+                        errors.removeFirst();
+                    }
+                    errors.addLast(line.getText());
+                }
+                sink.next(line);
+            });
+        });
+    }
+
+    /**
+     * run the process and wait until it exits.
+     *
+     * @throws IOException if the process fails to start or doesn't exit in {@code timeout}
+     */
+    @Nonnull
+    public Result execute() throws IOException {
+        try {
+            final List<Line> lines = this.run().collectList().block();
+            final int code = Objects.requireNonNull(lines).stream().filter(l -> l instanceof Exit)
+                .map(l -> ((Exit) l).code).findFirst().orElse(-1);
+            return new Result(code, join(lines, Line.Type.STDOUT), join(lines, Line.Type.STDERR));
+        } catch (final RuntimeException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof TimeoutException) {
+                throw new IOException(String.format("'%s' doesn't exit in %s seconds.", String.join(" ", this.commandLine), Objects.requireNonNull(this.timeout).getSeconds()), cause);
+            }
+            throw e;
+        }
+    }
+
+    @Nonnull
+    private Flux<Line> run() {
+        return Flux.create(sink -> {
+            final Process process;
+            try {
+                log.debug("Executing command: {}", String.join(" ", this.commandLine));
+                final ProcessBuilder builder = new ProcessBuilder(this.commandLine)
+                    .redirectOutput(this.redirectOutput)
+                    .redirectErrorStream(this.mergeErrorStream);
+                builder.environment().putAll(this.environment);
+                if (Objects.nonNull(this.directory)) {
+                    builder.directory(this.directory);
+                }
+                process = builder.start();
+            } catch (final IOException e) {
+                sink.error(e);
+                return;
+            }
+            // a single deadline for the whole run, the process is killed on disposal once it expires
+            final Disposable deadline = Objects.isNull(this.timeout) ? Disposables.disposed() : Mono.delay(this.timeout)
+                .subscribe(ignore -> sink.error(new TimeoutException(String.format("process doesn't exit in %s.", this.timeout))));
+            sink.onDispose(() -> {
+                deadline.dispose();
+                if (process.isAlive()) {
+                    destroyTree(process);
+                }
+            });
+            final boolean pumpStdout = this.redirectOutput == ProcessBuilder.Redirect.PIPE;
+            final CountDownLatch pumps = new CountDownLatch((pumpStdout ? 1 : 0) + (this.mergeErrorStream ? 0 : 1));
+            if (pumpStdout) {
+                this.pump(process.getInputStream(), Line.Type.STDOUT, sink, pumps);
+            }
+            if (!this.mergeErrorStream) {
+                this.pump(process.getErrorStream(), Line.Type.STDERR, sink, pumps);
+            }
+            Schedulers.boundedElastic().schedule(() -> {
+                try {
+                    final int code = process.waitFor();
+                    pumps.await();
+                    log.debug("Process exit value: {}", code);
+                    sink.next(new Exit(code));
+                    sink.complete();
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    sink.error(e);
+                }
+            });
+        }, FluxSink.OverflowStrategy.BUFFER);
+    }
+
+    private void pump(@Nonnull InputStream stream, @Nonnull Line.Type type, @Nonnull FluxSink<Line> sink, @Nonnull CountDownLatch pumps) {
+        Schedulers.boundedElastic().schedule(() -> {
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(stream, this.charset))) {
+                String line;
+                while ((line = reader.readLine()) != null && !sink.isCancelled()) {
+                    sink.next(new Line(type, line));
+                }
+            } catch (final IOException e) { // stream is closed when the process is killed
+                log.debug("failed to read {} of process", type, e);
+            } finally {
+                pumps.countDown();
+            }
+        });
+    }
+
+    /**
+     * destroy the process and all its descendants, descendants are only reachable on java 9+.
+     */
+    private static void destroyTree(@Nonnull Process process) {
+        try {
+            final Method descendants = Process.class.getMethod("descendants");
+            final Stream<?> handles = (Stream<?>) descendants.invoke(process);
+            for (final Object handle : handles.collect(Collectors.toList())) {
+                handle.getClass().getMethod("destroyForcibly").invoke(handle);
+            }
+        } catch (final ReflectiveOperationException | RuntimeException e) {
+            log.debug("failed to destroy descendants of process", e);
+        }
+        process.destroyForcibly();
+    }
+
+    @Nonnull
+    private static String join(@Nonnull List<Line> lines, @Nonnull Line.Type type) {
+        return lines.stream().filter(l -> !(l instanceof Exit) && l.getType() == type)
+            .map(Line::getText).collect(Collectors.joining(System.lineSeparator()));
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    public static class Line {
+        @Nonnull
+        private final Type type;
+        @Nonnull
+        private final String text;
+
+        @Override
+        public String toString() {
+            return this.text;
+        }
+
+        public enum Type {
+            STDOUT, STDERR
+        }
+    }
+
+    private static class Exit extends Line {
+        private final int code;
+
+        private Exit(int code) {
+            super(Type.STDOUT, "");
+            this.code = code;
+        }
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    public static class Result {
+        private final int exitCode;
+        /**
+         * stdout, or merged stdout and stderr if {@code mergeErrorStream}.
+         */
+        @Nonnull
+        private final String stdout;
+        @Nonnull
+        private final String stderr;
+    }
+
+    @Getter
+    public static class ProcessException extends IOException {
+        private final int exitCode;
+
+        public ProcessException(int exitCode, @Nonnull String errorOutput) {
+            super(String.format("Process exited with an error: %d%s", exitCode, errorOutput.isEmpty() ? "" : System.lineSeparator() + errorOutput));
+            this.exitCode = exitCode;
+        }
+    }
+}
@@ -0,0 +1,238 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.lib.common.utils.aspect;
+
+import com.azure.resourcemanager.resources.fluentcore.arm.ResourceUtils;
+import com.google.common.collect.ImmutableMap;
+import groovy.text.SimpleTemplateEngine;
+import groovy.text.Template;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.reflect.MethodUtils;
+import org.apache.commons.lang3.tuple.Pair;
+import org.apache.commons.lang3.tuple.Triple;
+import org.codehaus.groovy.runtime.InvokerHelper;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Parameter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * template compiled once and reused by {@link ExpressionUtils#render(String, MethodInvocation)}.
+ * templates composed only of plain placeholders, e.g. {@code "${subscriptionId}/${this.getName()}"}, {@code "$name"},
+ * {@code "${nameFromResourceId(id)}"}, are resolved by reflection directly, all the others are rendered by groovy.
+ */
+@Slf4j
+abstract class CompiledTemplate {
+    private static final SimpleTemplateEngine engine = new SimpleTemplateEngine();
+    private static final String INVALID_TEMPLATE = "error occurs when evaluate template(%s) with bindings(%s)";
+    private static final Pattern PLACEHOLDER = Pattern.compile("\\$\\{([^{}]*)}|\\$([a-zA-Z_]\\w*)(?![.\\w])");
+    private static final Pattern PATH = Pattern.compile("\\s*([a-zA-Z_]\\w*)((?:\\.[a-zA-Z_]\\w*\\(\\s*\\))*)\\s*");
+    private static final Pattern FUNCTION = Pattern.compile("\\s*([a-zA-Z_]\\w*)\\((.*)\\)\\s*");
+    private static final Map<String, Function<String, String>> functions = ImmutableMap.of("nameFromResourceId", ResourceUtils::nameFromResourceId);
+    private static final Map<Pair<Class<?>, String>, Optional<Method>> methods = new ConcurrentHashMap<>();
+    private static final Object UNRESOLVED = new Object();
+
+    @Nonnull
+    protected final String template;
+
+    protected CompiledTemplate(@Nonnull final String template) {
+        this.template = template;
+    }
+
+    abstract String render(@Nonnull final MethodInvocation invocation);
+
+    @Nonnull
+    static CompiledTemplate compile(@Nonnull final String template) {
+        final List<Segment> segments = new ArrayList<>();
+        final Matcher matcher = PLACEHOLDER.matcher(template);
+        int start = 0;
+        while (matcher.find()) {
+            final String literal = template.substring(start, matcher.start());
+            final Segment placeholder = Objects.nonNull(matcher.group(1)) ? parse(matcher.group(1)) : parse(matcher.group(2));
+            if (!isPlainLiteral(literal) || Objects.isNull(placeholder)) {
+                return new GroovyTemplate(template);
+            }
+            segments.add(new LiteralSegment(literal));
+            segments.add(placeholder);
+            start = matcher.end();
+        }
+        final String tail = template.substring(start);
+        if (!isPlainLiteral(tail)) {
+            return new GroovyTemplate(template);
+        }
+        segments.add(new LiteralSegment(tail));
+        return new PlainTemplate(template, segments);
+    }
+
+    private static boolean isPlainLiteral(@Nonnull final String literal) {
+        return !StringUtils.containsAny(literal, '$', '\\', '"', '<', '%');
+    }
+
+    @Nullable
+    private static Segment parse(@Nonnull final String expression) {
+        final Matcher path = PATH.matcher(expression);
+        if (path.matches()) {
+            final String[] calls = Arrays.stream(path.group(2).split("\\."))
+                .filter(StringUtils::isNotBlank).map(c -> c.substring(0, c.indexOf('(')))
+                .toArray(String[]::new);
+            // `this` without any call refers to the groovy script itself
+            return "this".equals(path.group(1)) && calls.length == 0 ? null : new PathSegment(path.group(1), calls);
+        }
+        final Matcher function = FUNCTION.matcher(expression);
+        if (function.matches() && functions.containsKey(function.group(1))) {
+            final Segment arg = parse(function.group(2));
+            return arg instanceof PathSegment ? new FunctionSegment(functions.get(function.group(1)), (PathSegment) arg) : null;
+        }
+        return null;
+    }
+
+    private static class GroovyTemplate extends CompiledTemplate {
+        @Nullable
+        private Template compiled;
+        @Nullable
+        private Throwable error;
+
+        private GroovyTemplate(@Nonnull final String template) {
+            super(template);
+            try {
+                this.compiled = engine.createTemplate(template.replaceAll("(\\W)this(\\.)", "$1_this_$2")); // resolve `this`
+            } catch (final Throwable e) { // swallow all exceptions during compiling, it will be reported on rendering
+                this.error = e;
+            }
+        }
+
+        @Override
+        String render(@Nonnull final MethodInvocation invocation) {
+            final Map<String, Object> bindings = ExpressionUtils.initBindings(invocation);
+            try {
+                if (Objects.nonNull(this.compiled)) {
+                    return this.compiled.make(bindings).toString();
+                }
+                log.warn(String.format(INVALID_TEMPLATE, template, bindings), this.error);
+            } catch (final Throwable e) { // swallow all exceptions during render
+                log.warn(String.format(INVALID_TEMPLATE, template, bindings), e);
+            }
+            return template;
+        }
+    }
+
+    private static class PlainTemplate extends CompiledTemplate {
+        private final Segment[] segments;
+        private GroovyTemplate fallback;
+
+        private PlainTemplate(@Nonnull final String template, @Nonnull final List<Segment> segments) {
+            super(template);
+            this.segments = segments.toArray(new Segment[0]);
+        }
+
+        @Override
+        String render(@Nonnull final MethodInvocation invocation) {
+            final StringBuilder result = new StringBuilder();
+            for (final Segment segment : this.segments) {
+                final Object value = segment.resolve(invocation);
+                if (value == UNRESOLVED) { // let groovy decide how to handle the unresolvable expression.
+                    return this.getFallback().render(invocation);
+                }
+                result.append(value instanceof String ? (String) value : InvokerHelper.toString(value));
+            }
+            return result.toString();
+        }
+
+        private synchronized GroovyTemplate getFallback() {
+            if (Objects.isNull(this.fallback)) {
+                this.fallback = new GroovyTemplate(this.template);
+            }
+            return this.fallback;
+        }
+    }
+
+    private interface Segment {
+        @Nullable
+        Object resolve(@Nonnull MethodInvocation invocation);
+    }
+
+    @RequiredArgsConstructor
+    private static class LiteralSegment implements Segment {
+        private final String literal;
+
+        @Override
+        public Object resolve(@Nonnull MethodInvocation invocation) {
+            return literal;
+        }
+    }
+
+    @RequiredArgsConstructor
+    private static class PathSegment implements Segment {
+        private final String root;
+        private final String[] calls;
+
+        @Override
+        public Object resolve(@Nonnull MethodInvocation invocation) {
+            Object value;
+            if ("this".equals(this.root)) {
+                value = invocation.getInstance();
+            } else {
+                final Triple<String, Parameter, Object> arg = invocation.getArg(this.root);
+                if (Objects.isNull(arg)) {
+                    return UNRESOLVED;
+                }
+                value = arg.getRight();
+            }
+            for (final String call : this.calls) {
+                if (Objects.isNull(value)) {
+                    return UNRESOLVED;
+                }
+                final Optional<Method> method = getMethod(value.getClass(), call);
+                if (!method.isPresent()) {
+                    return UNRESOLVED;
+                }
+                try {
+                    value = method.get().invoke(value);
+                } catch (final IllegalAccessException | InvocationTargetException e) {
+                    return UNRESOLVED;
+                }
+            }
+            return value;
+        }
+
+        private static Optional<Method> getMethod(@Nonnull final Class<?> clazz, @Nonnull final String name) {
+            return methods.computeIfAbsent(Pair.of(clazz, name), p -> Optional.ofNullable(MethodUtils.getAccessibleMethod(clazz, name)));
+        }
+    }
+
+    @RequiredArgsConstructor
+    private static class FunctionSegment implements Segment {
+        private final Function<String, String> function;
+        private final PathSegment arg;
+
+        @Override
+        public Object resolve(@Nonnull MethodInvocation invocation) {
+            final Object value = this.arg.resolve(invocation);
+            if (value == UNRESOLVED || !(value instanceof String)) {
+                return UNRESOLVED;
+            }
+            try {
+                return this.function.apply((String) value);
+            } catch (final RuntimeException e) {
+                return UNRESOLVED;
+            }
+        }
+    }
+}
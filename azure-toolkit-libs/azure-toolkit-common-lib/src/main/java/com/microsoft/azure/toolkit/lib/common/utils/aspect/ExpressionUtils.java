@@ -6,9 +6,9 @@
 package com.microsoft.azure.toolkit.lib.common.utils.aspect;
 
 import com.azure.resourcemanager.resources.fluentcore.arm.ResourceUtils;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.ImmutableMap;
-import groovy.text.SimpleTemplateEngine;
-import groovy.text.Template;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.tuple.Triple;
@@ -21,12 +21,12 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ExecutionException;
 
 @Slf4j
 public class ExpressionUtils {
     private static final ImmutableMap<String, Boolean> valueMap = ImmutableMap.of("true", true, "false", false);
-    private static final SimpleTemplateEngine engine = new SimpleTemplateEngine();
-    private static final String INVALID_TEMPLATE = "error occurs when evaluate template(%s) with bindings(%s)";
+    private static final Cache<String, CompiledTemplate> templates = CacheBuilder.newBuilder().maximumSize(2048).build();
 
     public static boolean evaluate(@Nonnull final String expression, @Nonnull final MethodInvocation invocation, boolean defaultVal) {
         final String result = interpret(expression, invocation);
@@ -41,19 +41,16 @@ public class ExpressionUtils {
         if (StringUtils.isBlank(template) || !template.contains("$")) { // no groovy expression, just return
             return template;
         }
-        final Map<String, Object> bindings = initBindings(invocation);
-        final String fixed = template.replaceAll("(\\W)this(\\.)", "$1_this_$2"); // resolve `this`
         try {
-            final Template tpl = engine.createTemplate(fixed);
-            return tpl.make(bindings).toString();
-        } catch (final Throwable e) { // swallow all exceptions during render
-            log.warn(String.format(INVALID_TEMPLATE, template, bindings), e);
+            return templates.get(template, () -> CompiledTemplate.compile(template)).render(invocation);
+        } catch (final ExecutionException e) { // should never happen, compiling errors are deferred to rendering
+            log.warn(String.format("error occurs when compile template(%s)", template), e);
         }
         return template;
     }
 
     @Nonnull
-    private static Map<String, Object> initBindings(@Nonnull final MethodInvocation invocation) {
+    static Map<String, Object> initBindings(@Nonnull final MethodInvocation invocation) {
         final List<Triple<String, Parameter, Object>> args = invocation.getArgs();
         final Map<String, Object> bindings = new HashMap<>();
         for (Triple<String, Parameter, Object> arg : args) {
@@ -15,6 +15,7 @@ import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.reflect.MethodSignature;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Method;
 import java.lang.reflect.Parameter;
@@ -64,6 +65,17 @@ public class MethodInvocation {
         return result;
     }
 
+    @Nullable
+    public Triple<String, Parameter, Object> getArg(@Nonnull final String name) {
+        final String[] names = this.signature.getParameterNames();
+        for (int i = 0; i < names.length; i++) {
+            if (name.equals(names[i])) {
+                return Triple.of(names[i], this.method.getParameters()[i], this.point.getArgs()[i]);
+            }
+        }
+        return null;
+    }
+
     public <T extends Annotation> T getAnnotation(Class<T> annotation) {
         return this.method.getAnnotation(annotation);
     }
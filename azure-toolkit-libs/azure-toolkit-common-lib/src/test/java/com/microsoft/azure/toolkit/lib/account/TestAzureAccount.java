@@ -0,0 +1,35 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.lib.account;
+
+import com.microsoft.azure.toolkit.lib.common.model.Region;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * account service of tests, which are not signed in.
+ */
+public class TestAzureAccount implements IAzureAccount {
+    @Override
+    public IAccount account() {
+        return null;
+    }
+
+    @Override
+    public List<Region> listRegions(String subscriptionId) {
+        return Collections.emptyList();
+    }
+
+    @Override
+    public String getName() {
+        return "test";
+    }
+
+    @Override
+    public void refresh() {
+    }
+}
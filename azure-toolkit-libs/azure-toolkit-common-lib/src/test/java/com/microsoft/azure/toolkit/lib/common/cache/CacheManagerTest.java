@@ -0,0 +1,135 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.lib.common.cache;
+
+import com.microsoft.azure.toolkit.lib.common.task.TestTaskManager;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class CacheManagerTest {
+    private static final Semaphore REFRESHED = TestTaskManager.POOLED;
+
+    private final AtomicInteger loads = new AtomicInteger();
+    private final CountDownLatch blocked = new CountDownLatch(1);
+    private volatile CountDownLatch gate;
+
+    @BeforeClass
+    public static void init() {
+        TestTaskManager.register();
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        // forget the pooled tasks of other tests
+        TestTaskManager.awaitPooled();
+        REFRESHED.drainPermits();
+    }
+
+    @Test
+    public void refresh() throws InterruptedException {
+        Assert.assertEquals(1, this.loadRefreshed());
+        Thread.sleep(1100);
+        // the stale value is returned while being refreshed
+        Assert.assertEquals(1, this.loadRefreshed());
+        Assert.assertTrue(REFRESHED.tryAcquire(10, TimeUnit.SECONDS));
+        Assert.assertEquals(2, this.loadRefreshed());
+    }
+
+    @Test
+    public void evictedWhileRefreshing() throws InterruptedException {
+        Assert.assertEquals(1, this.loadEvicted());
+        Thread.sleep(1100);
+        final CountDownLatch release = this.gate = new CountDownLatch(1);
+        Assert.assertEquals(1, this.loadEvicted());
+        Assert.assertTrue(this.blocked.await(10, TimeUnit.SECONDS));
+        this.evict();
+        this.gate = null;
+        release.countDown();
+        Assert.assertTrue(REFRESHED.tryAcquire(10, TimeUnit.SECONDS));
+        // the refreshed value is not put back after eviction, so it's loaded again
+        Assert.assertEquals(3, this.loadEvicted());
+        Assert.assertEquals(3, this.loads.get());
+    }
+
+    @Test
+    public void replacedWhileRefreshing() throws InterruptedException {
+        Assert.assertEquals(1, this.loadReplaced());
+        Thread.sleep(1100);
+        final CountDownLatch release = this.gate = new CountDownLatch(1);
+        Assert.assertEquals(1, this.loadReplaced());
+        Assert.assertTrue(this.blocked.await(10, TimeUnit.SECONDS));
+        this.evictReplaced();
+        this.gate = null;
+        Assert.assertEquals(3, this.loadReplaced());
+        release.countDown();
+        Assert.assertTrue(REFRESHED.tryAcquire(10, TimeUnit.SECONDS));
+        // the stale refreshing doesn't overwrite the newer value
+        Assert.assertEquals(3, this.loadReplaced());
+    }
+
+    @Test
+    public void refreshWithOtherAdvices() throws InterruptedException {
+        final int advised = CountedAspect.COUNT.get();
+        Assert.assertEquals(1, this.loadAdvised());
+        Thread.sleep(1100);
+        Assert.assertEquals(1, this.loadAdvised());
+        Assert.assertTrue(REFRESHED.tryAcquire(10, TimeUnit.SECONDS));
+        // refreshed through all the advices of the method, but the cache itself
+        Assert.assertEquals(2, this.loadAdvised());
+        Assert.assertEquals(advised + 2, CountedAspect.COUNT.get());
+    }
+
+    @CountedAspect.Counted
+    @Cacheable(cacheName = "test.refresh.advised", refreshAfterWrite = 1)
+    public int loadAdvised() {
+        return this.load();
+    }
+
+    @Cacheable(cacheName = "test.refresh", refreshAfterWrite = 1)
+    public int loadRefreshed() {
+        return this.load();
+    }
+
+    @Cacheable(cacheName = "test.refresh.evicted", refreshAfterWrite = 1)
+    public int loadEvicted() {
+        return this.load();
+    }
+
+    @CacheEvict(cacheName = "test.refresh.evicted", key = "<cache>")
+    public void evict() {
+    }
+
+    @Cacheable(cacheName = "test.refresh.replaced", refreshAfterWrite = 1)
+    public int loadReplaced() {
+        return this.load();
+    }
+
+    @CacheEvict(cacheName = "test.refresh.replaced", key = "<cache>")
+    public void evictReplaced() {
+    }
+
+    private int load() {
+        // take the order before blocking, so a refreshing started earlier loads an older value
+        final int value = this.loads.incrementAndGet();
+        final CountDownLatch latch = this.gate;
+        if (latch != null) {
+            this.blocked.countDown();
+            try {
+                latch.await(10, TimeUnit.SECONDS);
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return value;
+    }
+}
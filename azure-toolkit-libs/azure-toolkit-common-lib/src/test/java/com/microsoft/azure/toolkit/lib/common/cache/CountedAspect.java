@@ -0,0 +1,46 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.lib.common.cache;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.annotation.DeclarePrecedence;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * another around advice to stack with {@link Cacheable}, counting the invocations of the {@link Counted} methods.
+ * it's nested in the cache advice, so the cache advice proceeds through it.
+ */
+@Aspect
+@DeclarePrecedence("com.microsoft.azure.toolkit.lib.common.cache.CacheManager, com.microsoft.azure.toolkit.lib.common.cache.CountedAspect")
+public class CountedAspect {
+    static final AtomicInteger COUNT = new AtomicInteger();
+
+    @Around("execution(@com.microsoft.azure.toolkit.lib.common.cache.CountedAspect.Counted * *..*.*(..))")
+    public Object around(ProceedingJoinPoint point) throws Throwable {
+        COUNT.incrementAndGet();
+        return proceed(point);
+    }
+
+    /**
+     * proceeding out of the advice body keeps the advice from being inlined, just like advices of aspect libraries,
+     * so the join point proceeds through the stack of around closures.
+     */
+    private static Object proceed(ProceedingJoinPoint point) throws Throwable {
+        return point.proceed();
+    }
+
+    @Target(ElementType.METHOD)
+    @Retention(RetentionPolicy.RUNTIME)
+    @interface Counted {
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.lib.common.cache;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class PreloaderTest {
+    private static final Set<String> PRELOADED = ConcurrentHashMap.newKeySet();
+
+    @Test
+    public void load() {
+        final Collection<Method> methods = Preloader.load();
+        Assert.assertTrue(methods.stream().anyMatch(m -> m.getDeclaringClass() == PreloaderTest.class && m.getName().equals("preloadStatic")));
+        Assert.assertTrue(PRELOADED.contains("static"));
+        Assert.assertTrue(PRELOADED.contains("varargs"));
+        Assert.assertTrue(PRELOADED.contains("singleton"));
+    }
+
+    @Preload
+    private static void preloadStatic() {
+        PRELOADED.add("static");
+    }
+
+    @Preload
+    static void preloadVarargs(Boolean... force) {
+        PRELOADED.add("varargs");
+    }
+
+    @Preload
+    static void preloadFailure() {
+        throw new IllegalStateException("failure of a preload should not affect others");
+    }
+
+    static class Singleton {
+        private static final Singleton INSTANCE = new Singleton();
+
+        static Singleton getInstance() {
+            return INSTANCE;
+        }
+
+        @Preload
+        void preload() {
+            PRELOADED.add("singleton");
+        }
+    }
+}
@@ -0,0 +1,159 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.lib.common.event;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+public class AzureEventBusTest {
+    @Test
+    public void dispatchInOrder() throws InterruptedException {
+        final String type = "test.order";
+        final List<Object> received = Collections.synchronizedList(new ArrayList<>());
+        final CountDownLatch done = new CountDownLatch(500);
+        AzureEventBus.on(type, new AzureEventBus.EventListener(e -> {
+            received.add(e.getPayload());
+            done.countDown();
+        }));
+        // same source, but events are not coalesced by default
+        IntStream.range(0, 500).forEach(i -> AzureEventBus.emit(type, "source", i));
+        Assert.assertTrue(done.await(10, TimeUnit.SECONDS));
+        Assert.assertEquals(IntStream.range(0, 500).boxed().collect(Collectors.toList()), received);
+    }
+
+    @Test
+    public void coalesce() throws InterruptedException {
+        final String type = "test.coalesce";
+        AzureEventBus.configure(type, AzureEventBus.DEFAULT_CAPACITY, AzureEventBus.BackpressurePolicy.COALESCE);
+        final CountDownLatch blocked = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final List<Object> received = Collections.synchronizedList(new ArrayList<>());
+        AzureEventBus.on(type, new AzureEventBus.EventListener(e -> {
+            blocked.countDown();
+            await(release);
+            received.add(e.getPayload());
+        }));
+        AzureEventBus.emit(type, "a", 0);
+        Assert.assertTrue(blocked.await(10, TimeUnit.SECONDS));
+        AzureEventBus.emit(type, "a", 1);
+        AzureEventBus.emit(type, "b", 2);
+        AzureEventBus.emit(type, "a", 3);
+        release.countDown();
+        waitFor(() -> received.size() >= 3);
+        Assert.assertEquals(Arrays.asList(0, 3, 2), received);
+        Assert.assertEquals(1, AzureEventBus.getStats().get(type).getCoalesced());
+    }
+
+    @Test
+    public void losslessByDefault() throws InterruptedException {
+        final String type = "test.lossless";
+        final int count = AzureEventBus.DEFAULT_CAPACITY * 3;
+        final CountDownLatch blocked = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final List<Object> received = Collections.synchronizedList(new ArrayList<>());
+        AzureEventBus.on(type, new AzureEventBus.EventListener(e -> {
+            blocked.countDown();
+            await(release);
+            received.add(e.getPayload());
+        }));
+        AzureEventBus.emit(type, "source", -1);
+        Assert.assertTrue(blocked.await(10, TimeUnit.SECONDS));
+        IntStream.range(0, count).forEach(i -> AzureEventBus.emit(type, "source", i));
+        release.countDown();
+        waitFor(() -> received.size() >= count + 1);
+        Assert.assertEquals(count + 1, received.size());
+        Assert.assertEquals(0, AzureEventBus.getStats().get(type).getDropped());
+    }
+
+    @Test
+    public void coalesceRefreshEvents() throws InterruptedException {
+        final String type = "module.refreshed.module";
+        final CountDownLatch blocked = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final List<Object> received = Collections.synchronizedList(new ArrayList<>());
+        final AzureEventBus.EventListener listener = new AzureEventBus.EventListener(e -> {
+            blocked.countDown();
+            await(release);
+            received.add(e.getPayload());
+        });
+        AzureEventBus.on(type, listener);
+        try {
+            AzureEventBus.emit(type, "module", 0);
+            Assert.assertTrue(blocked.await(10, TimeUnit.SECONDS));
+            IntStream.range(1, 100).forEach(i -> AzureEventBus.emit(type, "module", i));
+            release.countDown();
+            waitFor(() -> received.size() >= 2);
+            Thread.sleep(100);
+            // only the latest pending refresh of the module is dispatched
+            Assert.assertEquals(Arrays.asList(0, 99), received);
+        } finally {
+            AzureEventBus.off(type, listener);
+        }
+    }
+
+    @Test
+    public void subscribeOnce() throws InterruptedException {
+        final String type = "test.subscribe_once";
+        final List<Object> received = Collections.synchronizedList(new ArrayList<>());
+        final AzureEventBus.EventListener listener = new AzureEventBus.EventListener(e -> received.add(e.getPayload()));
+        AzureEventBus.on(type, listener);
+        AzureEventBus.on(type, listener);
+        AzureEventBus.emit(type, "source", 0);
+        AzureEventBus.emit(type, "source", 1);
+        waitFor(() -> received.size() >= 2);
+        Thread.sleep(100);
+        Assert.assertEquals(Arrays.asList(0, 1), received);
+    }
+
+    @Test
+    public void isolateListeners() throws InterruptedException {
+        final String type = "test.isolation";
+        final String other = "test.isolation.other";
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch blocked = new CountDownLatch(1);
+        final CountDownLatch received = new CountDownLatch(2);
+        AzureEventBus.on(type, new AzureEventBus.EventListener(e -> {
+            blocked.countDown();
+            await(release);
+        }));
+        AzureEventBus.on(type, new AzureEventBus.EventListener(e -> received.countDown()));
+        AzureEventBus.on(other, new AzureEventBus.EventListener(e -> received.countDown()));
+        try {
+            AzureEventBus.emit(type);
+            Assert.assertTrue(blocked.await(10, TimeUnit.SECONDS));
+            AzureEventBus.emit(other);
+            // neither the other listener of the type nor listeners of other types wait for the blocking one
+            Assert.assertTrue(received.await(10, TimeUnit.SECONDS));
+        } finally {
+            release.countDown();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+        final long deadline = System.currentTimeMillis() + 10000;
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.lib.common.logging;
+
+import org.apache.commons.lang3.StringUtils;
+import org.junit.Assert;
+import org.junit.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class LogStreamHubTest {
+    @Test
+    public void frame() {
+        final List<String> lines = LogStreamHub.frame(Flux.just("first li", "ne\r\nsecond\n", "\nthird")).collectList().block();
+        Assert.assertEquals(Arrays.asList("first line", "second", "", "third"), lines);
+    }
+
+    @Test
+    public void frameLongLine() {
+        final String chunk = StringUtils.repeat('x', LogStreamHub.MAX_LINE_LENGTH);
+        final List<String> lines = LogStreamHub.frame(Flux.just(chunk, chunk, "y\n")).collectList().block();
+        Assert.assertEquals(Arrays.asList(chunk, chunk, "y"), lines);
+    }
+
+    @Test
+    public void subscribeLines() {
+        final LogStreamHub hub = new LogStreamHub(16, 16);
+        // lines streamed by sdk have no line terminators
+        final List<String> lines = hub.subscribeLines("app", () -> Flux.just("first", "second\r", ""), 16)
+            .map(LogStreamHub.LogLine::getLine).collectList().block();
+        Assert.assertEquals(Arrays.asList("first", "second", ""), lines);
+    }
+
+    @Test
+    public void tail() {
+        final LogStreamHub hub = new LogStreamHub(16, 16);
+        final Sinks.Many<String> upstream = Sinks.many().multicast().onBackpressureBuffer();
+        final List<String> first = new ArrayList<>();
+        final Disposable subscription = hub.subscribeLines("app", upstream::asFlux, 16).subscribe(l -> first.add(l.getLine()));
+        Arrays.asList("1", "2", "3", "4").forEach(upstream::tryEmitNext);
+        final List<String> late = new ArrayList<>();
+        hub.subscribeLines("app", upstream::asFlux, 2).subscribe(l -> late.add(l.getLine()));
+        upstream.tryEmitNext("5");
+        Assert.assertEquals(Arrays.asList("1", "2", "3", "4", "5"), first);
+        Assert.assertEquals(Arrays.asList("3", "4", "5"), late);
+        subscription.dispose();
+    }
+
+    @Test
+    public void parseTimestamp() {
+        Assert.assertEquals(OffsetDateTime.of(2022, 3, 1, 8, 30, 15, 123_000_000, ZoneOffset.UTC),
+            LogStreamHub.parseTimestamp("2022-03-01T08:30:15.123 INFO started"));
+        Assert.assertEquals(OffsetDateTime.of(2022, 3, 1, 8, 30, 15, 0, ZoneOffset.ofHours(8)),
+            LogStreamHub.parseTimestamp("[2022-03-01 08:30:15+08:00] started"));
+        Assert.assertNull(LogStreamHub.parseTimestamp("started"));
+    }
+
+    @Test
+    public void subscribe() {
+        final LogStreamHub hub = new LogStreamHub(16, 16);
+        final AtomicInteger connections = new AtomicInteger();
+        final Flux<LogStreamHub.LogLine> lines = hub.subscribe("app", () -> Flux.defer(() -> {
+            connections.incrementAndGet();
+            return Flux.just("a\nb\n", "c\n");
+        }));
+        Assert.assertEquals(3, lines.count().block().intValue());
+        Assert.assertEquals(1, connections.get());
+        Assert.assertFalse(hub.getStats("app").isPresent());
+    }
+}
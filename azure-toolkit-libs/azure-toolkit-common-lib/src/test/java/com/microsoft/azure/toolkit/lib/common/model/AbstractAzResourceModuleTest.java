@@ -0,0 +1,183 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.lib.common.model;
+
+import com.azure.core.util.paging.ContinuablePage;
+import com.microsoft.azure.toolkit.lib.common.model.page.ItemPage;
+import com.microsoft.azure.toolkit.lib.common.task.TestTaskManager;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+public class AbstractAzResourceModuleTest {
+    private static final String FAILING = "failing";
+
+    @BeforeClass
+    public static void init() {
+        // initialize the module NONE ahead of the resource NONE, which are cross referenced
+        Objects.requireNonNull(AzResourceModule.NONE);
+        TestTaskManager.register();
+    }
+
+    @Test
+    public void listAllInPageOrder() throws Exception {
+        final TestModule module = new TestModule();
+        module.listing(page(remote("c"), remote("a")), page(remote("b")));
+        Assert.assertEquals(Arrays.asList("c", "a", "b"), names(module.listAll(1)));
+        Assert.assertEquals(Arrays.asList("c", "a", "b"), names(module.listAllAsync(2).collectList().block()));
+        TestTaskManager.awaitPooled();
+        // while they are cached page by page, sorted by name in each page
+        Assert.assertEquals(Arrays.asList("a", "c", "b"), names(module.listCachedResources()));
+    }
+
+    @Test
+    public void listAllCached() throws Exception {
+        final TestModule module = new TestModule();
+        module.listing(page(remote("a"), remote("b")));
+        final TestResource a = module.listAll(1).get(0);
+        TestTaskManager.awaitPooled();
+        Assert.assertEquals("1", Objects.requireNonNull(a.getRemote()).version);
+
+        final Remote updated = new Remote("a", "2");
+        module.listing(page(updated, remote("b")));
+        // the cached instance is kept and refreshed rather than a new one
+        Assert.assertSame(a, module.listAllAsync(1).blockFirst());
+        TestTaskManager.awaitPooled();
+        Assert.assertSame(updated, a.getRemote());
+    }
+
+    @Test
+    public void listAllDeleted() throws Exception {
+        final TestModule module = new TestModule();
+        module.listing(page(remote("a")), page(remote("b")));
+        final TestResource b = module.listAll(1).get(1);
+        TestTaskManager.awaitPooled();
+
+        module.listing(page(remote("a")), page());
+        Assert.assertEquals(Collections.singletonList("a"), names(module.listAll(1)));
+        Assert.assertEquals(Collections.singletonList("a"), names(module.listCachedResources()));
+        Assert.assertEquals(AzResource.Status.DELETED, b.getStatus());
+        // a complete listing marks the module as synced
+        final int loads = module.loads.get();
+        Assert.assertEquals(Collections.singletonList("a"), names(module.list()));
+        Assert.assertEquals(loads, module.loads.get());
+    }
+
+    @Test
+    public void reloadWithFailingResource() throws Exception {
+        final TestModule module = new TestModule();
+        module.listing(page(new Remote("a", FAILING), remote("b"), remote("c")));
+        final List<TestResource> resources = module.list();
+        TestTaskManager.awaitPooled();
+        // failing to set remote of "a" doesn't stop setting the rest of the page
+        Assert.assertEquals(Arrays.asList("a", "b", "c"), names(resources));
+        Assert.assertEquals(AzResource.Status.RUNNING, resources.get(1).getStatus());
+        Assert.assertEquals(AzResource.Status.RUNNING, resources.get(2).getStatus());
+    }
+
+    private static List<String> names(List<TestResource> resources) {
+        return Objects.requireNonNull(resources).stream().map(AbstractAzResource::getName).collect(Collectors.toList());
+    }
+
+    private static Remote remote(String name) {
+        return new Remote(name, "1");
+    }
+
+    private static ContinuablePage<String, Remote> page(Remote... remotes) {
+        return new ItemPage<>(Arrays.asList(remotes));
+    }
+
+    private static class Remote {
+        private final String name;
+        private final String version;
+
+        Remote(String name, String version) {
+            this.name = name;
+            this.version = version;
+        }
+    }
+
+    private static class TestModule extends AbstractAzResourceModule<TestResource, AzResource.None, Remote> {
+        private final AtomicInteger loads = new AtomicInteger();
+        private volatile List<ContinuablePage<String, Remote>> pages = Collections.emptyList();
+
+        TestModule() {
+            super("tests", AzResource.NONE);
+        }
+
+        @SafeVarargs
+        final void listing(ContinuablePage<String, Remote>... pages) {
+            this.pages = Arrays.asList(pages);
+        }
+
+        @Override
+        protected Iterator<? extends ContinuablePage<String, Remote>> loadResourcePagesFromAzure() {
+            this.loads.incrementAndGet();
+            return this.pages.iterator();
+        }
+
+        @Nonnull
+        @Override
+        public String toResourceId(@Nonnull String resourceName, @Nullable String resourceGroup) {
+            return String.format("/subscriptions/sub/resourceGroups/rg/providers/Test.Provider/tests/%s", resourceName);
+        }
+
+        @Nonnull
+        @Override
+        protected TestResource newResource(@Nonnull Remote remote) {
+            return new TestResource(remote.name, this);
+        }
+
+        @Nonnull
+        @Override
+        protected TestResource newResource(@Nonnull String name, @Nullable String resourceGroupName) {
+            return new TestResource(name, this);
+        }
+
+        @Nullable
+        @Override
+        protected String getRemoteVersion(@Nonnull Remote remote) {
+            return remote.version;
+        }
+
+        @Nonnull
+        @Override
+        public String getResourceTypeName() {
+            return "Test";
+        }
+    }
+
+    private static class TestResource extends AbstractAzResource<TestResource, AzResource.None, Remote> {
+        TestResource(@Nonnull String name, @Nonnull TestModule module) {
+            super(name, "rg", module);
+        }
+
+        @Nonnull
+        @Override
+        public List<AbstractAzResourceModule<?, ?, ?>> getSubModules() {
+            return Collections.emptyList();
+        }
+
+        @Nonnull
+        @Override
+        public String loadStatus(@Nonnull Remote remote) {
+            if (FAILING.equals(remote.version)) {
+                throw new IllegalStateException("failed to load status");
+            }
+            return AzResource.Status.RUNNING;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.lib.common.model;
+
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Objects;
+import java.util.Optional;
+
+public class ResourceIndexTest {
+    private final ResourceIndex<AzResource> index = new ResourceIndex<>();
+
+    @BeforeClass
+    public static void init() {
+        // initialize the module NONE ahead of the resource NONE, which are cross referenced
+        Objects.requireNonNull(AzResourceModule.NONE);
+    }
+
+    @Test
+    public void putIfAbsent() {
+        final AzResource a = resource("a", "rg1");
+        final AzResource b = resource("b", "rg2");
+        Assert.assertTrue(index.putIfAbsent("id-a", Optional.empty()));
+        Assert.assertTrue(index.putIfAbsent("id-b", Optional.of(b)));
+        Assert.assertFalse(index.putIfAbsent("id-b", Optional.of(a)));
+        // a nonexistent resource can be replaced and keeps its position
+        Assert.assertTrue(index.putIfAbsent("id-a", Optional.of(a)));
+        Assert.assertTrue(index.containsKey("id-a"));
+        Assert.assertSame(a, index.get("id-a").orElse(null));
+        Assert.assertEquals(Arrays.asList(a, b), index.list());
+        Assert.assertEquals(Collections.singletonList(b), index.listByResourceGroup("RG2"));
+        Assert.assertEquals(Collections.singletonList(a), index.listByName("A"));
+    }
+
+    @Test
+    public void remove() {
+        final AzResource a = resource("a", "rg1");
+        index.putIfAbsent("id-a", Optional.of(a));
+        index.putIfAbsent("id-b", Optional.empty());
+        Assert.assertFalse(index.remove("id-unknown").isPresent());
+        Assert.assertFalse(index.remove("id-b").isPresent());
+        Assert.assertFalse(index.containsKey("id-b"));
+        Assert.assertSame(a, index.remove("id-a").orElse(null));
+        Assert.assertTrue(index.list().isEmpty());
+        Assert.assertTrue(index.listByResourceGroup("rg1").isEmpty());
+        Assert.assertTrue(index.listByName("a").isEmpty());
+    }
+
+    @Test
+    public void removeNonexistent() {
+        final AzResource a = resource("a", "rg1");
+        index.putIfAbsent("id-a", Optional.of(a));
+        index.putIfAbsent("id-b", Optional.empty());
+        index.removeNonexistent();
+        Assert.assertTrue(index.containsKey("id-a"));
+        Assert.assertFalse(index.containsKey("id-b"));
+        Assert.assertEquals(Collections.singletonList(a), index.list());
+        index.clear();
+        Assert.assertFalse(index.containsKey("id-a"));
+        Assert.assertTrue(index.listByName("a").isEmpty());
+    }
+
+    private static AzResource resource(String name, String resourceGroup) {
+        return (AzResource) Proxy.newProxyInstance(AzResource.class.getClassLoader(), new Class[]{AzResource.class}, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "getName":
+                    return name;
+                case "getResourceGroupName":
+                    return resourceGroup;
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "equals":
+                    return proxy == args[0];
+                case "toString":
+                    return name;
+                default:
+                    throw new UnsupportedOperationException(method.getName());
+            }
+        });
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.lib.common.task;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * task manager shared by tests (the instance can only be registered once in a JVM), which runs pooled and background
+ * tasks one by one on a single thread and everything else in place.
+ */
+public class TestTaskManager extends AzureTaskManager {
+    /**
+     * released after each pooled task.
+     */
+    public static final Semaphore POOLED = new Semaphore(0);
+    private static final ExecutorService POOL = Executors.newSingleThreadExecutor(r -> {
+        final Thread thread = new Thread(r, "test-pooled");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    static {
+        // start the pooled thread ahead, so that it inherits nothing (e.g. around closures) from the threads calling advised methods
+        POOL.submit(() -> {
+        });
+    }
+
+    public static void register() {
+        AzureTaskManager.register(new TestTaskManager());
+    }
+
+    /**
+     * wait for the pooled tasks submitted so far to finish.
+     */
+    public static void awaitPooled() throws Exception {
+        POOL.submit(() -> {
+        }).get(10, TimeUnit.SECONDS);
+    }
+
+    @Override
+    protected void doRead(Runnable runnable, AzureTask<?> task) {
+        runnable.run();
+    }
+
+    @Override
+    protected void doWrite(Runnable runnable, AzureTask<?> task) {
+        runnable.run();
+    }
+
+    @Override
+    protected void doRunLater(Runnable runnable, AzureTask<?> task) {
+        runnable.run();
+    }
+
+    @Override
+    protected void doRunOnPooledThread(Runnable runnable, AzureTask<?> task) {
+        POOL.execute(() -> {
+            try {
+                runnable.run();
+            } finally {
+                POOLED.release();
+            }
+        });
+    }
+
+    @Override
+    protected void doRunAndWait(Runnable runnable, AzureTask<?> task) {
+        runnable.run();
+    }
+
+    @Override
+    protected void doRunInBackground(Runnable runnable, AzureTask<?> task) {
+        this.doRunOnPooledThread(runnable, task);
+    }
+
+    @Override
+    protected void doRunInModal(Runnable runnable, AzureTask<?> task) {
+        runnable.run();
+    }
+}
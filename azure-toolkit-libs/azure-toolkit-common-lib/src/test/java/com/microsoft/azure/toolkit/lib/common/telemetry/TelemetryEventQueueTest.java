@@ -0,0 +1,52 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.lib.common.telemetry;
+
+import com.microsoft.applicationinsights.TelemetryClient;
+import com.microsoft.applicationinsights.TelemetryConfiguration;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class TelemetryEventQueueTest {
+    @Test
+    public void dropOldest() throws InterruptedException {
+        final TelemetryClient client = new TelemetryClient(TelemetryConfiguration.createDefault());
+        final TelemetryEventQueue queue = new TelemetryEventQueue(2, 64);
+        final List<Integer> sent = Collections.synchronizedList(new ArrayList<>());
+        final CountDownLatch blocked = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        queue.offer(client, () -> {
+            blocked.countDown();
+            await(release);
+            sent.add(0);
+        });
+        Assert.assertTrue(blocked.await(10, TimeUnit.SECONDS));
+        for (int i = 1; i <= 3; i++) {
+            final int event = i;
+            queue.offer(client, () -> sent.add(event));
+        }
+        release.countDown();
+        Assert.assertTrue(queue.flush(10, TimeUnit.SECONDS));
+        // the queue is full when offering the 3rd event while the worker is blocked, the oldest queued one is dropped
+        Assert.assertEquals(Arrays.asList(0, 2, 3), sent);
+        Assert.assertEquals(1, queue.getDropped());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
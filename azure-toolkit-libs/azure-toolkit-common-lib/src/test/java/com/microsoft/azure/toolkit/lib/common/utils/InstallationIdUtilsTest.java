@@ -0,0 +1,51 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.lib.common.utils;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+
+public class InstallationIdUtilsTest {
+    private static final String KEY = "installationId";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void getCachedHashMac() throws Exception {
+        final String cached = InstallationIdUtils.hash("00:11:22:33:44:55");
+        final Path file = folder.newFile("cached.properties").toPath();
+        final Properties properties = new Properties();
+        properties.setProperty(KEY, cached);
+        properties.setProperty("first.run", "false");
+        try (OutputStream output = Files.newOutputStream(file)) {
+            properties.store(output, null);
+        }
+        Assert.assertEquals(cached, InstallationIdUtils.getHashMac(file, KEY));
+    }
+
+    @Test
+    public void saveHashMac() throws Exception {
+        final Path file = folder.getRoot().toPath().resolve("new").resolve("config.properties");
+        final String hashMac = InstallationIdUtils.getHashMac(file, KEY);
+        Assert.assertEquals(InstallationIdUtils.getHashMac(), hashMac);
+        if (InstallationIdUtils.isValidHashMac(hashMac)) {
+            final Properties properties = new Properties();
+            try (InputStream input = Files.newInputStream(file)) {
+                properties.load(input);
+            }
+            Assert.assertEquals(hashMac, properties.getProperty(KEY));
+        }
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.lib.common.utils;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class JsonUtilsTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void deepCopyWithJson() {
+        final Map<String, Object> source = new HashMap<>();
+        source.put("name", "test");
+        source.put("values", Arrays.asList(1, 2, 3));
+        final Map<String, Object> copy = JsonUtils.deepCopyWithJson(source);
+        Assert.assertNotSame(source, copy);
+        Assert.assertEquals(source, copy);
+        Assert.assertNotSame(source.get("values"), copy.get("values"));
+    }
+
+    @Test
+    public void fromJsonWithBom() throws IOException {
+        final byte[] bom = {(byte) 0xEF, (byte) 0xBB, (byte) 0xBF};
+        final byte[] json = "{\"version\": \"2.0\"}".getBytes(StandardCharsets.UTF_8);
+        final byte[] content = new byte[bom.length + json.length];
+        System.arraycopy(bom, 0, content, 0, bom.length);
+        System.arraycopy(json, 0, content, bom.length, json.length);
+        final Map<String, Object> result = JsonUtils.fromJson(new ByteArrayInputStream(content), new TypeReference<HashMap<String, Object>>() {
+        });
+        Assert.assertEquals("2.0", result.get("version"));
+    }
+
+    @Test
+    public void readAndWriteJsonFile() throws IOException {
+        final Path file = folder.getRoot().toPath().resolve("test.json");
+        JsonUtils.writeToJsonFile(file, Arrays.asList("a", "b"));
+        Assert.assertEquals(Arrays.asList("a", "b"), JsonUtils.readFromJsonFile(file, List.class));
+        Assert.assertNull(JsonUtils.readFromJsonFile(folder.getRoot().toPath().resolve("missing.json"), List.class));
+        Assert.assertSame(JsonUtils.getReader(List.class), JsonUtils.getReader(List.class));
+    }
+}
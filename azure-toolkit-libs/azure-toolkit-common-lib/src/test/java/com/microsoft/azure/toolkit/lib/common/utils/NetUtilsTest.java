@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.lib.common.utils;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+
+public class NetUtilsTest {
+    private HttpServer server;
+    private String base;
+
+    @Before
+    public void setUp() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/slow", exchange -> {
+            sleep(5000);
+            respond(exchange, "1.1.1.1");
+        });
+        server.createContext("/fast", exchange -> {
+            sleep(100);
+            respond(exchange, "\n 2.2.2.2 \n");
+        });
+        server.createContext("/invalid", exchange -> respond(exchange, "<html>not an ip</html>"));
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+        base = "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    @After
+    public void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    public void getPublicIp() {
+        final long start = System.currentTimeMillis();
+        final String ip = NetUtils.getPublicIp(new String[]{base + "/slow", base + "/invalid", base + "/fast"}, Duration.ofSeconds(2));
+        Assert.assertEquals("2.2.2.2", ip);
+        Assert.assertTrue(System.currentTimeMillis() - start < 2000);
+    }
+
+    @Test
+    public void getPublicIpTimeout() {
+        final long start = System.currentTimeMillis();
+        final String ip = NetUtils.getPublicIp(new String[]{base + "/slow", base + "/invalid"}, Duration.ofMillis(500));
+        Assert.assertEquals("", ip);
+        Assert.assertTrue(System.currentTimeMillis() - start < 3000);
+    }
+
+    private static void respond(HttpExchange exchange, String body) throws IOException {
+        final byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream output = exchange.getResponseBody()) {
+            output.write(bytes);
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.lib.common.utils;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class PollerTest {
+    private final Poller poller = Poller.builder()
+        .initialDelay(Duration.ofMillis(10))
+        .maxDelay(Duration.ofMillis(40))
+        .timeout(Duration.ofSeconds(2))
+        .build();
+
+    @Test
+    public void poll() {
+        final AtomicInteger count = new AtomicInteger();
+        final long start = System.currentTimeMillis();
+        final Integer result = poller.poll(count::incrementAndGet, value -> value >= 5);
+        Assert.assertEquals(Integer.valueOf(5), result);
+        Assert.assertTrue(System.currentTimeMillis() - start < 1000);
+    }
+
+    @Test
+    public void pollWithErrors() {
+        final AtomicInteger count = new AtomicInteger();
+        final String result = poller.poll(() -> {
+            if (count.incrementAndGet() < 3) {
+                throw new IllegalStateException("not ready");
+            }
+            return "ready";
+        }, "ready"::equals);
+        Assert.assertEquals("ready", result);
+        Assert.assertEquals(3, count.get());
+    }
+
+    @Test
+    public void pollUntilTimeout() {
+        final Poller poller = Poller.builder().initialDelay(Duration.ofMillis(10)).maxDelay(Duration.ofMillis(20))
+            .timeout(Duration.ofSeconds(1)).build();
+        final AtomicInteger count = new AtomicInteger();
+        Assert.assertEquals(Boolean.FALSE, poller.poll(() -> count.incrementAndGet() < 0, Boolean::booleanValue));
+        Assert.assertTrue(count.get() > 1);
+        try {
+            poller.poll(() -> {
+                throw new IllegalStateException("never ready");
+            }, ignore -> true);
+            Assert.fail("last error should be thrown");
+        } catch (final IllegalStateException e) {
+            Assert.assertEquals("never ready", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.lib.common.utils;
+
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeoutException;
+
+public class ProcessEngineTest {
+    @Before
+    public void setUp() {
+        Assume.assumeFalse(CommandUtils.isWindows());
+    }
+
+    @Test
+    public void executeWithLargeOutput() throws IOException {
+        // 100k lines on both stdout and stderr would block on full pipes if they are not drained concurrently
+        final ProcessEngine.Result result = sh("for i in $(seq 1 100000); do echo out$i; echo err$i >&2; done", null).execute();
+        Assert.assertEquals(0, result.getExitCode());
+        Assert.assertTrue(result.getStdout().endsWith("out100000"));
+        Assert.assertTrue(result.getStderr().endsWith("err100000"));
+    }
+
+    @Test
+    public void lines() {
+        final List<String> lines = sh("echo a; echo b", null).lines().map(ProcessEngine.Line::getText).collectList().block();
+        Assert.assertEquals("a,b", String.join(",", lines));
+        try {
+            sh("echo failed >&2; exit 3", null).lines().blockLast();
+            Assert.fail("non-zero exit code should fail");
+        } catch (final RuntimeException e) {
+            final ProcessEngine.ProcessException cause = (ProcessEngine.ProcessException) e.getCause();
+            Assert.assertEquals(3, cause.getExitCode());
+            Assert.assertTrue(cause.getMessage().contains("failed"));
+        }
+    }
+
+    @Test
+    public void timeout() {
+        final long start = System.currentTimeMillis();
+        try {
+            sh("sleep 30", Duration.ofMillis(500)).execute();
+            Assert.fail("should timeout");
+        } catch (final IOException e) {
+            Assert.assertTrue(System.currentTimeMillis() - start < 10000);
+        }
+    }
+
+    @Test
+    public void timeoutAfterOutput() {
+        // the deadline applies to the whole run rather than the first line
+        final long start = System.currentTimeMillis();
+        final List<String> lines = new ArrayList<>();
+        try {
+            sh("echo started; sleep 30", Duration.ofMillis(1000)).lines().map(ProcessEngine.Line::getText).doOnNext(lines::add).blockLast();
+            Assert.fail("should timeout");
+        } catch (final RuntimeException e) {
+            Assert.assertTrue(e.getCause() instanceof TimeoutException);
+            Assert.assertEquals(Collections.singletonList("started"), lines);
+            Assert.assertTrue(System.currentTimeMillis() - start < 10000);
+        }
+    }
+
+    @Test
+    public void resolveCommandPath() {
+        final List<String> paths = CommandUtils.resolveCommandPath("sh");
+        Assert.assertFalse(paths.isEmpty());
+        Assert.assertEquals(paths, CommandUtils.resolveCommandPath("sh"));
+    }
+
+    private static ProcessEngine sh(String command, Duration timeout) {
+        return ProcessEngine.builder().command("/bin/sh").command("-c").command(command).timeout(timeout).build();
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.lib.common.utils.aspect;
+
+import org.aspectj.lang.JoinPoint;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.function.Function;
+
+public class ExpressionUtilsTest {
+    private static final String RESOURCE_ID = "/subscriptions/sid/resourceGroups/rg/providers/Microsoft.Web/sites/app";
+
+    public String getName() {
+        return "resource";
+    }
+
+    public String getParentName() {
+        return null;
+    }
+
+    public void operate(String name, String id, Object[] values, boolean loading) {
+    }
+
+    @Test
+    public void renderPlainTemplate() throws Exception {
+        final MethodInvocation invocation = invocation("my-app", RESOURCE_ID, new Object[]{1, 2}, true);
+        Assert.assertEquals("my-app", ExpressionUtils.render("$name", invocation));
+        Assert.assertEquals("my-app/resource", ExpressionUtils.render("${name}/${this.getName()}", invocation));
+        Assert.assertEquals("app", ExpressionUtils.interpret("nameFromResourceId(id)", invocation));
+        Assert.assertEquals("[1, 2]", ExpressionUtils.interpret("values", invocation));
+        Assert.assertEquals("null", ExpressionUtils.interpret("this.getParentName()", invocation));
+        Assert.assertTrue(ExpressionUtils.evaluate("loading", invocation, false));
+    }
+
+    @Test
+    public void renderGroovyTemplate() throws Exception {
+        final MethodInvocation invocation = invocation("my-app", RESOURCE_ID, new Object[]{1, 2}, false);
+        Assert.assertEquals("MY-APP", ExpressionUtils.interpret("name.toUpperCase()", invocation));
+        Assert.assertEquals("resource", ExpressionUtils.interpret("this.name", invocation));
+        Assert.assertEquals("2", ExpressionUtils.interpret("values.length", invocation));
+        Assert.assertFalse(ExpressionUtils.evaluate("loading || name == 'other'", invocation, true));
+    }
+
+    @Test
+    public void renderInvalidTemplate() throws Exception {
+        final MethodInvocation invocation = invocation(null, null, null, false);
+        Assert.assertEquals("${unknown}", ExpressionUtils.render("${unknown}", invocation));
+        Assert.assertEquals("${this.getParentName().length()}", ExpressionUtils.render("${this.getParentName().length()}", invocation));
+        Assert.assertEquals("${name", ExpressionUtils.render("${name", invocation));
+    }
+
+    private MethodInvocation invocation(Object... args) throws NoSuchMethodException {
+        final Method method = ExpressionUtilsTest.class.getMethod("operate", String.class, String.class, Object[].class, boolean.class);
+        final MethodSignature signature = proxy(MethodSignature.class, (m) -> {
+            switch (m.getName()) {
+                case "getMethod":
+                    return method;
+                case "getParameterNames":
+                    return new String[]{"name", "id", "values", "loading"};
+                default:
+                    return null;
+            }
+        });
+        final JoinPoint point = proxy(JoinPoint.class, (m) -> {
+            switch (m.getName()) {
+                case "getSignature":
+                    return signature;
+                case "getThis":
+                    return this;
+                case "getArgs":
+                    return args;
+                default:
+                    return null;
+            }
+        });
+        return MethodInvocation.from(point);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> clazz, Function<Method, Object> handler) {
+        return (T) Proxy.newProxyInstance(clazz.getClassLoader(), new Class[]{clazz}, (p, m, a) -> handler.apply(m));
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.lib.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.TypeElement;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * indexes methods annotated with {@code @Preload} into {@link #MANIFEST} at compile time, so that {@code Preloader}
+ * doesn't need to scan the classpath at runtime. each line of the manifest is {@code <binary class name>#<method name>}.
+ * the manifest is written (even if empty) for every compilation, to mark the output as indexed. so the processor is
+ * registered for all annotations, without claiming any.
+ */
+@SupportedAnnotationTypes("*")
+public class PreloadProcessor extends AbstractProcessor {
+    public static final String PRELOAD = "com.microsoft.azure.toolkit.lib.common.cache.Preload";
+    public static final String MANIFEST = "META-INF/azure-toolkit/preload-methods";
+    public static final String SEPARATOR = "#";
+
+    private final Set<String> methods = new TreeSet<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment env) {
+        if (env.processingOver()) {
+            this.writeManifest();
+            return false;
+        }
+        final TypeElement preload = this.processingEnv.getElementUtils().getTypeElement(PRELOAD);
+        if (preload != null && annotations.contains(preload)) {
+            for (final Element element : env.getElementsAnnotatedWith(preload)) {
+                if (element.getKind() != ElementKind.METHOD) {
+                    continue;
+                }
+                final ExecutableElement method = (ExecutableElement) element;
+                if (!method.getParameters().isEmpty() && !method.isVarArgs()) {
+                    this.processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING, "@Preload annotated method should have no args or only varargs", method);
+                    continue;
+                }
+                final TypeElement type = (TypeElement) method.getEnclosingElement();
+                this.methods.add(this.processingEnv.getElementUtils().getBinaryName(type) + SEPARATOR + method.getSimpleName());
+            }
+        }
+        return false;
+    }
+
+    private void writeManifest() {
+        // merge with the existing manifest in case of incremental compilation, in which only changed sources are processed.
+        // entries of removed methods may be left until a full rebuild, they are skipped at runtime.
+        try {
+            final FileObject existing = this.processingEnv.getFiler().getResource(StandardLocation.CLASS_OUTPUT, "", MANIFEST);
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(existing.openInputStream(), StandardCharsets.UTF_8))) {
+                reader.lines().map(String::trim).filter(l -> !l.isEmpty()).forEach(this.methods::add);
+            }
+        } catch (final IOException | IllegalArgumentException ignored) {
+            // no existing manifest
+        }
+        try {
+            final FileObject manifest = this.processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", MANIFEST);
+            try (Writer writer = new OutputStreamWriter(manifest.openOutputStream(), StandardCharsets.UTF_8)) {
+                for (final String method : this.methods) {
+                    writer.write(method);
+                    writer.write('\n');
+                }
+            }
+        } catch (final IOException e) {
+            this.processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "failed to write " + MANIFEST + ": " + e.getMessage());
+        }
+    }
+}
@@ -15,10 +15,12 @@ import com.azure.resourcemanager.appplatform.models.SpringAppDeployment;
 import com.azure.resourcemanager.resources.fluentcore.arm.models.HasManager;
 import com.google.common.base.Charsets;
 import com.microsoft.azure.toolkit.lib.common.exception.AzureToolkitRuntimeException;
+import com.microsoft.azure.toolkit.lib.common.logging.LogStreamHub;
 import com.microsoft.azure.toolkit.lib.common.messager.AzureMessager;
 import com.microsoft.azure.toolkit.lib.common.model.AbstractAzResource;
 import com.microsoft.azure.toolkit.lib.common.model.AbstractAzResourceModule;
 import com.microsoft.azure.toolkit.lib.common.operation.AzureOperation;
+import com.microsoft.azure.toolkit.lib.common.utils.Poller;
 import io.netty.handler.codec.http.HttpHeaders;
 import lombok.SneakyThrows;
 import org.apache.commons.lang3.StringUtils;
@@ -29,6 +31,7 @@ import reactor.netty.http.client.HttpClient;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import java.net.URI;
 import java.time.Duration;
 import java.time.temporal.ChronoUnit;
 import java.util.Base64;
@@ -42,6 +45,8 @@ import java.util.function.Consumer;
 
 @SuppressWarnings("unused")
 public class SpringCloudDeployment extends AbstractAzResource<SpringCloudDeployment, SpringCloudApp, SpringAppDeployment> {
+    // log streaming connections are long-lived, share the connection pool rather than creating a client per stream
+    private static final HttpClient LOG_STREAMING_CLIENT = HttpClient.create().keepAlive(true).responseTimeout(Duration.of(10, ChronoUnit.MINUTES));
     @Nonnull
     private final SpringCloudAppInstanceModule instanceModule;
     private boolean remoteDebuggingEnabled;
@@ -109,15 +114,26 @@ public class SpringCloudDeployment extends AbstractAzResource<SpringCloudDeploym
     }
 
     @Nonnull
-    @SneakyThrows
     public Flux<String> streamLogs(final String instance) {
         return streamLogs(instance, 0, 10, 0, true);
     }
 
+    /**
+     * @return lines of the logs of the {@code instance}, each terminated by "\n", refer {@link #streamLogLines} for
+     * lines without terminators
+     */
     @Nonnull
-    @SneakyThrows
     public Flux<String> streamLogs(final String instance, int sinceSeconds, int tailLines, int limitBytes, boolean follow) {
-        final HttpClient client = HttpClient.create().keepAlive(true);
+        return this.streamLogLines(instance, sinceSeconds, tailLines, limitBytes, follow).map(line -> line.getLine() + "\n");
+    }
+
+    /**
+     * stream logs of the {@code instance} framed into lines, which is shared with other subscribers of the same
+     * instance and parameters, refer {@link LogStreamHub}
+     */
+    @Nonnull
+    @SneakyThrows
+    public Flux<LogStreamHub.LogLine> streamLogLines(final String instance, int sinceSeconds, int tailLines, int limitBytes, boolean follow) {
         final URIBuilder endpoint = new URIBuilder(this.getParent().getLogStreamingEndpoint(instance));
         endpoint.addParameter("follow", String.valueOf(follow));
         if (sinceSeconds > 0) {
@@ -129,24 +145,29 @@ public class SpringCloudDeployment extends AbstractAzResource<SpringCloudDeploym
         if (limitBytes > 0) {
             endpoint.addParameter("limitBytes", String.valueOf(limitBytes));
         }
-        final String password = this.getParent().getParent().getTestKey();
-        final String userPass = "primary:" + password;
-        final String basicAuth = "Basic " + new String(Base64.getEncoder().encode(userPass.getBytes()));
-        final Consumer<? super HttpHeaders> headerBuilder = header -> header.set("Authorization", basicAuth);
-        return client.headers(headerBuilder)
-            .responseTimeout(Duration.of(10, ChronoUnit.MINUTES))
-            .get()
-            .uri(endpoint.build())
-            .response((resp, cont) -> resp.status().code() == 200 ? cont.asString(Charsets.UTF_8) : Mono.empty());
+        final URI uri = endpoint.build();
+        final int tail = tailLines > 0 ? tailLines : LogStreamHub.DEFAULT_REPLAY_SIZE;
+        return LogStreamHub.getInstance().subscribe(uri.toString(), () -> {
+            final String password = this.getParent().getParent().getTestKey();
+            final String userPass = "primary:" + password;
+            final String basicAuth = "Basic " + new String(Base64.getEncoder().encode(userPass.getBytes()));
+            final Consumer<? super HttpHeaders> headerBuilder = header -> header.set("Authorization", basicAuth);
+            return LOG_STREAMING_CLIENT.headers(headerBuilder)
+                .get()
+                .uri(uri)
+                .response((resp, cont) -> resp.status().code() == 200 ? cont.asString(Charsets.UTF_8) : Mono.empty());
+        }, tail);
     }
 
     @AzureOperation(name = "internal/springcloud.wait_until_deployment_ready.deployment|app", params = {"this.getName()", "this.getParent().getName()"})
     public boolean waitUntilReady(int timeoutInSeconds) {
         AzureMessager.getMessager().info("Getting deployment status...");
-        final SpringCloudDeployment deployment = Utils.pollUntil(() -> {
-            this.invalidateCache();
-            return this;
-        }, Utils::isDeploymentDone, timeoutInSeconds);
+        final SpringCloudDeployment deployment = Poller.builder().name("deployment-ready")
+            .maxDelay(Duration.ofSeconds(5)).timeout(Duration.ofSeconds(timeoutInSeconds)).build()
+            .poll(() -> {
+                this.invalidateCache();
+                return this;
+            }, Utils::isDeploymentDone);
         return Utils.isDeploymentDone(deployment);
     }
 
@@ -5,16 +5,15 @@
 
 package com.microsoft.azure.toolkit.lib.springcloud;
 
+import com.microsoft.azure.toolkit.lib.common.utils.Poller;
 import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.lang3.StringUtils;
-import rx.Observable;
-import rx.schedulers.Schedulers;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import java.time.Duration;
 import java.util.List;
 import java.util.concurrent.Callable;
-import java.util.concurrent.TimeUnit;
 import java.util.function.Predicate;
 
 public class Utils {
@@ -38,8 +37,8 @@ public class Utils {
     }
 
     /**
-     * Get resource repeatedly until it match the predicate or timeout, will return null when meet exception
-     * with default pollingInterval = 1s
+     * Get resource repeatedly until it match the predicate or timeout, with polling interval backing off to 5s,
+     * refer {@link Poller}
      *
      * @param callable         callable to get resource
      * @param predicate        function that evaluate the resource
@@ -51,21 +50,20 @@ public class Utils {
     }
 
     /**
-     * Get resource repeatedly until it match the predicate or timeout, will return null when meet exception
+     * Get resource repeatedly until it match the predicate or timeout, failed polls are retried, refer {@link Poller}
      *
      * @param callable         callable to get resource
      * @param predicate        function that evaluate the resource
      * @param timeOutInSeconds max time for the method
-     * @param pollingInterval  polling interval
+     * @param pollingInterval  max polling interval in seconds
      * @return the first resource which fit the predicate or the last result before timeout
      */
     public static <T> T pollUntil(Callable<T> callable, @Nonnull Predicate<T> predicate, int timeOutInSeconds, int pollingInterval) {
-        final long timeout = System.currentTimeMillis() + timeOutInSeconds * 1000L;
-        return Observable.interval(pollingInterval, TimeUnit.SECONDS)
-            .timeout(timeOutInSeconds, TimeUnit.SECONDS)
-            .flatMap(aLong -> Observable.fromCallable(callable))
-            .subscribeOn(Schedulers.io())
-            .takeUntil(resource -> predicate.test(resource) || System.currentTimeMillis() > timeout)
-            .toBlocking().last();
+        return Poller.builder()
+            .initialDelay(Duration.ofMillis(Math.min(500, pollingInterval * 1000L)))
+            .maxDelay(Duration.ofSeconds(pollingInterval))
+            .timeout(Duration.ofSeconds(timeOutInSeconds))
+            .build()
+            .poll(callable, predicate);
     }
 }
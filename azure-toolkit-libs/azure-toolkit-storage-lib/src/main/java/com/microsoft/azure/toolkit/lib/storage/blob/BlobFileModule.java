@@ -9,6 +9,7 @@ import com.azure.core.http.rest.PagedIterable;
 import com.azure.core.util.paging.ContinuablePage;
 import com.azure.storage.blob.BlobContainerClient;
 import com.azure.storage.blob.models.BlobItem;
+import com.azure.storage.blob.models.BlobItemProperties;
 import com.azure.storage.blob.specialized.BlobClientBase;
 import com.microsoft.azure.toolkit.lib.common.model.AbstractAzResourceModule;
 import com.microsoft.azure.toolkit.lib.common.model.AzResource;
@@ -108,6 +109,12 @@ public class BlobFileModule extends AbstractAzResourceModule<BlobFile, IBlobFile
         return new BlobFile(name, this);
     }
 
+    @Nullable
+    @Override
+    protected String getRemoteVersion(@Nonnull BlobItem remote) {
+        return Optional.ofNullable(remote.getProperties()).map(BlobItemProperties::getETag).orElse(null);
+    }
+
     @Nonnull
     protected BlobFile newResource(@Nonnull String name, @Nullable String resourceGroupName) {
         return new BlobFile(name, this);
@@ -75,6 +75,14 @@ public class DeployMojo extends AbstractWebAppMojo {
     @Parameter(property = "webapp.deploymentStatusMaxRefreshTimes")
     protected Long deploymentStatusMaxRefreshTimes;
 
+    /**
+     * Boolean flag to skip uploading artifacts which are unchanged since last deployment.
+     * @since 2.10.0
+     */
+    @Getter
+    @Parameter(property = "webapp.skipUnchangedArtifacts", defaultValue = "false")
+    protected Boolean skipUnchangedArtifacts;
+
     @Override
     @AzureOperation(name = "user/webapp.deploy_app")
     protected void doExecute() throws AzureExecutionException {
@@ -138,6 +146,7 @@ public class DeployMojo extends AbstractWebAppMojo {
         final DeployWebAppTask deployWebAppTask = new DeployWebAppTask(target, artifacts, this.getRestartSite(), this.getWaitDeploymentComplete());
         Optional.ofNullable(this.getDeploymentStatusRefreshInterval()).ifPresent(deployWebAppTask::setDeploymentStatusRefreshInterval);
         Optional.ofNullable(this.getDeploymentStatusMaxRefreshTimes()).ifPresent(deployWebAppTask::setDeploymentStatusMaxRefreshTimes);
+        Optional.ofNullable(this.getSkipUnchangedArtifacts()).ifPresent(deployWebAppTask::setSkipUnchanged);
         deployWebAppTask.doExecute();
     }
 
@@ -6,25 +6,29 @@
 package com.microsoft.azure.maven.webapp.task;
 
 import com.microsoft.azure.maven.model.DeploymentResource;
-import com.microsoft.azure.maven.webapp.utils.FTPUtils;
 import com.microsoft.azure.maven.webapp.utils.Utils;
 import com.microsoft.azure.toolkit.lib.appservice.AppServiceAppBase;
 import com.microsoft.azure.toolkit.lib.appservice.model.PublishingProfile;
 import com.microsoft.azure.toolkit.lib.appservice.webapp.WebAppBase;
 import com.microsoft.azure.toolkit.lib.common.bundle.AzureString;
+import com.microsoft.azure.toolkit.lib.common.exception.AzureExecutionException;
 import com.microsoft.azure.toolkit.lib.common.exception.AzureToolkitRuntimeException;
 import com.microsoft.azure.toolkit.lib.common.messager.AzureMessager;
 import com.microsoft.azure.toolkit.lib.common.task.AzureTask;
-import org.apache.commons.net.ftp.FTPClient;
+import com.microsoft.azure.toolkit.lib.legacy.appservice.handlers.artifact.FTPUploader;
+import org.apache.commons.io.FilenameUtils;
+import org.apache.commons.lang3.StringUtils;
 
 import java.io.File;
-import java.io.IOException;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 @Deprecated
 public class DeployExternalResourcesTask extends AzureTask<WebAppBase<?, ?, ?>> {
     private static final String DEPLOY_START = "Trying to deploy external resources to %s...";
     private static final String DEPLOY_FINISH = "Successfully deployed the resources to %s";
+    private static final int DEFAULT_MAX_RETRY_TIMES = 3;
 
     final WebAppBase<?, ?, ?> target;
     final List<DeploymentResource> resources;
@@ -49,21 +53,16 @@ public class DeployExternalResourcesTask extends AzureTask<WebAppBase<?, ?, ?>>
         AzureMessager.getMessager().info(AzureString.format("Uploading resources to %s", target.name()));
         final PublishingProfile publishingProfile = target.getPublishingProfile();
         final String serverUrl = publishingProfile.getFtpUrl().split("/", 2)[0];
+        final Map<String, File> files = new LinkedHashMap<>();
+        for (final DeploymentResource resource : resources) {
+            final String targetPath = StringUtils.removeEnd(FilenameUtils.separatorsToUnix(resource.getAbsoluteTargetPath()), "/");
+            Utils.getArtifacts(resource).forEach(file -> files.put(targetPath + "/" + file.getName(), file));
+        }
         try {
-            final FTPClient ftpClient = FTPUtils.getFTPClient(serverUrl, publishingProfile.getFtpUsername(), publishingProfile.getFtpPassword());
-            for (final DeploymentResource externalResource : resources) {
-                uploadResource(externalResource, ftpClient);
-            }
-        } catch (IOException e) {
+            new FTPUploader().uploadFilesWithRetries(serverUrl, publishingProfile.getFtpUsername(), publishingProfile.getFtpPassword(),
+                files, DEFAULT_MAX_RETRY_TIMES);
+        } catch (AzureExecutionException e) {
             throw new AzureToolkitRuntimeException(e);
         }
     }
-
-    private static void uploadResource(DeploymentResource resource, FTPClient ftpClient) throws IOException {
-        final List<File> files = Utils.getArtifacts(resource);
-        final String target = resource.getAbsoluteTargetPath();
-        for (final File file : files) {
-            FTPUtils.uploadFile(ftpClient, file.getPath(), target);
-        }
-    }
 }